@@ -0,0 +1,12 @@
+package de.unistuttgart.iste.ese.api;
+
+/**
+ * Media types of the wire formats the API offers besides JSON.
+ */
+public final class ApiMediaTypes {
+    public static final String APPLICATION_CBOR_VALUE = "application/cbor";
+    public static final String APPLICATION_SMILE_VALUE = "application/x-jackson-smile";
+
+    private ApiMediaTypes() {
+    }
+}
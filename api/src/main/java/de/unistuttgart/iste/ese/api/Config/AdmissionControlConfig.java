@@ -0,0 +1,49 @@
+package de.unistuttgart.iste.ese.api.Config;
+
+import de.unistuttgart.iste.ese.api.Interceptors.AdmissionControlInterceptor;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.Nonnull;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Registers the {@link AdmissionControlInterceptor} for all API handlers.
+ */
+@Configuration
+@EnableConfigurationProperties(AdmissionControlProperties.class)
+@ConditionalOnProperty(prefix = "app.admission", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class AdmissionControlConfig implements WebMvcConfigurer {
+    private final AdmissionControlInterceptor admissionControlInterceptor;
+
+    public AdmissionControlConfig(AdmissionControlProperties properties, MeterRegistry meterRegistry) {
+        this.admissionControlInterceptor = new AdmissionControlInterceptor(properties, meterRegistry);
+    }
+
+    /**
+     * Exposes the interceptor, e.g. for inspection in tests.
+     *
+     * @return the admission control interceptor.
+     */
+    @Bean
+    public AdmissionControlInterceptor admissionControlInterceptor() {
+        return admissionControlInterceptor;
+    }
+
+    @Override
+    public void addInterceptors(@Nonnull InterceptorRegistry registry) {
+        registry.addInterceptor(admissionControlInterceptor).addPathPatterns("/api/**");
+    }
+
+    /**
+     * Periodically forgets idle clients, so that the per-client buckets do not grow without bound.
+     */
+    @Scheduled(fixedDelay = 60_000)
+    public void evictIdleClients() {
+        admissionControlInterceptor.evictIdleClients();
+    }
+}
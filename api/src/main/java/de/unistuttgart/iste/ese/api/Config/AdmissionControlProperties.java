@@ -0,0 +1,135 @@
+package de.unistuttgart.iste.ese.api.Config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Settings for rate limiting and bounded concurrency of the API.
+ */
+@ConfigurationProperties(prefix = "app.admission")
+public class AdmissionControlProperties {
+    private boolean enabled = true;
+    private Bucket perClient = new Bucket(100, 50);
+    private Bucket global = new Bucket(2000, 1000);
+    private int maxTrackedClients = 10_000;
+    // only trust a client-supplied ID behind a proxy that sets it, otherwise clients can pick their own bucket
+    private String clientHeader;
+    private Map<String, Concurrency> heavyEndpoints = new HashMap<>();
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public Bucket getPerClient() {
+        return perClient;
+    }
+
+    public void setPerClient(Bucket perClient) {
+        this.perClient = perClient;
+    }
+
+    public Bucket getGlobal() {
+        return global;
+    }
+
+    public void setGlobal(Bucket global) {
+        this.global = global;
+    }
+
+    public int getMaxTrackedClients() {
+        return maxTrackedClients;
+    }
+
+    public void setMaxTrackedClients(int maxTrackedClients) {
+        this.maxTrackedClients = maxTrackedClients;
+    }
+
+    public String getClientHeader() {
+        return clientHeader;
+    }
+
+    public void setClientHeader(String clientHeader) {
+        this.clientHeader = clientHeader;
+    }
+
+    public Map<String, Concurrency> getHeavyEndpoints() {
+        return heavyEndpoints;
+    }
+
+    public void setHeavyEndpoints(Map<String, Concurrency> heavyEndpoints) {
+        this.heavyEndpoints = heavyEndpoints;
+    }
+
+    /**
+     * A token bucket with a burst capacity and a sustained rate.
+     */
+    public static class Bucket {
+        private long capacity;
+        private double refillPerSecond;
+
+        public Bucket(long capacity, double refillPerSecond) {
+            this.capacity = capacity;
+            this.refillPerSecond = refillPerSecond;
+        }
+
+        public Bucket() {
+        }
+
+        public long getCapacity() {
+            return capacity;
+        }
+
+        public void setCapacity(long capacity) {
+            this.capacity = capacity;
+        }
+
+        public double getRefillPerSecond() {
+            return refillPerSecond;
+        }
+
+        public void setRefillPerSecond(double refillPerSecond) {
+            this.refillPerSecond = refillPerSecond;
+        }
+    }
+
+    /**
+     * The concurrency limit of a heavy endpoint. Requests beyond {@code maxConcurrent} wait in a queue of
+     * {@code maxQueued} for at most {@code queueTimeout}; requests that find the queue full are rejected at once.
+     */
+    public static class Concurrency {
+        private int maxConcurrent = 4;
+        private int maxQueued = 8;
+        private Duration queueTimeout = Duration.ofSeconds(2);
+
+        public int getMaxConcurrent() {
+            return maxConcurrent;
+        }
+
+        public void setMaxConcurrent(int maxConcurrent) {
+            this.maxConcurrent = maxConcurrent;
+        }
+
+        public int getMaxQueued() {
+            return maxQueued;
+        }
+
+        public void setMaxQueued(int maxQueued) {
+            this.maxQueued = maxQueued;
+        }
+
+        public Duration getQueueTimeout() {
+            return queueTimeout;
+        }
+
+        public void setQueueTimeout(Duration queueTimeout) {
+            this.queueTimeout = queueTimeout;
+        }
+    }
+}
@@ -0,0 +1,211 @@
+package de.unistuttgart.iste.ese.api.Config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.hibernate.boot.spi.SessionFactoryOptions;
+import org.hibernate.cache.cfg.spi.DomainDataRegionBuildingContext;
+import org.hibernate.cache.cfg.spi.DomainDataRegionConfig;
+import org.hibernate.cache.internal.CacheKeyImplementation;
+import org.hibernate.cache.spi.CacheKeysFactory;
+import org.hibernate.cache.spi.support.DomainDataStorageAccess;
+import org.hibernate.cache.spi.support.RegionFactoryTemplate;
+import org.hibernate.cache.spi.support.StorageAccess;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.metamodel.MappingMetamodel;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+
+/**
+ * Keeps the regions of the Hibernate second-level cache in local Caffeine caches, bounded by the
+ * {@link EntityCacheProperties} of each region. The hits, misses, puts and evictions of every region are published
+ * as the {@code cache.*} metrics with the region as the {@code cache} tag.
+ * <p>
+ * Hibernate itself keeps the entity and collection regions consistent with the writes of this instance and the query
+ * regions with the tables they read. Writes that bypass it, such as plain SQL or the writes of other instances,
+ * have to be evicted through {@link #evict} or {@link jakarta.persistence.Cache#evictAll}.
+ */
+public class CaffeineRegionFactory extends RegionFactoryTemplate {
+
+    private final EntityCacheProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, CaffeineStorageAccess> regions = new ConcurrentHashMap<>();
+
+    public CaffeineRegionFactory(EntityCacheProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Evicts the entries of the given entities from a region, in all tenants.
+     * The keys of entity regions carry the ID of the entity, those of collection regions the ID of the owner.
+     * The keys are built for every tenant the region has stored entries of, so the cost grows with the IDs and
+     * the tenants, not with the size of the region.
+     *
+     * @param region the name of the entity or collection region.
+     * @param ids the IDs of the entities or owners to evict.
+     */
+    public void evict(String region, Collection<?> ids) {
+        CaffeineStorageAccess storage = regions.get(region);
+        if (storage == null || storage.sessionFactory == null || ids.isEmpty()) {
+            return;
+        }
+        SessionFactoryImplementor sessionFactory = storage.sessionFactory;
+        MappingMetamodel metamodel = sessionFactory.getRuntimeMetamodels().getMappingMetamodel();
+        for (String tenant : storage.tenants) {
+            for (Object id : ids) {
+                for (String entityName : storage.entityNames) {
+                    storage.cache.invalidate(storage.keysFactory.createEntityKey(id,
+                        metamodel.getEntityDescriptor(entityName), sessionFactory, tenant));
+                }
+                for (String role : storage.collectionRoles) {
+                    storage.cache.invalidate(storage.keysFactory.createCollectionKey(id,
+                        metamodel.getCollectionDescriptor(role), sessionFactory, tenant));
+                }
+            }
+        }
+    }
+
+    /**
+     * Evicts all entries of a region.
+     *
+     * @param region the name of the region.
+     */
+    public void evictRegion(String region) {
+        CaffeineStorageAccess storage = regions.get(region);
+        if (storage != null) {
+            storage.evictData();
+        }
+    }
+
+    /**
+     * Returns the names of the regions Hibernate created.
+     *
+     * @return the region names.
+     */
+    public Set<String> getRegionNames() {
+        return Set.copyOf(regions.keySet());
+    }
+
+    @Override
+    protected void prepareForUse(SessionFactoryOptions settings, Map<String, Object> configValues) {
+    }
+
+    @Override
+    protected void releaseFromUse() {
+        regions.values().forEach(CaffeineStorageAccess::release);
+        regions.clear();
+    }
+
+    @Override
+    protected DomainDataStorageAccess createDomainDataStorageAccess(DomainDataRegionConfig regionConfig,
+                                                                    DomainDataRegionBuildingContext buildingContext) {
+        String name = regionConfig.getRegionName();
+        CacheKeysFactory keysFactory = buildingContext.getEnforcedCacheKeysFactory() != null
+            ? buildingContext.getEnforcedCacheKeysFactory()
+            : getImplicitCacheKeysFactory();
+        return regions.computeIfAbsent(name, region -> new CaffeineStorageAccess(bounded(region),
+            buildingContext.getSessionFactory(), keysFactory,
+            regionConfig.getEntityCaching().stream().map(config -> config.getNavigableRole().getFullPath()).toList(),
+            regionConfig.getCollectionCaching().stream().map(config -> config.getNavigableRole().getFullPath()).toList()));
+    }
+
+    @Override
+    protected StorageAccess createQueryResultsRegionStorageAccess(String regionName,
+                                                                  SessionFactoryImplementor sessionFactory) {
+        return regions.computeIfAbsent(regionName, region -> new CaffeineStorageAccess(bounded(region)));
+    }
+
+    @Override
+    protected StorageAccess createTimestampsRegionStorageAccess(String regionName,
+                                                                SessionFactoryImplementor sessionFactory) {
+        // one entry per table; evicting one would let cached query results outlive a write to their table
+        return regions.computeIfAbsent(regionName,
+            region -> new CaffeineStorageAccess(monitored(region, Caffeine.newBuilder())));
+    }
+
+    private Cache<Object, Object> bounded(String region) {
+        return monitored(region, Caffeine.newBuilder()
+            .maximumSize(properties.maxEntriesOf(region))
+            .expireAfterWrite(properties.expireAfterWriteOf(region)));
+    }
+
+    private Cache<Object, Object> monitored(String region, Caffeine<Object, Object> builder) {
+        return CaffeineCacheMetrics.monitor(meterRegistry, builder.recordStats().build(), region,
+            "cache.manager", "hibernate");
+    }
+
+    /**
+     * The storage of one region. Hibernate passes the session for transactional caches, a local cache ignores it.
+     */
+    private static class CaffeineStorageAccess implements DomainDataStorageAccess {
+        private final Cache<Object, Object> cache;
+        // only set for entity and collection regions, whose keys can be rebuilt from an ID
+        private final SessionFactoryImplementor sessionFactory;
+        private final CacheKeysFactory keysFactory;
+        private final List<String> entityNames;
+        private final List<String> collectionRoles;
+        // the tenants with entries in the region; a copy-on-write set, since a new tenant is rare and null is allowed
+        private final Set<String> tenants = new CopyOnWriteArraySet<>();
+
+        CaffeineStorageAccess(Cache<Object, Object> cache) {
+            this(cache, null, null, List.of(), List.of());
+        }
+
+        CaffeineStorageAccess(Cache<Object, Object> cache, SessionFactoryImplementor sessionFactory,
+                              CacheKeysFactory keysFactory, List<String> entityNames, List<String> collectionRoles) {
+            this.cache = cache;
+            this.sessionFactory = sessionFactory;
+            this.keysFactory = keysFactory;
+            this.entityNames = entityNames;
+            this.collectionRoles = collectionRoles;
+        }
+
+        @Override
+        public Object getFromCache(Object key, SharedSessionContractImplementor session) {
+            return cache.getIfPresent(key);
+        }
+
+        @Override
+        public void putIntoCache(Object key, Object value, SharedSessionContractImplementor session) {
+            if (value == null) {
+                cache.invalidate(key);
+            } else {
+                // keys without a tenant are rebuilt with null, which is what Hibernate passes for them
+                String tenant = key instanceof CacheKeyImplementation cacheKey ? cacheKey.getTenantId() : null;
+                if (!tenants.contains(tenant)) {
+                    tenants.add(tenant);
+                }
+                cache.put(key, value);
+            }
+        }
+
+        @Override
+        public boolean contains(Object key) {
+            return cache.asMap().containsKey(key);
+        }
+
+        @Override
+        public void evictData() {
+            cache.invalidateAll();
+        }
+
+        @Override
+        public void evictData(Object key) {
+            cache.invalidate(key);
+        }
+
+        @Override
+        public void release() {
+            cache.invalidateAll();
+            cache.cleanUp();
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package de.unistuttgart.iste.ese.api.Config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Enables the Hibernate second-level cache for the entities and collections annotated with
+ * {@link org.hibernate.annotations.Cache}, and the query cache for the queries marked as cacheable.
+ * Lookups of a todo by its ID are answered from memory after the first one; the entries are kept consistent
+ * by Hibernate on the writes of this instance and by the {@code InvalidationService} on those of other instances.
+ */
+@Configuration
+@EnableConfigurationProperties(EntityCacheProperties.class)
+@ConditionalOnProperty(prefix = "app.entity-cache", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class EntityCacheConfig {
+
+    /**
+     * Creates the regions of the cache, so that they can also be evicted and measured from outside of Hibernate.
+     *
+     * @param properties the limits of the regions.
+     * @param meterRegistry the registry of the region metrics.
+     * @return the region factory.
+     */
+    @Bean
+    public CaffeineRegionFactory caffeineRegionFactory(EntityCacheProperties properties, MeterRegistry meterRegistry) {
+        return new CaffeineRegionFactory(properties, meterRegistry);
+    }
+
+    /**
+     * Passes the region factory to Hibernate and enables the entity and query caches.
+     *
+     * @param regionFactory the region factory.
+     * @return the customizer of the Hibernate properties.
+     */
+    @Bean
+    public HibernatePropertiesCustomizer entityCacheCustomizer(CaffeineRegionFactory regionFactory) {
+        return properties -> {
+            properties.put(AvailableSettings.USE_SECOND_LEVEL_CACHE, true);
+            properties.put(AvailableSettings.USE_QUERY_CACHE, true);
+            properties.put(AvailableSettings.CACHE_REGION_FACTORY, regionFactory);
+        };
+    }
+}
@@ -0,0 +1,98 @@
+package de.unistuttgart.iste.ese.api.Config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Settings for the Hibernate second-level cache of todos and assignees.
+ * Every region is bounded by a number of entries and the time since an entry was written; a region without its own
+ * settings, or a setting a region leaves out, falls back to the defaults.
+ */
+@ConfigurationProperties(prefix = "app.entity-cache")
+public class EntityCacheProperties {
+    private boolean enabled = true;
+    private Region defaults = new Region(10_000L, Duration.ofMinutes(10));
+    private Map<String, Region> regions = new HashMap<>();
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public Region getDefaults() {
+        return defaults;
+    }
+
+    public void setDefaults(Region defaults) {
+        this.defaults = defaults;
+    }
+
+    public Map<String, Region> getRegions() {
+        return regions;
+    }
+
+    public void setRegions(Map<String, Region> regions) {
+        this.regions = regions;
+    }
+
+    /**
+     * Returns the maximum number of entries of a region.
+     *
+     * @param region the name of the region.
+     * @return the configured maximum, or the default.
+     */
+    public long maxEntriesOf(String region) {
+        Region settings = regions.get(region);
+        return settings != null && settings.getMaxEntries() != null ? settings.getMaxEntries() : defaults.getMaxEntries();
+    }
+
+    /**
+     * Returns how long the entries of a region are kept after they were written.
+     *
+     * @param region the name of the region.
+     * @return the configured time, or the default.
+     */
+    public Duration expireAfterWriteOf(String region) {
+        Region settings = regions.get(region);
+        return settings != null && settings.getExpireAfterWrite() != null
+            ? settings.getExpireAfterWrite() : defaults.getExpireAfterWrite();
+    }
+
+    /**
+     * Eviction limits of a single cache region.
+     */
+    public static class Region {
+        private Long maxEntries;
+        private Duration expireAfterWrite;
+
+        public Region() {
+        }
+
+        public Region(Long maxEntries, Duration expireAfterWrite) {
+            this.maxEntries = maxEntries;
+            this.expireAfterWrite = expireAfterWrite;
+        }
+
+        public Long getMaxEntries() {
+            return maxEntries;
+        }
+
+        public void setMaxEntries(Long maxEntries) {
+            this.maxEntries = maxEntries;
+        }
+
+        public Duration getExpireAfterWrite() {
+            return expireAfterWrite;
+        }
+
+        public void setExpireAfterWrite(Duration expireAfterWrite) {
+            this.expireAfterWrite = expireAfterWrite;
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package de.unistuttgart.iste.ese.api.Config;
+
+import io.micrometer.observation.ObservationRegistry;
+import io.micrometer.observation.aop.ObservedAspect;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Turns methods and classes annotated with {@link io.micrometer.observation.annotation.Observed} into observations,
+ * which the tracing bridge reports as spans and the meter registry as timers.
+ */
+@Configuration
+public class ObservationConfig {
+
+    /**
+     * Observes the invocations of annotated handlers.
+     *
+     * @param observationRegistry the registry to report the observations to.
+     * @return the aspect.
+     */
+    @Bean
+    public ObservedAspect observedAspect(ObservationRegistry observationRegistry) {
+        return new ObservedAspect(observationRegistry);
+    }
+}
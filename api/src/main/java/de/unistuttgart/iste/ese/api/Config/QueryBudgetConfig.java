@@ -0,0 +1,70 @@
+package de.unistuttgart.iste.ese.api.Config;
+
+import de.unistuttgart.iste.ese.api.Interceptors.QueryBudgetInterceptor;
+import de.unistuttgart.iste.ese.api.Interceptors.RequestQueryStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.Nonnull;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.InitializeCollectionEventListener;
+import org.hibernate.event.spi.PostLoadEventListener;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Connects Hibernate to the per-request statement accounting and registers the {@link QueryBudgetInterceptor}.
+ */
+@Configuration
+@EnableConfigurationProperties(QueryBudgetProperties.class)
+public class QueryBudgetConfig implements WebMvcConfigurer {
+    private final QueryBudgetInterceptor queryBudgetInterceptor;
+
+    public QueryBudgetConfig(QueryBudgetProperties properties, MeterRegistry meterRegistry) {
+        this.queryBudgetInterceptor = new QueryBudgetInterceptor(properties, meterRegistry);
+    }
+
+    /**
+     * Counts every statement Hibernate prepares, without changing it.
+     *
+     * @return the customizer that installs the statement inspector.
+     */
+    @Bean
+    public HibernatePropertiesCustomizer statementCountingCustomizer() {
+        StatementInspector inspector = sql -> {
+            RequestQueryStats.recordStatement(sql);
+            return sql;
+        };
+        return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, inspector);
+    }
+
+    /**
+     * Counts entity loads and collection fetches once the session factory exists.
+     *
+     * @param entityManagerFactory the Hibernate session factory.
+     * @return the initializer that registers the event listeners.
+     */
+    @Bean
+    public SmartInitializingSingleton loadCountingListeners(EntityManagerFactory entityManagerFactory) {
+        return () -> {
+            EventListenerRegistry registry = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry().getService(EventListenerRegistry.class);
+            registry.appendListeners(EventType.POST_LOAD, (PostLoadEventListener) event -> RequestQueryStats.recordEntityLoad());
+            registry.appendListeners(EventType.INIT_COLLECTION,
+                (InitializeCollectionEventListener) event -> RequestQueryStats.recordCollectionFetch());
+        };
+    }
+
+    @Override
+    public void addInterceptors(@Nonnull InterceptorRegistry registry) {
+        registry.addInterceptor(queryBudgetInterceptor).addPathPatterns("/api/**");
+    }
+}
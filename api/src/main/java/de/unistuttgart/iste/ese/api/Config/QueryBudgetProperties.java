@@ -0,0 +1,38 @@
+package de.unistuttgart.iste.ese.api.Config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings for the per-request accounting of SQL statements.
+ */
+@ConfigurationProperties(prefix = "app.query-budget")
+public class QueryBudgetProperties {
+
+    public enum Mode {
+        // only record the metrics
+        OFF,
+        // log the statements of a request that exceeds its budget
+        WARN,
+        // fail the statement that exceeds the budget, so that tests catch query count regressions
+        FAIL
+    }
+
+    private Mode mode = Mode.WARN;
+    private int maxStatements = 20;
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    public void setMode(Mode mode) {
+        this.mode = mode;
+    }
+
+    public int getMaxStatements() {
+        return maxStatements;
+    }
+
+    public void setMaxStatements(int maxStatements) {
+        this.maxStatements = maxStatements;
+    }
+}
@@ -0,0 +1,136 @@
+package de.unistuttgart.iste.ese.api.Config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Wires the {@link ReplicaRoutingDataSource} in front of the primary database when
+ * {@code app.datasource.routing.enabled} is set.
+ */
+@Configuration
+@EnableConfigurationProperties(ReplicaRoutingProperties.class)
+@ConditionalOnProperty(prefix = "app.datasource.routing", name = "enabled", havingValue = "true")
+public class ReplicaRoutingConfig {
+    private static final Set<String> WRITE_METHODS = Set.of("POST", "PUT", "PATCH", "DELETE");
+
+    /**
+     * Creates the routing data source. Connections are fetched lazily so that the read-only flag of the
+     * surrounding transaction is known when the target database is chosen.
+     *
+     * @param dataSourceProperties the settings of the primary database.
+     * @param properties the replica settings.
+     * @return the routing data source.
+     */
+    @Bean
+    public ReplicaRoutingDataSource replicaRoutingDataSource(DataSourceProperties dataSourceProperties,
+                                                             ReplicaRoutingProperties properties) {
+        HikariDataSource primary = dataSourceProperties.initializeDataSourceBuilder()
+            .type(HikariDataSource.class)
+            .build();
+        primary.setPoolName("primary");
+
+        List<DataSource> replicas = new ArrayList<>();
+        for (int i = 0; i < properties.getReplicas().size(); i++) {
+            ReplicaRoutingProperties.Replica replica = properties.getReplicas().get(i);
+            HikariDataSource replicaDataSource = new HikariDataSource();
+            replicaDataSource.setPoolName("replica-" + i);
+            replicaDataSource.setDriverClassName(dataSourceProperties.determineDriverClassName());
+            replicaDataSource.setJdbcUrl(replica.getUrl());
+            replicaDataSource.setUsername(replica.getUsername() != null ? replica.getUsername() : dataSourceProperties.determineUsername());
+            replicaDataSource.setPassword(replica.getPassword() != null ? replica.getPassword() : dataSourceProperties.determinePassword());
+            replicaDataSource.setReadOnly(true);
+            replicas.add(replicaDataSource);
+        }
+
+        return new ReplicaRoutingDataSource(primary, replicas,
+            properties.getReadYourWritesWindow(), properties.getMaxReplicationLag());
+    }
+
+    /**
+     * Exposes the routing data source to JPA.
+     *
+     * @param replicaRoutingDataSource the routing data source.
+     * @return a proxy that resolves the target database on the first statement of a transaction.
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(ReplicaRoutingDataSource replicaRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(replicaRoutingDataSource);
+    }
+
+    /**
+     * Binds each request to its client, and remembers clients whose requests changed data.
+     *
+     * @param routingDataSource the routing data source.
+     * @param properties the replica settings.
+     * @return the filter.
+     */
+    @Bean
+    public OncePerRequestFilter replicaRoutingFilter(ReplicaRoutingDataSource routingDataSource,
+                                                     ReplicaRoutingProperties properties) {
+        return new OncePerRequestFilter() {
+            @Override
+            protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                            FilterChain filterChain) throws ServletException, IOException {
+                String client = request.getHeader(properties.getClientHeader());
+                if (client == null || client.isEmpty()) {
+                    client = request.getRemoteAddr();
+                }
+                ReplicaRoutingDataSource.setCurrentClient(client);
+                try {
+                    filterChain.doFilter(request, response);
+                } finally {
+                    ReplicaRoutingDataSource.setCurrentClient(null);
+                    if (WRITE_METHODS.contains(request.getMethod()) && response.getStatus() < 400) {
+                        routingDataSource.recordWrite(client);
+                    }
+                }
+            }
+        };
+    }
+
+    /**
+     * Registers the periodic replica health check.
+     *
+     * @param routingDataSource the routing data source.
+     * @return the health check.
+     */
+    @Bean
+    public ReplicaHealthCheck replicaHealthCheck(ReplicaRoutingDataSource routingDataSource) {
+        return new ReplicaHealthCheck(routingDataSource);
+    }
+
+    /**
+     * Periodically re-checks which replicas may serve reads.
+     */
+    static class ReplicaHealthCheck {
+        private final ReplicaRoutingDataSource routingDataSource;
+
+        ReplicaHealthCheck(ReplicaRoutingDataSource routingDataSource) {
+            this.routingDataSource = routingDataSource;
+        }
+
+        @Scheduled(fixedDelayString = "${app.datasource.routing.health-check-interval:PT5S}")
+        public void checkReplicas() {
+            routingDataSource.checkReplicaHealth();
+        }
+    }
+}
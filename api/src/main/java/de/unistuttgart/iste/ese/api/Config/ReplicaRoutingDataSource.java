@@ -0,0 +1,166 @@
+package de.unistuttgart.iste.ese.api.Config;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A data source that sends read-only transactions to a healthy replica and everything else to the primary.
+ * Read-only transactions of a client that wrote within the read-your-writes window stay on the primary,
+ * so that the client sees its own changes even if the replicas lag behind.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+    private static final Log LOG = LogFactory.getLog(ReplicaRoutingDataSource.class);
+    private static final String PRIMARY = "primary";
+    private static final int MAX_TRACKED_CLIENTS = 10_000;
+    private static final ThreadLocal<String> CURRENT_CLIENT = new ThreadLocal<>();
+
+    private final Map<String, DataSource> replicas;
+    private final List<String> healthyReplicas = new ArrayList<>();
+    private final Map<String, Long> lastWriteByClient = new ConcurrentHashMap<>();
+    private final AtomicInteger nextReplica = new AtomicInteger();
+    private final long readYourWritesWindowMillis;
+    private final long maxReplicationLagSeconds;
+
+    /**
+     * Constructs a routing data source.
+     *
+     * @param primary the data source of the primary database.
+     * @param replicas the data sources of the replicas, in configuration order.
+     * @param readYourWritesWindow how long a client's reads stay on the primary after a write.
+     * @param maxReplicationLag the replication lag above which a replica is taken out of rotation.
+     */
+    public ReplicaRoutingDataSource(DataSource primary, List<DataSource> replicas,
+                                    Duration readYourWritesWindow, Duration maxReplicationLag) {
+        this.replicas = new LinkedHashMap<>();
+        for (int i = 0; i < replicas.size(); i++) {
+            this.replicas.put("replica-" + i, replicas.get(i));
+        }
+        this.readYourWritesWindowMillis = readYourWritesWindow.toMillis();
+        this.maxReplicationLagSeconds = maxReplicationLag.toSeconds();
+        this.healthyReplicas.addAll(this.replicas.keySet());
+
+        Map<Object, Object> targets = new HashMap<>(this.replicas);
+        targets.put(PRIMARY, primary);
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+    }
+
+    /**
+     * Binds the client of the current request to this thread.
+     *
+     * @param client an identifier of the client, or null if unknown.
+     */
+    public static void setCurrentClient(String client) {
+        if (client == null) {
+            CURRENT_CLIENT.remove();
+        } else {
+            CURRENT_CLIENT.set(client);
+        }
+    }
+
+    /**
+     * Records that the given client just wrote to the primary.
+     *
+     * @param client the identifier of the client.
+     */
+    public void recordWrite(String client) {
+        if (client == null) return;
+        if (lastWriteByClient.size() >= MAX_TRACKED_CLIENTS) {
+            evictExpiredWrites();
+        }
+        lastWriteByClient.put(client, System.currentTimeMillis());
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly() || recentlyWrote(CURRENT_CLIENT.get())) {
+            return PRIMARY;
+        }
+        synchronized (healthyReplicas) {
+            if (healthyReplicas.isEmpty()) {
+                return PRIMARY;
+            }
+            int index = Math.floorMod(nextReplica.getAndIncrement(), healthyReplicas.size());
+            return healthyReplicas.get(index);
+        }
+    }
+
+    /**
+     * Probes every replica and takes unreachable or lagging ones out of rotation.
+     */
+    public void checkReplicaHealth() {
+        List<String> healthy = new ArrayList<>();
+        for (Map.Entry<String, DataSource> replica : replicas.entrySet()) {
+            if (isHealthy(replica.getValue())) {
+                healthy.add(replica.getKey());
+            } else {
+                LOG.warn(String.format("Replica %s is unhealthy and taken out of rotation", replica.getKey()));
+            }
+        }
+        synchronized (healthyReplicas) {
+            healthyReplicas.clear();
+            healthyReplicas.addAll(healthy);
+        }
+        evictExpiredWrites();
+    }
+
+    /**
+     * Returns the number of replicas that currently receive read-only transactions.
+     *
+     * @return the number of healthy replicas.
+     */
+    public int getHealthyReplicaCount() {
+        synchronized (healthyReplicas) {
+            return healthyReplicas.size();
+        }
+    }
+
+    private boolean recentlyWrote(String client) {
+        if (client == null) return false;
+        Long lastWrite = lastWriteByClient.get(client);
+        return lastWrite != null && System.currentTimeMillis() - lastWrite < readYourWritesWindowMillis;
+    }
+
+    private void evictExpiredWrites() {
+        long now = System.currentTimeMillis();
+        lastWriteByClient.values().removeIf(lastWrite -> now - lastWrite >= readYourWritesWindowMillis);
+    }
+
+    private boolean isHealthy(DataSource replica) {
+        try (Connection connection = replica.getConnection()) {
+            if (!connection.isValid(2)) {
+                return false;
+            }
+            try (Statement statement = connection.createStatement();
+                 ResultSet status = statement.executeQuery("SHOW REPLICA STATUS")) {
+                if (!status.next()) {
+                    return true;
+                }
+                long lag = status.getLong("Seconds_Behind_Master");
+                return !status.wasNull() && lag <= maxReplicationLagSeconds;
+            } catch (SQLException e) {
+                // the replica does not report its replication state, so reachability has to do
+                return true;
+            }
+        } catch (SQLException e) {
+            LOG.debug("Replica health check failed", e);
+            return false;
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package de.unistuttgart.iste.ese.api.Config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Settings for routing read-only transactions to MariaDB replicas.
+ * The primary database is still configured through the regular {@code spring.datasource.*} properties.
+ */
+@ConfigurationProperties(prefix = "app.datasource.routing")
+public class ReplicaRoutingProperties {
+    private boolean enabled = false;
+    private List<Replica> replicas = new ArrayList<>();
+    private Duration readYourWritesWindow = Duration.ofSeconds(5);
+    private Duration healthCheckInterval = Duration.ofSeconds(5);
+    private Duration maxReplicationLag = Duration.ofSeconds(10);
+    private String clientHeader = "X-Client-Id";
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public List<Replica> getReplicas() {
+        return replicas;
+    }
+
+    public void setReplicas(List<Replica> replicas) {
+        this.replicas = replicas;
+    }
+
+    public Duration getReadYourWritesWindow() {
+        return readYourWritesWindow;
+    }
+
+    public void setReadYourWritesWindow(Duration readYourWritesWindow) {
+        this.readYourWritesWindow = readYourWritesWindow;
+    }
+
+    public Duration getHealthCheckInterval() {
+        return healthCheckInterval;
+    }
+
+    public void setHealthCheckInterval(Duration healthCheckInterval) {
+        this.healthCheckInterval = healthCheckInterval;
+    }
+
+    public Duration getMaxReplicationLag() {
+        return maxReplicationLag;
+    }
+
+    public void setMaxReplicationLag(Duration maxReplicationLag) {
+        this.maxReplicationLag = maxReplicationLag;
+    }
+
+    public String getClientHeader() {
+        return clientHeader;
+    }
+
+    public void setClientHeader(String clientHeader) {
+        this.clientHeader = clientHeader;
+    }
+
+    /**
+     * Connection settings of a single read replica.
+     */
+    public static class Replica {
+        private String url;
+        private String username;
+        private String password;
+
+        public String getUrl() {
+            return url;
+        }
+
+        public void setUrl(String url) {
+            this.url = url;
+        }
+
+        public String getUsername() {
+            return username;
+        }
+
+        public void setUsername(String username) {
+            this.username = username;
+        }
+
+        public String getPassword() {
+            return password;
+        }
+
+        public void setPassword(String password) {
+            this.password = password;
+        }
+    }
+}
@@ -0,0 +1,319 @@
+package de.unistuttgart.iste.ese.api.Config;
+
+import de.unistuttgart.iste.ese.api.Utils.ConsistentHashRing;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
+
+/**
+ * A data source that sends every transaction to the shard of the tenant in the {@link TenantContext}.
+ * Tenants are spread over the shards by a {@link ConsistentHashRing}, so adding a shard only moves about
+ * 1/N of the tenants. A tenant can be pinned to another shard, e.g. to move a large tenant off a busy shard;
+ * the pins are kept in the {@code tenant_placement} table of the first shard.
+ * <p>
+ * While a tenant is moved, its writes are rejected and the move waits for the writes in flight on every instance,
+ * so the copy on the new shard is complete when the tenant is pinned to it. Every change of the directory increments
+ * its version; each instance periodically reads the directory, blocks the tenants that are being moved, and records
+ * in {@code shard_instances} the version it has applied once its writes of those tenants are done. A move waits
+ * until all instances with a recent heartbeat have applied its version. An instance that could not read the
+ * directory for half of the instance timeout rejects all writes, since moves no longer wait for it.
+ */
+public class ShardRoutingDataSource extends AbstractRoutingDataSource {
+    private static final Log LOG = LogFactory.getLog(ShardRoutingDataSource.class);
+
+    private final Map<String, DataSource> shards;
+    private final ConsistentHashRing<String> ring;
+    private final JdbcTemplate directory;
+    private final TransactionTemplate directoryTransaction;
+    private final Duration instanceTimeout;
+    private final String instanceId = UUID.randomUUID().toString();
+    // the tenants pinned to a shard other than their hashed one, as of the last refresh
+    private volatile Map<String, String> placements = Map.of();
+    private volatile long lastRefresh = System.currentTimeMillis();
+
+    private final Object writeLock = new Object();
+    // guarded by writeLock
+    private final Map<String, Integer> writesInFlight = new HashMap<>();
+    private final Set<String> blockedTenants = new HashSet<>();
+
+    /**
+     * Constructs a routing data source.
+     *
+     * @param shards the data sources of the shards by name, in configuration order; the first holds the directory.
+     * @param virtualNodes the number of points of every shard on the hash ring.
+     * @param instanceTimeout how long an instance without a heartbeat is still waited for by moves.
+     */
+    public ShardRoutingDataSource(Map<String, DataSource> shards, int virtualNodes, Duration instanceTimeout) {
+        this.shards = new LinkedHashMap<>(shards);
+        this.ring = new ConsistentHashRing<>(this.shards.keySet(), virtualNodes);
+        DataSource first = this.shards.values().iterator().next();
+        this.directory = new JdbcTemplate(first);
+        this.directoryTransaction = new TransactionTemplate(new DataSourceTransactionManager(first));
+        this.instanceTimeout = instanceTimeout;
+        setTargetDataSources(new HashMap<>(this.shards));
+        setDefaultTargetDataSource(this.shards.values().iterator().next());
+    }
+
+    /**
+     * Creates the directory tables if needed, registers this instance and reads the pinned tenants.
+     */
+    public void loadPlacements() {
+        directory.execute("create table if not exists tenant_placement "
+            + "(tenant varchar(64) not null primary key, shard varchar(64) not null)");
+        // the target shard while the tenant is moved
+        directory.execute("alter table tenant_placement add column if not exists moving_to varchar(64)");
+        directory.execute("create table if not exists tenant_placement_version "
+            + "(id int not null primary key, version bigint not null)");
+        directory.execute("create table if not exists shard_instances "
+            + "(instance_id varchar(64) not null primary key, heartbeat bigint not null, applied_version bigint not null)");
+        if (directory.queryForObject("select count(*) from tenant_placement_version", Integer.class) == 0) {
+            try {
+                directory.update("insert into tenant_placement_version (id, version) values (0, 0)");
+            } catch (DuplicateKeyException e) {
+                // inserted by another instance starting at the same time
+            }
+        }
+        refreshPlacements();
+        LOG.info(String.format("Routing tenants to %d shards, %d tenants pinned", shards.size(), placements.size()));
+    }
+
+    /**
+     * Reads the directory, blocks the writes of the tenants that are being moved and records the applied version
+     * with the heartbeat of this instance. The version is only recorded once the writes in flight of the blocked
+     * tenants are done; until then the previous version is recorded again.
+     */
+    public synchronized void refreshPlacements() {
+        // the version is read first, so the placements read afterwards are at least as new as it
+        long version = directoryVersion();
+        Map<String, String> pinned = new HashMap<>();
+        Set<String> moving = new HashSet<>();
+        directory.query("select tenant, shard, moving_to from tenant_placement", row -> {
+            String tenant = row.getString("tenant");
+            if (!row.getString("shard").equals(ring.nodeFor(tenant))) {
+                pinned.put(tenant, row.getString("shard"));
+            }
+            if (row.getString("moving_to") != null) {
+                moving.add(tenant);
+            }
+        });
+        placements = Map.copyOf(pinned);
+        boolean drained;
+        synchronized (writeLock) {
+            blockedTenants.clear();
+            blockedTenants.addAll(moving);
+            drained = moving.stream().noneMatch(writesInFlight::containsKey);
+        }
+        long now = System.currentTimeMillis();
+        int updated = drained
+            ? directory.update("update shard_instances set heartbeat = ?, applied_version = ? where instance_id = ?",
+                now, version, instanceId)
+            : directory.update("update shard_instances set heartbeat = ? where instance_id = ?", now, instanceId);
+        if (updated == 0) {
+            directory.update("insert into shard_instances (instance_id, heartbeat, applied_version) values (?, ?, ?)",
+                instanceId, now, drained ? version : 0);
+        }
+        lastRefresh = now;
+    }
+
+    /**
+     * Removes this instance from the directory, so that moves no longer wait for it.
+     */
+    public void deregister() {
+        directory.update("delete from shard_instances where instance_id = ?", instanceId);
+    }
+
+    /**
+     * Returns the shard that holds the data of a tenant.
+     *
+     * @param tenant the tenant.
+     * @return the name of the shard.
+     */
+    public String shardOf(String tenant) {
+        String pinned = placements.get(tenant);
+        return pinned != null ? pinned : ring.nodeFor(tenant);
+    }
+
+    /**
+     * Returns the data source of a shard, bypassing the routing.
+     *
+     * @param name the name of the shard.
+     * @return the data source.
+     * @throws IllegalArgumentException if there is no shard with that name.
+     */
+    public DataSource getShard(String name) {
+        DataSource shard = shards.get(name);
+        if (shard == null) {
+            throw new IllegalArgumentException("Unbekannter Shard " + name);
+        }
+        return shard;
+    }
+
+    /**
+     * Returns the names of the shards.
+     *
+     * @return the shard names in configuration order.
+     */
+    public Set<String> getShardNames() {
+        return shards.keySet();
+    }
+
+    /**
+     * Returns the tenants that are pinned to a shard other than their hashed one.
+     *
+     * @return the shard by tenant.
+     */
+    public Map<String, String> getPlacements() {
+        return placements;
+    }
+
+    /**
+     * Marks a tenant as being moved, so that all instances reject its writes after their next refresh.
+     *
+     * @param tenant the tenant.
+     * @param targetShard the name of the shard it is moved to.
+     * @return the name of the shard that holds the tenant's data.
+     * @throws IllegalStateException if the tenant is already on the shard or being moved.
+     */
+    public String beginMove(String tenant, String targetShard) {
+        return directoryTransaction.execute(status -> {
+            // serializes all changes of the directory
+            long version = incrementVersion();
+            List<Map<String, Object>> rows = directory.queryForList(
+                "select shard, moving_to from tenant_placement where tenant = ?", tenant);
+            if (!rows.isEmpty() && rows.get(0).get("moving_to") != null) {
+                throw new IllegalStateException("Mandant " + tenant + " wird bereits verschoben");
+            }
+            String sourceShard = rows.isEmpty() ? ring.nodeFor(tenant) : (String) rows.get(0).get("shard");
+            if (sourceShard.equals(targetShard)) {
+                throw new IllegalStateException("Mandant " + tenant + " liegt bereits auf " + targetShard);
+            }
+            if (rows.isEmpty()) {
+                directory.update("insert into tenant_placement (tenant, shard, moving_to) values (?, ?, ?)",
+                    tenant, sourceShard, targetShard);
+            } else {
+                directory.update("update tenant_placement set moving_to = ? where tenant = ?", targetShard, tenant);
+            }
+            LOG.debug(String.format("Moving tenant %s from %s to %s with directory version %d", tenant, sourceShard,
+                targetShard, version));
+            return sourceShard;
+        });
+    }
+
+    /**
+     * Ends the move of a tenant and pins it to a shard, or unpins it if the shard is its hashed shard.
+     * Its writes are accepted again on every instance after its next refresh.
+     *
+     * @param tenant the tenant.
+     * @param shard the name of the shard that holds the tenant's data from now on.
+     */
+    public void endMove(String tenant, String shard) {
+        directoryTransaction.executeWithoutResult(status -> {
+            incrementVersion();
+            if (shard.equals(ring.nodeFor(tenant))) {
+                directory.update("delete from tenant_placement where tenant = ?", tenant);
+            } else {
+                directory.update("update tenant_placement set shard = ?, moving_to = null where tenant = ?", shard, tenant);
+            }
+        });
+        refreshPlacements();
+    }
+
+    /**
+     * Waits until every instance with a recent heartbeat, including this one, has applied the current version of
+     * the directory, i.e. routes by its placements and has no writes in flight of the tenants being moved.
+     *
+     * @param timeout how long to wait.
+     * @throws IllegalStateException if an instance did not apply the version in time.
+     * @throws InterruptedException if the thread is interrupted while waiting.
+     */
+    public void awaitApplied(Duration timeout) throws InterruptedException {
+        long version = directoryVersion();
+        long deadline = System.nanoTime() + timeout.toNanos();
+        while (true) {
+            refreshPlacements();
+            List<String> behind = directory.queryForList(
+                "select instance_id from shard_instances where heartbeat > ? and applied_version < ?", String.class,
+                System.currentTimeMillis() - instanceTimeout.toMillis(), version);
+            if (behind.isEmpty()) {
+                return;
+            }
+            if (System.nanoTime() - deadline >= 0) {
+                throw new IllegalStateException("Die Instanzen " + behind + " haben ihre Schreibzugriffe nicht rechtzeitig beendet");
+            }
+            Thread.sleep(100);
+        }
+    }
+
+    /**
+     * Finds the tenants that have assignees or todos on any shard.
+     *
+     * @return the tenants, sorted.
+     */
+    public Set<String> listTenants() {
+        Set<String> tenants = new TreeSet<>();
+        for (DataSource shard : shards.values()) {
+            JdbcTemplate jdbc = new JdbcTemplate(shard);
+            tenants.addAll(jdbc.queryForList("select distinct tenant from assignees", String.class));
+            tenants.addAll(jdbc.queryForList("select distinct tenant from todo", String.class));
+        }
+        return tenants;
+    }
+
+    /**
+     * Registers a write of a tenant, unless the tenant is being moved.
+     *
+     * @param tenant the tenant.
+     * @return false if the write must be rejected; otherwise {@link #exitWrite} must be called when it is done.
+     */
+    public boolean enterWrite(String tenant) {
+        synchronized (writeLock) {
+            // without a recent refresh, a move may already have started without waiting for this instance
+            if (blockedTenants.contains(tenant)
+                || System.currentTimeMillis() - lastRefresh > instanceTimeout.toMillis() / 2) {
+                return false;
+            }
+            writesInFlight.merge(tenant, 1, Integer::sum);
+            return true;
+        }
+    }
+
+    /**
+     * Ends a write registered with {@link #enterWrite}.
+     *
+     * @param tenant the tenant.
+     */
+    public void exitWrite(String tenant) {
+        synchronized (writeLock) {
+            writesInFlight.computeIfPresent(tenant, (key, count) -> count == 1 ? null : count - 1);
+        }
+    }
+
+    private long directoryVersion() {
+        return directory.queryForObject("select version from tenant_placement_version where id = 0", Long.class);
+    }
+
+    private long incrementVersion() {
+        directory.update("update tenant_placement_version set version = version + 1 where id = 0");
+        return directoryVersion();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return shardOf(TenantContext.get());
+    }
+}
@@ -0,0 +1,248 @@
+package de.unistuttgart.iste.ese.api.Config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.metamodel.EntityType;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.hibernate.boot.Metadata;
+import org.hibernate.boot.MetadataSources;
+import org.hibernate.boot.model.naming.CamelCaseToUnderscoresNamingStrategy;
+import org.hibernate.boot.registry.StandardServiceRegistry;
+import org.hibernate.boot.registry.StandardServiceRegistryBuilder;
+import org.hibernate.cfg.AvailableSettings;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.orm.jpa.hibernate.SpringImplicitNamingStrategy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.dao.DataAccessException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Wires the {@link ShardRoutingDataSource} in place of the single database when {@code app.sharding.enabled} is set.
+ * The tenant of a request is taken from the tenant header; requests without it belong to the default tenant.
+ */
+@Configuration
+@EnableConfigurationProperties(ShardingProperties.class)
+@ConditionalOnProperty(prefix = "app.sharding", name = "enabled", havingValue = "true")
+public class ShardingConfig {
+    private static final Set<String> WRITE_METHODS = Set.of("POST", "PUT", "PATCH", "DELETE");
+    private static final Set<String> SCHEMA_GENERATING_DDL_AUTO = Set.of("create", "create-drop", "update");
+
+    /**
+     * Refuses to start with features that keep the data of all tenants of a single database in memory.
+     *
+     * @param environment the application properties.
+     * @throws IllegalStateException if such a feature is enabled.
+     */
+    public ShardingConfig(Environment environment) {
+        List<String> unsupported = new ArrayList<>();
+        if (environment.getProperty("app.projection.enabled", Boolean.class, false)) {
+            unsupported.add("app.projection.enabled");
+        }
+        if (environment.getProperty("app.assignee-index.enabled", Boolean.class, false)) {
+            unsupported.add("app.assignee-index.enabled");
+        }
+        if (environment.getProperty("app.due-dates.enabled", Boolean.class, true)) {
+            unsupported.add("app.due-dates.enabled");
+        }
+        if (!environment.getProperty("app.invalidation.transport", "none").equals("none")) {
+            unsupported.add("app.invalidation.transport");
+        }
+        if (!unsupported.isEmpty()) {
+            throw new IllegalStateException("Sharding does not support the in-memory read models of " + unsupported
+                + ", which only see the default tenant; disable them");
+        }
+    }
+
+    /**
+     * Creates the routing data source with one connection pool per shard.
+     *
+     * @param dataSourceProperties the driver and default credentials.
+     * @param properties the shard settings.
+     * @return the routing data source.
+     * @throws IllegalStateException if no shards are configured or a name is missing or used twice.
+     */
+    @Bean(destroyMethod = "deregister")
+    public ShardRoutingDataSource shardRoutingDataSource(DataSourceProperties dataSourceProperties,
+                                                         ShardingProperties properties) {
+        Map<String, DataSource> shards = new LinkedHashMap<>();
+        for (ShardingProperties.Shard shard : properties.getShards()) {
+            if (shard.getName() == null || shards.containsKey(shard.getName())) {
+                throw new IllegalStateException("Every shard needs a unique name, got " + shard.getName());
+            }
+            HikariDataSource shardDataSource = new HikariDataSource();
+            shardDataSource.setPoolName(shard.getName());
+            shardDataSource.setDriverClassName(dataSourceProperties.determineDriverClassName());
+            shardDataSource.setJdbcUrl(shard.getUrl());
+            shardDataSource.setUsername(shard.getUsername() != null ? shard.getUsername() : dataSourceProperties.determineUsername());
+            shardDataSource.setPassword(shard.getPassword() != null ? shard.getPassword() : dataSourceProperties.determinePassword());
+            shards.put(shard.getName(), shardDataSource);
+        }
+        if (shards.isEmpty()) {
+            throw new IllegalStateException("Sharding is enabled, but no shards are configured");
+        }
+        return new ShardRoutingDataSource(shards, properties.getVirtualNodes(), properties.getInstanceTimeout());
+    }
+
+    /**
+     * Exposes the routing data source to JPA.
+     *
+     * @param shardRoutingDataSource the routing data source.
+     * @return a proxy that resolves the shard on the first statement of a transaction.
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(ShardRoutingDataSource shardRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(shardRoutingDataSource);
+    }
+
+    /**
+     * Binds each request to its tenant, and rejects writes of tenants that are being moved.
+     *
+     * @param routingDataSource the routing data source.
+     * @param properties the shard settings.
+     * @return the filter.
+     */
+    @Bean
+    public OncePerRequestFilter tenantFilter(ShardRoutingDataSource routingDataSource, ShardingProperties properties) {
+        return new OncePerRequestFilter() {
+            // a tenant move is itself a write request, which must not wait for itself
+            @Override
+            protected boolean shouldNotFilter(HttpServletRequest request) {
+                return request.getRequestURI().substring(request.getContextPath().length()).startsWith("/actuator");
+            }
+
+            @Override
+            protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                            FilterChain filterChain) throws ServletException, IOException {
+                String tenant = request.getHeader(properties.getTenantHeader());
+                if (tenant == null || tenant.isEmpty()) {
+                    tenant = TenantContext.DEFAULT_TENANT;
+                } else if (!TenantContext.isValid(tenant)) {
+                    response.sendError(HttpStatus.BAD_REQUEST.value(), "Ungültiger Mandant");
+                    return;
+                }
+                boolean write = WRITE_METHODS.contains(request.getMethod());
+                if (write && !routingDataSource.enterWrite(tenant)) {
+                    response.setHeader(HttpHeaders.RETRY_AFTER, "5");
+                    response.sendError(HttpStatus.SERVICE_UNAVAILABLE.value(), "Mandant wird gerade verschoben");
+                    return;
+                }
+                TenantContext.set(tenant);
+                try {
+                    filterChain.doFilter(request, response);
+                } finally {
+                    TenantContext.set(null);
+                    if (write) {
+                        routingDataSource.exitWrite(tenant);
+                    }
+                }
+            }
+        };
+    }
+
+    /**
+     * Reads the pinned tenants and, if Hibernate manages the schema, creates it on the shards other than the first,
+     * which Hibernate already set up through the routing data source.
+     *
+     * @param routingDataSource the routing data source.
+     * @param entityManagerFactory the factory whose entities make up the schema.
+     * @param environment the application properties.
+     * @return the initializer.
+     */
+    @Bean
+    public SmartInitializingSingleton shardInitializer(ShardRoutingDataSource routingDataSource,
+                                                       EntityManagerFactory entityManagerFactory,
+                                                       Environment environment) {
+        return () -> {
+            String ddlAuto = environment.getProperty("spring.jpa.hibernate.ddl-auto", "none");
+            if (SCHEMA_GENERATING_DDL_AUTO.contains(ddlAuto)) {
+                List<String> others = new ArrayList<>(routingDataSource.getShardNames());
+                others.remove(0);
+                for (String shard : others) {
+                    generateSchema(routingDataSource.getShard(shard), entityManagerFactory, ddlAuto);
+                }
+            }
+            routingDataSource.loadPlacements();
+        };
+    }
+
+    /**
+     * Registers the periodic refresh of the tenant directory.
+     *
+     * @param routingDataSource the routing data source.
+     * @return the refresh.
+     */
+    @Bean
+    public PlacementRefresh placementRefresh(ShardRoutingDataSource routingDataSource) {
+        return new PlacementRefresh(routingDataSource);
+    }
+
+    /**
+     * Periodically reads the pins and moves of the tenants and renews the heartbeat of this instance.
+     */
+    static class PlacementRefresh {
+        private static final Logger log = LoggerFactory.getLogger(PlacementRefresh.class);
+
+        private final ShardRoutingDataSource routingDataSource;
+
+        PlacementRefresh(ShardRoutingDataSource routingDataSource) {
+            this.routingDataSource = routingDataSource;
+        }
+
+        @Scheduled(fixedDelayString = "${app.sharding.placement-refresh-interval:PT1S}")
+        public void refreshPlacements() {
+            try {
+                routingDataSource.refreshPlacements();
+            } catch (DataAccessException e) {
+                // the writes are rejected once the last refresh is too old
+                log.warn("Could not read the tenant directory", e);
+            }
+        }
+    }
+
+    // a short-lived session factory on the shard runs the same schema tooling as the one of the first shard
+    private static void generateSchema(DataSource shard, EntityManagerFactory entityManagerFactory, String ddlAuto) {
+        StandardServiceRegistry registry = new StandardServiceRegistryBuilder()
+            .applySetting(AvailableSettings.DATASOURCE, shard)
+            // create-drop would drop the schema again when the factory is closed right away
+            .applySetting(AvailableSettings.HBM2DDL_AUTO, ddlAuto.equals("update") ? "update" : "create")
+            .build();
+        try {
+            MetadataSources sources = new MetadataSources(registry);
+            for (EntityType<?> entity : entityManagerFactory.getMetamodel().getEntities()) {
+                sources.addAnnotatedClass(entity.getJavaType());
+            }
+            // the same naming as Spring Boot applies to the first shard
+            Metadata metadata = sources.getMetadataBuilder()
+                .applyPhysicalNamingStrategy(new CamelCaseToUnderscoresNamingStrategy())
+                .applyImplicitNamingStrategy(new SpringImplicitNamingStrategy())
+                .build();
+            metadata.buildSessionFactory().close();
+        } finally {
+            StandardServiceRegistryBuilder.destroy(registry);
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package de.unistuttgart.iste.ese.api.Config;
+
+import de.unistuttgart.iste.ese.api.Services.TenantMoveService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Actuator endpoint to inspect the placement of tenants and to move a tenant to another shard.
+ * <ul>
+ *     <li>{@code GET /actuator/shards} lists the shards and the pinned tenants</li>
+ *     <li>{@code GET /actuator/shards/{tenant}} shows the shard of a tenant</li>
+ *     <li>{@code POST /actuator/shards/{tenant}} with {@code {"shard": "shard-1"}} moves a tenant</li>
+ * </ul>
+ * The endpoint is only exposed by the {@code management} profile, on a management port bound to localhost.
+ */
+@Component
+@Endpoint(id = "shards")
+@ConditionalOnProperty(prefix = "app.sharding", name = "enabled", havingValue = "true")
+public class ShardingEndpoint {
+
+    @Autowired
+    private ShardRoutingDataSource routingDataSource;
+
+    @Autowired
+    private TenantMoveService tenantMoveService;
+
+    /**
+     * Describes the shards.
+     *
+     * @return the shard names and the tenants pinned to a shard other than their hashed one.
+     */
+    @ReadOperation
+    public Map<String, Object> shards() {
+        Map<String, Object> shards = new LinkedHashMap<>();
+        shards.put("shards", routingDataSource.getShardNames());
+        shards.put("placements", routingDataSource.getPlacements());
+        return shards;
+    }
+
+    /**
+     * Shows where a tenant lives.
+     *
+     * @param tenant the tenant.
+     * @return the tenant and its shard.
+     */
+    @ReadOperation
+    public Map<String, Object> tenant(@Selector String tenant) {
+        return Map.of("tenant", tenant, "shard", routingDataSource.shardOf(tenant));
+    }
+
+    /**
+     * Moves a tenant to another shard; its writes are rejected until the move is done.
+     *
+     * @param tenant the tenant.
+     * @param shard the name of the target shard.
+     * @return the copied rows by table, or 400/409 if the shard is unknown or the move is not possible.
+     * @throws SQLException if a shard cannot be read or written.
+     * @throws InterruptedException if the move is interrupted while waiting for the tenant's writes.
+     */
+    @WriteOperation
+    public WebEndpointResponse<Map<String, Object>> move(@Selector String tenant, String shard)
+        throws SQLException, InterruptedException {
+        if (!TenantContext.isValid(tenant)) {
+            return error(WebEndpointResponse.STATUS_BAD_REQUEST, "Ungültiger Mandant");
+        }
+        try {
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("tenant", tenant);
+            result.put("shard", shard);
+            result.put("copied", tenantMoveService.move(tenant, shard));
+            return new WebEndpointResponse<>(result);
+        } catch (IllegalArgumentException e) {
+            return error(WebEndpointResponse.STATUS_BAD_REQUEST, e.getMessage());
+        } catch (IllegalStateException e) {
+            return error(HttpStatus.CONFLICT.value(), e.getMessage());
+        }
+    }
+
+    private static WebEndpointResponse<Map<String, Object>> error(int status, String message) {
+        return new WebEndpointResponse<>(Map.of("error", message), status);
+    }
+}
@@ -0,0 +1,120 @@
+package de.unistuttgart.iste.ese.api.Config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Settings for spreading the tenants over several MariaDB databases.
+ * The first shard also holds the directory of tenants that were moved away from their hashed shard.
+ */
+@ConfigurationProperties(prefix = "app.sharding")
+public class ShardingProperties {
+    private boolean enabled = false;
+    private List<Shard> shards = new ArrayList<>();
+    private int virtualNodes = 128;
+    private String tenantHeader = "X-Tenant-Id";
+    private Duration moveDrainTimeout = Duration.ofSeconds(30);
+    private Duration placementRefreshInterval = Duration.ofSeconds(1);
+    private Duration instanceTimeout = Duration.ofSeconds(10);
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public List<Shard> getShards() {
+        return shards;
+    }
+
+    public void setShards(List<Shard> shards) {
+        this.shards = shards;
+    }
+
+    public int getVirtualNodes() {
+        return virtualNodes;
+    }
+
+    public void setVirtualNodes(int virtualNodes) {
+        this.virtualNodes = virtualNodes;
+    }
+
+    public String getTenantHeader() {
+        return tenantHeader;
+    }
+
+    public void setTenantHeader(String tenantHeader) {
+        this.tenantHeader = tenantHeader;
+    }
+
+    public Duration getMoveDrainTimeout() {
+        return moveDrainTimeout;
+    }
+
+    public void setMoveDrainTimeout(Duration moveDrainTimeout) {
+        this.moveDrainTimeout = moveDrainTimeout;
+    }
+
+    public Duration getPlacementRefreshInterval() {
+        return placementRefreshInterval;
+    }
+
+    public void setPlacementRefreshInterval(Duration placementRefreshInterval) {
+        this.placementRefreshInterval = placementRefreshInterval;
+    }
+
+    public Duration getInstanceTimeout() {
+        return instanceTimeout;
+    }
+
+    public void setInstanceTimeout(Duration instanceTimeout) {
+        this.instanceTimeout = instanceTimeout;
+    }
+
+    /**
+     * Connection settings of a single shard.
+     */
+    public static class Shard {
+        private String name;
+        private String url;
+        private String username;
+        private String password;
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public String getUrl() {
+            return url;
+        }
+
+        public void setUrl(String url) {
+            this.url = url;
+        }
+
+        public String getUsername() {
+            return username;
+        }
+
+        public void setUsername(String username) {
+            this.username = username;
+        }
+
+        public String getPassword() {
+            return password;
+        }
+
+        public void setPassword(String password) {
+            this.password = password;
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package de.unistuttgart.iste.ese.api.Config;
+
+import jakarta.annotation.Nonnull;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.CacheControl;
+import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import org.springframework.web.servlet.resource.EncodedResourceResolver;
+
+import java.time.Duration;
+
+/**
+ * Serves the bundled frontend in production. Vite puts a content hash into the names of all files under
+ * {@code /assets}, so these can be cached by browsers and proxies for a long time and never revalidated.
+ * Pre-compressed {@code .br} and {@code .gz} variants are preferred when the client accepts them.
+ */
+@Configuration
+@Profile("prod")
+public class StaticResourceConfig implements WebMvcConfigurer {
+
+    @Value("${app.static.hashed-assets-max-age:365d}")
+    private Duration hashedAssetsMaxAge;
+
+    @Override
+    public void addResourceHandlers(@Nonnull ResourceHandlerRegistry registry) {
+        registry.addResourceHandler("/assets/**")
+            .addResourceLocations("classpath:/static/assets/")
+            .setCacheControl(CacheControl.maxAge(hashedAssetsMaxAge).cachePublic().immutable())
+            .resourceChain(true)
+            .addResolver(new EncodedResourceResolver());
+    }
+}
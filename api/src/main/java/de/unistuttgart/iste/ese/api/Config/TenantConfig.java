@@ -0,0 +1,36 @@
+package de.unistuttgart.iste.ese.api.Config;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.context.spi.CurrentTenantIdentifierResolver;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Lets Hibernate fill and filter the tenant columns of todos and assignees with the {@link TenantContext}.
+ * Without sharding no tenant is ever bound, so every row belongs to the default tenant.
+ */
+@Configuration
+public class TenantConfig {
+
+    /**
+     * Resolves the tenant of every new session from the current thread.
+     *
+     * @return the customizer that installs the tenant resolver.
+     */
+    @Bean
+    public HibernatePropertiesCustomizer tenantResolverCustomizer() {
+        CurrentTenantIdentifierResolver resolver = new CurrentTenantIdentifierResolver() {
+            @Override
+            public String resolveCurrentTenantIdentifier() {
+                return TenantContext.get();
+            }
+
+            @Override
+            public boolean validateExistingCurrentSessions() {
+                return false;
+            }
+        };
+        return properties -> properties.put(AvailableSettings.MULTI_TENANT_IDENTIFIER_RESOLVER, resolver);
+    }
+}
@@ -0,0 +1,99 @@
+package de.unistuttgart.iste.ese.api.Config;
+
+import io.micrometer.context.ContextRegistry;
+import io.micrometer.context.ThreadLocalAccessor;
+
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+
+/**
+ * The tenant the current thread works for. Hibernate writes it into the tenant column of new todos and assignees
+ * and only reads rows of this tenant; with sharding, it also selects the database.
+ * Threads without a bound tenant, e.g. startup and scheduled tasks, work for the {@link #DEFAULT_TENANT}.
+ * The tenant is registered with the context propagation registry, so it follows work handed to executors
+ * through a {@link io.micrometer.context.ContextSnapshot}.
+ */
+public final class TenantContext {
+
+    public static final String DEFAULT_TENANT = "default";
+    private static final Pattern VALID_TENANT = Pattern.compile("[a-z0-9][a-z0-9-]{0,63}");
+    private static final ThreadLocal<String> CURRENT_TENANT = new ThreadLocal<>();
+
+    static {
+        ContextRegistry.getInstance().registerThreadLocalAccessor(new ThreadLocalAccessor<String>() {
+            @Override
+            public Object key() {
+                return TenantContext.class.getName();
+            }
+
+            @Override
+            public String getValue() {
+                return CURRENT_TENANT.get();
+            }
+
+            @Override
+            public void setValue(String tenant) {
+                CURRENT_TENANT.set(tenant);
+            }
+
+            @Override
+            public void setValue() {
+                CURRENT_TENANT.remove();
+            }
+        });
+    }
+
+    private TenantContext() {
+    }
+
+    /**
+     * Returns the tenant of the current thread.
+     *
+     * @return the bound tenant, or the default tenant if none is bound.
+     */
+    public static String get() {
+        String tenant = CURRENT_TENANT.get();
+        return tenant != null ? tenant : DEFAULT_TENANT;
+    }
+
+    /**
+     * Binds a tenant to the current thread.
+     *
+     * @param tenant the tenant, or null to fall back to the default tenant.
+     */
+    public static void set(String tenant) {
+        if (tenant == null) {
+            CURRENT_TENANT.remove();
+        } else {
+            CURRENT_TENANT.set(tenant);
+        }
+    }
+
+    /**
+     * Runs work for another tenant and restores the previous tenant afterwards.
+     *
+     * @param tenant the tenant to work for.
+     * @param work the work.
+     * @param <T> the type of the result.
+     * @return the result of the work.
+     */
+    public static <T> T callAs(String tenant, Supplier<T> work) {
+        String previous = CURRENT_TENANT.get();
+        set(tenant);
+        try {
+            return work.get();
+        } finally {
+            set(previous);
+        }
+    }
+
+    /**
+     * Checks the form of a tenant key sent by a client.
+     *
+     * @param tenant the tenant key.
+     * @return true if the key consists of 1 to 64 lowercase letters, digits and dashes, starting with no dash.
+     */
+    public static boolean isValid(String tenant) {
+        return tenant != null && VALID_TENANT.matcher(tenant).matches();
+    }
+}
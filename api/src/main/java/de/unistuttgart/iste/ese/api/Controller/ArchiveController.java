@@ -0,0 +1,81 @@
+package de.unistuttgart.iste.ese.api.Controller;
+
+import de.unistuttgart.iste.ese.api.ApiVersion1;
+import de.unistuttgart.iste.ese.api.HeavyEndpoint;
+import de.unistuttgart.iste.ese.api.DTOs.ResponseDTO;
+import de.unistuttgart.iste.ese.api.Services.TodoArchiveService;
+import io.micrometer.observation.annotation.Observed;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+@RestController
+@ApiVersion1
+@Observed(name = "api.handler")
+public class ArchiveController {
+
+    private static final int MAX_PAGE_SIZE = 100;
+
+    @Autowired
+    private TodoArchiveService todoArchiveService;
+
+    /**
+     * Get a page of the archived todos, the most recently finished first.
+     * The total number of archived todos is sent in the X-Total-Count header.
+     *
+     * @param page the number of the page, starting at 0.
+     * @param size the number of todos per page, at most {@value #MAX_PAGE_SIZE}.
+     * @return the archived todos of the page.
+     */
+    @GetMapping("/archive/todos")
+    public ResponseEntity<List<ResponseDTO>> getArchivedTodos(@RequestParam(value = "page", defaultValue = "0") int page,
+                                                              @RequestParam(value = "size", defaultValue = "20") int size) {
+        if (page < 0) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "page darf nicht negativ sein");
+        }
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                String.format("size muss zwischen 1 und %d liegen", MAX_PAGE_SIZE));
+        }
+        Page<ResponseDTO> todos = todoArchiveService.getArchivedTodos(page, size);
+        return ResponseEntity.ok()
+            .header("X-Total-Count", String.valueOf(todos.getTotalElements()))
+            .body(todos.getContent());
+    }
+
+    /**
+     * Get an archived todo by the ID it had before it was archived.
+     *
+     * @param id the ID of the todo.
+     * @return the archived todo.
+     */
+    @GetMapping("/archive/todos/{id}")
+    public ResponseDTO getArchivedTodo(@PathVariable("id") long id) {
+        return todoArchiveService.getArchivedTodo(id);
+    }
+
+    /**
+     * Download all archived todos as a CSV file, in the format of the todo export.
+     *
+     * @param response the response to write the CSV file to.
+     * @throws IOException if writing the response fails.
+     */
+    @GetMapping("/csv-downloads/archive/todos")
+    @HeavyEndpoint("csv-export")
+    public void getArchivedTodoCSV(HttpServletResponse response) throws IOException {
+        response.setStatus(HttpStatus.OK.value());
+        response.setContentType("text/csv");
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=archived-todos.csv");
+        todoArchiveService.export(response.getOutputStream());
+    }
+}
@@ -1,11 +1,21 @@
 package de.unistuttgart.iste.ese.api.Controller;
 
 import de.unistuttgart.iste.ese.api.ApiVersion1;
+import de.unistuttgart.iste.ese.api.HeavyEndpoint;
+import de.unistuttgart.iste.ese.api.QueryBudget;
+import de.unistuttgart.iste.ese.api.DTOs.ResponseDTO;
 import de.unistuttgart.iste.ese.api.Models.Assignee;
 import de.unistuttgart.iste.ese.api.Services.AssigneeService;
+import de.unistuttgart.iste.ese.api.Services.AssigneeSuggestService;
+import de.unistuttgart.iste.ese.api.Services.IdempotencyService;
+import de.unistuttgart.iste.ese.api.Services.TodoService;
+import io.micrometer.observation.annotation.Observed;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.server.ResponseStatusException;
 
@@ -13,21 +23,52 @@ import java.util.List;
 
 @RestController
 @ApiVersion1
+@Observed(name = "api.handler")
 public class AssigneeController {
 
     @Autowired
     private AssigneeService assigneeService;
 
+    @Autowired
+    private IdempotencyService idempotencyService;
+
+    @Autowired
+    private AssigneeSuggestService assigneeSuggestService;
+
+    @Autowired
+    private TodoService todoService;
+
+    private static final int MAX_SUGGESTIONS = 50;
+    private static final int MAX_PAGE_SIZE = 100;
+
     /**
      * Retrieve all assignees.
      *
      * @return a list of all assignees.
      */
     @GetMapping("/assignees")
+    @HeavyEndpoint("list")
     public List<Assignee> getAssignees() {
         return assigneeService.getAssignees();
     }
 
+    /**
+     * Suggest assignees whose prename, name, full name or email starts with the prefix.
+     *
+     * @param prefix the start of the text to search, case-insensitive; all assignees match an empty prefix.
+     * @param limit the maximum number of assignees, at most {@value #MAX_SUGGESTIONS}.
+     * @return the matching assignees.
+     */
+    @GetMapping("/assignees/suggest")
+    public List<Assignee> suggestAssignees(@RequestParam(value = "prefix", defaultValue = "") String prefix,
+                                           @RequestParam(value = "limit", defaultValue = "10") int limit) {
+        if (limit < 1 || limit > MAX_SUGGESTIONS) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                String.format("limit muss zwischen 1 und %d liegen", MAX_SUGGESTIONS));
+        }
+        return assigneeSuggestService.suggest(prefix, limit);
+    }
+
     /**
      * Retrieve a specific assignee by their ID.
      *
@@ -36,34 +77,73 @@ public class AssigneeController {
      * @throws ResponseStatusException if the assignee with the given ID is not found.
      */
     @GetMapping("/assignees/{id}")
-    public Assignee getAssignee(@PathVariable("id") long id) {
-        return assigneeService.getAssignee(id);
+    public ResponseEntity<Assignee> getAssignee(@PathVariable("id") long id) {
+        Assignee assignee = assigneeService.getAssignee(id);
+        return ResponseEntity.ok().eTag(ETags.of(assignee.getVersion())).body(assignee);
+    }
+
+    /**
+     * Retrieve a page of the todos of an assignee.
+     * The total number of todos of the assignee is sent in the X-Total-Count header.
+     *
+     * @param id the ID of the assignee.
+     * @param page the number of the page, starting at 0.
+     * @param size the number of todos per page, at most {@value #MAX_PAGE_SIZE}.
+     * @return the todos of the page, ordered by ID.
+     * @throws ResponseStatusException if the assignee with the given ID is not found or the page is invalid.
+     */
+    @GetMapping("/assignees/{id}/todos")
+    public ResponseEntity<List<ResponseDTO>> getTodosOfAssignee(@PathVariable("id") long id,
+                                                                @RequestParam(value = "page", defaultValue = "0") int page,
+                                                                @RequestParam(value = "size", defaultValue = "20") int size) {
+        if (page < 0) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "page darf nicht negativ sein");
+        }
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                String.format("size muss zwischen 1 und %d liegen", MAX_PAGE_SIZE));
+        }
+        Page<ResponseDTO> todos = todoService.getTodosOfAssignee(id, page, size);
+        return ResponseEntity.ok()
+            .header("X-Total-Count", String.valueOf(todos.getTotalElements()))
+            .body(todos.getContent());
     }
 
     /**
      * Create a new assignee.
+     * Retries with the same Idempotency-Key return the assignee created by the first request.
      *
      * @param requestBody the data for the new assignee.
+     * @param idempotencyKey an optional key that identifies retries of the same request.
      * @return the created assignee.
      * @throws ResponseStatusException if the email provided is not a valid university email.
      */
     @PostMapping("/assignees")
     @ResponseStatus(HttpStatus.CREATED)
-    public Assignee createAssignee(@Valid @RequestBody Assignee requestBody) {
-        return assigneeService.createAssignee(requestBody);
+    public Assignee createAssignee(@Valid @RequestBody Assignee requestBody,
+                                   @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
+        return idempotencyService.execute("createAssignee", idempotencyKey, requestBody,
+            () -> assigneeService.createAssignee(requestBody));
     }
 
     /**
      * Update an existing assignee by their ID.
      *
+     * If the client sends a version via If-Match or in the body, the update is rejected
+     * with 409 Conflict when the assignee was changed in the meantime.
+     *
      * @param id the ID of the assignee to update.
      * @param requestBody the updated data for the assignee.
+     * @param ifMatch the optional entity tag of the version the update is based on.
      * @return the updated assignee.
      * @throws ResponseStatusException if the assignee with the given ID is not found.
      */
     @PutMapping("/assignees/{id}")
-    public Assignee updateAssignee(@PathVariable("id") long id, @Valid @RequestBody Assignee requestBody) {
-        return assigneeService.updateAssignee(id, requestBody);
+    public ResponseEntity<Assignee> updateAssignee(@PathVariable("id") long id, @Valid @RequestBody Assignee requestBody,
+                                                   @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        Assignee assignee = assigneeService.updateAssignee(id, requestBody,
+            ETags.expectedVersion(ifMatch, requestBody.getVersion()));
+        return ResponseEntity.ok().eTag(ETags.of(assignee.getVersion())).body(assignee);
     }
 
     /**
@@ -73,6 +153,8 @@ public class AssigneeController {
      * @throws ResponseStatusException if the assignee with the given ID is not found.
      */
     @DeleteMapping("/assignees/{id}")
+    // every todo of the assignee is rewritten
+    @QueryBudget(500)
     public void deleteAssignee(@PathVariable("id") long id) {
         assigneeService.deleteAssignee(id);
     }
@@ -0,0 +1,63 @@
+package de.unistuttgart.iste.ese.api.Controller;
+
+import de.unistuttgart.iste.ese.api.DTOs.ResponseDTO;
+import de.unistuttgart.iste.ese.api.Models.Assignee;
+import de.unistuttgart.iste.ese.api.Models.Todo;
+import de.unistuttgart.iste.ese.api.Services.AssigneeService;
+import de.unistuttgart.iste.ese.api.Services.TodoService;
+import de.unistuttgart.iste.ese.api.Services.VersionConflictException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+/**
+ * Answers version conflicts with 409 and the current state of the entity.
+ */
+@RestControllerAdvice
+public class ConflictExceptionHandler {
+
+    @Autowired
+    private TodoService todoService;
+
+    @Autowired
+    private AssigneeService assigneeService;
+
+    /**
+     * Handles a conflict detected by comparing the client's version with the stored one.
+     *
+     * @param e the conflict.
+     * @return 409 with the current state and its entity tag.
+     */
+    @ExceptionHandler(VersionConflictException.class)
+    public ResponseEntity<Object> handleVersionConflict(VersionConflictException e) {
+        return ResponseEntity.status(HttpStatus.CONFLICT)
+            .eTag(ETags.of(e.getCurrentVersion()))
+            .body(e.getCurrentState());
+    }
+
+    /**
+     * Handles a concurrent update that committed between reading and writing an entity.
+     *
+     * @param e the optimistic locking failure.
+     * @return 409 with the current state, if it can still be loaded.
+     */
+    @ExceptionHandler(ObjectOptimisticLockingFailureException.class)
+    public ResponseEntity<Object> handleOptimisticLockingFailure(ObjectOptimisticLockingFailureException e) {
+        if (!(e.getIdentifier() instanceof Number identifier)) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+        long id = identifier.longValue();
+        if (Todo.class.getName().equals(e.getPersistentClassName())) {
+            ResponseDTO current = todoService.getTodoById(id);
+            return ResponseEntity.status(HttpStatus.CONFLICT).eTag(ETags.of(current.getVersion())).body(current);
+        }
+        if (Assignee.class.getName().equals(e.getPersistentClassName())) {
+            Assignee current = assigneeService.getAssignee(id);
+            return ResponseEntity.status(HttpStatus.CONFLICT).eTag(ETags.of(current.getVersion())).body(current);
+        }
+        return ResponseEntity.status(HttpStatus.CONFLICT).build();
+    }
+}
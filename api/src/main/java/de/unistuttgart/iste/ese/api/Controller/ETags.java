@@ -0,0 +1,46 @@
+package de.unistuttgart.iste.ese.api.Controller;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Converts between entity versions and HTTP entity tags.
+ */
+final class ETags {
+
+    private ETags() {
+    }
+
+    /**
+     * Formats a version as a strong entity tag.
+     *
+     * @param version the version of the entity.
+     * @return the entity tag, e.g. {@code "3"}.
+     */
+    static String of(Long version) {
+        return "\"" + version + "\"";
+    }
+
+    /**
+     * Parses the version from an If-Match header.
+     *
+     * @param ifMatch the header value, may be null.
+     * @param fallback the version to use without header, may be null.
+     * @return the expected version, or null if the client did not send one.
+     * @throws ResponseStatusException if the header does not contain a version.
+     */
+    static Long expectedVersion(String ifMatch, Long fallback) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return fallback;
+        }
+        String tag = ifMatch.trim();
+        if (tag.startsWith("W/")) {
+            tag = tag.substring(2);
+        }
+        try {
+            return Long.parseLong(tag.replace("\"", ""));
+        } catch (NumberFormatException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "If-Match muss eine Version enthalten");
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package de.unistuttgart.iste.ese.api.Controller;
+
+import de.unistuttgart.iste.ese.api.ApiVersion1;
+import de.unistuttgart.iste.ese.api.DTOs.ExportJobDTO;
+import de.unistuttgart.iste.ese.api.Services.ExportJobService;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+@RestController
+@ApiVersion1
+public class ExportController {
+
+    // set by Tomcat if the connector can hand a file to the kernel instead of copying it through the JVM
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    private static final MediaType TEXT_CSV = new MediaType("text", "csv");
+
+    @Autowired
+    private ExportJobService exportJobService;
+
+    /**
+     * Start a CSV export of all todos in the background.
+     *
+     * @return the queued export, with its status URL in the Location header.
+     */
+    @PostMapping("/exports")
+    public ResponseEntity<ExportJobDTO> createExport() {
+        ExportJobDTO job = exportJobService.submit();
+        return ResponseEntity.accepted().location(URI.create("/api/v1/exports/" + job.getId())).body(job);
+    }
+
+    /**
+     * Get the status of an export.
+     *
+     * @param id the ID of the export.
+     * @return the export.
+     * @throws ResponseStatusException if the export does not exist.
+     */
+    @GetMapping("/exports/{id}")
+    public ExportJobDTO getExport(@PathVariable("id") String id) {
+        return exportJobService.getJob(id);
+    }
+
+    /**
+     * Download the CSV file of a finished export.
+     * Range requests are supported, so that interrupted downloads can be resumed.
+     *
+     * @param id the ID of the export.
+     * @param request the request, to check whether the file can be sent without copying it.
+     * @return the CSV file.
+     * @throws IOException if the file cannot be read.
+     * @throws ResponseStatusException if the export does not exist or is not finished.
+     */
+    @GetMapping("/exports/{id}/file")
+    public ResponseEntity<Resource> downloadExport(@PathVariable("id") String id, HttpServletRequest request) throws IOException {
+        Path file = exportJobService.getFile(id);
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(TEXT_CSV);
+        headers.setContentDisposition(ContentDisposition.attachment().filename("todos-" + id + ".csv").build());
+        headers.set(HttpHeaders.ACCEPT_RANGES, "bytes");
+
+        if (request.getHeader(HttpHeaders.RANGE) == null && Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            // Tomcat writes the file with sendfile once the headers are committed, the body stays empty here
+            long size = Files.size(file);
+            request.setAttribute(SENDFILE_FILENAME, file.toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_START, 0L);
+            request.setAttribute(SENDFILE_END, size);
+            headers.setContentLength(size);
+            return new ResponseEntity<>(headers, HttpStatus.OK);
+        }
+        return new ResponseEntity<>(new FileSystemResource(file), headers, HttpStatus.OK);
+    }
+
+    /**
+     * Delete a finished export and its file.
+     *
+     * @param id the ID of the export.
+     * @throws ResponseStatusException if the export does not exist or is still running.
+     */
+    @DeleteMapping("/exports/{id}")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public void deleteExport(@PathVariable("id") String id) {
+        exportJobService.delete(id);
+    }
+}
@@ -1,43 +1,160 @@
 package de.unistuttgart.iste.ese.api.Controller;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.unistuttgart.iste.ese.api.ApiMediaTypes;
 import de.unistuttgart.iste.ese.api.ApiVersion1;
+import de.unistuttgart.iste.ese.api.HeavyEndpoint;
+import de.unistuttgart.iste.ese.api.QueryBudget;
 import de.unistuttgart.iste.ese.api.DTOs.*;
+import de.unistuttgart.iste.ese.api.Models.TodoProjection;
+import de.unistuttgart.iste.ese.api.Services.CsvExportService;
+import de.unistuttgart.iste.ese.api.Services.IdempotencyService;
+import de.unistuttgart.iste.ese.api.Services.ReadCoalescingService;
+import de.unistuttgart.iste.ese.api.Services.SparseTodoService;
 import de.unistuttgart.iste.ese.api.Services.TodoService;
+import de.unistuttgart.iste.ese.api.Services.TodoStreamService;
+import io.micrometer.observation.annotation.Observed;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Map;
 
 @RestController
 @ApiVersion1
+@Observed(name = "api.handler")
 public class TodoController {
 
     @Autowired
     private TodoService toDoService;
 
+    @Autowired
+    private IdempotencyService idempotencyService;
+
+    @Autowired
+    private ReadCoalescingService readCoalescingService;
+
+    @Autowired
+    private CsvExportService csvExportService;
+
+    @Autowired
+    private TodoStreamService todoStreamService;
+
+    @Autowired
+    private SparseTodoService sparseTodoService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
     /**
      * Get a list of all todos.
+     * Identical concurrent requests share one query and one serialized response.
+     * With fields or include, only the requested fields are read and sent, e.g. {@code ?fields=id,title}
+     * selects two columns and does not join the assignees, {@code &include=assignees} adds them.
      *
-     * @return a list of all todos as {@link GetTodoDTO}.
+     * @param fields the comma-separated fields to send, all but the assignees if only include is given.
+     * @param include the comma-separated relations to send, currently only "assignees".
+     * @return a list of all todos as {@link ResponseDTO}, or with the requested fields only, serialized as JSON.
      */
     @GetMapping("/todos")
-    public List<ResponseDTO> getTodos() {
-        return toDoService.getAllTodos();
+    @HeavyEndpoint("list")
+    public ResponseEntity<byte[]> getTodos(@RequestParam(value = "fields", required = false) String fields,
+                                           @RequestParam(value = "include", required = false) String include) {
+        byte[] json;
+        if (fields == null && include == null) {
+            json = readCoalescingService.coalesce("todos", () -> toJson(toDoService.getAllTodos()));
+        } else {
+            SparseTodoService.FieldSet fieldSet = sparseTodoService.parse(fields, include);
+            json = readCoalescingService.coalesce("todos?" + fieldSet.key(),
+                () -> toJson(sparseTodoService.getAllTodos(fieldSet)));
+        }
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(json);
+    }
+
+    /**
+     * Get a list of all todos in a binary format (CBOR or Smile).
+     * Assignees are sent once and referenced by ID, dates are sent as epoch days.
+     *
+     * @return all todos as {@link CompactTodoListDTO}.
+     */
+    @GetMapping(value = "/todos", produces = {ApiMediaTypes.APPLICATION_CBOR_VALUE, ApiMediaTypes.APPLICATION_SMILE_VALUE})
+    @HeavyEndpoint("list")
+    public CompactTodoListDTO getTodosCompact() {
+        return toDoService.getAllTodosCompact();
+    }
+
+    /**
+     * Stream all todos as newline-delimited JSON, one todo per line, ordered by ID.
+     * The todos are read in batches while they are sent, so the first todos arrive before the last are read,
+     * and the memory per request does not grow with the number of todos.
+     *
+     * @param response the response to write the todos to.
+     * @throws IOException if writing the response fails.
+     */
+    @GetMapping(value = "/todos", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @HeavyEndpoint("list")
+    // two statements per batch, so the number grows with the todos by design
+    @QueryBudget(Integer.MAX_VALUE)
+    public void streamTodos(HttpServletResponse response) throws IOException {
+        response.setStatus(HttpStatus.OK.value());
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        todoStreamService.stream(response.getOutputStream());
+    }
+
+    /**
+     * Find the todos that match all given filters.
+     *
+     * @param finished only finished or only open todos, both if not given.
+     * @param category only todos of this category.
+     * @param assigneeId only todos assigned to this assignee.
+     * @param dueFrom only todos due on or after this day.
+     * @param dueTo only todos due on or before this day.
+     * @return the matching todos, ordered by ID.
+     */
+    @GetMapping("/todos/search")
+    @HeavyEndpoint("list")
+    public List<ResponseDTO> searchTodos(@RequestParam(value = "finished", required = false) Boolean finished,
+                                         @RequestParam(value = "category", required = false) String category,
+                                         @RequestParam(value = "assigneeId", required = false) Long assigneeId,
+                                         @RequestParam(value = "dueFrom", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dueFrom,
+                                         @RequestParam(value = "dueTo", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dueTo) {
+        return toDoService.searchTodos(finished, category, assigneeId, dueFrom, dueTo);
+    }
+
+    /**
+     * Get the number of todos by state, due date, category and assignee.
+     *
+     * @return the counts.
+     */
+    @GetMapping("/todos/stats")
+    public TodoProjection.Stats getTodoStats() {
+        return toDoService.getStats();
     }
 
     /**
      * Get a specific todo by its ID.
      *
+     * The ETag header carries the version to send back in If-Match when updating the todo.
+     *
      * @param id the ID of the todo.
      * @return the todo as GetTodoDTO
      */
     @GetMapping("/todos/{id}")
-    public ResponseDTO getTodo(@PathVariable("id") long id) {
-        return toDoService.getTodoById(id);
+    public ResponseEntity<ResponseDTO> getTodo(@PathVariable("id") long id) {
+        ResponseDTO todo = toDoService.getTodoById(id);
+        return ResponseEntity.ok().eTag(ETags.of(todo.getVersion())).body(todo);
     }
 
     /**
@@ -47,48 +164,77 @@ public class TodoController {
      * @return the predicted category of the todo.
      */
     @GetMapping("/classify")
+    @HeavyEndpoint("classify")
     public String todoModel(@RequestBody Map<String, String> requestBody) {
         return toDoService.classifyTodoTitle(requestBody.get("title"));
     }
 
     /**
      * Download all todos as a CSV file.
+     * The file is streamed while it is generated, so its size is not limited by the available memory.
      *
-     * @return a CSV file containing all todos.
+     * @param response the response to write the CSV file to.
+     * @throws IOException if writing the response fails.
      */
     @GetMapping("/csv-downloads/todos")
-    @ResponseStatus(HttpStatus.OK)
-    public ResponseEntity<String> getTodoCSV() {
-        String csvContent = toDoService.generateCSV();
-        HttpHeaders headers = new HttpHeaders();
-        headers.set(HttpHeaders.CONTENT_TYPE, "text/csv");
-        headers.set(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=todos.csv");
-
-        return new ResponseEntity<>(csvContent, headers, HttpStatus.OK);
+    @HeavyEndpoint("csv-export")
+    public void getTodoCSV(HttpServletResponse response) throws IOException {
+        response.setStatus(HttpStatus.OK.value());
+        response.setContentType("text/csv");
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=todos.csv");
+        csvExportService.export(response.getOutputStream());
     }
 
     /**
      * Create a new todo.
+     * Retries with the same Idempotency-Key return the todo created by the first request.
      *
      * @param requestBody the todo data as PostTodoDTO
+     * @param idempotencyKey an optional key that identifies retries of the same request.
      * @return the created todo as TodoDTO
      */
     @PostMapping("/todos")
     @ResponseStatus(HttpStatus.CREATED)
-    public ResponseDTO createTodo(@RequestBody RequestDTO requestBody) {
-        return toDoService.createTodo(requestBody);
+    public ResponseDTO createTodo(@RequestBody RequestDTO requestBody,
+                                  @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
+        return idempotencyService.execute("createTodo", idempotencyKey, requestBody,
+            () -> toDoService.createTodo(requestBody));
     }
 
     /**
      * Update an existing todo by its ID.
      *
+     * If the client sends a version via If-Match or in the body, the update is rejected
+     * with 409 Conflict when the todo was changed in the meantime.
+     *
      * @param id the ID of the todo to update.
      * @param requestBody the updated todo data as PostTodoDTO
+     * @param ifMatch the optional entity tag of the version the update is based on.
      * @return the updated todo as GetTodoDTO
      */
     @PutMapping("/todos/{id}")
-    public ResponseDTO updateTodo(@PathVariable("id") long id, @RequestBody RequestDTO requestBody) {
-        return toDoService.updateTodo(id, requestBody);
+    public ResponseEntity<ResponseDTO> updateTodo(@PathVariable("id") long id, @RequestBody RequestDTO requestBody,
+                                                  @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        ResponseDTO todo = toDoService.updateTodo(id, requestBody,
+            ETags.expectedVersion(ifMatch, requestBody.getVersion()));
+        return ResponseEntity.ok().eTag(ETags.of(todo.getVersion())).body(todo);
+    }
+
+    /**
+     * Change only the given fields of a todo.
+     * Without If-Match, concurrent changes of other fields are kept instead of being overwritten.
+     *
+     * @param id the ID of the todo to change.
+     * @param patch the fields to change, fields that are not sent stay as they are.
+     * @param ifMatch the optional entity tag of the version the change is based on.
+     * @return the changed todo
+     */
+    @PatchMapping("/todos/{id}")
+    public ResponseEntity<ResponseDTO> patchTodo(@PathVariable("id") long id, @RequestBody PatchDTO patch,
+                                                 @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        ResponseDTO todo = toDoService.patchTodo(id, patch, ETags.expectedVersion(ifMatch, null));
+        return ResponseEntity.ok().eTag(ETags.of(todo.getVersion())).body(todo);
     }
 
     /**
@@ -101,5 +247,18 @@ public class TodoController {
     public void deleteTodo(@PathVariable("id") long id) {
         toDoService.deleteTodoById(id);
     }
-}
 
+    /**
+     * Serializes a response body with the application's JSON settings.
+     *
+     * @param body the response body.
+     * @return the JSON bytes.
+     */
+    private byte[] toJson(Object body) {
+        try {
+            return objectMapper.writeValueAsBytes(body);
+        } catch (JsonProcessingException e) {
+            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Serialization failed", e);
+        }
+    }
+}
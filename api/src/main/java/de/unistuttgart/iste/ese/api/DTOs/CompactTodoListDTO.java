@@ -0,0 +1,202 @@
+package de.unistuttgart.iste.ese.api.DTOs;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import de.unistuttgart.iste.ese.api.Models.Assignee;
+import de.unistuttgart.iste.ese.api.Models.Todo;
+
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A compact representation of a list of todos for the binary wire formats.
+ * Every assignee is sent once in a side table and referenced by ID from the todos,
+ * and dates are sent as days since 1970-01-01 instead of formatted strings.
+ */
+public class CompactTodoListDTO {
+    private List<Assignee> assignees;
+    private List<CompactTodo> todos;
+
+    public CompactTodoListDTO(Iterable<Todo> todos) {
+        Map<Long, Assignee> assigneesById = new LinkedHashMap<>();
+        this.todos = new ArrayList<>();
+        for (Todo todo : todos) {
+            List<Assignee> assigneeList = todo.getAssigneeList();
+            long[] assigneeIds = new long[assigneeList.size()];
+            for (int i = 0; i < assigneeIds.length; i++) {
+                Assignee assignee = assigneeList.get(i);
+                assigneeIds[i] = assignee.getId();
+                assigneesById.putIfAbsent(assignee.getId(), assignee);
+            }
+            this.todos.add(new CompactTodo(todo, assigneeIds));
+        }
+        this.assignees = new ArrayList<>(assigneesById.values());
+    }
+
+    public CompactTodoListDTO(List<Assignee> assignees, List<CompactTodo> todos) {
+        this.assignees = assignees;
+        this.todos = todos;
+    }
+
+    public CompactTodoListDTO() {
+    }
+
+    public List<Assignee> getAssignees() {
+        return assignees;
+    }
+
+    public void setAssignees(List<Assignee> assignees) {
+        this.assignees = assignees;
+    }
+
+    public List<CompactTodo> getTodos() {
+        return todos;
+    }
+
+    public void setTodos(List<CompactTodo> todos) {
+        this.todos = todos;
+    }
+
+    /**
+     * Converts a date to days since 1970-01-01 in the server's time zone.
+     *
+     * @param date the date, may be null.
+     * @return the epoch day, or null if no date was given.
+     */
+    static Integer toEpochDay(Date date) {
+        if (date == null) return null;
+        return (int) date.toInstant().atZone(ZoneId.systemDefault()).toLocalDate().toEpochDay();
+    }
+
+    /**
+     * A todo that references its assignees by ID.
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public static class CompactTodo {
+        private Long id;
+        private String title;
+        private String description;
+        private boolean finished;
+        private long[] assigneeIds;
+        private Integer createdDate;
+        private Integer dueDate;
+        private Integer finishedDate;
+        private String category;
+        @JsonInclude(JsonInclude.Include.NON_EMPTY)
+        private Map<String, String> labels;
+
+        public CompactTodo(Todo todo, long[] assigneeIds) {
+            this.id = todo.getId();
+            this.title = todo.getTitle();
+            this.description = todo.getDescription();
+            this.finished = todo.isFinished();
+            this.assigneeIds = assigneeIds;
+            this.createdDate = toEpochDay(todo.getCreatedDate());
+            this.dueDate = toEpochDay(todo.getDueDate());
+            this.finishedDate = todo.isFinished() ? toEpochDay(todo.getFinishedDate()) : null;
+            this.category = todo.getCategory();
+            this.labels = new LinkedHashMap<>(todo.getLabels());
+        }
+
+        public CompactTodo(Long id, String title, String description, boolean finished, long[] assigneeIds,
+                           Integer createdDate, Integer dueDate, Integer finishedDate, String category,
+                           Map<String, String> labels) {
+            this.id = id;
+            this.title = title;
+            this.description = description;
+            this.finished = finished;
+            this.assigneeIds = assigneeIds;
+            this.createdDate = createdDate;
+            this.dueDate = dueDate;
+            this.finishedDate = finishedDate;
+            this.category = category;
+            this.labels = labels;
+        }
+
+        public CompactTodo() {
+        }
+
+        public Long getId() {
+            return id;
+        }
+
+        public void setId(Long id) {
+            this.id = id;
+        }
+
+        public String getTitle() {
+            return title;
+        }
+
+        public void setTitle(String title) {
+            this.title = title;
+        }
+
+        public String getDescription() {
+            return description;
+        }
+
+        public void setDescription(String description) {
+            this.description = description;
+        }
+
+        public boolean isFinished() {
+            return finished;
+        }
+
+        public void setFinished(boolean finished) {
+            this.finished = finished;
+        }
+
+        public long[] getAssigneeIds() {
+            return assigneeIds;
+        }
+
+        public void setAssigneeIds(long[] assigneeIds) {
+            this.assigneeIds = assigneeIds;
+        }
+
+        public Integer getCreatedDate() {
+            return createdDate;
+        }
+
+        public void setCreatedDate(Integer createdDate) {
+            this.createdDate = createdDate;
+        }
+
+        public Integer getDueDate() {
+            return dueDate;
+        }
+
+        public void setDueDate(Integer dueDate) {
+            this.dueDate = dueDate;
+        }
+
+        public Integer getFinishedDate() {
+            return finishedDate;
+        }
+
+        public void setFinishedDate(Integer finishedDate) {
+            this.finishedDate = finishedDate;
+        }
+
+        public String getCategory() {
+            return category;
+        }
+
+        public void setCategory(String category) {
+            this.category = category;
+        }
+
+        public Map<String, String> getLabels() {
+            return labels;
+        }
+
+        public void setLabels(Map<String, String> labels) {
+            this.labels = labels;
+        }
+    }
+}
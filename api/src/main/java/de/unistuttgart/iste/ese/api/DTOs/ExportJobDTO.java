@@ -0,0 +1,88 @@
+package de.unistuttgart.iste.ese.api.DTOs;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.time.Instant;
+
+/**
+ * The state of an asynchronous CSV export, as returned by the export endpoints.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ExportJobDTO {
+    private String id;
+    private String status;
+    private Instant createdAt;
+    private Instant completedAt;
+    private Long rows;
+    private Long sizeBytes;
+    private String error;
+
+    public ExportJobDTO(String id, String status, Instant createdAt, Instant completedAt, Long rows, Long sizeBytes, String error) {
+        this.id = id;
+        this.status = status;
+        this.createdAt = createdAt;
+        this.completedAt = completedAt;
+        this.rows = rows;
+        this.sizeBytes = sizeBytes;
+        this.error = error;
+    }
+
+    public ExportJobDTO() {
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(Instant createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public Instant getCompletedAt() {
+        return completedAt;
+    }
+
+    public void setCompletedAt(Instant completedAt) {
+        this.completedAt = completedAt;
+    }
+
+    public Long getRows() {
+        return rows;
+    }
+
+    public void setRows(Long rows) {
+        this.rows = rows;
+    }
+
+    public Long getSizeBytes() {
+        return sizeBytes;
+    }
+
+    public void setSizeBytes(Long sizeBytes) {
+        this.sizeBytes = sizeBytes;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+}
@@ -0,0 +1,58 @@
+package de.unistuttgart.iste.ese.api.DTOs;
+
+import java.util.Date;
+import java.util.List;
+
+/**
+ * A partial update of a todo. Only fields that are set are changed.
+ */
+public class PatchDTO {
+    private String title;
+    private String description;
+    private Boolean finished;
+    private List<Long> assigneeIdList;
+    private Date dueDate;
+
+    public PatchDTO() {
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public void setTitle(String title) {
+        this.title = title;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public void setDescription(String description) {
+        this.description = description;
+    }
+
+    public Boolean getFinished() {
+        return finished;
+    }
+
+    public void setFinished(Boolean finished) {
+        this.finished = finished;
+    }
+
+    public List<Long> getAssigneeIdList() {
+        return assigneeIdList;
+    }
+
+    public void setAssigneeIdList(List<Long> assigneeIdList) {
+        this.assigneeIdList = assigneeIdList;
+    }
+
+    public Date getDueDate() {
+        return dueDate;
+    }
+
+    public void setDueDate(Date dueDate) {
+        this.dueDate = dueDate;
+    }
+}
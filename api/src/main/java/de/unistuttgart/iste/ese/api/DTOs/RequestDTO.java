@@ -12,6 +12,8 @@ public class RequestDTO {
     private Date dueDate;
     private Date finishedDate;
     private String category;
+    // the version the client based its changes on, optional alternative to If-Match
+    private Long version;
 
     public RequestDTO(String title, String description, Boolean finished, List<Long> assigneeIdList, Date createdDate, Date dueDate) {
         this.title = title;
@@ -91,4 +93,12 @@ public class RequestDTO {
     public void setCategory(String category) {
         this.category = category;
     }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
 }
@@ -6,7 +6,9 @@ import de.unistuttgart.iste.ese.api.Models.Todo;
 
 import java.util.ArrayList;
 import java.util.Date;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 public class ResponseDTO {
     private Long id;
@@ -23,6 +25,8 @@ public class ResponseDTO {
     @JsonFormat(pattern = "yyyy-MM-dd")
     private Date finishedDate;
     private String category;
+    private Map<String, String> labels;
+    private Long version;
 
     public ResponseDTO(Long id, Todo todo) {
         this.id = id;
@@ -34,6 +38,8 @@ public class ResponseDTO {
         this.dueDate = todo.getDueDate();
         this.finishedDate = todo.isFinished() ? todo.getFinishedDate() : null;
         this.category = todo.getCategory();
+        this.labels = new LinkedHashMap<>(todo.getLabels());
+        this.version = todo.getVersion();
     }
 
     public ResponseDTO(Todo todo) {
@@ -47,6 +53,8 @@ public class ResponseDTO {
         this.finishedDate = todo.isFinished() ? todo.getFinishedDate() : null;
 
         this.category = todo.getCategory();
+        this.labels = new LinkedHashMap<>(todo.getLabels());
+        this.version = todo.getVersion();
     }
 
     public ResponseDTO() {
@@ -129,6 +137,22 @@ public class ResponseDTO {
         this.category = category;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
+    public Map<String, String> getLabels() {
+        return labels;
+    }
+
+    public void setLabels(Map<String, String> labels) {
+        this.labels = labels;
+    }
+
     private ResponseDTO(Long id, String title, String description, boolean finished, List<Assignee> assigneeList, Date createdDate, Date dueDate, Date finishedDate, String category) {
         this.id = id;
         this.title = title;
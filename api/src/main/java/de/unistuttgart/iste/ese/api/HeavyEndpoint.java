@@ -0,0 +1,14 @@
+package de.unistuttgart.iste.ese.api;
+
+import java.lang.annotation.*;
+
+/**
+ * Marks a handler method whose concurrency is bounded by admission control.
+ * Handlers with the same name share one limit, configured under {@code app.admission.heavy-endpoints.<name>}.
+ */
+@Target({ElementType.METHOD})
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface HeavyEndpoint {
+    String value();
+}
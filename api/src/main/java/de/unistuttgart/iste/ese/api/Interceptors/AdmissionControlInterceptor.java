@@ -0,0 +1,175 @@
+package de.unistuttgart.iste.ese.api.Interceptors;
+
+import de.unistuttgart.iste.ese.api.Config.AdmissionControlProperties;
+import de.unistuttgart.iste.ese.api.HeavyEndpoint;
+import de.unistuttgart.iste.ese.api.Utils.TokenBucket;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.Nonnull;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Admission control in front of all handlers: a global and a per-client token bucket limit the request rate,
+ * and handlers annotated with {@link HeavyEndpoint} run with bounded concurrency and a bounded wait queue.
+ * Rejected requests get a 429 response with a Retry-After header.
+ */
+public class AdmissionControlInterceptor implements AsyncHandlerInterceptor {
+    private static final String PERMIT_ATTRIBUTE = AdmissionControlInterceptor.class.getName() + ".permit";
+
+    private final AdmissionControlProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final TokenBucket globalBucket;
+    private final Map<String, TokenBucket> clientBuckets = new ConcurrentHashMap<>();
+    private final Map<String, Limit> limits = new ConcurrentHashMap<>();
+
+    public AdmissionControlInterceptor(AdmissionControlProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        this.globalBucket = new TokenBucket(properties.getGlobal().getCapacity(), properties.getGlobal().getRefillPerSecond());
+    }
+
+    @Override
+    public boolean preHandle(@Nonnull HttpServletRequest request, @Nonnull HttpServletResponse response,
+                             @Nonnull Object handler) throws InterruptedException {
+        // an async dispatch continues a request that was already admitted
+        if (request.getDispatcherType() == DispatcherType.ASYNC || !(handler instanceof HandlerMethod handlerMethod)) {
+            return true;
+        }
+
+        TokenBucket clientBucket = clientBucket(clientOf(request));
+        long clientWait = clientBucket.tryConsume();
+        if (clientWait > 0) {
+            throw reject("client", handlerMethod, clientWait);
+        }
+        long globalWait = globalBucket.tryConsume();
+        if (globalWait > 0) {
+            // the request was not served, so it must not count against the client's own rate
+            clientBucket.refund();
+            throw reject("global", handlerMethod, globalWait);
+        }
+
+        HeavyEndpoint heavyEndpoint = handlerMethod.getMethodAnnotation(HeavyEndpoint.class);
+        if (heavyEndpoint != null) {
+            Limit limit = limits.computeIfAbsent(heavyEndpoint.value(), this::createLimit);
+            if (!limit.acquire()) {
+                throw reject("concurrency", handlerMethod, limit.concurrency.getQueueTimeout().toNanos());
+            }
+            request.setAttribute(PERMIT_ATTRIBUTE, limit);
+        }
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(@Nonnull HttpServletRequest request, @Nonnull HttpServletResponse response,
+                                @Nonnull Object handler, Exception ex) {
+        Object limit = request.getAttribute(PERMIT_ATTRIBUTE);
+        if (limit != null) {
+            request.removeAttribute(PERMIT_ATTRIBUTE);
+            ((Limit) limit).release();
+        }
+    }
+
+    /**
+     * Forgets the buckets of clients that have been idle long enough for their bucket to refill.
+     */
+    public void evictIdleClients() {
+        clientBuckets.values().removeIf(TokenBucket::isFull);
+    }
+
+    private TokenBucket clientBucket(String client) {
+        if (clientBuckets.size() >= properties.getMaxTrackedClients()) {
+            evictIdleClients();
+        }
+        return clientBuckets.computeIfAbsent(client, c ->
+            new TokenBucket(properties.getPerClient().getCapacity(), properties.getPerClient().getRefillPerSecond()));
+    }
+
+    private String clientOf(HttpServletRequest request) {
+        if (properties.getClientHeader() != null) {
+            String client = request.getHeader(properties.getClientHeader());
+            if (client != null && !client.isEmpty()) {
+                return client;
+            }
+        }
+        return request.getRemoteAddr();
+    }
+
+    private TooManyRequestsException reject(String reason, HandlerMethod handler, long waitNanos) {
+        Counter.builder("api.admission.rejected")
+            .description("Requests rejected by admission control")
+            .tag("reason", reason)
+            .tag("handler", handler.getMethod().getName())
+            .register(meterRegistry)
+            .increment();
+        long retryAfterSeconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + TimeUnit.SECONDS.toNanos(1) - 1));
+        return new TooManyRequestsException(String.format("Too many requests (%s limit)", reason), retryAfterSeconds);
+    }
+
+    private Limit createLimit(String name) {
+        AdmissionControlProperties.Concurrency concurrency =
+            properties.getHeavyEndpoints().getOrDefault(name, new AdmissionControlProperties.Concurrency());
+        Limit limit = new Limit(concurrency, Timer.builder("api.admission.queue.wait")
+            .description("Time heavy requests waited for a free slot")
+            .tag("endpoint", name)
+            .register(meterRegistry));
+        meterRegistry.gauge("api.admission.active", Tags.of("endpoint", name), limit.active);
+        meterRegistry.gauge("api.admission.queued", Tags.of("endpoint", name), limit.queued);
+        return limit;
+    }
+
+    /**
+     * The concurrency limit of one heavy endpoint.
+     */
+    private static class Limit {
+        private final AdmissionControlProperties.Concurrency concurrency;
+        private final Semaphore permits;
+        private final AtomicInteger active = new AtomicInteger();
+        private final AtomicInteger queued = new AtomicInteger();
+        private final Timer queueWait;
+
+        Limit(AdmissionControlProperties.Concurrency concurrency, Timer queueWait) {
+            this.concurrency = concurrency;
+            this.permits = new Semaphore(concurrency.getMaxConcurrent(), true);
+            this.queueWait = queueWait;
+        }
+
+        boolean acquire() throws InterruptedException {
+            if (permits.tryAcquire()) {
+                active.incrementAndGet();
+                return true;
+            }
+            if (queued.incrementAndGet() > concurrency.getMaxQueued()) {
+                queued.decrementAndGet();
+                return false;
+            }
+            long start = System.nanoTime();
+            try {
+                if (!permits.tryAcquire(concurrency.getQueueTimeout().toNanos(), TimeUnit.NANOSECONDS)) {
+                    return false;
+                }
+                active.incrementAndGet();
+                return true;
+            } finally {
+                queued.decrementAndGet();
+                queueWait.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            }
+        }
+
+        void release() {
+            active.decrementAndGet();
+            permits.release();
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package de.unistuttgart.iste.ese.api.Interceptors;
+
+/**
+ * Thrown for the first SQL statement of a request that exceeds the query budget in fail mode.
+ */
+public class QueryBudgetExceededException extends IllegalStateException {
+
+    public QueryBudgetExceededException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,83 @@
+package de.unistuttgart.iste.ese.api.Interceptors;
+
+import de.unistuttgart.iste.ese.api.Config.QueryBudgetProperties;
+import de.unistuttgart.iste.ese.api.QueryBudget;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import jakarta.annotation.Nonnull;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+/**
+ * Counts the SQL statements, entity loads and collection fetches of every API request and records them per endpoint.
+ * A request that executes more statements than its budget is logged with its most repeated statement,
+ * or fails in {@link QueryBudgetProperties.Mode#FAIL} mode.
+ */
+public class QueryBudgetInterceptor implements HandlerInterceptor {
+
+    private static final Logger log = LoggerFactory.getLogger(QueryBudgetInterceptor.class);
+
+    private final QueryBudgetProperties properties;
+    private final MeterRegistry meterRegistry;
+
+    public QueryBudgetInterceptor(QueryBudgetProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public boolean preHandle(@Nonnull HttpServletRequest request, @Nonnull HttpServletResponse response,
+                             @Nonnull Object handler) {
+        if (handler instanceof HandlerMethod handlerMethod) {
+            QueryBudget budget = handlerMethod.getMethodAnnotation(QueryBudget.class);
+            RequestQueryStats.begin(endpointOf(request),
+                budget != null ? budget.value() : properties.getMaxStatements(),
+                properties.getMode() == QueryBudgetProperties.Mode.FAIL);
+        }
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(@Nonnull HttpServletRequest request, @Nonnull HttpServletResponse response,
+                                @Nonnull Object handler, Exception ex) {
+        RequestQueryStats stats = RequestQueryStats.end();
+        if (stats == null) {
+            return;
+        }
+        Tags tags = Tags.of("method", request.getMethod(), "uri", uriOf(request));
+        record("hibernate.request.statements", "SQL statements per request", tags, stats.getStatements());
+        record("hibernate.request.entity.loads", "Entities loaded per request", tags, stats.getEntityLoads());
+        record("hibernate.request.collection.fetches", "Collections fetched per request", tags, stats.getCollectionFetches());
+        if (stats.isOverBudget()) {
+            Counter.builder("hibernate.request.over.budget").tags(tags).register(meterRegistry).increment();
+            if (properties.getMode() != QueryBudgetProperties.Mode.OFF) {
+                log.warn("Query budget exceeded: {}", stats.describe());
+            }
+        }
+    }
+
+    private void record(String name, String description, Tags tags, int amount) {
+        DistributionSummary.builder(name)
+            .description(description)
+            .tags(tags)
+            .register(meterRegistry)
+            .record(amount);
+    }
+
+    private static String endpointOf(HttpServletRequest request) {
+        return request.getMethod() + " " + uriOf(request);
+    }
+
+    // the pattern instead of the path, so that the tags stay bounded
+    private static String uriOf(HttpServletRequest request) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return pattern != null ? pattern.toString() : "UNKNOWN";
+    }
+}
@@ -0,0 +1,123 @@
+package de.unistuttgart.iste.ese.api.Interceptors;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Counts the SQL statements, entity loads and collection fetches of the request that runs on the current thread.
+ * Hibernate reports every event to the static methods; events outside of a request, e.g. of background jobs, are ignored.
+ */
+public final class RequestQueryStats {
+
+    private static final ThreadLocal<RequestQueryStats> CURRENT = new ThreadLocal<>();
+
+    private final String endpoint;
+    private final int budget;
+    private final boolean failOverBudget;
+    private int statements;
+    private int entityLoads;
+    private int collectionFetches;
+    // the same SQL text executed many times in one request is the signature of an N+1 problem
+    private final Map<String, Integer> statementCounts = new HashMap<>();
+
+    private RequestQueryStats(String endpoint, int budget, boolean failOverBudget) {
+        this.endpoint = endpoint;
+        this.budget = budget;
+        this.failOverBudget = failOverBudget;
+    }
+
+    /**
+     * Starts counting for a request on the current thread.
+     *
+     * @param endpoint the method and URI pattern of the request, used in messages.
+     * @param budget the number of statements the request may execute.
+     * @param failOverBudget whether the first statement over the budget throws.
+     * @return the counters of the request.
+     */
+    public static RequestQueryStats begin(String endpoint, int budget, boolean failOverBudget) {
+        RequestQueryStats stats = new RequestQueryStats(endpoint, budget, failOverBudget);
+        CURRENT.set(stats);
+        return stats;
+    }
+
+    /**
+     * Stops counting on the current thread.
+     *
+     * @return the counters of the request, or null if no request was counted.
+     */
+    public static RequestQueryStats end() {
+        RequestQueryStats stats = CURRENT.get();
+        CURRENT.remove();
+        return stats;
+    }
+
+    /**
+     * Counts a statement that is about to be prepared.
+     *
+     * @param sql the SQL text of the statement.
+     * @throws QueryBudgetExceededException if the statement exceeds the budget in fail mode.
+     */
+    public static void recordStatement(String sql) {
+        RequestQueryStats stats = CURRENT.get();
+        if (stats == null) {
+            return;
+        }
+        stats.statements++;
+        stats.statementCounts.merge(sql, 1, Integer::sum);
+        if (stats.failOverBudget && stats.isOverBudget()) {
+            throw new QueryBudgetExceededException(stats.describe());
+        }
+    }
+
+    /**
+     * Counts an entity that was loaded from the database.
+     */
+    public static void recordEntityLoad() {
+        RequestQueryStats stats = CURRENT.get();
+        if (stats != null) {
+            stats.entityLoads++;
+        }
+    }
+
+    /**
+     * Counts a collection that was fetched from the database.
+     */
+    public static void recordCollectionFetch() {
+        RequestQueryStats stats = CURRENT.get();
+        if (stats != null) {
+            stats.collectionFetches++;
+        }
+    }
+
+    public int getStatements() {
+        return statements;
+    }
+
+    public int getEntityLoads() {
+        return entityLoads;
+    }
+
+    public int getCollectionFetches() {
+        return collectionFetches;
+    }
+
+    public boolean isOverBudget() {
+        return statements > budget;
+    }
+
+    /**
+     * Describes the counts and the most repeated statement, for log messages.
+     *
+     * @return the description.
+     */
+    public String describe() {
+        Map.Entry<String, Integer> mostRepeated = statementCounts.entrySet().stream()
+            .max(Map.Entry.comparingByValue())
+            .orElse(null);
+        return String.format("%s executed %d SQL statements (budget %d), loaded %d entities and fetched %d collections%s",
+            endpoint, statements, budget, entityLoads, collectionFetches,
+            mostRepeated != null && mostRepeated.getValue() > 1
+                ? String.format("; executed %d times: %s", mostRepeated.getValue(), mostRepeated.getKey())
+                : "");
+    }
+}
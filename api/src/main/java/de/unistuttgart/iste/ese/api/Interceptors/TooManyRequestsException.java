@@ -0,0 +1,24 @@
+package de.unistuttgart.iste.ese.api.Interceptors;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * A 429 response that tells the client when to retry.
+ */
+public class TooManyRequestsException extends ResponseStatusException {
+    private final long retryAfterSeconds;
+
+    public TooManyRequestsException(String reason, long retryAfterSeconds) {
+        super(HttpStatus.TOO_MANY_REQUESTS, reason);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    @Override
+    public HttpHeaders getHeaders() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        return headers;
+    }
+}
@@ -0,0 +1,157 @@
+package de.unistuttgart.iste.ese.api.Models;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.Fetch;
+import org.hibernate.annotations.FetchMode;
+import org.hibernate.annotations.TenantId;
+import org.springframework.data.domain.Persistable;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A finished todo that was moved out of the {@code todo} table by the archiver.
+ * It keeps the ID it had as a todo, and is read only through the archive endpoints.
+ */
+@Entity
+@Table(name = "todo_archive", indexes = {
+    // the archive is listed newest first
+    @Index(name = "idx_todo_archive_finished_date", columnList = "finishedDate, id"),
+    // every query is restricted to the current tenant, and several tenants share a shard
+    @Index(name = "idx_todo_archive_tenant", columnList = "tenant, id")
+})
+public class ArchivedTodo implements Persistable<Long> {
+    @Id
+    @Column(name = "id")
+    private Long id;
+
+    // set by Hibernate from the TenantContext on insert
+    @TenantId
+    @Column(nullable = false, updatable = false, length = 64)
+    private String tenant;
+
+    private String title;
+    private String description;
+
+    @ManyToMany(fetch = FetchType.EAGER)
+    @JoinTable(
+        name = "todo_archive_assignee_list",
+        joinColumns = @JoinColumn(name = "todo_id"),
+        inverseJoinColumns = @JoinColumn(name = "assignee_id"),
+        indexes = @Index(name = "idx_todo_archive_assignee_list_assignee", columnList = "assignee_id, todo_id")
+    )
+    private List<Assignee> assigneeList = new ArrayList<>();
+
+    private Date createdDate;
+    private Date dueDate;
+    private Date finishedDate;
+    private Date archivedDate;
+    private String category;
+
+    @ElementCollection
+    @Fetch(FetchMode.SUBSELECT)
+    @CollectionTable(name = "todo_archive_labels", joinColumns = @JoinColumn(name = "todo_id"))
+    @MapKeyColumn(name = "model")
+    @Column(name = "label")
+    private Map<String, String> labels = new HashMap<>();
+
+    // the ID is taken over from the todo, so Spring Data cannot tell new rows by a null ID
+    @Transient
+    private boolean isNew;
+
+    /**
+     * Copies a finished todo into the archive.
+     *
+     * @param todo the todo, with its assignees and labels loaded.
+     * @param archivedDate the time of the archival.
+     * @return the new archived todo.
+     */
+    public static ArchivedTodo of(Todo todo, Date archivedDate) {
+        ArchivedTodo archived = new ArchivedTodo();
+        archived.id = todo.getId();
+        archived.title = todo.getTitle();
+        archived.description = todo.getDescription();
+        archived.assigneeList = new ArrayList<>(todo.getAssigneeList());
+        archived.createdDate = todo.getCreatedDate();
+        archived.dueDate = todo.getDueDate();
+        archived.finishedDate = todo.getFinishedDate();
+        archived.archivedDate = archivedDate;
+        archived.category = todo.getCategory();
+        archived.labels = new HashMap<>(todo.getLabels());
+        archived.isNew = true;
+        return archived;
+    }
+
+    public ArchivedTodo() {
+    }
+
+    /**
+     * Returns the archived todo as a detached todo, so that it is serialized and exported like a todo.
+     *
+     * @return a finished todo that is not managed by JPA.
+     */
+    public Todo toTodo() {
+        Todo todo = new Todo(id, title, description, true, assigneeList, createdDate, dueDate, finishedDate, category);
+        todo.setLabels(labels);
+        return todo;
+    }
+
+    @Override
+    public Long getId() {
+        return id;
+    }
+
+    @Override
+    public boolean isNew() {
+        return isNew;
+    }
+
+    @PostPersist
+    @PostLoad
+    void markNotNew() {
+        this.isNew = false;
+    }
+
+    public String getTenant() {
+        return tenant;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public List<Assignee> getAssigneeList() {
+        return assigneeList;
+    }
+
+    public Date getCreatedDate() {
+        return createdDate;
+    }
+
+    public Date getDueDate() {
+        return dueDate;
+    }
+
+    public Date getFinishedDate() {
+        return finishedDate;
+    }
+
+    public Date getArchivedDate() {
+        return archivedDate;
+    }
+
+    public String getCategory() {
+        return category;
+    }
+
+    public Map<String, String> getLabels() {
+        return labels;
+    }
+}
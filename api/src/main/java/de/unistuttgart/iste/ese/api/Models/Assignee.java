@@ -1,18 +1,34 @@
 package de.unistuttgart.iste.ese.api.Models;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotNull;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.TenantId;
 
 @Entity
-@Table(name = "assignees")
+// the assignees of a todo are resolved from the second-level cache, see EntityCacheConfig
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = Assignee.CACHE_REGION)
+// every query is restricted to the current tenant, and several tenants share a shard
+@Table(name = "assignees", indexes = @Index(name = "idx_assignees_tenant", columnList = "tenant, id"))
 public class Assignee {
+    public static final String CACHE_REGION = "assignee";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     @Column(name = "id")
     private Long id;
 
+    // set by Hibernate from the TenantContext on insert
+    @TenantId
+    @JsonIgnore
+    @Column(nullable = false, updatable = false, length = 64)
+    private String tenant;
+
     @NotNull(message = "Vorname muss angegeben werden!")
     @JsonProperty("prename")
     @Column(name = "pre_name")
@@ -25,6 +41,10 @@ public class Assignee {
     @Email
     private String email;
 
+    // incremented on every update, used to detect concurrent modifications
+    @Version
+    private Long version;
+
     public Assignee(String prename, String name, String email) {
         this.prename = prename;
         this.name = name;
@@ -42,6 +62,14 @@ public class Assignee {
         this.id = id;
     }
 
+    public String getTenant() {
+        return tenant;
+    }
+
+    public void setTenant(String tenant) {
+        this.tenant = tenant;
+    }
+
     public String getPrename() {
         return prename;
     }
@@ -65,4 +93,12 @@ public class Assignee {
     public void setEmail(String email) {
         this.email = email;
     }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
 }
@@ -0,0 +1,96 @@
+package de.unistuttgart.iste.ese.api.Models;
+
+import io.micrometer.observation.ObservationRegistry;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A chain of named {@link TodoModel}s that are all scored once per todo,
+ * for example one model for the category and one for the priority.
+ */
+public class ClassificationPipeline {
+    /**
+     * The name of the model whose result is stored as the category of a todo.
+     */
+    public static final String CATEGORY = "category";
+
+    private final Map<String, TodoModel> models;
+
+    /**
+     * Constructs a pipeline from the given models.
+     *
+     * @param models the models by name, in the order they are scored.
+     */
+    public ClassificationPipeline(Map<String, TodoModel> models) {
+        this.models = Collections.unmodifiableMap(new LinkedHashMap<>(models));
+    }
+
+    /**
+     * Constructs a pipeline from a specification like {@code category=model.pmml,priority=priority.pmml}.
+     *
+     * @param specification comma-separated pairs of model name and PMML path.
+     * @return the pipeline with all models loaded.
+     * @throws IllegalArgumentException if the specification is malformed.
+     */
+    public static ClassificationPipeline fromSpecification(String specification) {
+        return fromSpecification(specification, ObservationRegistry.NOOP);
+    }
+
+    /**
+     * Constructs a pipeline from a specification like {@code category=model.pmml,priority=priority.pmml}
+     * whose models report every prediction as an observation.
+     *
+     * @param specification comma-separated pairs of model name and PMML path.
+     * @param observationRegistry the registry to report the predictions to.
+     * @return the pipeline with all models loaded.
+     * @throws IllegalArgumentException if the specification is malformed.
+     */
+    public static ClassificationPipeline fromSpecification(String specification, ObservationRegistry observationRegistry) {
+        Map<String, TodoModel> models = new LinkedHashMap<>();
+        for (String entry : specification.split(",")) {
+            String[] nameAndPath = entry.trim().split("=", 2);
+            if (nameAndPath.length != 2 || nameAndPath[0].isBlank() || nameAndPath[1].isBlank()) {
+                throw new IllegalArgumentException(String.format("Invalid model specification '%s'", entry));
+            }
+            models.put(nameAndPath[0].trim(), new TodoModel(nameAndPath[1].trim(), observationRegistry));
+        }
+        return new ClassificationPipeline(models);
+    }
+
+    /**
+     * Scores every model of the pipeline once.
+     *
+     * @param inputString the text to classify.
+     * @return the predicted label of every model, by model name.
+     */
+    public Map<String, String> classify(String inputString) {
+        Map<String, String> labels = new LinkedHashMap<>();
+        for (Map.Entry<String, TodoModel> model : models.entrySet()) {
+            labels.put(model.getKey(), model.getValue().predictClass(inputString));
+        }
+        return labels;
+    }
+
+    /**
+     * Predicts the category of the given text with the category model only.
+     *
+     * @param inputString the text to classify.
+     * @return the predicted category, or "unknown" if there is no category model.
+     */
+    public String predictCategory(String inputString) {
+        TodoModel categoryModel = models.get(CATEGORY);
+        return categoryModel != null ? categoryModel.predictClass(inputString) : "unknown";
+    }
+
+    /**
+     * Returns the names of the models in the order they are scored.
+     *
+     * @return the model names.
+     */
+    public Set<String> getModelNames() {
+        return models.keySet();
+    }
+}
@@ -0,0 +1,55 @@
+package de.unistuttgart.iste.ese.api.Models;
+
+import jakarta.persistence.*;
+
+import java.time.Instant;
+
+/**
+ * A row of the change table: the entities written by one transaction of one instance.
+ * The other instances poll the table in the order of the IDs and invalidate what they hold of these entities.
+ */
+@Entity
+@Table(name = "entity_change", indexes = @Index(name = "idx_entity_change_created_at", columnList = "createdAt"))
+public class EntityChange {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id")
+    private Long id;
+
+    // the instance that wrote the entities, which skips its own changes
+    @Column(nullable = false)
+    private String origin;
+
+    @Column(nullable = false)
+    private Instant createdAt;
+
+    // the changed entities, e.g. "todo:12,assignee:3"
+    @Lob
+    @Column(nullable = false)
+    private String entities;
+
+    public EntityChange(String origin, Instant createdAt, String entities) {
+        this.origin = origin;
+        this.createdAt = createdAt;
+        this.entities = entities;
+    }
+
+    public EntityChange() {
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getOrigin() {
+        return origin;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    public String getEntities() {
+        return entities;
+    }
+}
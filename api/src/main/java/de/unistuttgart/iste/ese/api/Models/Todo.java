@@ -9,30 +9,63 @@ import jakarta.persistence.Id;
 import jakarta.validation.constraints.Future;
 import jakarta.validation.constraints.NotNull;
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.Fetch;
+import org.hibernate.annotations.FetchMode;
+import org.hibernate.annotations.TenantId;
 
 import java.util.ArrayList;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 @Entity
+// lookups by ID are answered from the second-level cache, see EntityCacheConfig
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = Todo.CACHE_REGION)
+@Table(indexes = {
+    // lets the due date scheduler load the open todos of a time window without scanning the table
+    @Index(name = "idx_todo_finished_due_date", columnList = "finished, dueDate"),
+    // lets the archiver find the todos finished long ago
+    @Index(name = "idx_todo_finished_finished_date", columnList = "finished, finishedDate"),
+    // every query is restricted to the current tenant, and several tenants share a shard
+    @Index(name = "idx_todo_tenant", columnList = "tenant, id")
+})
 public class Todo {
+    public static final String CACHE_REGION = "todo";
+    public static final String ASSIGNEES_CACHE_REGION = "todo.assigneeList";
+    public static final String LABELS_CACHE_REGION = "todo.labels";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     @Column(name = "id")
     private Long id;
 
+    // set by Hibernate from the TenantContext on insert
+    @TenantId
+    @Column(nullable = false, updatable = false, length = 64)
+    private String tenant;
+
     @NotNull(message = "Titel muss angegeben werden")
     private String title;
     private String description;
     private Boolean finished;
 
     @ManyToMany(fetch = FetchType.EAGER)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = Todo.ASSIGNEES_CACHE_REGION)
     @JoinTable(
         name = "todo_assignee_list",
         joinColumns = @JoinColumn(name = "todo_id"),
-        inverseJoinColumns = @JoinColumn(name = "assignee_id")
+        inverseJoinColumns = @JoinColumn(name = "assignee_id"),
+        // lets the todos of an assignee be found without scanning the join table
+        indexes = @Index(name = "idx_todo_assignee_list_assignee", columnList = "assignee_id, todo_id")
     )
     private List<Assignee> assigneeList;
+
+    // set once on creation, updates never overwrite it
+    @Column(updatable = false)
     private Date createdDate;
 
     @Future(message = "Fälligkeitsdatum muss in der Zukunft liegen")
@@ -43,6 +76,18 @@ public class Todo {
     @Column(nullable = true)
     private String category;
 
+    // incremented on every update, used to detect concurrent modifications
+    @Version
+    private Long version;
+
+    // labels of the classification models other than the category model, by model name
+    @ElementCollection
+    @Fetch(FetchMode.SUBSELECT)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = Todo.LABELS_CACHE_REGION)
+    @CollectionTable(name = "todo_labels", joinColumns = @JoinColumn(name = "todo_id"))
+    @MapKeyColumn(name = "model")
+    @Column(name = "label")
+    private Map<String, String> labels = new HashMap<>();
 
     public Todo(Long id, String title, String description, Boolean finished, List<Assignee> assigneeList, Date createdDate, Date dueDate, Date finishedDate, String category) {
         this.id = id;
@@ -71,6 +116,10 @@ public class Todo {
     public Todo() {
     }
     
+    public String getTenant() {
+        return tenant;
+    }
+
     public String getTitle() {
         return title;
     }
@@ -120,7 +169,9 @@ public class Todo {
         return createdDate;
     }
     
-    public void setCreatedDate(Date createdDate) {}
+    public void setCreatedDate(Date createdDate) {
+        this.createdDate = createdDate;
+    }
 
     public Date getDueDate() {
         return dueDate;
@@ -145,4 +196,21 @@ public class Todo {
     public void setCategory(String category) {
         this.category = category;
     }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
+    public Map<String, String> getLabels() {
+        return labels;
+    }
+
+    public void setLabels(Map<String, String> labels) {
+        this.labels.clear();
+        this.labels.putAll(labels);
+    }
 }
@@ -1,32 +1,64 @@
 package de.unistuttgart.iste.ese.api.Models;
 
+import de.unistuttgart.iste.ese.api.Profiling.ClassificationEvent;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
 import jakarta.xml.bind.JAXBException;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import org.dmg.pmml.ResultFeature;
 import org.jpmml.evaluator.Evaluator;
+import org.jpmml.evaluator.EvaluatorUtil;
 import org.jpmml.evaluator.LoadingModelEvaluatorBuilder;
 import org.jpmml.evaluator.OutputField;
 import org.jpmml.evaluator.TargetField;
 import org.xml.sax.SAXException;
 
 import javax.xml.parsers.ParserConfigurationException;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 /**
  * A class for loading and using a PMML-based Todo classification model.
+ * Works with any PMML classifier: the input field, the field holding the predicted value and the labels
+ * of the categories are resolved once when the model is loaded.
  */
 public class TodoModel {
     private static final Log LOG = LogFactory.getLog(TodoModel.class);
+    // models exported from scikit-learn name their target after the numpy label array, e.g. ['private' 'work']
+    private static final Pattern LABEL_ARRAY = Pattern.compile("'([^']*)'");
+
+    private final String pathname;
+    private final ObservationRegistry observationRegistry;
     private Evaluator evaluator;
+    private String inputFieldName;
+    private String predictionFieldName;
+    private String[] labels;
 
     /**
      * Constructs a TodoModel with the specified PMML model file path.
      *
-     * @param pathname The path to the PMML model file.
+     * @param pathname The path to the PMML model file, either on the classpath or on the file system.
      */
     public TodoModel(String pathname) {
+        this(pathname, ObservationRegistry.NOOP);
+    }
+
+    /**
+     * Constructs a TodoModel that reports every prediction as an observation, e.g. as a span of the current trace.
+     *
+     * @param pathname The path to the PMML model file, either on the classpath or on the file system.
+     * @param observationRegistry The registry to report the predictions to.
+     */
+    public TodoModel(String pathname, ObservationRegistry observationRegistry) {
+        this.pathname = pathname;
+        this.observationRegistry = observationRegistry;
         loadModel();
     }
 
@@ -38,16 +70,54 @@ public class TodoModel {
      */
     public void loadModel() {
         // Building a model evaluator from a PMML file
-        try {
+        try (InputStream pmml = openModel()) {
             this.evaluator = new LoadingModelEvaluatorBuilder()
-                .load(getClass().getClassLoader().getResourceAsStream("model.pmml"))
+                .load(pmml)
                 .build();
-        } catch (ParserConfigurationException | SAXException | JAXBException e) {
-            LOG.error("Could not load AI model:", e);
+            resolveFields();
+        } catch (ParserConfigurationException | SAXException | JAXBException | IOException | IllegalArgumentException e) {
+            LOG.error(String.format("Could not load AI model %s:", pathname), e);
             this.evaluator = null;
         }
     }
 
+    /**
+     * Resolves the input field, the prediction field and the category labels of the loaded model.
+     *
+     * @throws IllegalArgumentException if the model is not a classifier with a single text input.
+     */
+    private void resolveFields() {
+        if (this.evaluator.getInputFields().size() != 1 || this.evaluator.getTargetFields().size() != 1) {
+            throw new IllegalArgumentException("Expected a model with exactly one input and one target field");
+        }
+        this.inputFieldName = this.evaluator.getInputFields().get(0).getName();
+
+        // Primary result (y) field
+        TargetField targetField = this.evaluator.getTargetFields().get(0);
+        this.predictionFieldName = targetField.getName();
+        // Secondary result (eg. probability(y), decision(y)) fields take precedence if they hold the prediction
+        for (OutputField outputField : this.evaluator.getOutputFields()) {
+            if (outputField.getField().getResultFeature() == ResultFeature.PREDICTED_VALUE) {
+                this.predictionFieldName = outputField.getName();
+                break;
+            }
+        }
+
+        Matcher matcher = LABEL_ARRAY.matcher(targetField.getName());
+        List<String> arrayLabels = matcher.results().map(result -> result.group(1)).toList();
+        List<Object> categories = targetField.getCategories();
+        if (!arrayLabels.isEmpty() && categories != null && arrayLabels.size() == categories.size()) {
+            this.labels = arrayLabels.toArray(new String[0]);
+        } else {
+            this.labels = null;
+        }
+    }
+
+    private InputStream openModel() throws IOException {
+        InputStream resource = getClass().getClassLoader().getResourceAsStream(pathname);
+        return resource != null ? resource : new FileInputStream(pathname);
+    }
+
     /**
      * Parses the model's output to retrieve the predicted class/category.
      *
@@ -55,14 +125,12 @@ public class TodoModel {
      * @return The predicted class/category based on the model's output.
      */
     private String parseModelOutput(Map<String, ?> results) {
-        // Primary result (y) field(s)
-        List<TargetField> targetFields = this.evaluator.getTargetFields();
-        // Secondary result (eg. probability(y), decision(y)) fields
-        List<OutputField> outputFields = this.evaluator.getOutputFields();
-
-        int predictedLabelIndex = Integer.parseInt(results.get(outputFields.get(2).getName()).toString());
-        String[] targetLabels = targetFields.get(0).getName().replaceAll("[\\['\\]]", "").split(" ");
-        return targetLabels[predictedLabelIndex];
+        Object prediction = EvaluatorUtil.decode(results.get(predictionFieldName));
+        if (labels == null) {
+            return String.valueOf(prediction);
+        }
+        int predictedLabelIndex = Integer.parseInt(prediction.toString());
+        return labels[predictedLabelIndex];
     }
 
     /**
@@ -77,14 +145,32 @@ public class TodoModel {
             return "unknown";
         }
 
+        return Observation.createNotStarted("todo.classification", observationRegistry)
+            .contextualName("predictClass")
+            .lowCardinalityKeyValue("model", pathname)
+            .observe(() -> evaluate(inputString));
+    }
+
+    private String evaluate(String inputString) {
+        ClassificationEvent event = new ClassificationEvent();
+        event.begin();
+
         // Prepare the input data
         Map<String, Object> input = new HashMap<>();
-        input.put("text", inputString);
+        input.put(inputFieldName, inputString);
 
         // Predict class and parse results
         Map<String, ?> results = this.evaluator.evaluate(input);
+        String category = parseModelOutput(results);
 
-        return parseModelOutput(results);
+        event.end();
+        if (event.shouldCommit()) {
+            event.model = pathname;
+            event.titleLength = inputString == null ? 0 : inputString.length();
+            event.category = category;
+            event.commit();
+        }
+        return category;
     }
 
     /**
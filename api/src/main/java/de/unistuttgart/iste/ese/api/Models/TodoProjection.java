@@ -0,0 +1,475 @@
+package de.unistuttgart.iste.ese.api.Models;
+
+import de.unistuttgart.iste.ese.api.DTOs.CompactTodoListDTO;
+
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A columnar in-memory copy of all todos, for reads that would otherwise hydrate the whole entity graph.
+ * Rows are kept sorted by ID in parallel arrays: dates as epoch days, finished and category as bitsets,
+ * and assignees as interned codes into a table that holds every assignee once.
+ * Writes may arrive out of commit order, so a row is only replaced by a row of at least its version,
+ * and the IDs of removed todos are remembered so that a late write cannot bring a todo back, until the caller
+ * knows that no write older than the removal is still pending.
+ * Not thread-safe, callers guard reads and writes with a lock.
+ */
+public class TodoProjection {
+
+    /**
+     * Marks a missing date in the epoch day columns.
+     */
+    public static final int NO_DAY = Integer.MIN_VALUE;
+
+    private static final int[] NO_ASSIGNEES = new int[0];
+
+    private int size;
+    private long[] ids = new long[16];
+    private String[] titles = new String[16];
+    private String[] descriptions = new String[16];
+    private Map<String, String>[] labels = newLabelArray(16);
+    private int[] createdDays = new int[16];
+    private int[] dueDays = new int[16];
+    private int[] finishedDays = new int[16];
+    private int[] categoryCodes = new int[16];
+    private int[][] assigneeCodes = new int[16][];
+    private long[] versions = new long[16];
+    private final BitSet finished = new BitSet();
+    // removed IDs with the write sequence at their removal, in removal order so that the oldest are pruned first
+    private final Map<Long, Long> tombstones = new LinkedHashMap<>();
+
+    private final List<String> categories = new ArrayList<>();
+    private final Map<String, Integer> categoryCodeByName = new HashMap<>();
+    private final List<BitSet> categoryBits = new ArrayList<>();
+
+    private final List<Assignee> assignees = new ArrayList<>();
+    private final Map<Long, Integer> assigneeCodeById = new HashMap<>();
+
+    /**
+     * The values of one todo, copied out of the entity so that they can be applied after the transaction committed.
+     */
+    public record Row(long id, String title, String description, Map<String, String> labels, boolean finished,
+                      int createdDay, int dueDay, int finishedDay, String category, List<Assignee> assignees,
+                      long version) {
+
+        /**
+         * Copies the projected values of a todo.
+         *
+         * @param todo the todo, with its ID assigned.
+         * @return the row.
+         */
+        public static Row of(Todo todo) {
+            List<Assignee> assignees = new ArrayList<>();
+            for (Assignee assignee : todo.getAssigneeList()) {
+                assignees.add(copyOf(assignee));
+            }
+            return new Row(todo.getId(), todo.getTitle(), todo.getDescription(),
+                todo.getLabels().isEmpty() ? Map.of() : Map.copyOf(todo.getLabels()), todo.isFinished(),
+                toEpochDay(todo.getCreatedDate()), toEpochDay(todo.getDueDate()),
+                todo.isFinished() ? toEpochDay(todo.getFinishedDate()) : NO_DAY, todo.getCategory(), assignees,
+                todo.getVersion() != null ? todo.getVersion() : 0);
+        }
+    }
+
+    /**
+     * Counts over all todos, computed from the columns without touching the strings.
+     */
+    public record Stats(int total, int finished, int open, int overdue, int dueWithinWeek,
+                        Map<String, Integer> byCategory, Map<Long, Integer> openByAssignee) {
+    }
+
+    /**
+     * Inserts a todo or replaces the todo with the same ID, unless the todo was removed or is stored
+     * in a newer version.
+     *
+     * @param row the values of the todo.
+     * @return true if the row was applied, false if it was older than the stored state.
+     */
+    public boolean upsert(Row row) {
+        if (tombstones.containsKey(row.id())) {
+            return false;
+        }
+        int position = Arrays.binarySearch(ids, 0, size, row.id());
+        if (position >= 0 && row.version() < versions[position]) {
+            return false;
+        }
+        if (position < 0) {
+            position = -position - 1;
+            insertAt(position);
+            ids[position] = row.id();
+        } else {
+            clearCategory(position);
+        }
+        titles[position] = row.title();
+        descriptions[position] = row.description();
+        labels[position] = row.labels();
+        createdDays[position] = row.createdDay();
+        dueDays[position] = row.dueDay();
+        finishedDays[position] = row.finishedDay();
+        finished.set(position, row.finished());
+        int category = internCategory(row.category());
+        categoryCodes[position] = category;
+        if (category >= 0) {
+            categoryBits.get(category).set(position);
+        }
+        int[] codes = row.assignees().isEmpty() ? NO_ASSIGNEES : new int[row.assignees().size()];
+        for (int i = 0; i < codes.length; i++) {
+            codes[i] = putAssignee(row.assignees().get(i));
+        }
+        assigneeCodes[position] = codes;
+        versions[position] = row.version();
+        return true;
+    }
+
+    /**
+     * Removes a todo, and keeps it from being inserted again by a write that arrives after the removal.
+     *
+     * @param id the ID of the todo.
+     * @param writeSequence the sequence number of the last write that was started before the removal committed;
+     *                      the removal is remembered until all writes up to it are applied or rolled back.
+     * @return true if the todo was projected.
+     */
+    public boolean remove(long id, long writeSequence) {
+        // re-insert, so that the tombstones stay ordered by their sequence
+        tombstones.remove(id);
+        tombstones.put(id, writeSequence);
+        int position = Arrays.binarySearch(ids, 0, size, id);
+        if (position < 0) {
+            return false;
+        }
+        clearCategory(position);
+        int tail = size - position - 1;
+        System.arraycopy(ids, position + 1, ids, position, tail);
+        System.arraycopy(titles, position + 1, titles, position, tail);
+        System.arraycopy(descriptions, position + 1, descriptions, position, tail);
+        System.arraycopy(labels, position + 1, labels, position, tail);
+        System.arraycopy(createdDays, position + 1, createdDays, position, tail);
+        System.arraycopy(dueDays, position + 1, dueDays, position, tail);
+        System.arraycopy(finishedDays, position + 1, finishedDays, position, tail);
+        System.arraycopy(categoryCodes, position + 1, categoryCodes, position, tail);
+        System.arraycopy(assigneeCodes, position + 1, assigneeCodes, position, tail);
+        System.arraycopy(versions, position + 1, versions, position, tail);
+        shiftBits(finished, position + 1, -1);
+        for (BitSet bits : categoryBits) {
+            shiftBits(bits, position + 1, -1);
+        }
+        size--;
+        titles[size] = null;
+        descriptions[size] = null;
+        labels[size] = null;
+        assigneeCodes[size] = null;
+        return true;
+    }
+
+    /**
+     * Forgets removed todos that no pending write can bring back anymore.
+     * IDs are never reused, so a write started after the removal committed cannot refer to a removed todo.
+     *
+     * @param oldestPendingWrite the sequence number of the oldest write that is neither applied nor rolled back,
+     *                           or {@link Long#MAX_VALUE} if there is none.
+     */
+    public void pruneTombstones(long oldestPendingWrite) {
+        Iterator<Long> sequences = tombstones.values().iterator();
+        while (sequences.hasNext() && sequences.next() < oldestPendingWrite) {
+            sequences.remove();
+        }
+    }
+
+    /**
+     * Returns the number of removed todos that are still remembered.
+     *
+     * @return the number of tombstones.
+     */
+    public int tombstones() {
+        return tombstones.size();
+    }
+
+    /**
+     * Adds an assignee to the assignee table or replaces the stored copy, so that todos show its new name.
+     * A copy older than the stored one is ignored.
+     *
+     * @param assignee the assignee.
+     * @return the code of the assignee in the table.
+     */
+    public int putAssignee(Assignee assignee) {
+        Integer code = assigneeCodeById.get(assignee.getId());
+        if (code == null) {
+            code = assignees.size();
+            assignees.add(null);
+            assigneeCodeById.put(assignee.getId(), code);
+        }
+        Assignee stored = assignees.get(code);
+        if (stored == null || !isOlder(assignee.getVersion(), stored.getVersion())) {
+            assignees.set(code, copyOf(assignee));
+        }
+        return code;
+    }
+
+    /**
+     * Returns the number of projected todos.
+     *
+     * @return the number of todos.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns whether a todo is projected.
+     *
+     * @param id the ID of the todo.
+     * @return true if the todo is projected.
+     */
+    public boolean contains(long id) {
+        return Arrays.binarySearch(ids, 0, size, id) >= 0;
+    }
+
+    /**
+     * Finds the IDs of all todos that match every given condition, in ascending order.
+     *
+     * @param finishedFilter the finished state, or null for both.
+     * @param category the category, or null for all.
+     * @param assigneeId the ID of an assignee of the todo, or null for all.
+     * @param dueFrom the first epoch day the todo may be due on, or {@link #NO_DAY} for no lower bound.
+     * @param dueTo the last epoch day the todo may be due on, or {@link #NO_DAY} for no upper bound.
+     * @return the IDs of the matching todos.
+     */
+    public long[] findIds(Boolean finishedFilter, String category, Long assigneeId, int dueFrom, int dueTo) {
+        BitSet matches = new BitSet(size);
+        if (category != null) {
+            Integer code = categoryCodeByName.get(category);
+            if (code == null) {
+                return new long[0];
+            }
+            matches.or(categoryBits.get(code));
+        } else {
+            matches.set(0, size);
+        }
+        if (finishedFilter != null) {
+            if (finishedFilter) {
+                matches.and(finished);
+            } else {
+                matches.andNot(finished);
+            }
+        }
+        int assigneeCode = -1;
+        if (assigneeId != null) {
+            Integer code = assigneeCodeById.get(assigneeId);
+            if (code == null) {
+                return new long[0];
+            }
+            assigneeCode = code;
+        }
+
+        long[] result = new long[matches.cardinality()];
+        int count = 0;
+        for (int i = matches.nextSetBit(0); i >= 0; i = matches.nextSetBit(i + 1)) {
+            if (dueFrom != NO_DAY && (dueDays[i] == NO_DAY || dueDays[i] < dueFrom)) continue;
+            if (dueTo != NO_DAY && (dueDays[i] == NO_DAY || dueDays[i] > dueTo)) continue;
+            if (assigneeCode >= 0 && !containsCode(assigneeCodes[i], assigneeCode)) continue;
+            result[count++] = ids[i];
+        }
+        return count == result.length ? result : Arrays.copyOf(result, count);
+    }
+
+    /**
+     * Counts todos by state, due date, category and assignee.
+     *
+     * @param today the current epoch day, todos due before it and not finished are overdue.
+     * @return the counts.
+     */
+    public Stats stats(int today) {
+        int finishedCount = finished.cardinality();
+        int overdue = 0;
+        int dueWithinWeek = 0;
+        int[] openByAssigneeCode = new int[assignees.size()];
+        for (int i = finished.nextClearBit(0); i < size; i = finished.nextClearBit(i + 1)) {
+            int due = dueDays[i];
+            if (due != NO_DAY && due < today) {
+                overdue++;
+            } else if (due != NO_DAY && due <= today + 7) {
+                dueWithinWeek++;
+            }
+            for (int code : assigneeCodes[i]) {
+                openByAssigneeCode[code]++;
+            }
+        }
+        Map<String, Integer> byCategory = new LinkedHashMap<>();
+        for (int code = 0; code < categories.size(); code++) {
+            int count = categoryBits.get(code).cardinality();
+            if (count > 0) {
+                byCategory.put(categories.get(code), count);
+            }
+        }
+        Map<Long, Integer> openByAssignee = new LinkedHashMap<>();
+        for (int code = 0; code < openByAssigneeCode.length; code++) {
+            if (openByAssigneeCode[code] > 0) {
+                openByAssignee.put(assignees.get(code).getId(), openByAssigneeCode[code]);
+            }
+        }
+        return new Stats(size, finishedCount, size - finishedCount, overdue, dueWithinWeek, byCategory, openByAssignee);
+    }
+
+    /**
+     * Builds the compact list of all todos directly from the columns.
+     *
+     * @return all todos, ordered by ID, with the assignees they reference in a side table.
+     */
+    public CompactTodoListDTO toCompactList() {
+        BitSet referenced = new BitSet(assignees.size());
+        List<CompactTodoListDTO.CompactTodo> todos = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            int[] codes = assigneeCodes[i];
+            long[] assigneeIds = new long[codes.length];
+            for (int j = 0; j < codes.length; j++) {
+                assigneeIds[j] = assignees.get(codes[j]).getId();
+                referenced.set(codes[j]);
+            }
+            todos.add(new CompactTodoListDTO.CompactTodo(ids[i], titles[i], descriptions[i], finished.get(i),
+                assigneeIds, day(createdDays[i]), day(dueDays[i]), day(finishedDays[i]),
+                categoryCodes[i] >= 0 ? categories.get(categoryCodes[i]) : null, labels[i]));
+        }
+        List<Assignee> sideTable = new ArrayList<>(referenced.cardinality());
+        for (int code = referenced.nextSetBit(0); code >= 0; code = referenced.nextSetBit(code + 1)) {
+            sideTable.add(assignees.get(code));
+        }
+        return new CompactTodoListDTO(sideTable, todos);
+    }
+
+    /**
+     * Estimates the heap used by the columns, without the strings shared with nothing else.
+     *
+     * @return the estimated size in bytes.
+     */
+    public long estimatedBytes() {
+        long bytes = (long) ids.length * (8 + 3 * 4 + 4 + 3 * 4 + 8);
+        bytes += tombstones.size() * 64L;
+        bytes += finished.size() / 8;
+        for (BitSet bits : categoryBits) {
+            bytes += bits.size() / 8;
+        }
+        for (int i = 0; i < size; i++) {
+            bytes += 16 + 4L * assigneeCodes[i].length;
+            bytes += stringBytes(titles[i]) + stringBytes(descriptions[i]);
+        }
+        return bytes + assignees.size() * 64L;
+    }
+
+    /**
+     * Converts a date to days since 1970-01-01 in the server's time zone.
+     *
+     * @param date the date, may be null.
+     * @return the epoch day, or {@link #NO_DAY} if no date was given.
+     */
+    public static int toEpochDay(Date date) {
+        if (date == null) return NO_DAY;
+        return (int) date.toInstant().atZone(ZoneId.systemDefault()).toLocalDate().toEpochDay();
+    }
+
+    private static Integer day(int epochDay) {
+        return epochDay == NO_DAY ? null : epochDay;
+    }
+
+    private static long stringBytes(String value) {
+        return value == null ? 0 : 40 + value.length();
+    }
+
+    private static boolean isOlder(Long version, Long than) {
+        return version != null && than != null && version < than;
+    }
+
+    private static boolean containsCode(int[] codes, int code) {
+        for (int candidate : codes) {
+            if (candidate == code) return true;
+        }
+        return false;
+    }
+
+    private static Assignee copyOf(Assignee assignee) {
+        Assignee copy = new Assignee(assignee.getPrename(), assignee.getName(), assignee.getEmail());
+        copy.setId(assignee.getId());
+        copy.setVersion(assignee.getVersion());
+        return copy;
+    }
+
+    private int internCategory(String category) {
+        if (category == null) {
+            return -1;
+        }
+        return categoryCodeByName.computeIfAbsent(category, name -> {
+            categories.add(name);
+            categoryBits.add(new BitSet());
+            return categories.size() - 1;
+        });
+    }
+
+    private void clearCategory(int position) {
+        if (categoryCodes[position] >= 0) {
+            categoryBits.get(categoryCodes[position]).clear(position);
+        }
+    }
+
+    private void insertAt(int position) {
+        if (size == ids.length) {
+            int capacity = ids.length * 2;
+            ids = Arrays.copyOf(ids, capacity);
+            titles = Arrays.copyOf(titles, capacity);
+            descriptions = Arrays.copyOf(descriptions, capacity);
+            labels = Arrays.copyOf(labels, capacity);
+            createdDays = Arrays.copyOf(createdDays, capacity);
+            dueDays = Arrays.copyOf(dueDays, capacity);
+            finishedDays = Arrays.copyOf(finishedDays, capacity);
+            categoryCodes = Arrays.copyOf(categoryCodes, capacity);
+            assigneeCodes = Arrays.copyOf(assigneeCodes, capacity);
+            versions = Arrays.copyOf(versions, capacity);
+        }
+        int tail = size - position;
+        // IDs are generated in ascending order, so new todos are almost always appended without moving rows
+        if (tail > 0) {
+            System.arraycopy(ids, position, ids, position + 1, tail);
+            System.arraycopy(titles, position, titles, position + 1, tail);
+            System.arraycopy(descriptions, position, descriptions, position + 1, tail);
+            System.arraycopy(labels, position, labels, position + 1, tail);
+            System.arraycopy(createdDays, position, createdDays, position + 1, tail);
+            System.arraycopy(dueDays, position, dueDays, position + 1, tail);
+            System.arraycopy(finishedDays, position, finishedDays, position + 1, tail);
+            System.arraycopy(categoryCodes, position, categoryCodes, position + 1, tail);
+            System.arraycopy(assigneeCodes, position, assigneeCodes, position + 1, tail);
+            System.arraycopy(versions, position, versions, position + 1, tail);
+            shiftBits(finished, position, 1);
+            for (BitSet bits : categoryBits) {
+                shiftBits(bits, position, 1);
+            }
+        }
+        categoryCodes[position] = -1;
+        size++;
+    }
+
+    /**
+     * Moves all bits from the given index on by delta positions.
+     */
+    private static void shiftBits(BitSet bits, int from, int delta) {
+        if (bits.nextSetBit(from) < 0) {
+            if (delta < 0 && from > 0) bits.clear(from - 1);
+            return;
+        }
+        BitSet tail = bits.get(from, bits.length());
+        bits.clear(Math.max(0, from + Math.min(delta, 0)), bits.length());
+        for (int i = tail.nextSetBit(0); i >= 0; i = tail.nextSetBit(i + 1)) {
+            bits.set(from + i + delta);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, String>[] newLabelArray(int capacity) {
+        return new Map[capacity];
+    }
+}
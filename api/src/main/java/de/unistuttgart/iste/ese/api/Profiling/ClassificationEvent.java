@@ -0,0 +1,29 @@
+package de.unistuttgart.iste.ese.api.Profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder event for scoring a todo title with one classification model.
+ */
+@Name(ClassificationEvent.NAME)
+@Label("Todo Classification")
+@Category({"Todo API", "Classification"})
+@Description("Scoring of a todo title with one PMML model")
+@StackTrace(false)
+public class ClassificationEvent extends jdk.jfr.Event {
+
+    public static final String NAME = "de.unistuttgart.iste.ese.api.Classification";
+
+    @Label("Model")
+    public String model;
+
+    @Label("Title Length")
+    public int titleLength;
+
+    @Label("Category")
+    public String category;
+}
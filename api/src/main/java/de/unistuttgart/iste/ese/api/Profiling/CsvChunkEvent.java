@@ -0,0 +1,35 @@
+package de.unistuttgart.iste.ese.api.Profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder event for reading and formatting one ID range of a CSV export.
+ */
+@Name(CsvChunkEvent.NAME)
+@Label("CSV Export Chunk")
+@Category({"Todo API", "Export"})
+@Description("Reading and formatting one ID range of a CSV export")
+@StackTrace(false)
+public class CsvChunkEvent extends jdk.jfr.Event {
+
+    public static final String NAME = "de.unistuttgart.iste.ese.api.CsvChunk";
+
+    @Label("First ID")
+    public long fromId;
+
+    @Label("End ID")
+    @Description("The exclusive end of the ID range")
+    public long toId;
+
+    @Label("Rows")
+    public int rows;
+
+    @Label("Size")
+    @DataAmount
+    public long bytes;
+}
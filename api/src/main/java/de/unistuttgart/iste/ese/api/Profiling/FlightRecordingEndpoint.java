@@ -0,0 +1,231 @@
+package de.unistuttgart.iste.ese.api.Profiling;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.http.HttpStatus;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Actuator endpoint that controls a Flight Recorder recording of this instance.
+ * The recording only keeps the last few minutes up to a size limit, so it can run all the time and be
+ * dumped to local disk when a latency spike happens; dumps are summarized with {@link JfrAnalyzer}.
+ * <ul>
+ *     <li>{@code GET /actuator/flightrecording} shows the recording and the dumps</li>
+ *     <li>{@code POST /actuator/flightrecording/start} starts a recording, optionally with {@code {"settings": "profile"}}</li>
+ *     <li>{@code POST /actuator/flightrecording/dump} writes the recorded data to a file</li>
+ *     <li>{@code POST /actuator/flightrecording/stop} writes a last dump and stops the recording</li>
+ * </ul>
+ * The endpoint is only exposed by the {@code management} profile, on a management port bound to localhost.
+ */
+@Component
+@Endpoint(id = "flightrecording")
+public class FlightRecordingEndpoint {
+
+    private static final Logger log = LoggerFactory.getLogger(FlightRecordingEndpoint.class);
+    private static final DateTimeFormatter FILE_TIMESTAMP = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss-SSS");
+
+    @Value("${app.jfr.directory:${java.io.tmpdir}/todo-jfr}")
+    private Path directory;
+
+    // "default" costs about 1% CPU and can stay on, "profile" samples more and is meant for short recordings
+    @Value("${app.jfr.settings:default}")
+    private String defaultSettings;
+
+    @Value("${app.jfr.max-age:15m}")
+    private Duration maxAge;
+
+    @Value("${app.jfr.max-size:64MB}")
+    private DataSize maxSize;
+
+    @Value("${app.jfr.max-dumps:5}")
+    private int maxDumps;
+
+    @Value("${app.jfr.always-on:false}")
+    private boolean alwaysOn;
+
+    // guarded by this
+    private Recording recording;
+    private String recordingSettings;
+
+    /**
+     * Creates the dump directory and starts the recording if it is always on.
+     *
+     * @throws IOException if the directory cannot be created.
+     */
+    @PostConstruct
+    public void init() throws IOException {
+        Files.createDirectories(directory);
+        if (alwaysOn) {
+            start(null);
+        }
+    }
+
+    /**
+     * Discards the recording without dumping it.
+     */
+    @PreDestroy
+    public synchronized void shutdown() {
+        if (recording != null) {
+            recording.close();
+            recording = null;
+        }
+    }
+
+    /**
+     * Describes the current recording and the dumps on disk.
+     *
+     * @return the state of the recording and the dump files.
+     * @throws IOException if the dump directory cannot be listed.
+     */
+    @ReadOperation
+    public synchronized Map<String, Object> status() throws IOException {
+        Map<String, Object> status = new LinkedHashMap<>();
+        boolean running = recording != null && recording.getState() == RecordingState.RUNNING;
+        status.put("running", running);
+        if (running) {
+            status.put("settings", recordingSettings);
+            status.put("startTime", recording.getStartTime());
+            status.put("maxAge", maxAge.toString());
+            status.put("maxSize", maxSize.toBytes());
+            status.put("size", recording.getSize());
+        }
+        List<Map<String, Object>> dumps = new ArrayList<>();
+        for (Path dump : listDumps()) {
+            dumps.add(Map.of("file", dump.toString(), "size", Files.size(dump)));
+        }
+        status.put("dumps", dumps);
+        return status;
+    }
+
+    /**
+     * Starts, dumps or stops the recording.
+     *
+     * @param action one of start, dump and stop.
+     * @param settings the JFR settings to start with, "default" or "profile"; only used by start.
+     * @return the state after the action, or 400/409 if the action is unknown or not possible.
+     * @throws IOException if a dump cannot be written.
+     */
+    @WriteOperation
+    public WebEndpointResponse<Map<String, Object>> action(@Selector String action, @Nullable String settings) throws IOException {
+        try {
+            switch (action) {
+                case "start" -> start(settings);
+                case "dump" -> dump();
+                case "stop" -> stop();
+                default -> {
+                    return error(WebEndpointResponse.STATUS_BAD_REQUEST, "Unbekannte Aktion " + action);
+                }
+            }
+        } catch (IllegalArgumentException e) {
+            return error(WebEndpointResponse.STATUS_BAD_REQUEST, e.getMessage());
+        } catch (IllegalStateException e) {
+            return error(HttpStatus.CONFLICT.value(), e.getMessage());
+        }
+        return new WebEndpointResponse<>(status());
+    }
+
+    /**
+     * Starts a recording that keeps at most the configured age and size of data.
+     *
+     * @param settings the name of a JFR configuration, or null for the configured default.
+     * @throws IllegalStateException if a recording is already running.
+     * @throws IllegalArgumentException if there is no configuration with that name.
+     */
+    public synchronized void start(@Nullable String settings) {
+        if (recording != null) {
+            throw new IllegalStateException("Es läuft bereits eine Aufzeichnung");
+        }
+        String name = settings != null ? settings : defaultSettings;
+        Configuration configuration;
+        try {
+            configuration = Configuration.getConfiguration(name);
+        } catch (IOException | ParseException e) {
+            throw new IllegalArgumentException("Unbekannte JFR-Konfiguration " + name, e);
+        }
+        Recording started = new Recording(configuration);
+        started.setName("todo-api");
+        started.setToDisk(true);
+        started.setMaxAge(maxAge);
+        started.setMaxSize(maxSize.toBytes());
+        started.start();
+        recording = started;
+        recordingSettings = name;
+        log.info("Started flight recording with settings {}", name);
+    }
+
+    /**
+     * Writes the data of the running recording to a new file, deleting the oldest dumps beyond the limit.
+     *
+     * @return the written file.
+     * @throws IllegalStateException if no recording is running.
+     * @throws IOException if the file cannot be written.
+     */
+    public synchronized Path dump() throws IOException {
+        if (recording == null) {
+            throw new IllegalStateException("Es läuft keine Aufzeichnung");
+        }
+        Path file = directory.resolve("todo-api-" + LocalDateTime.now().format(FILE_TIMESTAMP) + ".jfr");
+        recording.dump(file);
+        List<Path> dumps = listDumps();
+        for (int i = 0; i < dumps.size() - maxDumps; i++) {
+            Files.deleteIfExists(dumps.get(i));
+        }
+        log.info("Dumped flight recording to {}", file);
+        return file;
+    }
+
+    /**
+     * Dumps and stops the running recording.
+     *
+     * @return the last dump of the recording.
+     * @throws IllegalStateException if no recording is running.
+     * @throws IOException if the dump cannot be written.
+     */
+    public synchronized Path stop() throws IOException {
+        Path file = dump();
+        recording.close();
+        recording = null;
+        return file;
+    }
+
+    // oldest first; the timestamp in the name sorts like the time of the dump
+    private List<Path> listDumps() throws IOException {
+        List<Path> dumps = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "todo-api-*.jfr")) {
+            files.forEach(dumps::add);
+        }
+        dumps.sort(Comparator.comparing(Path::getFileName));
+        return dumps;
+    }
+
+    private static WebEndpointResponse<Map<String, Object>> error(int status, String message) {
+        return new WebEndpointResponse<>(Map.of("error", message), status);
+    }
+}
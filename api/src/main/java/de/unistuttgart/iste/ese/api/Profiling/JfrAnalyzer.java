@@ -0,0 +1,142 @@
+package de.unistuttgart.iste.ese.api.Profiling;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingFile;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Summarizes a Flight Recorder dump offline: the stages of the API by total time, and the methods of the API
+ * that were executing most often when the JVM sampled the threads.
+ * Run with {@code java -cp target/classes de.unistuttgart.iste.ese.api.Profiling.JfrAnalyzer <file.jfr>}.
+ */
+public class JfrAnalyzer {
+
+    private static final String PACKAGE = "de.unistuttgart.iste.ese.api.";
+
+    /**
+     * The recorded durations of one stage.
+     *
+     * @param stage the event and its key, e.g. "TodoWrite create/persist".
+     * @param count the number of events.
+     * @param total the sum of the durations.
+     * @param p50 the median duration.
+     * @param p99 the 99th percentile of the durations.
+     * @param max the longest duration.
+     */
+    public record StageSummary(String stage, int count, Duration total, Duration p50, Duration p99, Duration max) {
+    }
+
+    /**
+     * How often a method of the API was the innermost API frame of an execution sample.
+     *
+     * @param method the class and method name.
+     * @param samples the number of samples.
+     */
+    public record HotMethod(String method, int samples) {
+    }
+
+    /**
+     * The summary of a recording.
+     *
+     * @param stages the stages, by descending total time.
+     * @param hotMethods the sampled methods, by descending number of samples.
+     */
+    public record Summary(List<StageSummary> stages, List<HotMethod> hotMethods) {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 1) {
+            System.err.println("Usage: JfrAnalyzer <recording.jfr>");
+            System.exit(1);
+        }
+        Summary summary = summarize(Path.of(args[0]));
+        System.out.printf("%-45s %8s %12s %10s %10s %10s%n", "stage", "count", "total ms", "p50 ms", "p99 ms", "max ms");
+        for (StageSummary stage : summary.stages()) {
+            System.out.printf("%-45s %8d %12.1f %10.2f %10.2f %10.2f%n", stage.stage(), stage.count(),
+                millis(stage.total()), millis(stage.p50()), millis(stage.p99()), millis(stage.max()));
+        }
+        System.out.println();
+        System.out.printf("%-70s %8s%n", "hot method", "samples");
+        for (HotMethod method : summary.hotMethods().subList(0, Math.min(20, summary.hotMethods().size()))) {
+            System.out.printf("%-70s %8d%n", method.method(), method.samples());
+        }
+    }
+
+    /**
+     * Reads a recording and groups the events of the API by stage.
+     *
+     * @param recording the JFR file.
+     * @return the stages and hot methods of the recording.
+     * @throws IOException if the file cannot be read.
+     */
+    public static Summary summarize(Path recording) throws IOException {
+        Map<String, List<Duration>> durations = new HashMap<>();
+        Map<String, Integer> samples = new HashMap<>();
+        for (RecordedEvent event : RecordingFile.readAllEvents(recording)) {
+            String stage = stageOf(event);
+            if (stage != null) {
+                durations.computeIfAbsent(stage, key -> new ArrayList<>()).add(event.getDuration());
+            } else if (event.getEventType().getName().equals("jdk.ExecutionSample")) {
+                String method = innermostApiMethod(event.getStackTrace());
+                if (method != null) {
+                    samples.merge(method, 1, Integer::sum);
+                }
+            }
+        }
+
+        List<StageSummary> stages = new ArrayList<>();
+        durations.forEach((stage, list) -> {
+            list.sort(Comparator.naturalOrder());
+            Duration total = list.stream().reduce(Duration.ZERO, Duration::plus);
+            stages.add(new StageSummary(stage, list.size(), total, percentile(list, 0.5), percentile(list, 0.99),
+                list.get(list.size() - 1)));
+        });
+        stages.sort(Comparator.comparing(StageSummary::total).reversed());
+
+        List<HotMethod> hotMethods = new ArrayList<>();
+        samples.forEach((method, count) -> hotMethods.add(new HotMethod(method, count)));
+        hotMethods.sort(Comparator.comparingInt(HotMethod::samples).reversed());
+        return new Summary(stages, hotMethods);
+    }
+
+    private static String stageOf(RecordedEvent event) {
+        return switch (event.getEventType().getName()) {
+            case TodoWriteEvent.NAME -> "TodoWrite " + event.getString("operation") + "/" + event.getString("stage");
+            case ClassificationEvent.NAME -> "Classification " + event.getString("model");
+            case CsvChunkEvent.NAME -> "CsvChunk";
+            default -> null;
+        };
+    }
+
+    private static String innermostApiMethod(RecordedStackTrace stackTrace) {
+        if (stackTrace == null) {
+            return null;
+        }
+        for (RecordedFrame frame : stackTrace.getFrames()) {
+            String type = frame.getMethod().getType().getName();
+            if (type.startsWith(PACKAGE)) {
+                return type.substring(PACKAGE.length()) + "." + frame.getMethod().getName();
+            }
+        }
+        return null;
+    }
+
+    private static Duration percentile(List<Duration> sorted, double percentile) {
+        int index = (int) Math.ceil(percentile * sorted.size()) - 1;
+        return sorted.get(Math.max(0, index));
+    }
+
+    private static double millis(Duration duration) {
+        return duration.toNanos() / 1e6;
+    }
+}
@@ -0,0 +1,58 @@
+package de.unistuttgart.iste.ese.api.Profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder event for one stage of a todo write, e.g. the validation or the database write of a create.
+ * A write emits one event per stage, so a recording shows which stage makes a slow write slow.
+ */
+@Name(TodoWriteEvent.NAME)
+@Label("Todo Write Stage")
+@Category({"Todo API", "Writes"})
+@Description("One stage of creating, updating, patching or deleting a todo")
+@StackTrace(false)
+public class TodoWriteEvent extends jdk.jfr.Event {
+
+    public static final String NAME = "de.unistuttgart.iste.ese.api.TodoWrite";
+
+    @Label("Operation")
+    public String operation;
+
+    @Label("Stage")
+    public String stage;
+
+    @Label("Todo ID")
+    public long todoId;
+
+    /**
+     * Starts timing a stage.
+     *
+     * @param operation the write, e.g. "create".
+     * @param stage the stage of the write, e.g. "persist".
+     * @return the started event.
+     */
+    public static TodoWriteEvent start(String operation, String stage) {
+        TodoWriteEvent event = new TodoWriteEvent();
+        event.operation = operation;
+        event.stage = stage;
+        event.begin();
+        return event;
+    }
+
+    /**
+     * Ends the stage and records it if the event is enabled and the stage exceeded the threshold.
+     *
+     * @param todoId the ID of the todo, or 0 if it is not known yet.
+     */
+    public void finish(long todoId) {
+        end();
+        if (shouldCommit()) {
+            this.todoId = todoId;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package de.unistuttgart.iste.ese.api;
+
+import java.lang.annotation.*;
+
+/**
+ * Overrides the number of SQL statements a handler may execute per request, see {@code app.query-budget}.
+ * Meant for handlers whose work grows with the data by design; everything else stays within the default budget.
+ */
+@Target({ElementType.METHOD})
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface QueryBudget {
+    int value();
+}
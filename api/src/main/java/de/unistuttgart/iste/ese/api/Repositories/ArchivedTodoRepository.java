@@ -0,0 +1,74 @@
+package de.unistuttgart.iste.ese.api.Repositories;
+
+import de.unistuttgart.iste.ese.api.Models.ArchivedTodo;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+@Repository
+public interface ArchivedTodoRepository extends JpaRepository<ArchivedTodo, Long> {
+
+    /**
+     * Reads the IDs of a page of the archive, the most recently finished todos first.
+     * Served by the index on (finished_date, id).
+     *
+     * @param page the page to read.
+     * @return the IDs of the archived todos.
+     */
+    @Query("select t.id from ArchivedTodo t order by t.finishedDate desc, t.id desc")
+    List<Long> findPageIds(Pageable page);
+
+    /**
+     * Reads the archived todos with the given IDs with their assignees in one query.
+     *
+     * @param ids the IDs of the archived todos.
+     * @return the archived todos that exist, in no particular order.
+     */
+    @Override
+    @EntityGraph(attributePaths = "assigneeList")
+    List<ArchivedTodo> findAllById(Iterable<Long> ids);
+
+    /**
+     * Reads the archived todos after a given ID with their assignees, in the order of their ID.
+     * The page is cut from the IDs first, as a limit on a query that fetches the assignee list is applied in memory.
+     *
+     * @param afterId the ID of the last archived todo of the previous page.
+     * @param page the maximum number of archived todos to read.
+     * @return the archived todos.
+     */
+    default List<ArchivedTodo> findAfter(long afterId, Pageable page) {
+        List<Long> ids = findIdsAfter(afterId, page);
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        List<ArchivedTodo> todos = new ArrayList<>(findAllById(ids));
+        todos.sort(Comparator.comparing(ArchivedTodo::getId));
+        return todos;
+    }
+
+    /**
+     * Reads the IDs of the archived todos after a given ID, in ascending order.
+     *
+     * @param afterId the ID of the last archived todo of the previous page.
+     * @param page the maximum number of IDs to read.
+     * @return the IDs of the archived todos.
+     */
+    @Query("select t.id from ArchivedTodo t where t.id > :afterId order by t.id")
+    List<Long> findIdsAfter(@Param("afterId") long afterId, Pageable page);
+
+    /**
+     * Reads the archived todos of an assignee.
+     *
+     * @param assigneeId the ID of the assignee.
+     * @return the archived todos.
+     */
+    @Query("select t from ArchivedTodo t join t.assigneeList a where a.id = :assigneeId")
+    List<ArchivedTodo> findByAssignee(@Param("assigneeId") long assigneeId);
+}
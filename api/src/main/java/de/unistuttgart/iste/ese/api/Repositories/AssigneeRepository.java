@@ -1,11 +1,22 @@
 package de.unistuttgart.iste.ese.api.Repositories;
 
 import de.unistuttgart.iste.ese.api.Models.Assignee;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 @Repository
 public interface AssigneeRepository extends JpaRepository<Assignee, Long> {
 
+    /**
+     * Reads an assignee by its ID. The result is kept in the query cache until the assignees table is written,
+     * and the assignee itself in the second-level cache.
+     *
+     * @param id the ID of the assignee.
+     * @return the assignee, or null if it does not exist.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     Assignee findById(long id);
 }
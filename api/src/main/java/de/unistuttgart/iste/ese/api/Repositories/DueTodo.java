@@ -0,0 +1,12 @@
+package de.unistuttgart.iste.ese.api.Repositories;
+
+import java.util.Date;
+
+/**
+ * The ID and due date of a todo, read without loading the entity.
+ */
+public interface DueTodo {
+    Long getId();
+
+    Date getDueDate();
+}
@@ -0,0 +1,43 @@
+package de.unistuttgart.iste.ese.api.Repositories;
+
+import de.unistuttgart.iste.ese.api.Models.EntityChange;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.List;
+
+@Repository
+public interface EntityChangeRepository extends JpaRepository<EntityChange, Long> {
+
+    /**
+     * Reads the changes after a cursor in the order they were inserted.
+     *
+     * @param id the ID of the last change that was read.
+     * @param pageable the maximum number of changes to read.
+     * @return the next changes.
+     */
+    List<EntityChange> findByIdGreaterThanOrderByIdAsc(long id, Pageable pageable);
+
+    /**
+     * Returns the ID of the latest change, where an instance starts to read.
+     *
+     * @return the highest ID, or null if the table is empty.
+     */
+    @Query("select max(c.id) from EntityChange c")
+    Long findMaxId();
+
+    /**
+     * Deletes the changes that every instance has read long ago.
+     *
+     * @param before the time before which changes are deleted.
+     * @return the number of deleted changes.
+     */
+    @Modifying
+    @Query("delete from EntityChange c where c.createdAt < :before")
+    int deleteCreatedBefore(@Param("before") Instant before);
+}
@@ -0,0 +1,20 @@
+package de.unistuttgart.iste.ese.api.Repositories;
+
+import jakarta.persistence.Tuple;
+
+import java.util.List;
+
+/**
+ * Reads selected columns of all todos without loading the entities.
+ */
+public interface SparseTodoRepository {
+
+    /**
+     * Reads the ID and the given attributes of all todos, in the order of their ID.
+     * Only the columns of the attributes are selected, and neither the assignees nor the labels are joined.
+     *
+     * @param attributes the names of single-valued attributes of {@link de.unistuttgart.iste.ese.api.Models.Todo}.
+     * @return one tuple per todo, with the ID under the alias "id" and each attribute under its name.
+     */
+    List<Tuple> findAllColumns(List<String> attributes);
+}
@@ -0,0 +1,38 @@
+package de.unistuttgart.iste.ese.api.Repositories;
+
+import de.unistuttgart.iste.ese.api.Models.Todo;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Builds the column projection of {@link SparseTodoRepository} as a criteria tuple query.
+ */
+public class SparseTodoRepositoryImpl implements SparseTodoRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<Tuple> findAllColumns(List<String> attributes) {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = builder.createTupleQuery();
+        Root<Todo> todo = query.from(Todo.class);
+        List<Selection<?>> selections = new ArrayList<>();
+        selections.add(todo.get("id").alias("id"));
+        for (String attribute : attributes) {
+            if (!attribute.equals("id")) {
+                selections.add(todo.get(attribute).alias(attribute));
+            }
+        }
+        query.multiselect(selections).orderBy(builder.asc(todo.get("id")));
+        return entityManager.createQuery(query).getResultList();
+    }
+}
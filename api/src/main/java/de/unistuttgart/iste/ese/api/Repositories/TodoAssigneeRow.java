@@ -0,0 +1,16 @@
+package de.unistuttgart.iste.ese.api.Repositories;
+
+/**
+ * The ID of a todo and the columns of one of its assignees, read without loading the entities.
+ */
+public interface TodoAssigneeRow {
+    Long getTodoId();
+
+    Long getId();
+
+    String getPrename();
+
+    String getName();
+
+    String getEmail();
+}
@@ -0,0 +1,10 @@
+package de.unistuttgart.iste.ese.api.Repositories;
+
+/**
+ * The IDs of a todo and one of its assignees, read from the join table without loading the entities.
+ */
+public interface TodoAssignment {
+    Long getTodoId();
+
+    Long getAssigneeId();
+}
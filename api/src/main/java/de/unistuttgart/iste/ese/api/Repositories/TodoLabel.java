@@ -0,0 +1,12 @@
+package de.unistuttgart.iste.ese.api.Repositories;
+
+/**
+ * The ID of a todo and one of its labels, read from the label table without loading the todo.
+ */
+public interface TodoLabel {
+    Long getTodoId();
+
+    String getModel();
+
+    String getLabel();
+}
@@ -1,9 +1,164 @@
 package de.unistuttgart.iste.ese.api.Repositories;
 
 import de.unistuttgart.iste.ese.api.Models.Todo;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+
 @Repository
-public interface TodoRepository extends JpaRepository<Todo, Long> {
+public interface TodoRepository extends JpaRepository<Todo, Long>, SparseTodoRepository {
+
+    /**
+     * Reads all todos with their assignees in one query, instead of one query per todo for the eager assignee list.
+     *
+     * @return all todos.
+     */
+    @Override
+    @EntityGraph(attributePaths = "assigneeList")
+    List<Todo> findAll();
+
+    /**
+     * Reads the todos with the given IDs with their assignees in one query.
+     *
+     * @param ids the IDs of the todos.
+     * @return the todos that exist, in no particular order.
+     */
+    @Override
+    @EntityGraph(attributePaths = "assigneeList")
+    List<Todo> findAllById(Iterable<Long> ids);
+
+    /**
+     * Reads the open todos due before a given time, in the order of their due date, continuing after a given todo.
+     * Served by the index on (finished, due_date), so one page costs a range scan instead of a table scan.
+     *
+     * @param afterDueDate the due date of the last todo of the previous page.
+     * @param afterId the ID of the last todo of the previous page, -1 to include todos due exactly at afterDueDate.
+     * @param dueBefore the exclusive end of the range.
+     * @param page the maximum number of todos to read.
+     * @return the IDs and due dates of the todos.
+     */
+    @Query("select t.id as id, t.dueDate as dueDate from Todo t where t.finished = false and t.dueDate < :dueBefore " +
+        "and (t.dueDate > :afterDueDate or (t.dueDate = :afterDueDate and t.id > :afterId)) order by t.dueDate, t.id")
+    List<DueTodo> findOpenDueAfter(@Param("afterDueDate") Date afterDueDate, @Param("afterId") long afterId,
+                                   @Param("dueBefore") Date dueBefore, Pageable page);
+
+    /**
+     * Reads the IDs of the todos finished before a given time, in the order of their ID.
+     * Served by the index on (finished, finished_date).
+     *
+     * @param finishedBefore the exclusive end of the range.
+     * @param page the maximum number of IDs to read.
+     * @return the IDs of the todos.
+     */
+    @Query("select t.id from Todo t where t.finished = true and t.finishedDate < :finishedBefore order by t.id")
+    List<Long> findIdsFinishedBefore(@Param("finishedBefore") Date finishedBefore, Pageable page);
+
+    /**
+     * Reads the todos of an ID range with their assignees in one query.
+     *
+     * @param fromId the first ID of the range.
+     * @param toId the exclusive end of the range.
+     * @return the todos, ordered by ID.
+     */
+    @EntityGraph(attributePaths = "assigneeList")
+    @Query("select t from Todo t where t.id >= :fromId and t.id < :toId order by t.id")
+    List<Todo> findIdRange(@Param("fromId") long fromId, @Param("toId") long toId);
+
+    /**
+     * Reads the todos after a given ID with their assignees, in the order of their ID.
+     * The page is cut from the IDs first: a limit on the query that fetches the assignee list would be applied in
+     * memory, after every todo after the given ID was loaded.
+     *
+     * @param afterId the ID of the last todo of the previous page.
+     * @param page the maximum number of todos to read.
+     * @return the todos.
+     */
+    default List<Todo> findAfter(long afterId, Pageable page) {
+        List<Long> ids = findIdsAfter(afterId, page);
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        List<Todo> todos = new ArrayList<>(findAllById(ids));
+        todos.sort(Comparator.comparing(Todo::getId));
+        return todos;
+    }
+
+    /**
+     * Reads the IDs of the todos after a given ID, in ascending order.
+     *
+     * @param afterId the ID of the last todo of the previous page.
+     * @param page the maximum number of IDs to read.
+     * @return the IDs of the todos.
+     */
+    @Query("select t.id from Todo t where t.id > :afterId order by t.id")
+    List<Long> findIdsAfter(@Param("afterId") long afterId, Pageable page);
+
+    /**
+     * Returns the smallest todo ID.
+     *
+     * @return the ID, or null if there are no todos.
+     */
+    @Query("select min(t.id) from Todo t")
+    Long findMinId();
+
+    /**
+     * Returns the largest todo ID.
+     *
+     * @return the ID, or null if there are no todos.
+     */
+    @Query("select max(t.id) from Todo t")
+    Long findMaxId();
+
+    /**
+     * Reads the IDs of the todos of an assignee, in the order of their ID.
+     * Served by the index on the assignee column of the join table.
+     *
+     * @param assigneeId the ID of the assignee.
+     * @param page the page to read.
+     * @return the IDs of the todos.
+     */
+    @Query("select t.id from Todo t join t.assigneeList a where a.id = :assigneeId order by t.id")
+    List<Long> findIdsByAssignee(@Param("assigneeId") long assigneeId, Pageable page);
+
+    /**
+     * Counts the todos of an assignee.
+     *
+     * @param assigneeId the ID of the assignee.
+     * @return the number of todos.
+     */
+    @Query("select count(t) from Todo t join t.assigneeList a where a.id = :assigneeId")
+    long countByAssignee(@Param("assigneeId") long assigneeId);
+
+    /**
+     * Reads all pairs of a todo and one of its assignees, without loading the todos.
+     *
+     * @return the IDs of the todos and assignees.
+     */
+    @Query("select t.id as todoId, a.id as assigneeId from Todo t join t.assigneeList a")
+    List<TodoAssignment> findAllAssignments();
+
+    /**
+     * Reads the assignees of all todos, without loading the todos or the assignee entities.
+     *
+     * @return one row per pair of a todo and one of its assignees.
+     */
+    @Query("select t.id as todoId, a.id as id, a.prename as prename, a.name as name, a.email as email " +
+        "from Todo t join t.assigneeList a")
+    List<TodoAssigneeRow> findAllAssigneeRows();
+
+    /**
+     * Reads the labels of all todos, without loading the todos.
+     *
+     * @return one row per label.
+     */
+    @Query("select t.id as todoId, key(l) as model, value(l) as label from Todo t join t.labels l")
+    List<TodoLabel> findAllLabels();
 }
@@ -1,14 +1,18 @@
 package de.unistuttgart.iste.ese.api.Services;
 
+import de.unistuttgart.iste.ese.api.Models.ArchivedTodo;
 import de.unistuttgart.iste.ese.api.Models.Assignee;
 import de.unistuttgart.iste.ese.api.Models.Todo;
+import de.unistuttgart.iste.ese.api.Repositories.ArchivedTodoRepository;
 import de.unistuttgart.iste.ese.api.Repositories.AssigneeRepository;
 import de.unistuttgart.iste.ese.api.Repositories.TodoRepository;
 import jakarta.persistence.EntityNotFoundException;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.server.ResponseStatusException;
 
 import java.util.List;
@@ -22,11 +26,21 @@ public class AssigneeService {
     @Autowired
     private TodoRepository toDoRepository;
 
+    @Autowired
+    private ArchivedTodoRepository archivedTodoRepository;
+
+    @Autowired
+    private ReadCoalescingService readCoalescingService;
+
+    @Autowired(required = false)
+    private List<TodoChangeListener> changeListeners = List.of();
+
     /**
      * Retrieve all assignees.
      *
      * @return a list of all assignees.
      */
+    @Transactional(readOnly = true)
     public List<Assignee> getAssignees() {
         return assigneeRepository.findAll();
     }
@@ -38,6 +52,7 @@ public class AssigneeService {
      * @return the assignee with the specified ID.
      * @throws ResponseStatusException if the assignee with the given ID is not found.
      */
+    @Transactional(readOnly = true)
     public Assignee getAssignee(long id) {
         Assignee searchedAssignee = assigneeRepository.findById(id);
         if (searchedAssignee != null) {
@@ -54,12 +69,17 @@ public class AssigneeService {
      * @return the created assignee.
      * @throws ResponseStatusException if the provided email is invalid.
      */
+    @Transactional
     public Assignee createAssignee(@Valid Assignee requestBody) {
         validatePrename(requestBody.getPrename());
         validateName(requestBody.getName());
         validateUniversityEmail(requestBody.getEmail());
 
-        return assigneeRepository.save(requestBody);
+        // the version is assigned by the database, a client-supplied one would make the assignee look persisted
+        requestBody.setVersion(null);
+        Assignee createdAssignee = assigneeRepository.save(requestBody);
+        changeListeners.forEach(listener -> listener.assigneeSaved(createdAssignee));
+        return createdAssignee;
     }
 
     /**
@@ -67,14 +87,20 @@ public class AssigneeService {
      *
      * @param id the ID of the assignee to update.
      * @param requestBody the updated assignee data from the PUT request.
+     * @param expectedVersion the version the client based its changes on, or null to skip the check.
      * @return the updated assignee.
      * @throws ResponseStatusException if the assignee with the given ID is not found.
+     * @throws VersionConflictException if the assignee was changed since the expected version.
      */
-    public Assignee updateAssignee(long id, @Valid Assignee requestBody) {
+    @Transactional
+    public Assignee updateAssignee(long id, @Valid Assignee requestBody, Long expectedVersion) {
         Assignee assigneeToUpdate = assigneeRepository.findById(id);
         if (assigneeToUpdate == null) {
             throw new ResponseStatusException(HttpStatus.NOT_FOUND, String.format("Assignee with ID %s not found!", id));
         }
+        if (expectedVersion != null && !expectedVersion.equals(assigneeToUpdate.getVersion())) {
+            throw new VersionConflictException(assigneeToUpdate, assigneeToUpdate.getVersion());
+        }
         
         assigneeToUpdate.setPrename(requestBody.getPrename());
         assigneeToUpdate.setName(requestBody.getName());
@@ -84,7 +110,11 @@ public class AssigneeService {
         validateName(requestBody.getName());
         validateUniversityEmail(requestBody.getEmail());
         
-        return assigneeRepository.save(assigneeToUpdate);
+        // flush now, so that the response carries the incremented version
+        Assignee updatedAssignee = assigneeRepository.saveAndFlush(assigneeToUpdate);
+        readCoalescingService.invalidate();
+        changeListeners.forEach(listener -> listener.assigneeSaved(updatedAssignee));
+        return updatedAssignee;
     }
 
     /**
@@ -93,19 +123,31 @@ public class AssigneeService {
      * @param id the ID of the assignee to delete.
      * @throws ResponseStatusException if the assignee with the given ID is not found.
      */
+    @Transactional
     public void deleteAssignee(long id) {
         Assignee assigneeToDelete = assigneeRepository.findById(id);
         if (assigneeToDelete == null) {
             throw new ResponseStatusException(HttpStatus.NOT_FOUND, String.format("Assignee with ID %s not found!", id));
         }
 
-        List<Todo> associatedToDos = toDoRepository.findAll();
+        // only the todos of the assignee change, the others are neither loaded nor written; the IDs are read from the
+        // join table and not from the AssigneeTodoIndex, which misses assignments whose commit it has not seen yet
+        List<Long> associatedIds = toDoRepository.findIdsByAssignee(id, Pageable.unpaged());
+        List<Todo> associatedToDos = toDoRepository.findAllById(associatedIds);
         for (Todo todo : associatedToDos) {
-            todo.getAssigneeList().removeIf(assignee -> assigneeToDelete.getId().equals(id));
-            toDoRepository.save(todo);
+            todo.getAssigneeList().removeIf(assignee -> assignee.getId().equals(id));
+        }
+        toDoRepository.saveAllAndFlush(associatedToDos);
+        associatedToDos.forEach(todo -> changeListeners.forEach(listener -> listener.todoSaved(todo)));
+        List<ArchivedTodo> archivedToDos = archivedTodoRepository.findByAssignee(id);
+        for (ArchivedTodo todo : archivedToDos) {
+            todo.getAssigneeList().removeIf(assignee -> assignee.getId().equals(id));
         }
+        archivedTodoRepository.saveAllAndFlush(archivedToDos);
 
         assigneeRepository.deleteById(id);
+        readCoalescingService.invalidate();
+        changeListeners.forEach(listener -> listener.assigneeDeleted(id));
     }
 
     /**
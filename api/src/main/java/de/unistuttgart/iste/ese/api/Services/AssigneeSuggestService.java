@@ -0,0 +1,187 @@
+package de.unistuttgart.iste.ese.api.Services;
+
+import de.unistuttgart.iste.ese.api.Config.ShardRoutingDataSource;
+import de.unistuttgart.iste.ese.api.Config.TenantContext;
+import de.unistuttgart.iste.ese.api.Models.Assignee;
+import de.unistuttgart.iste.ese.api.Models.Todo;
+import de.unistuttgart.iste.ese.api.Repositories.AssigneeRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Suggests assignees by a prefix of their prename, name, full name or email.
+ * The terms of all assignees are kept in a sorted map, so that the matches of a prefix are a contiguous range
+ * that is read without looking at any other assignee. The index is built at startup and then follows the
+ * writes of {@link AssigneeService}. Every key starts with the tenant, so a tenant only finds its own assignees.
+ */
+@Service
+public class AssigneeSuggestService implements TodoChangeListener {
+
+    // separates the tenant, the term and the assignee ID in the index keys, sorts before every character of a term
+    private static final char SEPARATOR = '\u0000';
+
+    @Autowired
+    private AssigneeRepository assigneeRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired(required = false)
+    private ShardRoutingDataSource shardRoutingDataSource;
+
+    private final NavigableMap<String, Long> index = new ConcurrentSkipListMap<>();
+    // by tenant and ID
+    private final Map<String, Assignee> assignees = new ConcurrentHashMap<>();
+
+    /**
+     * Indexes the assignees of all tenants once the application accepts requests.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        Set<String> tenants = shardRoutingDataSource != null
+            ? shardRoutingDataSource.listTenants()
+            : Set.of(TenantContext.DEFAULT_TENANT);
+        TransactionTemplate readTransaction = new TransactionTemplate(transactionManager);
+        readTransaction.setReadOnly(true);
+        for (String tenant : tenants) {
+            // a session reads the tenant that is current when it opens
+            TenantContext.callAs(tenant, () -> readTransaction.execute(status -> {
+                for (Assignee assignee : assigneeRepository.findAll()) {
+                    putUnlessOutdated(copyOf(assignee));
+                }
+                return null;
+            }));
+        }
+    }
+
+    /**
+     * Finds the assignees with a term that starts with the prefix.
+     * The assignees are ordered by their matching term, so that an exact match comes before longer terms that start with it.
+     *
+     * @param prefix the start of a prename, name, full name or email, case-insensitive.
+     * @param limit the maximum number of assignees to return.
+     * @return the matching assignees, each at most once.
+     */
+    public List<Assignee> suggest(String prefix, int limit) {
+        String tenant = TenantContext.get();
+        String from = tenant + SEPARATOR + normalize(prefix);
+        Set<Long> ids = new LinkedHashSet<>();
+        // keys are ordered by term, and a term sorts right after all of its own prefixes
+        for (Long id : index.subMap(from, true, from + Character.MAX_VALUE, false).values()) {
+            ids.add(id);
+            if (ids.size() >= limit) {
+                break;
+            }
+        }
+        List<Assignee> result = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            Assignee assignee = assignees.get(tenant + SEPARATOR + id);
+            if (assignee != null) {
+                result.add(assignee);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public void todoSaved(Todo todo) {
+    }
+
+    @Override
+    public void todoDeleted(long id) {
+    }
+
+    @Override
+    public void assigneeSaved(Assignee assignee) {
+        Assignee copy = copyOf(assignee);
+        afterCommit(() -> put(copy));
+    }
+
+    @Override
+    public void assigneeDeleted(long id) {
+        String tenant = TenantContext.get();
+        afterCommit(() -> remove(tenant, id));
+    }
+
+    private synchronized void put(Assignee assignee) {
+        String tenant = assignee.getTenant();
+        remove(tenant, assignee.getId());
+        assignees.put(tenant + SEPARATOR + assignee.getId(), assignee);
+        for (String term : termsOf(assignee)) {
+            index.put(tenant + SEPARATOR + term + SEPARATOR + assignee.getId(), assignee.getId());
+        }
+    }
+
+    // an update that committed while the assignees were loaded may already be indexed and must not be replaced
+    private synchronized void putUnlessOutdated(Assignee assignee) {
+        Assignee indexed = assignees.get(assignee.getTenant() + SEPARATOR + assignee.getId());
+        if (indexed != null && indexed.getVersion() != null && assignee.getVersion() != null
+            && indexed.getVersion() > assignee.getVersion()) {
+            return;
+        }
+        put(assignee);
+    }
+
+    private synchronized void remove(String tenant, long id) {
+        Assignee previous = assignees.remove(tenant + SEPARATOR + id);
+        if (previous != null) {
+            for (String term : termsOf(previous)) {
+                index.remove(tenant + SEPARATOR + term + SEPARATOR + id);
+            }
+        }
+    }
+
+    // the index outlives the persistence context, so it keeps detached copies instead of the entities
+    private static Assignee copyOf(Assignee assignee) {
+        Assignee copy = new Assignee(assignee.getPrename(), assignee.getName(), assignee.getEmail());
+        copy.setId(assignee.getId());
+        copy.setVersion(assignee.getVersion());
+        copy.setTenant(assignee.getTenant() != null ? assignee.getTenant() : TenantContext.get());
+        return copy;
+    }
+
+    private static Set<String> termsOf(Assignee assignee) {
+        Set<String> terms = new LinkedHashSet<>();
+        if (assignee.getPrename() != null) terms.add(normalize(assignee.getPrename()));
+        if (assignee.getName() != null) terms.add(normalize(assignee.getName()));
+        if (assignee.getPrename() != null && assignee.getName() != null) {
+            terms.add(normalize(assignee.getPrename() + " " + assignee.getName()));
+        }
+        if (assignee.getEmail() != null) terms.add(normalize(assignee.getEmail()));
+        terms.remove("");
+        return terms;
+    }
+
+    private static String normalize(String text) {
+        return text == null ? "" : text.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private void afterCommit(Runnable change) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    change.run();
+                }
+            });
+        } else {
+            change.run();
+        }
+    }
+}
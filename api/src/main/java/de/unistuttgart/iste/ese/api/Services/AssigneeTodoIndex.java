@@ -0,0 +1,216 @@
+package de.unistuttgart.iste.ese.api.Services;
+
+import de.unistuttgart.iste.ese.api.Models.Assignee;
+import de.unistuttgart.iste.ese.api.Models.Todo;
+import de.unistuttgart.iste.ese.api.Repositories.TodoAssignment;
+import de.unistuttgart.iste.ese.api.Repositories.TodoRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+import java.util.function.Consumer;
+
+/**
+ * Keeps the IDs of the todos of every assignee in memory, so that the todos of an assignee are found
+ * without a join. The index is built when the application is ready and afterwards follows every committed
+ * write of {@link TodoService} and {@link AssigneeService}; until it is built, callers query the database.
+ */
+@Service
+@ConditionalOnProperty(name = "app.assignee-index.enabled", havingValue = "true")
+public class AssigneeTodoIndex implements TodoChangeListener {
+
+    private static final Logger log = LoggerFactory.getLogger(AssigneeTodoIndex.class);
+    private static final long[] NO_ASSIGNEES = new long[0];
+
+    @Autowired
+    private TodoRepository todoRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private static class Index {
+        // todo IDs by assignee ID, ordered so that pages can be cut without sorting
+        final Map<Long, NavigableSet<Long>> todosByAssignee = new HashMap<>();
+        // assignee IDs by todo ID, to find the entries to remove when a todo changes
+        final Map<Long, long[]> assigneesByTodo = new HashMap<>();
+
+        void put(long todoId, long[] assigneeIds) {
+            remove(todoId);
+            if (assigneeIds.length == 0) {
+                return;
+            }
+            assigneesByTodo.put(todoId, assigneeIds);
+            for (long assigneeId : assigneeIds) {
+                todosByAssignee.computeIfAbsent(assigneeId, id -> new TreeSet<>()).add(todoId);
+            }
+        }
+
+        void remove(long todoId) {
+            long[] previous = assigneesByTodo.remove(todoId);
+            if (previous == null) {
+                return;
+            }
+            for (long assigneeId : previous) {
+                NavigableSet<Long> todoIds = todosByAssignee.get(assigneeId);
+                todoIds.remove(todoId);
+                if (todoIds.isEmpty()) {
+                    todosByAssignee.remove(assigneeId);
+                }
+            }
+        }
+    }
+
+    // guarded by this
+    private Index index;
+    // changes committed while a rebuild reads the database, replayed onto the new index; guarded by this
+    private List<Consumer<Index>> pendingChanges;
+    private TransactionTemplate rebuildTransaction;
+
+    /**
+     * Registers the index metrics.
+     */
+    @PostConstruct
+    public void init() {
+        rebuildTransaction = new TransactionTemplate(transactionManager);
+        rebuildTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        rebuildTransaction.setReadOnly(true);
+        Gauge.builder("todo.assignee-index.entries", this, AssigneeTodoIndex::size).register(meterRegistry);
+    }
+
+    /**
+     * Builds the index once the application accepts requests.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        rebuild();
+    }
+
+    /**
+     * Builds a new index from the join table and replaces the current one.
+     * Changes committed while the join table is read are applied to the new index before it is published.
+     */
+    public void rebuild() {
+        synchronized (this) {
+            pendingChanges = new ArrayList<>();
+        }
+        Map<Long, List<Long>> assigneesByTodo = new HashMap<>();
+        try {
+            rebuildTransaction.executeWithoutResult(status -> {
+                for (TodoAssignment assignment : todoRepository.findAllAssignments()) {
+                    assigneesByTodo.computeIfAbsent(assignment.getTodoId(), id -> new ArrayList<>())
+                        .add(assignment.getAssigneeId());
+                }
+            });
+        } catch (RuntimeException e) {
+            synchronized (this) {
+                pendingChanges = null;
+            }
+            throw e;
+        }
+        Index rebuilt = new Index();
+        assigneesByTodo.forEach((todoId, assigneeIds) ->
+            rebuilt.put(todoId, assigneeIds.stream().mapToLong(Long::longValue).toArray()));
+        synchronized (this) {
+            pendingChanges.forEach(change -> change.accept(rebuilt));
+            pendingChanges = null;
+            index = rebuilt;
+        }
+        log.info("Built assignee index with {} todos", assigneesByTodo.size());
+    }
+
+    /**
+     * Returns whether the index has been built and can answer reads.
+     *
+     * @return true if reads can be served from the index.
+     */
+    public synchronized boolean isReady() {
+        return index != null;
+    }
+
+    /**
+     * Returns a page of the IDs of the todos of an assignee.
+     *
+     * @param assigneeId the ID of the assignee.
+     * @param offset the number of IDs to skip.
+     * @param limit the maximum number of IDs to return.
+     * @return the IDs in ascending order, empty if the index is not built yet.
+     */
+    public synchronized List<Long> findTodoIds(long assigneeId, long offset, int limit) {
+        NavigableSet<Long> todoIds = index != null ? index.todosByAssignee.get(assigneeId) : null;
+        if (todoIds == null) {
+            return List.of();
+        }
+        return todoIds.stream().skip(offset).limit(limit).toList();
+    }
+
+    /**
+     * Counts the todos of an assignee.
+     *
+     * @param assigneeId the ID of the assignee.
+     * @return the number of todos, 0 if the index is not built yet.
+     */
+    public synchronized long countTodos(long assigneeId) {
+        NavigableSet<Long> todoIds = index != null ? index.todosByAssignee.get(assigneeId) : null;
+        return todoIds != null ? todoIds.size() : 0;
+    }
+
+    @Override
+    public void todoSaved(Todo todo) {
+        long id = todo.getId();
+        long[] assigneeIds = todo.getAssigneeList() == null ? NO_ASSIGNEES
+            : todo.getAssigneeList().stream().mapToLong(Assignee::getId).toArray();
+        afterCommit(index -> index.put(id, assigneeIds));
+    }
+
+    @Override
+    public void todoDeleted(long id) {
+        afterCommit(index -> index.remove(id));
+    }
+
+    private synchronized int size() {
+        return index != null ? index.assigneesByTodo.size() : 0;
+    }
+
+    private void afterCommit(Consumer<Index> change) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply(change);
+                }
+            });
+        } else {
+            apply(change);
+        }
+    }
+
+    private synchronized void apply(Consumer<Index> change) {
+        if (index != null) {
+            change.accept(index);
+        }
+        if (pendingChanges != null) {
+            pendingChanges.add(change);
+        }
+    }
+}
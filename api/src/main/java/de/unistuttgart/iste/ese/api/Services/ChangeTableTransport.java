@@ -0,0 +1,144 @@
+package de.unistuttgart.iste.ese.api.Services;
+
+import de.unistuttgart.iste.ese.api.Models.EntityChange;
+import de.unistuttgart.iste.ese.api.Repositories.EntityChangeRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+import java.util.function.Consumer;
+
+/**
+ * Sends invalidations through a change table in the shared database: the writing transaction inserts a row,
+ * so an invalidation is published if and only if the write commits, and every instance polls the rows after
+ * its cursor. Delivery is reliable and delayed by at most the poll interval.
+ * <p>
+ * Row IDs are assigned at insert but become visible at commit, so a poll can see a row while an older one is
+ * still uncommitted. The cursor therefore only moves past a missing ID once that row was read, or once the gap
+ * is older than the gap timeout (the ID of a rolled back insert is never used).
+ * A change that the receiver fails to apply is treated like a gap: it is retried on every poll and given up on
+ * after the gap timeout.
+ */
+@Service
+@ConditionalOnProperty(name = "app.invalidation.transport", havingValue = "table")
+public class ChangeTableTransport implements InvalidationTransport {
+
+    private static final Logger log = LoggerFactory.getLogger(ChangeTableTransport.class);
+
+    @Autowired
+    private EntityChangeRepository entityChangeRepository;
+
+    @Value("${app.invalidation.table.batch-size:500}")
+    private int batchSize;
+
+    @Value("${app.invalidation.table.gap-timeout:10s}")
+    private Duration gapTimeout;
+
+    @Value("${app.invalidation.table.retention:1h}")
+    private Duration retention;
+
+    private volatile Consumer<InvalidationBatch> receiver;
+    // every change up to the cursor has been read or given up on; guarded by this
+    private long cursor;
+    // IDs after the cursor that were read and applied
+    private final NavigableSet<Long> read = new TreeSet<>();
+    // IDs after the cursor that were missing from a poll or failed to apply, with the time they were first missed
+    private final Map<Long, Long> gaps = new HashMap<>();
+
+    /**
+     * Starts reading after the latest change, as the state before it is read by the caches when they are built.
+     */
+    @PostConstruct
+    public void init() {
+        Long maxId = entityChangeRepository.findMaxId();
+        cursor = maxId != null ? maxId : 0;
+    }
+
+    @Override
+    public void publish(InvalidationBatch batch) {
+        entityChangeRepository.save(new EntityChange(batch.origin(), batch.publishedAt(),
+            InvalidationBatch.encode(batch.invalidations())));
+    }
+
+    @Override
+    public void subscribe(Consumer<InvalidationBatch> receiver) {
+        this.receiver = receiver;
+    }
+
+    /**
+     * Reads the changes after the cursor and hands the unread ones to the receiver.
+     * Not transactional: the receiver applies every change in a transaction of its own, so that a change that fails
+     * to apply cannot roll back the others. A change only counts as read once the receiver returned.
+     */
+    @Scheduled(fixedDelayString = "${app.invalidation.table.poll-interval:PT1S}")
+    public synchronized void poll() {
+        if (receiver == null) {
+            return;
+        }
+        List<EntityChange> changes = entityChangeRepository.findByIdGreaterThanOrderByIdAsc(cursor, PageRequest.of(0, batchSize));
+        for (EntityChange change : changes) {
+            if (read.contains(change.getId())) {
+                continue;
+            }
+            try {
+                receiver.accept(new InvalidationBatch(change.getOrigin(), change.getCreatedAt(),
+                    InvalidationBatch.decode(change.getEntities())));
+                read.add(change.getId());
+                gaps.remove(change.getId());
+            } catch (RuntimeException e) {
+                log.warn("Could not apply change {}, retrying until the gap timeout", change.getId(), e);
+                gaps.putIfAbsent(change.getId(), System.nanoTime());
+            }
+        }
+        advanceCursor();
+    }
+
+    /**
+     * Deletes the changes older than the retention, which every running instance has read.
+     */
+    @Scheduled(fixedDelayString = "${app.invalidation.table.cleanup-interval:PT10M}")
+    @Transactional
+    public void cleanup() {
+        int deleted = entityChangeRepository.deleteCreatedBefore(Instant.now().minus(retention));
+        if (deleted > 0) {
+            log.debug("Deleted {} changes", deleted);
+        }
+    }
+
+    private void advanceCursor() {
+        long now = System.nanoTime();
+        if (!read.isEmpty()) {
+            for (long id = cursor + 1; id < read.last(); id++) {
+                if (!read.contains(id)) {
+                    gaps.putIfAbsent(id, now);
+                }
+            }
+        }
+        while (true) {
+            long next = cursor + 1;
+            if (read.remove(next)) {
+                cursor = next;
+            } else if (gaps.containsKey(next) && now - gaps.get(next) > gapTimeout.toNanos()) {
+                gaps.remove(next);
+                log.debug("Skipping change {} after the gap timeout", next);
+                cursor = next;
+            } else {
+                return;
+            }
+        }
+    }
+}
@@ -0,0 +1,228 @@
+package de.unistuttgart.iste.ese.api.Services;
+
+import de.unistuttgart.iste.ese.api.Models.Assignee;
+import de.unistuttgart.iste.ese.api.Models.Todo;
+import de.unistuttgart.iste.ese.api.Profiling.CsvChunkEvent;
+import de.unistuttgart.iste.ese.api.Repositories.TodoRepository;
+import de.unistuttgart.iste.ese.api.Utils.CsvBuffer;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.context.ContextSnapshot;
+import io.micrometer.context.ContextSnapshotFactory;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayDeque;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Exports all todos as CSV.
+ * The ID range is split into chunks that are read and formatted in parallel on a dedicated fork-join pool,
+ * each into a pooled buffer; the buffers are written to the output in ID order as soon as the next one is ready.
+ * At most a few chunks per worker are in flight, so memory stays bounded for any number of todos.
+ */
+@Service
+public class CsvExportService {
+
+    static final String HEADER = "id,title,description,finished,assignees,createdDate,dueDate,finishedDate,category\n";
+
+    @Autowired
+    private TodoRepository todoRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    // every worker holds a database connection while it reads a chunk, so this must stay below the pool size
+    @Value("${app.csv-export.parallelism:4}")
+    private int parallelism;
+
+    @Value("${app.csv-export.chunk-size:1000}")
+    private int chunkSize;
+
+    // captures the thread locals of all registered accessors, e.g. the current observation
+    private final ContextSnapshotFactory contextSnapshotFactory = ContextSnapshotFactory.builder().build();
+    private ForkJoinPool pool;
+    private BlockingQueue<CsvBuffer> buffers;
+    private TransactionTemplate readTransaction;
+    private Timer exportTimer;
+    private Counter rowCounter;
+    private DistributionSummary throughput;
+
+    /**
+     * Creates the worker pool, the buffer pool and the export metrics.
+     */
+    @PostConstruct
+    public void init() {
+        pool = new ForkJoinPool(parallelism);
+        buffers = new ArrayBlockingQueue<>(inFlightChunks());
+        readTransaction = new TransactionTemplate(transactionManager);
+        readTransaction.setReadOnly(true);
+        exportTimer = meterRegistry.timer("todo.export.csv");
+        rowCounter = meterRegistry.counter("todo.export.csv.rows");
+        throughput = DistributionSummary.builder("todo.export.csv.throughput")
+            .description("Rows per second of a CSV export")
+            .baseUnit("rows/s")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Stops the workers.
+     */
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+
+    /**
+     * Writes all todos as CSV, ordered by ID.
+     *
+     * @param out the stream to write to; it is not closed.
+     * @return the number of exported todos.
+     * @throws IOException if writing fails.
+     */
+    public long export(OutputStream out) throws IOException {
+        long start = System.nanoTime();
+        out.write(HEADER.getBytes());
+        Long minId = readTransaction.execute(status -> todoRepository.findMinId());
+        Long maxId = readTransaction.execute(status -> todoRepository.findMaxId());
+        long rows = 0;
+        // the workers continue the trace of the request that started the export
+        ContextSnapshot context = contextSnapshotFactory.captureAll();
+        if (minId != null) {
+            ArrayDeque<ForkJoinTask<Chunk>> inFlight = new ArrayDeque<>();
+            long nextFrom = minId;
+            try {
+                while (nextFrom <= maxId || !inFlight.isEmpty()) {
+                    while (nextFrom <= maxId && inFlight.size() < inFlightChunks()) {
+                        long from = nextFrom;
+                        long to = Math.min(maxId + 1, from + chunkSize);
+                        inFlight.add(pool.submit(context.wrap(() -> formatChunk(from, to))));
+                        nextFrom = to;
+                    }
+                    Chunk chunk = inFlight.poll().join();
+                    try {
+                        chunk.buffer().writeTo(out);
+                    } finally {
+                        release(chunk.buffer());
+                    }
+                    rows += chunk.rows();
+                }
+            } finally {
+                for (ForkJoinTask<Chunk> task : inFlight) {
+                    task.cancel(true);
+                }
+            }
+        }
+        long nanos = System.nanoTime() - start;
+        exportTimer.record(nanos, TimeUnit.NANOSECONDS);
+        rowCounter.increment(rows);
+        if (rows > 0) {
+            throughput.record(rows * 1e9 / nanos);
+        }
+        return rows;
+    }
+
+    /**
+     * Formats todos as CSV rows, in the format of {@link #HEADER}.
+     *
+     * @param todos the todos, with their assignees loaded.
+     * @param buffer the buffer to append the rows to.
+     */
+    public static void formatRows(List<Todo> todos, CsvBuffer buffer) {
+        ZoneId zone = ZoneId.systemDefault();
+        for (Todo todo : todos) {
+            buffer.number(todo.getId()).comma()
+                .field(todo.getTitle()).comma()
+                .field(todo.getDescription()).comma()
+                .bool(todo.isFinished()).comma();
+            formatAssignees(todo.getAssigneeList(), buffer);
+            buffer.comma()
+                .date(toLocalDate(todo.getCreatedDate(), zone)).comma()
+                .date(toLocalDate(todo.getDueDate(), zone)).comma()
+                .date(toLocalDate(todo.getFinishedDate(), zone)).comma()
+                .field(todo.getCategory())
+                .newline();
+        }
+    }
+
+    private record Chunk(CsvBuffer buffer, int rows) {
+    }
+
+    private Chunk formatChunk(long fromId, long toId) {
+        CsvChunkEvent event = new CsvChunkEvent();
+        event.begin();
+        CsvBuffer buffer = acquire();
+        try {
+            int rows = readTransaction.execute(status -> {
+                List<Todo> todos = todoRepository.findIdRange(fromId, toId);
+                formatRows(todos, buffer);
+                return todos.size();
+            });
+            event.end();
+            if (event.shouldCommit()) {
+                event.fromId = fromId;
+                event.toId = toId;
+                event.rows = rows;
+                event.bytes = buffer.length();
+                event.commit();
+            }
+            return new Chunk(buffer, rows);
+        } catch (RuntimeException e) {
+            release(buffer);
+            throw e;
+        }
+    }
+
+    private static void formatAssignees(List<Assignee> assignees, CsvBuffer buffer) {
+        if (assignees.isEmpty()) {
+            return;
+        }
+        // the names are joined with '+' and written as one field, so they need the same quoting as a field
+        StringBuilder names = new StringBuilder();
+        for (Assignee assignee : assignees) {
+            if (!names.isEmpty()) names.append('+');
+            names.append(assignee.getPrename()).append(' ').append(assignee.getName());
+        }
+        buffer.field(names.toString());
+    }
+
+    private static LocalDate toLocalDate(Date date, ZoneId zone) {
+        if (date == null) return null;
+        // java.sql.Date does not support toInstant()
+        return new Date(date.getTime()).toInstant().atZone(zone).toLocalDate();
+    }
+
+    private int inFlightChunks() {
+        return parallelism * 2;
+    }
+
+    private CsvBuffer acquire() {
+        CsvBuffer buffer = buffers.poll();
+        return buffer != null ? buffer : new CsvBuffer(chunkSize * 128);
+    }
+
+    private void release(CsvBuffer buffer) {
+        buffer.reset();
+        buffers.offer(buffer);
+    }
+}
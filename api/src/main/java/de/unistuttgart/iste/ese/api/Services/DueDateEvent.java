@@ -0,0 +1,19 @@
+package de.unistuttgart.iste.ese.api.Services;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Published by the {@link DueDateScheduler} for a batch of todos that became due soon or overdue.
+ *
+ * @param kind whether the todos are due soon or overdue.
+ * @param todoIds the IDs of the todos, in the order of their due date.
+ * @param firedAt when the scheduler noticed the todos.
+ */
+public record DueDateEvent(Kind kind, List<Long> todoIds, Instant firedAt) {
+
+    public enum Kind {
+        DUE_SOON,
+        OVERDUE
+    }
+}
@@ -0,0 +1,243 @@
+package de.unistuttgart.iste.ese.api.Services;
+
+import de.unistuttgart.iste.ese.api.Models.Todo;
+import de.unistuttgart.iste.ese.api.Repositories.DueTodo;
+import de.unistuttgart.iste.ese.api.Repositories.TodoRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Emits {@link DueDateEvent}s when open todos become due soon and when they become overdue.
+ * Only the todos due within a sliding window are kept in a priority queue ordered by the time their next event fires.
+ * The window is advanced with range queries on the (finished, due_date) index, and writes reach the queue through
+ * {@link TodoChangeListener}, so the table is never scanned as a whole.
+ */
+@Service
+@ConditionalOnProperty(name = "app.due-dates.enabled", havingValue = "true", matchIfMissing = true)
+public class DueDateScheduler implements TodoChangeListener {
+
+    private static final Logger log = LoggerFactory.getLogger(DueDateScheduler.class);
+
+    @Autowired
+    private TodoRepository todoRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    // the time the due dates are compared with; a Clock bean replaces it, e.g. to advance the time in tests
+    @Autowired(required = false)
+    private Clock clock = Clock.systemUTC();
+
+    @Value("${app.due-dates.lead-time:24h}")
+    private Duration leadTime;
+
+    @Value("${app.due-dates.window:6h}")
+    private Duration window;
+
+    @Value("${app.due-dates.batch-size:500}")
+    private int batchSize;
+
+    private record Entry(long fireAt, long id, long dueDate, DueDateEvent.Kind kind) {
+    }
+
+    private final PriorityQueue<Entry> queue = new PriorityQueue<>((a, b) -> Long.compare(a.fireAt(), b.fireAt()));
+    // the due date each queued todo is scheduled for; queue entries with another due date are outdated and skipped
+    private final Map<Long, Long> scheduledDueDates = new HashMap<>();
+    // due dates before this time are loaded into the queue or were already before the start
+    private long loadedUntil = Long.MIN_VALUE;
+
+    private TransactionTemplate loadTransaction;
+    private Timer windowLoadTimer;
+    private Counter dueSoonCounter;
+    private Counter overdueCounter;
+
+    /**
+     * Registers the scheduler metrics.
+     */
+    @PostConstruct
+    public void init() {
+        loadTransaction = new TransactionTemplate(transactionManager);
+        loadTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        loadTransaction.setReadOnly(true);
+        windowLoadTimer = meterRegistry.timer("todo.due.window.load");
+        dueSoonCounter = meterRegistry.counter("todo.due.events", "kind", "due-soon");
+        overdueCounter = meterRegistry.counter("todo.due.events", "kind", "overdue");
+        Gauge.builder("todo.due.scheduled", this, DueDateScheduler::scheduledCount).register(meterRegistry);
+    }
+
+    /**
+     * Loads the first window once the application accepts requests.
+     * Todos that are already overdue at that time are not reported again.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void onApplicationReady() {
+        long now = clock.millis();
+        loadedUntil = now;
+        loadWindow(now, now + leadTime.toMillis() + window.toMillis());
+    }
+
+    /**
+     * Fires the events that are due, in batches, and loads the next window before the current one runs out.
+     */
+    @Scheduled(fixedDelayString = "${app.due-dates.tick:PT10S}")
+    public synchronized void tick() {
+        if (loadedUntil == Long.MIN_VALUE) {
+            return;
+        }
+        long now = clock.millis();
+        List<Long> dueSoon = new ArrayList<>();
+        List<Long> overdue = new ArrayList<>();
+        while (!queue.isEmpty() && queue.peek().fireAt() <= now) {
+            Entry entry = queue.poll();
+            Long scheduledDueDate = scheduledDueDates.get(entry.id());
+            if (scheduledDueDate == null || scheduledDueDate != entry.dueDate()) {
+                continue;
+            }
+            if (entry.kind() == DueDateEvent.Kind.DUE_SOON) {
+                dueSoon.add(entry.id());
+            } else {
+                overdue.add(entry.id());
+                scheduledDueDates.remove(entry.id());
+            }
+        }
+        publish(DueDateEvent.Kind.DUE_SOON, dueSoon, dueSoonCounter);
+        publish(DueDateEvent.Kind.OVERDUE, overdue, overdueCounter);
+
+        // the next window is loaded when half of the current one is left
+        long horizon = now + leadTime.toMillis() + window.toMillis() / 2;
+        if (horizon >= loadedUntil) {
+            loadWindow(loadedUntil, loadedUntil + window.toMillis());
+        }
+    }
+
+    /**
+     * Returns the number of todos whose events are still pending.
+     *
+     * @return the number of scheduled todos.
+     */
+    public synchronized int scheduledCount() {
+        return scheduledDueDates.size();
+    }
+
+    @Override
+    public void todoSaved(Todo todo) {
+        long id = todo.getId();
+        boolean open = !todo.isFinished() && todo.getDueDate() != null;
+        long dueDate = open ? todo.getDueDate().getTime() : 0;
+        afterCommit(() -> {
+            long now = clock.millis();
+            // todos that are already overdue were reported before, editing them does not report them again
+            if (open && dueDate > now && dueDate < loadedUntil) {
+                schedule(id, dueDate, now);
+            } else {
+                scheduledDueDates.remove(id);
+            }
+        });
+    }
+
+    @Override
+    public void todoDeleted(long id) {
+        afterCommit(() -> scheduledDueDates.remove(id));
+    }
+
+    private void loadWindow(long from, long until) {
+        int loaded = windowLoadTimer.record(() -> loadTransaction.execute(status -> {
+            long now = clock.millis();
+            Date afterDueDate = new Date(from);
+            long afterId = -1;
+            int count = 0;
+            List<DueTodo> page;
+            do {
+                page = todoRepository.findOpenDueAfter(afterDueDate, afterId, new Date(until), Pageable.ofSize(batchSize));
+                for (DueTodo todo : page) {
+                    schedule(todo.getId(), todo.getDueDate().getTime(), now);
+                }
+                if (!page.isEmpty()) {
+                    DueTodo last = page.get(page.size() - 1);
+                    afterDueDate = last.getDueDate();
+                    afterId = last.getId();
+                }
+                count += page.size();
+            } while (page.size() == batchSize);
+            return count;
+        }));
+        loadedUntil = until;
+        log.debug("Loaded {} open todos due before {}", loaded, Instant.ofEpochMilli(until));
+    }
+
+    private void schedule(long id, long dueDate, long now) {
+        Long scheduledDueDate = scheduledDueDates.put(id, dueDate);
+        if (scheduledDueDate != null && scheduledDueDate == dueDate) {
+            // unchanged due date, the queued entries are still valid
+            return;
+        }
+        // todos that are already within the lead time are reported as due soon with the next tick
+        long dueSoonAt = Math.max(dueDate - leadTime.toMillis(), now);
+        queue.add(new Entry(dueSoonAt, id, dueDate, DueDateEvent.Kind.DUE_SOON));
+        queue.add(new Entry(dueDate, id, dueDate, DueDateEvent.Kind.OVERDUE));
+    }
+
+    private void publish(DueDateEvent.Kind kind, List<Long> ids, Counter counter) {
+        Instant firedAt = clock.instant();
+        for (int from = 0; from < ids.size(); from += batchSize) {
+            List<Long> batch = List.copyOf(ids.subList(from, Math.min(from + batchSize, ids.size())));
+            eventPublisher.publishEvent(new DueDateEvent(kind, batch, firedAt));
+            counter.increment(batch.size());
+        }
+        if (!ids.isEmpty()) {
+            log.info("{} todos became {}", ids.size(), kind == DueDateEvent.Kind.DUE_SOON ? "due soon" : "overdue");
+        }
+    }
+
+    private void afterCommit(Runnable change) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    synchronized (DueDateScheduler.this) {
+                        change.run();
+                    }
+                }
+            });
+        } else {
+            synchronized (this) {
+                change.run();
+            }
+        }
+    }
+}
@@ -0,0 +1,263 @@
+package de.unistuttgart.iste.ese.api.Services;
+
+import de.unistuttgart.iste.ese.api.Config.TenantContext;
+import de.unistuttgart.iste.ese.api.DTOs.ExportJobDTO;
+import de.unistuttgart.iste.ese.api.Interceptors.TooManyRequestsException;
+import io.micrometer.context.ContextSnapshotFactory;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs CSV exports in the background and keeps their files for a while, so that clients download them
+ * in a separate request instead of holding a connection open for the whole export.
+ * Exports run on a bounded executor; finished files are deleted after a TTL, and the oldest ones earlier
+ * when the files together exceed the disk quota.
+ */
+@Service
+public class ExportJobService {
+
+    private static final Logger log = LoggerFactory.getLogger(ExportJobService.class);
+
+    public enum Status {
+        QUEUED,
+        RUNNING,
+        DONE,
+        FAILED
+    }
+
+    @Autowired
+    private CsvExportService csvExportService;
+
+    @Value("${app.exports.directory:${java.io.tmpdir}/todo-exports}")
+    private Path directory;
+
+    @Value("${app.exports.max-concurrent:2}")
+    private int maxConcurrent;
+
+    @Value("${app.exports.max-queued:10}")
+    private int maxQueued;
+
+    @Value("${app.exports.ttl:1h}")
+    private Duration ttl;
+
+    @Value("${app.exports.disk-quota:1GB}")
+    private DataSize diskQuota;
+
+    private static class Job {
+        final String id = UUID.randomUUID().toString();
+        final String tenant = TenantContext.get();
+        final Instant createdAt = Instant.now();
+        volatile Status status = Status.QUEUED;
+        volatile Instant completedAt;
+        volatile long rows;
+        volatile long size;
+        volatile String error;
+    }
+
+    private final Map<String, Job> jobs = new ConcurrentHashMap<>();
+    // captures the thread locals of all registered accessors, so that a job continues the trace that queued it
+    private final ContextSnapshotFactory contextSnapshotFactory = ContextSnapshotFactory.builder().build();
+    private ThreadPoolExecutor executor;
+
+    /**
+     * Creates the export directory, removes files left over from a previous run and starts the executor.
+     *
+     * @throws IOException if the directory cannot be created or cleaned.
+     */
+    @PostConstruct
+    public void init() throws IOException {
+        Files.createDirectories(directory);
+        // jobs are only known in memory, so files of a previous run can never be downloaded again
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*.{csv,part}")) {
+            for (Path file : files) {
+                Files.deleteIfExists(file);
+            }
+        }
+        AtomicInteger threadNumber = new AtomicInteger();
+        executor = new ThreadPoolExecutor(maxConcurrent, maxConcurrent, 0, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(maxQueued), runnable -> {
+                Thread thread = new Thread(runnable, "export-" + threadNumber.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+    }
+
+    /**
+     * Stops running exports.
+     */
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Starts a CSV export of all todos.
+     *
+     * @return the queued export.
+     * @throws TooManyRequestsException if too many exports are already waiting.
+     */
+    public ExportJobDTO submit() {
+        Job job = new Job();
+        jobs.put(job.id, job);
+        try {
+            // the export continues the trace of the request that started it
+            executor.execute(contextSnapshotFactory.captureAll().wrap(() -> run(job)));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.id);
+            throw new TooManyRequestsException("Zu viele Exporte in Bearbeitung", 30);
+        }
+        return toDTO(job);
+    }
+
+    /**
+     * Returns the state of an export.
+     *
+     * @param id the ID of the export.
+     * @return the export.
+     * @throws ResponseStatusException if the export does not exist or was already deleted.
+     */
+    public ExportJobDTO getJob(String id) {
+        return toDTO(findJob(id));
+    }
+
+    /**
+     * Returns the file of a finished export.
+     *
+     * @param id the ID of the export.
+     * @return the path of the CSV file.
+     * @throws ResponseStatusException if the export does not exist or is not finished.
+     */
+    public Path getFile(String id) {
+        Job job = findJob(id);
+        if (job.status != Status.DONE) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Export ist noch nicht fertig");
+        }
+        return fileOf(job);
+    }
+
+    /**
+     * Deletes an export and its file.
+     *
+     * @param id the ID of the export.
+     * @throws ResponseStatusException if the export does not exist.
+     */
+    public void delete(String id) {
+        Job job = findJob(id);
+        if (job.status == Status.QUEUED || job.status == Status.RUNNING) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Export ist noch nicht fertig");
+        }
+        remove(job);
+    }
+
+    /**
+     * Deletes exports older than the TTL, and the oldest finished exports while their files exceed the disk quota.
+     */
+    @Scheduled(fixedDelayString = "${app.exports.eviction-interval:PT1M}")
+    public synchronized void evict() {
+        Instant expiry = Instant.now().minus(ttl);
+        for (Job job : jobs.values()) {
+            if (job.completedAt != null && job.completedAt.isBefore(expiry)) {
+                remove(job);
+            }
+        }
+        List<Job> done = jobs.values().stream()
+            .filter(job -> job.status == Status.DONE)
+            .sorted(Comparator.comparing((Job job) -> job.completedAt))
+            .toList();
+        long total = done.stream().mapToLong(job -> job.size).sum();
+        for (Job job : done) {
+            if (total <= diskQuota.toBytes()) {
+                break;
+            }
+            total -= job.size;
+            remove(job);
+        }
+    }
+
+    private void run(Job job) {
+        job.status = Status.RUNNING;
+        Path part = directory.resolve(job.id + ".part");
+        try {
+            try (FileChannel channel = FileChannel.open(part, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+                 OutputStream out = Channels.newOutputStream(channel)) {
+                job.rows = csvExportService.export(out);
+                job.size = channel.size();
+            }
+            // the file only gets its final name when it is complete, so a download never sees a partial file
+            Files.move(part, fileOf(job), StandardCopyOption.ATOMIC_MOVE);
+            job.completedAt = Instant.now();
+            job.status = Status.DONE;
+        } catch (IOException | RuntimeException e) {
+            log.warn("Export {} failed", job.id, e);
+            deleteQuietly(part);
+            job.error = e.getMessage();
+            job.completedAt = Instant.now();
+            job.status = Status.FAILED;
+        }
+        if (job.status == Status.DONE) {
+            evict();
+        }
+    }
+
+    private Job findJob(String id) {
+        Job job = jobs.get(id);
+        if (job == null || !job.tenant.equals(TenantContext.get())) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, String.format("Export with ID %s not found!", id));
+        }
+        return job;
+    }
+
+    private void remove(Job job) {
+        jobs.remove(job.id);
+        deleteQuietly(fileOf(job));
+    }
+
+    private Path fileOf(Job job) {
+        return directory.resolve(job.id + ".csv");
+    }
+
+    private void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Could not delete export file {}", file, e);
+        }
+    }
+
+    private ExportJobDTO toDTO(Job job) {
+        boolean done = job.status == Status.DONE;
+        return new ExportJobDTO(job.id, job.status.name(), job.createdAt, job.completedAt,
+            done ? job.rows : null, done ? job.size : null, job.error);
+    }
+}
@@ -0,0 +1,178 @@
+package de.unistuttgart.iste.ese.api.Services;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.unistuttgart.iste.ese.api.Config.TenantContext;
+import de.unistuttgart.iste.ese.api.Interceptors.TooManyRequestsException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Makes client retries of create requests cheap and safe.
+ * The result of a request with an {@code Idempotency-Key} is kept in a bounded store for a limited time;
+ * a retry with the same key gets the stored result without executing the request again, and a retry that
+ * arrives while the original is still running waits for its result instead of running in parallel.
+ */
+@Service
+public class IdempotencyService {
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${app.idempotency.ttl:24h}")
+    private Duration ttl;
+
+    @Value("${app.idempotency.max-keys:10000}")
+    private int maxKeys;
+
+    @Value("${app.idempotency.wait-timeout:10s}")
+    private Duration waitTimeout;
+
+    // in access order, so that the least recently used completed keys are evicted first
+    private final Map<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    /**
+     * Executes an action at most once per idempotency key.
+     *
+     * @param scope the operation the key belongs to, e.g. the name of the endpoint.
+     * @param idempotencyKey the key sent by the client, or null to execute the action unconditionally.
+     * @param request the request body, to detect a key that is reused for a different request.
+     * @param action the action to execute.
+     * @param <T> the type of the result.
+     * @return the result of the action, or the stored result of an earlier execution with the same key.
+     * @throws ResponseStatusException with 422 if the key was already used for a different request,
+     *                                 with 409 if the original request is still running after the wait timeout.
+     * @throws TooManyRequestsException if the store is full of requests that are still running.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T execute(String scope, String idempotencyKey, Object request, Supplier<T> action) {
+        if (idempotencyKey == null || idempotencyKey.isEmpty()) {
+            return action.get();
+        }
+
+        // keys are chosen by the clients, so the same key of two tenants must not collide
+        String key = TenantContext.get() + ":" + scope + ":" + idempotencyKey;
+        byte[] fingerprint = fingerprint(request);
+        Entry entry;
+        boolean owner = false;
+        synchronized (entries) {
+            entry = entries.get(key);
+            if (entry == null || entry.isExpired()) {
+                if (entry == null) {
+                    makeRoom();
+                }
+                entry = new Entry(fingerprint, System.nanoTime() + ttl.toNanos());
+                entries.put(key, entry);
+                owner = true;
+            }
+        }
+
+        if (!Arrays.equals(entry.fingerprint, fingerprint)) {
+            throw new ResponseStatusException(HttpStatus.UNPROCESSABLE_ENTITY,
+                "Idempotency-Key wurde bereits für eine andere Anfrage verwendet");
+        }
+
+        if (owner) {
+            try {
+                T result = action.get();
+                entry.result.complete(result);
+                return result;
+            } catch (Throwable e) {
+                // failed requests are not stored, so that the client can retry them; errors must wake the waiters too
+                synchronized (entries) {
+                    entries.remove(key, entry);
+                }
+                entry.result.completeExceptionally(e);
+                throw e;
+            }
+        }
+
+        try {
+            return (T) entry.result.get(waitTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT,
+                "Anfrage mit diesem Idempotency-Key wird noch bearbeitet, bitte später erneut versuchen");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ResponseStatusException(HttpStatus.CONFLICT,
+                "Anfrage mit diesem Idempotency-Key wird noch bearbeitet, bitte später erneut versuchen");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    /**
+     * Removes expired keys.
+     */
+    @Scheduled(fixedDelay = 60_000)
+    public void evictExpired() {
+        synchronized (entries) {
+            entries.values().removeIf(Entry::isExpired);
+        }
+    }
+
+    /**
+     * Evicts the least recently used completed keys until there is room for a new one.
+     * Keys of running requests are never evicted, otherwise a retry would execute the request a second time.
+     *
+     * @throws TooManyRequestsException if all stored keys belong to running requests.
+     */
+    private void makeRoom() {
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (entries.size() >= maxKeys && iterator.hasNext()) {
+            if (iterator.next().result.isDone()) {
+                iterator.remove();
+            }
+        }
+        if (entries.size() >= maxKeys) {
+            throw new TooManyRequestsException("Zu viele Anfragen mit Idempotency-Key in Bearbeitung",
+                Math.max(1, waitTimeout.toSeconds()));
+        }
+    }
+
+    private byte[] fingerprint(Object request) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(objectMapper.writeValueAsBytes(request));
+        } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Could not fingerprint request", e);
+        }
+    }
+
+    private static class Entry {
+        private final byte[] fingerprint;
+        private final long expiresAt;
+        private final CompletableFuture<Object> result = new CompletableFuture<>();
+
+        Entry(byte[] fingerprint, long expiresAt) {
+            this.fingerprint = fingerprint;
+            this.expiresAt = expiresAt;
+        }
+
+        boolean isExpired() {
+            return result.isDone() && System.nanoTime() - expiresAt > 0;
+        }
+    }
+}
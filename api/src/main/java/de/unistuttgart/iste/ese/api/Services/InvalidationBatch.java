@@ -0,0 +1,69 @@
+package de.unistuttgart.iste.ese.api.Services;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Collectors;
+
+/**
+ * The entities written by one transaction of one instance, as sent over the {@link InvalidationTransport}.
+ * Only the type and ID of an entity are sent; receivers load the current state from the database,
+ * so batches may be applied more than once and a deleted entity is simply one that is not found any more.
+ *
+ * @param origin the ID of the instance that wrote the entities.
+ * @param publishedAt when the writing transaction published the batch.
+ * @param invalidations the written entities.
+ */
+public record InvalidationBatch(String origin, Instant publishedAt, List<Invalidation> invalidations) {
+
+    public enum EntityType {
+        TODO,
+        ASSIGNEE
+    }
+
+    /**
+     * A written entity.
+     *
+     * @param type the type of the entity.
+     * @param id the ID of the entity.
+     */
+    public record Invalidation(EntityType type, long id) {
+    }
+
+    /**
+     * Writes the invalidations in the text form of the change table and the multicast datagrams.
+     *
+     * @param invalidations the invalidations to encode.
+     * @return the invalidations as e.g. "todo:12,assignee:3".
+     */
+    public static String encode(Collection<Invalidation> invalidations) {
+        return invalidations.stream()
+            .map(invalidation -> invalidation.type().name().toLowerCase(Locale.ROOT) + ":" + invalidation.id())
+            .collect(Collectors.joining(","));
+    }
+
+    /**
+     * Reads invalidations written by {@link #encode}.
+     *
+     * @param text the encoded invalidations.
+     * @return the invalidations.
+     * @throws IllegalArgumentException if the text is malformed.
+     */
+    public static List<Invalidation> decode(String text) {
+        List<Invalidation> invalidations = new ArrayList<>();
+        if (text.isEmpty()) {
+            return invalidations;
+        }
+        for (String entry : text.split(",")) {
+            String[] typeAndId = entry.split(":", 2);
+            if (typeAndId.length != 2) {
+                throw new IllegalArgumentException(String.format("Invalid invalidation '%s'", entry));
+            }
+            invalidations.add(new Invalidation(EntityType.valueOf(typeAndId[0].toUpperCase(Locale.ROOT)),
+                Long.parseLong(typeAndId[1])));
+        }
+        return invalidations;
+    }
+}
@@ -0,0 +1,226 @@
+package de.unistuttgart.iste.ese.api.Services;
+
+import de.unistuttgart.iste.ese.api.Config.CaffeineRegionFactory;
+import de.unistuttgart.iste.ese.api.Models.Assignee;
+import de.unistuttgart.iste.ese.api.Models.Todo;
+import de.unistuttgart.iste.ese.api.Repositories.AssigneeRepository;
+import de.unistuttgart.iste.ese.api.Repositories.TodoRepository;
+import de.unistuttgart.iste.ese.api.Services.InvalidationBatch.EntityType;
+import de.unistuttgart.iste.ese.api.Services.InvalidationBatch.Invalidation;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import org.hibernate.cache.spi.RegionFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps the in-memory read models and caches of several instances behind a load balancer consistent.
+ * Every write of {@link TodoService} and {@link AssigneeService} on this instance is published over the
+ * {@link InvalidationTransport} as the types and IDs of the written entities, one batch per transaction.
+ * Batches of other instances are applied by evicting the entities from the second-level cache, reloading them and
+ * passing them to the local {@link TodoChangeListener}s as if they had been written here, and by discarding the
+ * shared list responses.
+ */
+@Service
+@ConditionalOnExpression("'${app.invalidation.transport:none}' != 'none'")
+public class InvalidationService implements TodoChangeListener {
+
+    @Autowired
+    private InvalidationTransport transport;
+
+    @Autowired(required = false)
+    private List<TodoChangeListener> changeListeners = List.of();
+
+    @Autowired
+    private TodoRepository todoRepository;
+
+    @Autowired
+    private AssigneeRepository assigneeRepository;
+
+    @Autowired
+    private ReadCoalescingService readCoalescingService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired(required = false)
+    private CaffeineRegionFactory entityCache;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    // distinguishes the batches of this instance from those of its peers
+    @Value("${app.invalidation.instance-id:${random.uuid}}")
+    private String instanceId;
+
+    private TransactionTemplate applyTransaction;
+    private Counter published;
+    private Counter applied;
+    private Timer delay;
+
+    /**
+     * Registers the metrics and subscribes to the batches of the other instances.
+     */
+    @PostConstruct
+    public void init() {
+        // not read-only, so that a reload never reads a replica that has not seen the change yet;
+        // a new transaction per batch, so that a batch that fails to apply does not roll back the others
+        applyTransaction = new TransactionTemplate(transactionManager);
+        applyTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        published = Counter.builder("todo.invalidation.published").register(meterRegistry);
+        applied = Counter.builder("todo.invalidation.applied").register(meterRegistry);
+        delay = Timer.builder("todo.invalidation.delay")
+            .description("Time from the commit on one instance until another instance applied the change")
+            .publishPercentileHistogram()
+            .register(meterRegistry);
+        transport.subscribe(this::receive);
+    }
+
+    /**
+     * Returns the ID this instance publishes its batches with.
+     *
+     * @return the instance ID.
+     */
+    public String getInstanceId() {
+        return instanceId;
+    }
+
+    @Override
+    public void todoSaved(Todo todo) {
+        record(new Invalidation(EntityType.TODO, todo.getId()));
+    }
+
+    @Override
+    public void todoDeleted(long id) {
+        record(new Invalidation(EntityType.TODO, id));
+    }
+
+    @Override
+    public void assigneeSaved(Assignee assignee) {
+        record(new Invalidation(EntityType.ASSIGNEE, assignee.getId()));
+    }
+
+    @Override
+    public void assigneeDeleted(long id) {
+        record(new Invalidation(EntityType.ASSIGNEE, id));
+    }
+
+    // collects the entities of a transaction and publishes them right before it commits
+    private void record(Invalidation invalidation) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            publish(List.of(invalidation));
+            return;
+        }
+        @SuppressWarnings("unchecked")
+        Set<Invalidation> pending = (Set<Invalidation>) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            Set<Invalidation> batch = new LinkedHashSet<>();
+            TransactionSynchronizationManager.bindResource(this, batch);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                    publish(new ArrayList<>(batch));
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(InvalidationService.this);
+                }
+            });
+            pending = batch;
+        }
+        pending.add(invalidation);
+    }
+
+    private void publish(List<Invalidation> invalidations) {
+        transport.publish(new InvalidationBatch(instanceId, Instant.now(), invalidations));
+        published.increment();
+    }
+
+    private void receive(InvalidationBatch batch) {
+        if (batch.origin().equals(instanceId)) {
+            return;
+        }
+        applyTransaction.executeWithoutResult(status -> apply(batch.invalidations()));
+        applied.increment();
+        delay.record(Duration.between(batch.publishedAt(), Instant.now()));
+    }
+
+    // the todos first, as a deleted assignee was removed from its todos before
+    private void apply(List<Invalidation> invalidations) {
+        List<Long> todoIds = idsOf(invalidations, EntityType.TODO);
+        List<Long> assigneeIds = idsOf(invalidations, EntityType.ASSIGNEE);
+        evictFromEntityCache(todoIds, assigneeIds);
+        Map<Long, Todo> todos = todoRepository.findAllById(todoIds).stream()
+            .collect(Collectors.toMap(Todo::getId, Function.identity()));
+        for (Long id : todoIds) {
+            Todo todo = todos.get(id);
+            localListeners().forEach(listener -> {
+                if (todo != null) {
+                    listener.todoSaved(todo);
+                } else {
+                    listener.todoDeleted(id);
+                }
+            });
+        }
+
+        Map<Long, Assignee> assignees = assigneeRepository.findAllById(assigneeIds).stream()
+            .collect(Collectors.toMap(Assignee::getId, Function.identity()));
+        for (Long id : assigneeIds) {
+            Assignee assignee = assignees.get(id);
+            localListeners().forEach(listener -> {
+                if (assignee != null) {
+                    listener.assigneeSaved(assignee);
+                } else {
+                    listener.assigneeDeleted(id);
+                }
+            });
+        }
+        readCoalescingService.invalidate();
+    }
+
+    // the batch does not name the tenant, so the entries are evicted in all tenants; the query results are cheap to
+    // rebuild and are only evicted by Hibernate when this instance writes their tables
+    private void evictFromEntityCache(List<Long> todoIds, List<Long> assigneeIds) {
+        if (entityCache == null) {
+            return;
+        }
+        entityCache.evict(Todo.CACHE_REGION, todoIds);
+        entityCache.evict(Todo.ASSIGNEES_CACHE_REGION, todoIds);
+        entityCache.evict(Todo.LABELS_CACHE_REGION, todoIds);
+        entityCache.evict(Assignee.CACHE_REGION, assigneeIds);
+        entityCache.evictRegion(RegionFactory.DEFAULT_QUERY_RESULTS_REGION_UNQUALIFIED_NAME);
+    }
+
+    // the changes of other instances must not be published again
+    private List<TodoChangeListener> localListeners() {
+        return changeListeners.stream().filter(listener -> listener != this).toList();
+    }
+
+    private static List<Long> idsOf(List<Invalidation> invalidations, EntityType type) {
+        return invalidations.stream()
+            .filter(invalidation -> invalidation.type() == type)
+            .map(Invalidation::id)
+            .distinct()
+            .toList();
+    }
+}
@@ -0,0 +1,25 @@
+package de.unistuttgart.iste.ese.api.Services;
+
+import java.util.function.Consumer;
+
+/**
+ * Carries {@link InvalidationBatch}es from the instance that wrote the entities to all other instances.
+ * A transport may deliver a batch more than once and to its own origin; {@link InvalidationService} skips those.
+ */
+public interface InvalidationTransport {
+
+    /**
+     * Sends the entities written by the current transaction. Called inside the writing transaction right before
+     * it commits; transports that do not write to the database must not send before the commit succeeded.
+     *
+     * @param batch the written entities.
+     */
+    void publish(InvalidationBatch batch);
+
+    /**
+     * Starts delivering the batches of all instances.
+     *
+     * @param receiver called with every received batch, from a thread of the transport.
+     */
+    void subscribe(Consumer<InvalidationBatch> receiver);
+}
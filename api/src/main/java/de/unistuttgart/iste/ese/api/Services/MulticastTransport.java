@@ -0,0 +1,137 @@
+package de.unistuttgart.iste.ese.api.Services;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.IOException;
+import java.net.DatagramPacket;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.MulticastSocket;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Sends invalidations as UDP multicast datagrams to all instances in the same network segment.
+ * A datagram is sent right after the writing transaction commits, so the other instances apply it within
+ * milliseconds, but datagrams can be lost; where every invalidation must arrive, use the change table.
+ * A datagram holds the origin, the time of publishing and up to {@value #MAX_INVALIDATIONS} entities.
+ */
+@Service
+@ConditionalOnProperty(name = "app.invalidation.transport", havingValue = "multicast")
+public class MulticastTransport implements InvalidationTransport {
+
+    private static final Logger log = LoggerFactory.getLogger(MulticastTransport.class);
+    // keeps a datagram below the usual MTU
+    private static final int MAX_INVALIDATIONS = 64;
+    private static final int MAX_DATAGRAM_SIZE = 1500;
+
+    @Value("${app.invalidation.multicast.group:239.255.42.99}")
+    private String group;
+
+    @Value("${app.invalidation.multicast.port:45990}")
+    private int port;
+
+    @Value("${app.invalidation.multicast.ttl:1}")
+    private int ttl;
+
+    private MulticastSocket socket;
+    private InetSocketAddress groupAddress;
+    private volatile Consumer<InvalidationBatch> receiver;
+
+    /**
+     * Joins the multicast group and starts receiving.
+     *
+     * @throws IOException if the socket cannot be opened or the group cannot be joined.
+     */
+    @PostConstruct
+    public void init() throws IOException {
+        groupAddress = new InetSocketAddress(InetAddress.getByName(group), port);
+        socket = new MulticastSocket(port);
+        socket.setTimeToLive(ttl);
+        socket.joinGroup(groupAddress, null);
+        Thread thread = new Thread(this::receive, "invalidation-multicast");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Leaves the group and stops receiving.
+     */
+    @PreDestroy
+    public void shutdown() {
+        socket.close();
+    }
+
+    @Override
+    public void publish(InvalidationBatch batch) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    send(batch);
+                }
+            });
+        } else {
+            send(batch);
+        }
+    }
+
+    @Override
+    public void subscribe(Consumer<InvalidationBatch> receiver) {
+        this.receiver = receiver;
+    }
+
+    private void send(InvalidationBatch batch) {
+        List<InvalidationBatch.Invalidation> invalidations = batch.invalidations();
+        for (int from = 0; from < invalidations.size(); from += MAX_INVALIDATIONS) {
+            String text = batch.origin() + "|" + batch.publishedAt().toEpochMilli() + "|"
+                + InvalidationBatch.encode(invalidations.subList(from, Math.min(from + MAX_INVALIDATIONS, invalidations.size())));
+            byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+            try {
+                socket.send(new DatagramPacket(bytes, bytes.length, groupAddress));
+            } catch (IOException e) {
+                log.warn("Could not send invalidations of {} entities", invalidations.size(), e);
+                return;
+            }
+        }
+    }
+
+    private void receive() {
+        byte[] buffer = new byte[MAX_DATAGRAM_SIZE];
+        while (!socket.isClosed()) {
+            DatagramPacket packet = new DatagramPacket(buffer, buffer.length);
+            try {
+                socket.receive(packet);
+            } catch (IOException e) {
+                if (!socket.isClosed()) {
+                    log.warn("Could not receive invalidations", e);
+                }
+                continue;
+            }
+            Consumer<InvalidationBatch> current = receiver;
+            if (current == null) {
+                continue;
+            }
+            try {
+                String[] parts = new String(packet.getData(), 0, packet.getLength(), StandardCharsets.UTF_8).split("\\|", 3);
+                if (parts.length != 3) {
+                    throw new IllegalArgumentException("Expected origin, time and entities");
+                }
+                current.accept(new InvalidationBatch(parts[0], Instant.ofEpochMilli(Long.parseLong(parts[1])),
+                    InvalidationBatch.decode(parts[2])));
+            } catch (RuntimeException e) {
+                log.warn("Could not apply invalidations from {}", packet.getSocketAddress(), e);
+            }
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package de.unistuttgart.iste.ese.api.Services;
+
+import de.unistuttgart.iste.ese.api.Config.TenantContext;
+import de.unistuttgart.iste.ese.api.Utils.SingleFlight;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.function.Supplier;
+
+/**
+ * Shares the serialized responses of identical concurrent list requests,
+ * so that a burst of N identical requests costs one query and one serialization.
+ */
+@Service
+public class ReadCoalescingService {
+
+    @Value("${app.single-flight.result-ttl:0s}")
+    private Duration resultTtl;
+
+    private SingleFlight<String, byte[]> singleFlight;
+
+    /**
+     * Creates the single-flight group with the configured result TTL.
+     */
+    @PostConstruct
+    public void init() {
+        singleFlight = new SingleFlight<>(resultTtl.toNanos());
+    }
+
+    /**
+     * Returns the serialized response for the key, sharing it with identical concurrent requests.
+     *
+     * Responses are only shared within the tenant of the current request.
+     *
+     * @param key the endpoint and all parameters that influence the response.
+     * @param computation queries and serializes the response.
+     * @return the serialized response.
+     */
+    public byte[] coalesce(String key, Supplier<byte[]> computation) {
+        return singleFlight.execute(TenantContext.get() + ":" + key, computation);
+    }
+
+    /**
+     * Discards shared responses after todos or assignees changed.
+     * Inside a transaction, this happens after the commit, so that no response computed from the old state is kept.
+     */
+    public void invalidate() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    singleFlight.invalidateAll();
+                }
+            });
+        } else {
+            singleFlight.invalidateAll();
+        }
+    }
+}
@@ -0,0 +1,184 @@
+package de.unistuttgart.iste.ese.api.Services;
+
+import de.unistuttgart.iste.ese.api.DTOs.ResponseDTO;
+import de.unistuttgart.iste.ese.api.Repositories.TodoAssigneeRow;
+import de.unistuttgart.iste.ese.api.Repositories.TodoLabel;
+import de.unistuttgart.iste.ese.api.Repositories.TodoRepository;
+import jakarta.persistence.Tuple;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.*;
+
+/**
+ * Lists all todos with only the requested fields, read as column projections instead of entities.
+ * Only the columns of the requested fields are selected; the assignees and labels are read by their own
+ * projection queries only if they are requested, so a list of titles costs one narrow query and no join.
+ * The todos are returned as maps with the same field names and formats as {@link ResponseDTO}.
+ */
+@Service
+public class SparseTodoService {
+
+    /**
+     * The single-valued fields of a todo that can be requested, in the order they are written.
+     */
+    public static final List<String> COLUMN_FIELDS = List.of(
+        "id", "title", "description", "finished", "createdDate", "dueDate", "finishedDate", "category", "version");
+
+    /**
+     * The field of the labels, read from the label table if requested.
+     */
+    public static final String LABELS = "labels";
+
+    /**
+     * The relation that can be included, read from the assignee join table if requested.
+     */
+    public static final String ASSIGNEES = "assignees";
+
+    private static final Set<String> DATE_FIELDS = Set.of("createdDate", "dueDate", "finishedDate");
+
+    @Autowired
+    private TodoRepository todoRepository;
+
+    /**
+     * The parsed and validated fields of a sparse request.
+     *
+     * @param columns the requested single-valued fields, in the order of {@link #COLUMN_FIELDS}.
+     * @param labels whether the labels are requested.
+     * @param assignees whether the assignees are included.
+     */
+    public record FieldSet(List<String> columns, boolean labels, boolean assignees) {
+
+        /**
+         * Returns a canonical form of the field set, equal for all requests that select the same fields.
+         *
+         * @return the fields and includes, e.g. "fields=id,title&include=assignees".
+         */
+        public String key() {
+            List<String> fields = new ArrayList<>(columns);
+            if (labels) {
+                fields.add(LABELS);
+            }
+            return "fields=" + String.join(",", fields) + (assignees ? "&include=" + ASSIGNEES : "");
+        }
+    }
+
+    /**
+     * Parses the fields and includes of a request.
+     * Without fields, all fields of {@link ResponseDTO} except the assignees are selected.
+     * The ID is always selected, so that the todos can be told apart.
+     *
+     * @param fields the comma-separated field names, or null.
+     * @param include the comma-separated relations to include, or null.
+     * @return the field set.
+     * @throws ResponseStatusException with 400 if a field or relation is unknown.
+     */
+    public FieldSet parse(String fields, String include) {
+        Set<String> requested = new HashSet<>();
+        if (fields == null || fields.isBlank()) {
+            requested.addAll(COLUMN_FIELDS);
+            requested.add(LABELS);
+        } else {
+            requested.add("id");
+            for (String field : fields.split(",")) {
+                String name = field.trim();
+                if (name.isEmpty()) {
+                    continue;
+                }
+                if (!COLUMN_FIELDS.contains(name) && !name.equals(LABELS)) {
+                    throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                        String.format("Unbekanntes Feld: %s, erlaubt sind %s und %s", name, COLUMN_FIELDS, LABELS));
+                }
+                requested.add(name);
+            }
+        }
+        boolean assignees = false;
+        if (include != null) {
+            for (String relation : include.split(",")) {
+                String name = relation.trim();
+                if (name.isEmpty()) {
+                    continue;
+                }
+                if (!name.equals(ASSIGNEES)) {
+                    throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                        String.format("Unbekannte Beziehung: %s, erlaubt ist %s", name, ASSIGNEES));
+                }
+                assignees = true;
+            }
+        }
+        List<String> columns = COLUMN_FIELDS.stream().filter(requested::contains).toList();
+        return new FieldSet(columns, requested.contains(LABELS), assignees);
+    }
+
+    /**
+     * Lists all todos with the fields of a field set, ordered by ID.
+     *
+     * @param fieldSet the fields to read.
+     * @return one map per todo, from field name to value; dates are formatted as yyyy-MM-dd.
+     */
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> getAllTodos(FieldSet fieldSet) {
+        List<Tuple> rows = todoRepository.findAllColumns(fieldSet.columns());
+        Map<Long, Map<String, Object>> todos = new LinkedHashMap<>(rows.size() * 2);
+        for (Tuple row : rows) {
+            Map<String, Object> todo = new LinkedHashMap<>();
+            for (String column : fieldSet.columns()) {
+                todo.put(column, value(column, row.get(column)));
+            }
+            todos.put(row.get("id", Long.class), todo);
+        }
+
+        if (fieldSet.labels()) {
+            // like ResponseDTO, todos without labels get an empty map
+            todos.values().forEach(todo -> todo.put(LABELS, new TreeMap<String, String>()));
+            for (TodoLabel label : todoRepository.findAllLabels()) {
+                Map<String, Object> todo = todos.get(label.getTodoId());
+                if (todo != null) {
+                    labelsOf(todo).put(label.getModel(), label.getLabel());
+                }
+            }
+        }
+        if (fieldSet.assignees()) {
+            todos.values().forEach(todo -> todo.put("assigneeList", new ArrayList<>()));
+            for (TodoAssigneeRow row : todoRepository.findAllAssigneeRows()) {
+                Map<String, Object> todo = todos.get(row.getTodoId());
+                if (todo != null) {
+                    Map<String, Object> assignee = new LinkedHashMap<>();
+                    assignee.put("id", row.getId());
+                    assignee.put("prename", row.getPrename());
+                    assignee.put("name", row.getName());
+                    assignee.put("email", row.getEmail());
+                    assigneesOf(todo).add(assignee);
+                }
+            }
+        }
+        return new ArrayList<>(todos.values());
+    }
+
+    // converts a column to the form ResponseDTO writes it in
+    private static Object value(String field, Object value) {
+        if (field.equals("finished")) {
+            return Boolean.TRUE.equals(value);
+        }
+        if (value instanceof Date date && DATE_FIELDS.contains(field)) {
+            // Jackson formats the dates of ResponseDTO in UTC; java.sql.Date does not support toInstant
+            return Instant.ofEpochMilli(date.getTime()).atZone(ZoneOffset.UTC).toLocalDate().toString();
+        }
+        return value;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, String> labelsOf(Map<String, Object> todo) {
+        return (Map<String, String>) todo.get(LABELS);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<Map<String, Object>> assigneesOf(Map<String, Object> todo) {
+        return (List<Map<String, Object>>) todo.get("assigneeList");
+    }
+}
@@ -0,0 +1,187 @@
+package de.unistuttgart.iste.ese.api.Services;
+
+import de.unistuttgart.iste.ese.api.Config.ShardRoutingDataSource;
+import de.unistuttgart.iste.ese.api.Config.ShardingProperties;
+import jakarta.persistence.EntityManagerFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Moves the data of a tenant to another shard while the other tenants keep working.
+ * The tenant's writes are rejected with 503 for the duration of the move, its reads continue on the old shard.
+ * <ol>
+ *     <li>mark the tenant as moving in the directory and wait until every instance rejects its writes and
+ *     finished those in flight</li>
+ *     <li>copy its rows to the target shard in one transaction, keeping their IDs</li>
+ *     <li>pin the tenant to the target shard and wait until every instance reads it from there</li>
+ *     <li>delete its rows on the old shard</li>
+ * </ol>
+ * The IDs are kept, so that clients can continue to use them; the shards must therefore assign disjoint IDs,
+ * e.g. with different {@code auto_increment_offset}s. A move that fails before the pin leaves the tenant on
+ * the old shard and can simply be repeated.
+ */
+@Service
+@ConditionalOnProperty(prefix = "app.sharding", name = "enabled", havingValue = "true")
+public class TenantMoveService {
+
+    private static final Logger log = LoggerFactory.getLogger(TenantMoveService.class);
+
+    private static final String TODOS_OF_TENANT = "select id from todo where tenant = ?";
+    private static final String ARCHIVED_TODOS_OF_TENANT = "select id from todo_archive where tenant = ?";
+
+    // the queries for the rows of a tenant, in the order of the foreign keys
+    private static final Map<String, String> TABLES = new LinkedHashMap<>();
+    private static final List<String> DELETES = List.of(
+        "delete from todo_labels where todo_id in (" + TODOS_OF_TENANT + ")",
+        "delete from todo_assignee_list where todo_id in (" + TODOS_OF_TENANT + ")",
+        "delete from todo where tenant = ?",
+        "delete from todo_archive_labels where todo_id in (" + ARCHIVED_TODOS_OF_TENANT + ")",
+        "delete from todo_archive_assignee_list where todo_id in (" + ARCHIVED_TODOS_OF_TENANT + ")",
+        "delete from todo_archive where tenant = ?",
+        "delete from assignees where tenant = ?");
+
+    static {
+        TABLES.put("assignees", "select * from assignees where tenant = ?");
+        TABLES.put("todo", "select * from todo where tenant = ?");
+        TABLES.put("todo_assignee_list", "select * from todo_assignee_list where todo_id in (" + TODOS_OF_TENANT + ")");
+        TABLES.put("todo_labels", "select * from todo_labels where todo_id in (" + TODOS_OF_TENANT + ")");
+        TABLES.put("todo_archive", "select * from todo_archive where tenant = ?");
+        TABLES.put("todo_archive_assignee_list",
+            "select * from todo_archive_assignee_list where todo_id in (" + ARCHIVED_TODOS_OF_TENANT + ")");
+        TABLES.put("todo_archive_labels", "select * from todo_archive_labels where todo_id in (" + ARCHIVED_TODOS_OF_TENANT + ")");
+    }
+
+    @Autowired
+    private ShardRoutingDataSource routingDataSource;
+
+    @Autowired
+    private ShardingProperties properties;
+
+    @Autowired
+    private ReadCoalescingService readCoalescingService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    /**
+     * Moves a tenant to another shard.
+     *
+     * @param tenant the tenant to move.
+     * @param targetShard the name of the shard to move it to.
+     * @return the number of copied rows by table.
+     * @throws IllegalArgumentException if there is no such shard.
+     * @throws IllegalStateException if the tenant is already on the shard or being moved, or its writes did not
+     * finish on every instance.
+     * @throws SQLException if reading or writing a shard fails; the tenant then stays on its shard.
+     * @throws InterruptedException if the thread is interrupted while waiting for the writes in flight.
+     */
+    public Map<String, Integer> move(String tenant, String targetShard) throws SQLException, InterruptedException {
+        DataSource target = routingDataSource.getShard(targetShard);
+        String sourceShard = routingDataSource.beginMove(tenant, targetShard);
+        DataSource source = routingDataSource.getShard(sourceShard);
+
+        Map<String, Integer> copied = new LinkedHashMap<>();
+        try {
+            routingDataSource.awaitApplied(properties.getMoveDrainTimeout());
+            try (Connection from = source.getConnection(); Connection to = target.getConnection()) {
+                // all tables are read from one snapshot, so a todo archived meanwhile is copied either as a todo
+                // or as an archived todo, together with its assignees and labels
+                from.setAutoCommit(false);
+                from.setTransactionIsolation(Connection.TRANSACTION_REPEATABLE_READ);
+                from.setReadOnly(true);
+                to.setAutoCommit(false);
+                try {
+                    // leftovers of an earlier move that failed before the pin
+                    deleteRows(to, tenant);
+                    for (Map.Entry<String, String> table : TABLES.entrySet()) {
+                        copied.put(table.getKey(), copyRows(from, to, table.getKey(), table.getValue(), tenant));
+                    }
+                    to.commit();
+                    from.commit();
+                } catch (SQLException | RuntimeException e) {
+                    to.rollback();
+                    from.rollback();
+                    throw e;
+                }
+            }
+        } catch (SQLException | InterruptedException | RuntimeException e) {
+            routingDataSource.endMove(tenant, sourceShard);
+            throw e;
+        }
+
+        routingDataSource.endMove(tenant, targetShard);
+        readCoalescingService.invalidate();
+        // the rows were written with plain SQL, which the second-level and query caches do not see
+        entityManagerFactory.getCache().evictAll();
+
+        try {
+            // instances that still read the old shard would find the tenant empty
+            routingDataSource.awaitApplied(properties.getMoveDrainTimeout());
+        } catch (IllegalStateException e) {
+            log.warn("Moved tenant {}, but kept its rows on {}: {}", tenant, sourceShard, e.getMessage());
+            return copied;
+        }
+        try (Connection from = source.getConnection()) {
+            from.setAutoCommit(false);
+            deleteRows(from, tenant);
+            from.commit();
+        } catch (SQLException e) {
+            // the tenant is already read from the target shard, the old rows are only dead weight
+            log.warn("Moved tenant {}, but could not delete its rows on {}", tenant, sourceShard, e);
+        }
+        log.info("Moved tenant {} from {} to {}: {}", tenant, sourceShard, targetShard, copied);
+        return copied;
+    }
+
+    private static int copyRows(Connection from, Connection to, String table, String select, String tenant) throws SQLException {
+        int rows = 0;
+        try (PreparedStatement query = from.prepareStatement(select)) {
+            query.setString(1, tenant);
+            try (ResultSet result = query.executeQuery()) {
+                ResultSetMetaData columns = result.getMetaData();
+                StringBuilder names = new StringBuilder();
+                for (int i = 1; i <= columns.getColumnCount(); i++) {
+                    names.append(i > 1 ? ", " : "").append(columns.getColumnName(i));
+                }
+                String placeholders = String.join(", ", Collections.nCopies(columns.getColumnCount(), "?"));
+                try (PreparedStatement insert = to.prepareStatement(
+                    "insert into " + table + " (" + names + ") values (" + placeholders + ")")) {
+                    while (result.next()) {
+                        for (int i = 1; i <= columns.getColumnCount(); i++) {
+                            insert.setObject(i, result.getObject(i));
+                        }
+                        insert.addBatch();
+                        if (++rows % 500 == 0) {
+                            insert.executeBatch();
+                        }
+                    }
+                    insert.executeBatch();
+                }
+            }
+        }
+        return rows;
+    }
+
+    private static void deleteRows(Connection connection, String tenant) throws SQLException {
+        for (String sql : DELETES) {
+            try (PreparedStatement delete = connection.prepareStatement(sql)) {
+                delete.setString(1, tenant);
+                delete.executeUpdate();
+            }
+        }
+    }
+}
@@ -0,0 +1,241 @@
+package de.unistuttgart.iste.ese.api.Services;
+
+import de.unistuttgart.iste.ese.api.Config.ShardRoutingDataSource;
+import de.unistuttgart.iste.ese.api.Config.TenantContext;
+import de.unistuttgart.iste.ese.api.DTOs.ResponseDTO;
+import de.unistuttgart.iste.ese.api.Models.ArchivedTodo;
+import de.unistuttgart.iste.ese.api.Models.Todo;
+import de.unistuttgart.iste.ese.api.Repositories.ArchivedTodoRepository;
+import de.unistuttgart.iste.ese.api.Repositories.TodoRepository;
+import de.unistuttgart.iste.ese.api.Utils.CsvBuffer;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps the {@code todo} table to the working set by moving todos that were finished long ago to the archive.
+ * The todos are moved in batches, each in its own transaction, so the archiver never holds many locks at once;
+ * for everything else the archived todos are deleted, so the regular reads, exports and read models only
+ * carry the active todos. The archive is read through its own endpoints.
+ */
+@Service
+public class TodoArchiveService {
+
+    private static final Logger log = LoggerFactory.getLogger(TodoArchiveService.class);
+
+    @Autowired
+    private TodoRepository todoRepository;
+
+    @Autowired
+    private ArchivedTodoRepository archivedTodoRepository;
+
+    @Autowired
+    private ReadCoalescingService readCoalescingService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired(required = false)
+    private List<TodoChangeListener> changeListeners = List.of();
+
+    @Autowired(required = false)
+    private ShardRoutingDataSource shardRoutingDataSource;
+
+    @Value("${app.archive.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.archive.after:30d}")
+    private Duration archiveAfter;
+
+    @Value("${app.archive.batch-size:500}")
+    private int batchSize;
+
+    private TransactionTemplate batchTransaction;
+    private TransactionTemplate readTransaction;
+    private Timer runTimer;
+    private Counter archivedCounter;
+    private Counter failedCounter;
+
+    /**
+     * Creates the transaction templates and registers the archiver metrics.
+     */
+    @PostConstruct
+    public void init() {
+        batchTransaction = new TransactionTemplate(transactionManager);
+        batchTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        readTransaction = new TransactionTemplate(transactionManager);
+        readTransaction.setReadOnly(true);
+        runTimer = meterRegistry.timer("todo.archive.run");
+        archivedCounter = meterRegistry.counter("todo.archive.archived");
+        failedCounter = meterRegistry.counter("todo.archive.failed");
+    }
+
+    /**
+     * Archives the todos of all tenants that were finished longer ago than the configured time.
+     * A tenant that fails, e.g. because a batch hit a concurrent change, does not stop the others.
+     */
+    @Scheduled(initialDelayString = "${app.archive.interval:PT1H}", fixedDelayString = "${app.archive.interval:PT1H}")
+    public void archive() {
+        if (!enabled) {
+            return;
+        }
+        Date finishedBefore = new Date(System.currentTimeMillis() - archiveAfter.toMillis());
+        Set<String> tenants = shardRoutingDataSource != null
+            ? shardRoutingDataSource.listTenants()
+            : Set.of(TenantContext.DEFAULT_TENANT);
+        long archived = runTimer.record(() -> tenants.stream()
+            .mapToLong(tenant -> archiveTenant(tenant, finishedBefore))
+            .sum());
+        if (archived > 0) {
+            log.info("Archived {} todos finished before {}", archived, finishedBefore);
+        }
+    }
+
+    // the archiver writes like a request of the tenant, so a move waits for it or it skips the tenant being moved
+    private long archiveTenant(String tenant, Date finishedBefore) {
+        if (shardRoutingDataSource != null && !shardRoutingDataSource.enterWrite(tenant)) {
+            log.debug("Skipped archiving tenant {}, it is being moved", tenant);
+            return 0;
+        }
+        try {
+            return TenantContext.callAs(tenant, () -> archiveFinishedBefore(finishedBefore));
+        } catch (RuntimeException e) {
+            // the remaining todos of the tenant are archived by the next run
+            failedCounter.increment();
+            log.warn("Could not archive the todos of tenant {}", tenant, e);
+            return 0;
+        } finally {
+            if (shardRoutingDataSource != null) {
+                shardRoutingDataSource.exitWrite(tenant);
+            }
+        }
+    }
+
+    /**
+     * Archives the todos of the current tenant that were finished before a given time.
+     * A batch that fails, e.g. because one of its todos was changed concurrently, is rolled back, and its todos
+     * are archived by a later run.
+     *
+     * @param finishedBefore the exclusive end of the finished dates to archive.
+     * @return the number of archived todos.
+     */
+    public long archiveFinishedBefore(Date finishedBefore) {
+        long archived = 0;
+        int batch;
+        do {
+            batch = batchTransaction.execute(status -> archiveBatch(finishedBefore));
+            // counted per batch, as the committed batches stay archived if a later one fails
+            archivedCounter.increment(batch);
+            archived += batch;
+        } while (batch == batchSize);
+        return archived;
+    }
+
+    /**
+     * Retrieves a page of the archive, the most recently finished todos first.
+     *
+     * @param page the number of the page, starting at 0.
+     * @param size the number of todos per page.
+     * @return the archived todos of the page and the total number of archived todos.
+     */
+    public Page<ResponseDTO> getArchivedTodos(int page, int size) {
+        PageRequest pageRequest = PageRequest.of(page, size);
+        return readTransaction.execute(status -> {
+            List<Long> ids = archivedTodoRepository.findPageIds(pageRequest);
+            List<ResponseDTO> todos = archivedTodoRepository.findAllById(ids).stream()
+                .sorted(Comparator.comparing(ArchivedTodo::getFinishedDate, Comparator.nullsLast(Comparator.reverseOrder()))
+                    .thenComparing(ArchivedTodo::getId, Comparator.reverseOrder()))
+                .map(todo -> new ResponseDTO(todo.toTodo()))
+                .collect(Collectors.toList());
+            return new PageImpl<>(todos, pageRequest, archivedTodoRepository.count());
+        });
+    }
+
+    /**
+     * Retrieves an archived todo by its ID.
+     *
+     * @param id the ID the todo had before it was archived.
+     * @return the archived todo.
+     * @throws ResponseStatusException if there is no archived todo with that ID.
+     */
+    public ResponseDTO getArchivedTodo(long id) {
+        return readTransaction.execute(status -> archivedTodoRepository.findById(id)
+            .map(todo -> new ResponseDTO(todo.toTodo()))
+            .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND,
+                String.format("Archived todo with ID %s not found!", id))));
+    }
+
+    /**
+     * Writes all archived todos as CSV, in the format of the todo export, ordered by ID.
+     * The archive is read in batches, each in its own short transaction, so memory stays bounded for any size of
+     * the archive.
+     *
+     * @param out the stream to write to; it is not closed.
+     * @return the number of exported todos.
+     * @throws IOException if writing fails.
+     */
+    public long export(OutputStream out) throws IOException {
+        out.write(CsvExportService.HEADER.getBytes());
+        CsvBuffer buffer = new CsvBuffer(batchSize * 128);
+        long rows = 0;
+        long afterId = Long.MIN_VALUE;
+        while (true) {
+            long from = afterId;
+            List<Todo> todos = readTransaction.execute(status -> archivedTodoRepository
+                .findAfter(from, PageRequest.ofSize(batchSize)).stream()
+                .map(ArchivedTodo::toTodo)
+                .collect(Collectors.toList()));
+            if (todos.isEmpty()) {
+                return rows;
+            }
+            CsvExportService.formatRows(todos, buffer);
+            buffer.writeTo(out);
+            buffer.reset();
+            rows += todos.size();
+            afterId = todos.get(todos.size() - 1).getId();
+        }
+    }
+
+    private int archiveBatch(Date finishedBefore) {
+        List<Long> ids = todoRepository.findIdsFinishedBefore(finishedBefore, PageRequest.ofSize(batchSize));
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        List<Todo> todos = todoRepository.findAllById(ids);
+        Date now = new Date();
+        archivedTodoRepository.saveAll(todos.stream().map(todo -> ArchivedTodo.of(todo, now)).toList());
+        todoRepository.deleteAll(todos);
+        todoRepository.flush();
+        readCoalescingService.invalidate();
+        // for the read models, an archived todo is gone like a deleted one
+        todos.forEach(todo -> changeListeners.forEach(listener -> listener.todoDeleted(todo.getId())));
+        return ids.size();
+    }
+}
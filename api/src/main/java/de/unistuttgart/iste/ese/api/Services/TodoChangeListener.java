@@ -0,0 +1,43 @@
+package de.unistuttgart.iste.ese.api.Services;
+
+import de.unistuttgart.iste.ese.api.Models.Assignee;
+import de.unistuttgart.iste.ese.api.Models.Todo;
+
+/**
+ * Is notified by {@link TodoService} and {@link AssigneeService} about every write,
+ * so that read models and indexes can follow the database without polling it.
+ * The calls happen inside the writing transaction; implementations that must only see
+ * committed state register a transaction synchronization themselves.
+ */
+public interface TodoChangeListener {
+
+    /**
+     * Called after a todo was created or changed and flushed.
+     *
+     * @param todo the saved todo, with its ID and version assigned.
+     */
+    void todoSaved(Todo todo);
+
+    /**
+     * Called after a todo was deleted.
+     *
+     * @param id the ID of the deleted todo.
+     */
+    void todoDeleted(long id);
+
+    /**
+     * Called after an assignee was created or changed.
+     *
+     * @param assignee the saved assignee.
+     */
+    default void assigneeSaved(Assignee assignee) {
+    }
+
+    /**
+     * Called after an assignee was deleted; {@link #todoSaved} was called before for each of its todos.
+     *
+     * @param id the ID of the deleted assignee.
+     */
+    default void assigneeDeleted(long id) {
+    }
+}
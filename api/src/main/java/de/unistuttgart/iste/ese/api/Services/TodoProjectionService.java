@@ -0,0 +1,238 @@
+package de.unistuttgart.iste.ese.api.Services;
+
+import de.unistuttgart.iste.ese.api.Models.Assignee;
+import de.unistuttgart.iste.ese.api.Models.Todo;
+import de.unistuttgart.iste.ese.api.Models.TodoProjection;
+import de.unistuttgart.iste.ese.api.Repositories.AssigneeRepository;
+import de.unistuttgart.iste.ese.api.Repositories.TodoRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Keeps the {@link TodoProjection} in sync with the database.
+ * The projection is built when the application is ready and afterwards follows every committed write of
+ * {@link TodoService} and {@link AssigneeService}; until it is built, readers fall back to the database.
+ */
+@Service
+@ConditionalOnProperty(name = "app.projection.enabled", havingValue = "true")
+public class TodoProjectionService implements TodoChangeListener {
+
+    private static final Logger log = LoggerFactory.getLogger(TodoProjectionService.class);
+
+    @Autowired
+    private TodoRepository todoRepository;
+
+    @Autowired
+    private AssigneeRepository assigneeRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private TodoProjection projection;
+    // changes committed while a rebuild reads the database, replayed onto the new projection; guarded by the write lock
+    private List<Consumer<TodoProjection>> pendingChanges;
+    // todo writes are numbered when they are made, so that removals know which writes may still arrive after them
+    private final AtomicLong writeSequence = new AtomicLong();
+    private final ConcurrentSkipListSet<Long> pendingWrites = new ConcurrentSkipListSet<>();
+    private TransactionTemplate rebuildTransaction;
+    private Timer rebuildTimer;
+
+    /**
+     * Registers the projection metrics.
+     */
+    @PostConstruct
+    public void init() {
+        rebuildTransaction = new TransactionTemplate(transactionManager);
+        // a rebuild may run after another transaction committed, while its resources are still bound
+        rebuildTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        rebuildTransaction.setReadOnly(true);
+        rebuildTimer = meterRegistry.timer("todo.projection.rebuild");
+        Gauge.builder("todo.projection.rows", this, service -> service.read(TodoProjection::size, 0))
+            .register(meterRegistry);
+        Gauge.builder("todo.projection.bytes", this, service -> service.read(TodoProjection::estimatedBytes, 0L))
+            .register(meterRegistry);
+        Gauge.builder("todo.projection.tombstones", this, service -> service.read(TodoProjection::tombstones, 0))
+            .register(meterRegistry);
+    }
+
+    /**
+     * Builds the projection once the application accepts requests.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        rebuild();
+    }
+
+    /**
+     * Builds a new projection from the database and replaces the current one.
+     * Changes committed while the database is read are applied to the new projection before it is published.
+     */
+    public synchronized void rebuild() {
+        lock.writeLock().lock();
+        try {
+            pendingChanges = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        TodoProjection rebuilt = new TodoProjection();
+        try {
+            rebuildTimer.record(() -> rebuildTransaction.executeWithoutResult(status -> {
+                for (Assignee assignee : assigneeRepository.findAll()) {
+                    rebuilt.putAssignee(assignee);
+                }
+                for (Todo todo : todoRepository.findAll()) {
+                    rebuilt.upsert(TodoProjection.Row.of(todo));
+                }
+            }));
+        } catch (RuntimeException e) {
+            lock.writeLock().lock();
+            try {
+                pendingChanges = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            throw e;
+        }
+        lock.writeLock().lock();
+        try {
+            pendingChanges.forEach(change -> change.accept(rebuilt));
+            pendingChanges = null;
+            rebuilt.pruneTombstones(oldestPendingWrite());
+            projection = rebuilt;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Built todo projection with {} todos (~{} KiB)", rebuilt.size(), rebuilt.estimatedBytes() / 1024);
+    }
+
+    /**
+     * Returns whether the projection has been built and can answer reads.
+     *
+     * @return true if reads can be served from the projection.
+     */
+    public boolean isReady() {
+        lock.readLock().lock();
+        try {
+            return projection != null;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Runs a read against the projection while no write can change it.
+     *
+     * @param query the read.
+     * @param fallback the result if the projection is not built yet.
+     * @param <T> the type of the result.
+     * @return the result of the read, or the fallback.
+     */
+    public <T> T read(Function<TodoProjection, T> query, T fallback) {
+        lock.readLock().lock();
+        try {
+            return projection != null ? query.apply(projection) : fallback;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void todoSaved(Todo todo) {
+        TodoProjection.Row row = TodoProjection.Row.of(todo);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            apply(projection -> projection.upsert(row));
+            return;
+        }
+        long sequence = writeSequence.incrementAndGet();
+        pendingWrites.add(sequence);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                apply(projection -> projection.upsert(row));
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                // after a commit or a rollback, removals no longer have to wait for this write
+                pendingWrites.remove(sequence);
+                apply(projection -> projection.pruneTombstones(oldestPendingWrite()));
+            }
+        });
+    }
+
+    @Override
+    public void todoDeleted(long id) {
+        afterCommit(projection -> {
+            projection.remove(id, writeSequence.get());
+            projection.pruneTombstones(oldestPendingWrite());
+        });
+    }
+
+    @Override
+    public void assigneeSaved(Assignee assignee) {
+        Assignee copy = new Assignee(assignee.getPrename(), assignee.getName(), assignee.getEmail());
+        copy.setId(assignee.getId());
+        copy.setVersion(assignee.getVersion());
+        afterCommit(projection -> projection.putAssignee(copy));
+    }
+
+    private void afterCommit(Consumer<TodoProjection> change) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply(change);
+                }
+            });
+        } else {
+            apply(change);
+        }
+    }
+
+    private long oldestPendingWrite() {
+        // the iterator, unlike first(), does not fail if the last pending write completes concurrently
+        Iterator<Long> oldest = pendingWrites.iterator();
+        return oldest.hasNext() ? oldest.next() : Long.MAX_VALUE;
+    }
+
+    private void apply(Consumer<TodoProjection> change) {
+        lock.writeLock().lock();
+        try {
+            if (projection != null) {
+                change.accept(projection);
+            }
+            if (pendingChanges != null) {
+                pendingChanges.add(change);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+}
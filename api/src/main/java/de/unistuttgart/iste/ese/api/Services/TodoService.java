@@ -3,22 +3,35 @@ package de.unistuttgart.iste.ese.api.Services;
 import de.unistuttgart.iste.ese.api.DTOs.*;
 import de.unistuttgart.iste.ese.api.Models.Todo;
 import de.unistuttgart.iste.ese.api.Models.Assignee;
-import de.unistuttgart.iste.ese.api.Models.TodoModel;
+import de.unistuttgart.iste.ese.api.Models.ClassificationPipeline;
+import de.unistuttgart.iste.ese.api.Models.TodoProjection;
+import de.unistuttgart.iste.ese.api.Profiling.TodoWriteEvent;
 import de.unistuttgart.iste.ese.api.Repositories.TodoRepository;
 import de.unistuttgart.iste.ese.api.Repositories.AssigneeRepository;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
 import jakarta.persistence.EntityNotFoundException;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.http.HttpStatus;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.server.ResponseStatusException;
 
-import java.text.SimpleDateFormat;
+import java.time.LocalDate;
 import java.util.*;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 /**
  * Service class for managing TODOs.
- * Provides CRUD operations, classification, and CSV generation utilities.
+ * Provides CRUD operations and classification.
  */
 @Service
 public class TodoService {
@@ -29,14 +42,44 @@ public class TodoService {
     @Autowired
     private AssigneeRepository assigneeRepository;
 
-    private final TodoModel todoModel = new TodoModel("model.pmml");
-    private static final SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd");
+    @Autowired
+    private ReadCoalescingService readCoalescingService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ObservationRegistry observationRegistry;
+
+    @Autowired(required = false)
+    private List<TodoChangeListener> changeListeners = List.of();
+
+    @Autowired(required = false)
+    private TodoProjectionService projectionService;
+
+    @Autowired(required = false)
+    private AssigneeTodoIndex assigneeTodoIndex;
+
+    @Value("${todo.classification.models:category=model.pmml}")
+    private String classificationModels;
+
+    private ClassificationPipeline classificationPipeline;
+    private static final int MAX_PATCH_ATTEMPTS = 3;
+
+    /**
+     * Loads the configured classification models once, so that scoring a todo does not resolve model fields again.
+     */
+    @PostConstruct
+    public void loadClassificationModels() {
+        classificationPipeline = ClassificationPipeline.fromSpecification(classificationModels, observationRegistry);
+    }
 
     /**
      * Retrieves all Todos
      *
      * @return a list of all TODOs as GetTodoDTO
      */
+    @Transactional(readOnly = true)
     public List<ResponseDTO> getAllTodos() {
         Iterable<Todo> todos = todoRepository.findAll();
         List<ResponseDTO> todoDTOs = new ArrayList<>();
@@ -47,6 +90,100 @@ public class TodoService {
         return todoDTOs;
     }
 
+    /**
+     * Retrieves all Todos in the compact representation used by the binary wire formats.
+     *
+     * @return all TODOs with their assignees in a side table
+     */
+    @Transactional(readOnly = true)
+    public CompactTodoListDTO getAllTodosCompact() {
+        if (projectionService != null && projectionService.isReady()) {
+            return projectionService.read(TodoProjection::toCompactList, null);
+        }
+        return new CompactTodoListDTO(todoRepository.findAll());
+    }
+
+    /**
+     * Finds all Todos that match every given condition.
+     * The conditions are evaluated on the in-memory projection if it is enabled, so that only matching Todos are loaded.
+     *
+     * @param finished the finished state, or null for both.
+     * @param category the category, or null for all.
+     * @param assigneeId the ID of an assignee of the Todo, or null for all.
+     * @param dueFrom the first day the Todo may be due on, or null for no lower bound.
+     * @param dueTo the last day the Todo may be due on, or null for no upper bound.
+     * @return the matching Todos, ordered by ID
+     */
+    @Transactional(readOnly = true)
+    public List<ResponseDTO> searchTodos(Boolean finished, String category, Long assigneeId, LocalDate dueFrom, LocalDate dueTo) {
+        int from = dueFrom != null ? (int) dueFrom.toEpochDay() : TodoProjection.NO_DAY;
+        int to = dueTo != null ? (int) dueTo.toEpochDay() : TodoProjection.NO_DAY;
+        if (projectionService != null && projectionService.isReady()) {
+            long[] ids = projectionService.read(projection -> projection.findIds(finished, category, assigneeId, from, to), null);
+            List<Long> idList = Arrays.stream(ids).boxed().collect(Collectors.toList());
+            return todoRepository.findAllById(idList).stream()
+                .sorted(Comparator.comparing(Todo::getId))
+                .map(ResponseDTO::new)
+                .collect(Collectors.toList());
+        }
+        List<Todo> todos = todoRepository.findAll();
+        Set<Long> matches = new HashSet<>();
+        for (long id : projectionOf(todos).findIds(finished, category, assigneeId, from, to)) {
+            matches.add(id);
+        }
+        return todos.stream()
+            .filter(todo -> matches.contains(todo.getId()))
+            .sorted(Comparator.comparing(Todo::getId))
+            .map(ResponseDTO::new)
+            .collect(Collectors.toList());
+    }
+
+    /**
+     * Retrieves a page of the Todos of an assignee.
+     * The IDs are read from the in-memory assignee index if it is enabled, otherwise via the index of the join table.
+     *
+     * @param assigneeId the ID of the assignee.
+     * @param page the number of the page, starting at 0.
+     * @param size the number of Todos per page.
+     * @return the Todos of the page, ordered by ID, and the total number of Todos of the assignee
+     * @throws ResponseStatusException if the assignee does not exist.
+     */
+    @Transactional(readOnly = true)
+    public Page<ResponseDTO> getTodosOfAssignee(long assigneeId, int page, int size) {
+        if (!assigneeRepository.existsById(assigneeId)) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, String.format("Assignee with ID %s not found!", assigneeId));
+        }
+        PageRequest pageRequest = PageRequest.of(page, size);
+        List<Long> ids;
+        long total;
+        if (assigneeTodoIndex != null && assigneeTodoIndex.isReady()) {
+            ids = assigneeTodoIndex.findTodoIds(assigneeId, pageRequest.getOffset(), size);
+            total = assigneeTodoIndex.countTodos(assigneeId);
+        } else {
+            ids = todoRepository.findIdsByAssignee(assigneeId, pageRequest);
+            total = todoRepository.countByAssignee(assigneeId);
+        }
+        List<ResponseDTO> todos = todoRepository.findAllById(ids).stream()
+            .sorted(Comparator.comparing(Todo::getId))
+            .map(ResponseDTO::new)
+            .collect(Collectors.toList());
+        return new PageImpl<>(todos, pageRequest, total);
+    }
+
+    /**
+     * Counts Todos by state, due date, category and assignee.
+     *
+     * @return the counts, from the in-memory projection if it is enabled
+     */
+    @Transactional(readOnly = true)
+    public TodoProjection.Stats getStats() {
+        int today = (int) LocalDate.now().toEpochDay();
+        if (projectionService != null && projectionService.isReady()) {
+            return projectionService.read(projection -> projection.stats(today), null);
+        }
+        return projectionOf(todoRepository.findAll()).stats(today);
+    }
+
     /**
      * Retrieves a Todo by its ID.
      *
@@ -54,6 +191,7 @@ public class TodoService {
      * @return the requested Todo as GetTodoDTO
      * @throws ResponseStatusException if the Todo with the given ID does not exist.
      */
+    @Transactional(readOnly = true)
     public ResponseDTO getTodoById(Long id) {
         Todo todo = todoRepository.findById(id).orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, String.format("Todo with ID %s not found!", id)));
 
@@ -70,23 +208,22 @@ public class TodoService {
     public String classifyTodoTitle(String todoTitle) {
         validateTitle(todoTitle);
         try {
-            return todoModel.predictClass(todoTitle);
+            return classificationPipeline.predictCategory(todoTitle);
         } catch (Exception e) {
             throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Classification failed", e);
         }
     }
 
     /**
-     * Generates a CSV representation of all Todos
+     * Scores a Todo title with every classification model, as creating or updating a Todo does.
      *
-     * @return a CSV string containing all Todos
+     * @param todoTitle the title to classify.
+     * @return the predicted label of every model, by model name.
+     * @throws ResponseStatusException if the title is invalid.
      */
-    public String generateCSV() {
-        StringBuilder csvContent = new StringBuilder("id,title,description,finished,assignees,createdDate,dueDate,finishedDate,category\n");
-        for (Todo todo : (List<Todo>) todoRepository.findAll()) {
-            csvContent.append(formatTodoToCSV(todo));
-        }
-        return csvContent.toString();
+    public Map<String, String> classifyTodoTitleWithAllModels(String todoTitle) {
+        validateTitle(todoTitle);
+        return classificationPipeline.classify(todoTitle);
     }
 
     /**
@@ -96,16 +233,28 @@ public class TodoService {
      * @return the created Todo as TodoDTO
      * @throws ResponseStatusException if the title is invalid or assignees cannot be found.
      */
+    @Transactional
     public ResponseDTO createTodo(RequestDTO requestBody) {
-        validateTitle(requestBody.getTitle());
-        validateDueDate(requestBody.getDueDate());
-        List<Assignee> assignees = getAssignees(requestBody.getAssigneeIdList());
-        String category = todoModel.predictClass(requestBody.getTitle());
+        List<Assignee> assignees = stage("create", "validate", 0, () -> {
+            validateTitle(requestBody.getTitle());
+            validateDueDate(requestBody.getDueDate());
+            return getAssignees(requestBody.getAssigneeIdList());
+        });
+
+        Map<String, String> labels = stage("create", "classify", 0,
+            () -> classificationPipeline.classify(requestBody.getTitle()));
+        String category = labels.remove(ClassificationPipeline.CATEGORY);
 
         Todo todoToSave = new Todo(requestBody, assignees, category);
         todoToSave.setCreatedDate(new Date());
+        todoToSave.setLabels(labels);
 
-        todoRepository.save(todoToSave);
+        runStage("create", "persist", 0, () -> {
+            todoRepository.save(todoToSave);
+            readCoalescingService.invalidate();
+        });
+        runStage("create", "notify", todoToSave.getId(),
+            () -> changeListeners.forEach(listener -> listener.todoSaved(todoToSave)));
         return new ResponseDTO(todoToSave);
     }
 
@@ -114,31 +263,119 @@ public class TodoService {
      *
      * @param id the ID of the Todo to update.
      * @param requestBody the new data for the Todo
+     * @param expectedVersion the version the client based its changes on, or null to skip the check.
      * @return the updated Todo as GetTodoDTO
      * @throws ResponseStatusException if the Todo does not exist or the input data is invalid.
+     * @throws VersionConflictException if the Todo was changed since the expected version.
      */
-    public ResponseDTO updateTodo(long id, RequestDTO requestBody) {
-        Todo existingTodo = todoRepository.findById(id)
-            .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND,
-                String.format("Todo with ID %s not found!", id)));
+    @Transactional
+    public ResponseDTO updateTodo(long id, RequestDTO requestBody, Long expectedVersion) {
+        Todo existingTodo = stage("update", "load", id, () -> {
+            Todo todo = todoRepository.findById(id)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND,
+                    String.format("Todo with ID %s not found!", id)));
+            checkVersion(todo, expectedVersion);
+            return todo;
+        });
 
-        validateTitle(requestBody.getTitle());
-        validateDueDate(requestBody.getDueDate());
+        List<Assignee> assignees = stage("update", "validate", id, () -> {
+            validateTitle(requestBody.getTitle());
+            validateDueDate(requestBody.getDueDate());
+            return getAssignees(requestBody.getAssigneeIdList());
+        });
 
-        List<Assignee> assignees = getAssignees(requestBody.getAssigneeIdList());
-        String category = todoModel.predictClass(requestBody.getTitle());
+        Map<String, String> labels = stage("update", "classify", id,
+            () -> classificationPipeline.classify(requestBody.getTitle()));
+        String category = labels.remove(ClassificationPipeline.CATEGORY);
 
         existingTodo.setTitle(requestBody.getTitle());
         existingTodo.setDescription(requestBody.getDescription());
         existingTodo.setAssigneeList(assignees);
         existingTodo.setCategory(category);
+        existingTodo.setLabels(labels);
         existingTodo.setDueDate(requestBody.getDueDate());
         
         existingTodo.setFinished(requestBody.isFinished());
 
-        todoRepository.save(existingTodo);
+        // flush now, so that the response carries the incremented version
+        runStage("update", "persist", id, () -> {
+            todoRepository.saveAndFlush(existingTodo);
+            readCoalescingService.invalidate();
+        });
+        runStage("update", "notify", id, () -> changeListeners.forEach(listener -> listener.todoSaved(existingTodo)));
         return new ResponseDTO(existingTodo);
     }
+
+    /**
+     * Changes only the given fields of a Todo.
+     * Without an expected version, a concurrent update of the same Todo makes the patch be applied again
+     * to the new state, so that edits of different fields by different clients all succeed.
+     *
+     * @param id the ID of the Todo to patch.
+     * @param patch the fields to change.
+     * @param expectedVersion the version the client based its changes on, or null to patch the latest version.
+     * @return the patched Todo
+     * @throws ResponseStatusException if the Todo does not exist or the input data is invalid.
+     * @throws VersionConflictException if the Todo was changed since the expected version.
+     */
+    public ResponseDTO patchTodo(long id, PatchDTO patch, Long expectedVersion) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionTemplate.execute(status -> applyPatch(id, patch, expectedVersion));
+            } catch (ObjectOptimisticLockingFailureException e) {
+                if (expectedVersion != null || attempt >= MAX_PATCH_ATTEMPTS) {
+                    ResponseDTO current = getTodoById(id);
+                    throw new VersionConflictException(current, current.getVersion());
+                }
+            }
+        }
+    }
+
+    private ResponseDTO applyPatch(long id, PatchDTO patch, Long expectedVersion) {
+        Todo todo = stage("patch", "apply", id, () -> applyPatchFields(id, patch, expectedVersion));
+        runStage("patch", "persist", id, () -> {
+            todoRepository.saveAndFlush(todo);
+            readCoalescingService.invalidate();
+        });
+        runStage("patch", "notify", id, () -> changeListeners.forEach(listener -> listener.todoSaved(todo)));
+        return new ResponseDTO(todo);
+    }
+
+    private Todo applyPatchFields(long id, PatchDTO patch, Long expectedVersion) {
+        Todo todo = todoRepository.findById(id)
+            .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND,
+                String.format("Todo with ID %s not found!", id)));
+        checkVersion(todo, expectedVersion);
+
+        if (patch.getTitle() != null) {
+            validateTitle(patch.getTitle());
+            // the labels only depend on the title, so the models are not scored for other changes
+            Map<String, String> labels = classificationPipeline.classify(patch.getTitle());
+            todo.setTitle(patch.getTitle());
+            todo.setCategory(labels.remove(ClassificationPipeline.CATEGORY));
+            todo.setLabels(labels);
+        }
+        if (patch.getDescription() != null) {
+            todo.setDescription(patch.getDescription());
+        }
+        if (patch.getAssigneeIdList() != null) {
+            todo.setAssigneeList(getAssignees(patch.getAssigneeIdList()));
+        }
+        if (patch.getDueDate() != null) {
+            validateDueDate(patch.getDueDate());
+            todo.setDueDate(patch.getDueDate());
+        }
+        if (patch.getFinished() != null && patch.getFinished() != todo.isFinished()) {
+            todo.setFinished(patch.getFinished());
+        }
+        return todo;
+    }
+
+    private void checkVersion(Todo todo, Long expectedVersion) {
+        if (expectedVersion != null && !expectedVersion.equals(todo.getVersion())) {
+            throw new VersionConflictException(new ResponseDTO(todo), todo.getVersion());
+        }
+    }
     
     /**
      * Deletes a Todo by its ID.
@@ -146,11 +383,59 @@ public class TodoService {
      * @param id the ID of the Todo to delete.
      * @throws ResponseStatusException if the Todo does not exist.
      */
+    @Transactional
     public void deleteTodoById(long id) {
         Todo todoToDelete = todoRepository.findById(id)
             .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, String.format("Todo with ID %s not found!", id)));
 
-        todoRepository.deleteById(id);
+        runStage("delete", "persist", id, () -> {
+            todoRepository.deleteById(id);
+            readCoalescingService.invalidate();
+        });
+        runStage("delete", "notify", id, () -> changeListeners.forEach(listener -> listener.todoDeleted(id)));
+    }
+
+    /**
+     * Runs one stage of a write as an observation, which becomes a span of the request's trace and a timer,
+     * and records it as a Flight Recorder event.
+     *
+     * @param operation the write, e.g. "create".
+     * @param stage the stage of the write, e.g. "persist".
+     * @param todoId the ID of the Todo, or 0 if it is not known yet.
+     * @param work the stage.
+     * @param <T> the type of the result of the stage.
+     * @return the result of the stage.
+     */
+    private <T> T stage(String operation, String stage, long todoId, Supplier<T> work) {
+        TodoWriteEvent event = TodoWriteEvent.start(operation, stage);
+        T result = Observation.createNotStarted("todo.write", observationRegistry)
+            .contextualName(operation + " " + stage)
+            .lowCardinalityKeyValue("operation", operation)
+            .lowCardinalityKeyValue("stage", stage)
+            .observe(work);
+        event.finish(todoId);
+        return result;
+    }
+
+    private void runStage(String operation, String stage, long todoId, Runnable work) {
+        stage(operation, stage, todoId, () -> {
+            work.run();
+            return null;
+        });
+    }
+
+    /**
+     * Builds a throwaway projection, so that search and stats behave the same with the in-memory projection disabled.
+     *
+     * @param todos the Todos to project.
+     * @return the projection of the Todos.
+     */
+    private TodoProjection projectionOf(List<Todo> todos) {
+        TodoProjection projection = new TodoProjection();
+        for (Todo todo : todos) {
+            projection.upsert(TodoProjection.Row.of(todo));
+        }
+        return projection;
     }
 
     /**
@@ -166,10 +451,13 @@ public class TodoService {
         if (uniqueIds.size() < assigneeIds.size()) {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Doppelte Assignee Ids sind nicht erlaubt");
         }
-        return assigneeIds.stream()
-            .map(id -> assigneeRepository.findById(id).orElseThrow(() ->
-                new ResponseStatusException(HttpStatus.BAD_REQUEST, "Assignee nicht gefunden")))
-            .collect(Collectors.toList());
+        // one query for all IDs instead of one per ID
+        Map<Long, Assignee> found = assigneeRepository.findAllById(uniqueIds).stream()
+            .collect(Collectors.toMap(Assignee::getId, assignee -> assignee));
+        if (found.size() < uniqueIds.size()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Assignee nicht gefunden");
+        }
+        return assigneeIds.stream().map(found::get).collect(Collectors.toList());
     }
 
     /**
@@ -199,42 +487,4 @@ public class TodoService {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Fälligkeitsdatum muss in der Zukunft liegen");
         }
     }
-
-    /**
-     * Formats a Todo entity into a CSV string.
-     *
-     * @param todo the Todo entity.
-     * @return the CSV representation of the Todo
-     */
-    private String formatTodoToCSV(Todo todo) {
-        String assignees = todo.getAssigneeList().stream()
-            .map(a -> a.getPrename() + " " + a.getName())
-            .collect(Collectors.joining("+"));
-
-        return String.join(",",
-            String.valueOf(todo.getId()),
-            String.valueOf(todo.getTitle()),
-            escapeCSV(todo.getDescription()),
-            String.valueOf(todo.isFinished()),
-            escapeCSV(assignees),
-            dateFormat.format(todo.getCreatedDate()),
-            todo.getDueDate() != null ? dateFormat.format(todo.getDueDate()) : "",
-            todo.getFinishedDate() != null ? dateFormat.format(todo.getFinishedDate()) : "",
-            escapeCSV(todo.getCategory())) + "\n";
-    }
-
-    /**
-     * Escapes special characters for CSV formatting.
-     *
-     * @param field the field to escape.
-     * @return the escaped field.
-     */
-    private String escapeCSV(String field) {
-        if (field == null) return "";
-        if (field.contains(",") || field.contains("\"")) {
-            return "\"" + field.replace("\"", "\"\"") + "\"";
-        }
-        return field;
-    }
 }
-
@@ -0,0 +1,109 @@
+package de.unistuttgart.iste.ese.api.Services;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import de.unistuttgart.iste.ese.api.DTOs.ResponseDTO;
+import de.unistuttgart.iste.ese.api.Repositories.TodoRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Streams all todos as newline-delimited JSON, one {@link ResponseDTO} per line, ordered by ID.
+ * The todos are read in batches after the last written ID, each batch in its own short read transaction,
+ * and written before the next batch is read. A slow client blocks the write, so the next batch is only read
+ * once the client has taken the previous one: a stream holds at most one batch in memory and no database
+ * connection while it waits for the client, whereas the JSON list holds all todos and their serialized form.
+ * Todos written while a stream runs are included if their ID comes after the current position.
+ */
+@Service
+public class TodoStreamService {
+
+    @Autowired
+    private TodoRepository todoRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${app.stream.batch-size:500}")
+    private int batchSize;
+
+    private ObjectWriter lineWriter;
+    private TransactionTemplate readTransaction;
+    private Timer streamTimer;
+    private Counter rowCounter;
+
+    /**
+     * Creates the line writer, the read transaction and the stream metrics.
+     */
+    @PostConstruct
+    public void init() {
+        // one todo per line, and the lines of a batch are flushed together
+        lineWriter = objectMapper.writer()
+            .without(SerializationFeature.INDENT_OUTPUT)
+            .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        readTransaction = new TransactionTemplate(transactionManager);
+        readTransaction.setReadOnly(true);
+        streamTimer = meterRegistry.timer("todo.stream");
+        rowCounter = meterRegistry.counter("todo.stream.rows");
+    }
+
+    /**
+     * Writes all todos as newline-delimited JSON.
+     *
+     * @param out the stream to write to; it is flushed after every batch, but not closed.
+     * @return the number of written todos.
+     * @throws IOException if writing fails, e.g. because the client went away.
+     */
+    public long stream(OutputStream out) throws IOException {
+        long start = System.nanoTime();
+        long rows = 0;
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            // the lines are separated by newlines instead of the default space between root values
+            generator.setRootValueSeparator(null);
+            long afterId = Long.MIN_VALUE;
+            while (true) {
+                long from = afterId;
+                List<ResponseDTO> todos = readTransaction.execute(status -> todoRepository
+                    .findAfter(from, PageRequest.ofSize(batchSize)).stream()
+                    .map(ResponseDTO::new)
+                    .collect(Collectors.toList()));
+                for (ResponseDTO todo : todos) {
+                    lineWriter.writeValue(generator, todo);
+                    generator.writeRaw('\n');
+                }
+                generator.flush();
+                rows += todos.size();
+                if (todos.size() < batchSize) {
+                    return rows;
+                }
+                afterId = todos.get(todos.size() - 1).getId();
+            }
+        } finally {
+            streamTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            rowCounter.increment(rows);
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package de.unistuttgart.iste.ese.api.Services;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Signals that a client based its changes on an outdated version.
+ * Carries the current state, so that the client can merge without another request.
+ */
+public class VersionConflictException extends ResponseStatusException {
+    private final transient Object currentState;
+    private final Long currentVersion;
+
+    public VersionConflictException(Object currentState, Long currentVersion) {
+        super(HttpStatus.CONFLICT, "Der Eintrag wurde zwischenzeitlich geändert");
+        this.currentState = currentState;
+        this.currentVersion = currentVersion;
+    }
+
+    public Object getCurrentState() {
+        return currentState;
+    }
+
+    public Long getCurrentVersion() {
+        return currentVersion;
+    }
+}
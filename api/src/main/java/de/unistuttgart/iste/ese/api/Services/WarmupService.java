@@ -0,0 +1,210 @@
+package de.unistuttgart.iste.ese.api.Services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.unistuttgart.iste.ese.api.DTOs.CompactTodoListDTO;
+import de.unistuttgart.iste.ese.api.DTOs.ResponseDTO;
+import de.unistuttgart.iste.ese.api.Models.Assignee;
+import de.unistuttgart.iste.ese.api.Models.Todo;
+import de.unistuttgart.iste.ese.api.Repositories.ArchivedTodoRepository;
+import de.unistuttgart.iste.ese.api.Repositories.AssigneeRepository;
+import de.unistuttgart.iste.ese.api.Repositories.TodoRepository;
+import de.unistuttgart.iste.ese.api.Utils.CsvBuffer;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs the hot paths of the API before the instance reports itself ready, so that the first requests after
+ * a deploy do not pay for interpretation, JIT compilation, lazily built serializers and query plans.
+ * Every round classifies a synthetic corpus of titles, serializes and formats synthetic todos as JSON and CSV,
+ * and runs the frequent repository queries in a read-only transaction. Rounds repeat until the configured number
+ * is reached or the time budget is spent.
+ * <p>
+ * Application runners finish before the readiness state changes to accepting traffic, so the readiness probe
+ * reports OUT_OF_SERVICE for the duration of the warm-up, while the liveness probe is already UP.
+ */
+@Service
+@ConditionalOnProperty(name = "app.warmup.enabled", havingValue = "true", matchIfMissing = true)
+public class WarmupService implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(WarmupService.class);
+
+    private static final String[] VERBS = {
+        "Prepare", "Review", "Send", "Book", "Finish", "Schedule", "Buy", "Call", "Clean", "Plan", "Pay", "Fix"
+    };
+    private static final String[] OBJECTS = {
+        "budget meeting", "quarterly report", "project update to team", "conference room", "annual presentation",
+        "client appointment", "birthday present", "groceries", "the kitchen", "weekend trip", "the rent", "the bike"
+    };
+    private static final int SYNTHETIC_TODOS = 100;
+
+    @Autowired
+    private TodoService todoService;
+
+    @Autowired
+    private TodoRepository todoRepository;
+
+    @Autowired
+    private AssigneeRepository assigneeRepository;
+
+    @Autowired
+    private ArchivedTodoRepository archivedTodoRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final AtomicInteger completedRounds = new AtomicInteger();
+
+    @Value("${app.warmup.rounds:200}")
+    private int rounds;
+
+    @Value("${app.warmup.budget:30s}")
+    private Duration budget;
+
+    private interface Stage {
+        void run() throws Exception;
+    }
+
+    /**
+     * Warms up the hot paths; failures are logged and do not keep the instance from becoming ready.
+     *
+     * @param args the application arguments, unused.
+     */
+    @Override
+    public void run(ApplicationArguments args) {
+        List<String> titles = syntheticTitles();
+        List<Todo> todos = syntheticTodos();
+        List<ResponseDTO> dtos = todos.stream().map(ResponseDTO::new).toList();
+        CompactTodoListDTO compact = new CompactTodoListDTO(todos);
+        CsvBuffer buffer = new CsvBuffer(SYNTHETIC_TODOS * 128);
+        TransactionTemplate readTransaction = new TransactionTemplate(transactionManager);
+        readTransaction.setReadOnly(true);
+
+        Map<String, Stage> stages = new LinkedHashMap<>();
+        stages.put("classify", () -> titles.forEach(todoService::classifyTodoTitleWithAllModels));
+        stages.put("serialize", () -> {
+            objectMapper.writeValueAsBytes(dtos);
+            objectMapper.writeValueAsBytes(compact);
+        });
+        stages.put("csv", () -> {
+            CsvExportService.formatRows(todos, buffer);
+            buffer.reset();
+        });
+        stages.put("query", () -> objectMapper.writeValueAsBytes(readTransaction.execute(status -> runQueries())));
+
+        Map<String, Timer> stageTimers = new LinkedHashMap<>();
+        Map<String, Long> firstRoundNanos = new LinkedHashMap<>();
+        Map<String, Long> lastRoundNanos = new LinkedHashMap<>();
+        stages.keySet().forEach(stage -> stageTimers.put(stage, meterRegistry.timer("app.warmup.stage", "stage", stage)));
+
+        long start = System.nanoTime();
+        long deadline = start + budget.toNanos();
+        try {
+            while (completedRounds.get() < rounds && System.nanoTime() < deadline) {
+                for (Map.Entry<String, Stage> stage : stages.entrySet()) {
+                    long stageStart = System.nanoTime();
+                    stage.getValue().run();
+                    long nanos = System.nanoTime() - stageStart;
+                    stageTimers.get(stage.getKey()).record(nanos, TimeUnit.NANOSECONDS);
+                    firstRoundNanos.putIfAbsent(stage.getKey(), nanos);
+                    lastRoundNanos.put(stage.getKey(), nanos);
+                }
+                completedRounds.incrementAndGet();
+            }
+        } catch (Exception e) {
+            log.warn("Warm-up failed after {} rounds, continuing cold", completedRounds, e);
+        }
+
+        long elapsed = System.nanoTime() - start;
+        String outcome = completedRounds.get() >= rounds ? "completed" : "budget-exhausted";
+        Timer.builder("app.warmup")
+            .description("Time spent warming up before the instance reported ready")
+            .tag("outcome", outcome)
+            .register(meterRegistry)
+            .record(elapsed, TimeUnit.NANOSECONDS);
+        meterRegistry.gauge("app.warmup.rounds", completedRounds);
+
+        StringBuilder speedups = new StringBuilder();
+        firstRoundNanos.forEach((stage, first) -> speedups.append(String.format(" %s %.1f -> %.1f ms,",
+            stage, first / 1e6, lastRoundNanos.get(stage) / 1e6)));
+        log.info("Warm-up {} after {} of {} rounds in {} ms, first -> last round:{}", outcome, completedRounds, rounds,
+            TimeUnit.NANOSECONDS.toMillis(elapsed), speedups.length() > 0 ? speedups.substring(0, speedups.length() - 1) : "");
+    }
+
+    // the queries of the list, get, assignee, due date, archive and export paths, with bounded results
+    private List<ResponseDTO> runQueries() {
+        PageRequest page = PageRequest.ofSize(20);
+        List<Todo> todos = todoRepository.findAfter(Long.MIN_VALUE, page);
+        List<Long> ids = todos.stream().map(Todo::getId).toList();
+        todoRepository.findAllById(ids);
+        todoRepository.findById(ids.isEmpty() ? 0L : ids.get(0));
+        long assigneeId = todos.stream().flatMap(todo -> todo.getAssigneeList().stream())
+            .map(Assignee::getId).findFirst().orElse(0L);
+        todoRepository.findIdsByAssignee(assigneeId, page);
+        todoRepository.countByAssignee(assigneeId);
+        assigneeRepository.findAll(page);
+        todoRepository.findOpenDueAfter(new Date(0), -1, new Date(), page);
+        todoRepository.findIdsFinishedBefore(new Date(0), page);
+        todoRepository.findMinId();
+        todoRepository.findMaxId();
+        archivedTodoRepository.findPageIds(page);
+        return todos.stream().map(ResponseDTO::new).toList();
+    }
+
+    private static List<String> syntheticTitles() {
+        List<String> titles = new ArrayList<>();
+        for (String verb : VERBS) {
+            for (String object : OBJECTS) {
+                titles.add(verb + " " + object);
+            }
+        }
+        return titles;
+    }
+
+    private static List<Todo> syntheticTodos() {
+        List<Assignee> assignees = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            Assignee assignee = new Assignee("Prename" + i, "Name" + i, "person" + i + "@uni-stuttgart.de");
+            assignee.setId((long) i + 1);
+            assignees.add(assignee);
+        }
+        long day = TimeUnit.DAYS.toMillis(1);
+        long now = System.currentTimeMillis();
+        List<Todo> todos = new ArrayList<>();
+        for (int i = 0; i < SYNTHETIC_TODOS; i++) {
+            boolean finished = i % 3 == 0;
+            Todo todo = new Todo((long) i + 1, VERBS[i % VERBS.length] + " " + OBJECTS[i % OBJECTS.length],
+                "Synthetic todo " + i + ", with \"quotes\", commas and\na line break", finished,
+                List.of(assignees.get(i % 10), assignees.get((i + 3) % 10)), new Date(now - (i % 30) * day),
+                new Date(now + (i % 365) * day), finished ? new Date(now) : null, i % 2 == 0 ? "work" : "private");
+            todo.setLabels(Map.of("priority", i % 2 == 0 ? "high" : "low"));
+            todos.add(todo);
+        }
+        return todos;
+    }
+}
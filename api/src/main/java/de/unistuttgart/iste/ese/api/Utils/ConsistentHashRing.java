@@ -0,0 +1,75 @@
+package de.unistuttgart.iste.ese.api.Utils;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Maps keys to nodes so that adding or removing a node only moves the keys of about one node's share.
+ * Every node is placed on a ring of 64-bit hashes at many points (virtual nodes), which evens out the shares;
+ * a key belongs to the first point at or after its own hash.
+ *
+ * @param <N> the type of the nodes.
+ */
+public class ConsistentHashRing<N> {
+    private final NavigableMap<Long, N> ring = new TreeMap<>();
+    private final List<N> nodes;
+
+    /**
+     * Constructs a ring.
+     *
+     * @param nodes the nodes; their string forms must be distinct, as they determine the positions.
+     * @param virtualNodes the number of points per node.
+     * @throws IllegalArgumentException if there are no nodes or fewer than one point per node.
+     */
+    public ConsistentHashRing(Collection<N> nodes, int virtualNodes) {
+        if (nodes.isEmpty() || virtualNodes < 1) {
+            throw new IllegalArgumentException("Expected at least one node and one virtual node per node");
+        }
+        this.nodes = List.copyOf(nodes);
+        for (N node : this.nodes) {
+            for (int i = 0; i < virtualNodes; i++) {
+                ring.put(hash(node + "#" + i), node);
+            }
+        }
+    }
+
+    /**
+     * Returns the node a key belongs to.
+     *
+     * @param key the key.
+     * @return the owning node.
+     */
+    public N nodeFor(String key) {
+        Map.Entry<Long, N> entry = ring.ceilingEntry(hash(key));
+        return entry != null ? entry.getValue() : ring.firstEntry().getValue();
+    }
+
+    /**
+     * Returns the nodes of the ring.
+     *
+     * @return the nodes in the order they were given.
+     */
+    public List<N> getNodes() {
+        return nodes;
+    }
+
+    // the first 8 bytes of MD5: not for security, but stable across JVMs and well spread
+    private static long hash(String value) {
+        try {
+            byte[] digest = MessageDigest.getInstance("MD5").digest(value.getBytes(StandardCharsets.UTF_8));
+            long hash = 0;
+            for (int i = 0; i < 8; i++) {
+                hash = (hash << 8) | (digest[i] & 0xff);
+            }
+            return hash;
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,202 @@
+package de.unistuttgart.iste.ese.api.Utils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Arrays;
+
+/**
+ * A growable byte buffer that formats CSV fields directly as UTF-8, without building intermediate strings.
+ * Buffers are reused across export chunks, so the backing array only grows until it fits the largest chunk.
+ */
+public class CsvBuffer {
+
+    private byte[] bytes;
+    private int length;
+
+    public CsvBuffer(int initialCapacity) {
+        bytes = new byte[initialCapacity];
+    }
+
+    /**
+     * Appends a field, quoted if it contains a comma or a quote, with quotes doubled.
+     *
+     * @param value the field, null is written as an empty field.
+     * @return this buffer.
+     */
+    public CsvBuffer field(String value) {
+        if (value == null) {
+            return this;
+        }
+        boolean quote = false;
+        boolean ascii = true;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == ',' || c == '"') quote = true;
+            if (c >= 0x80) ascii = false;
+        }
+        if (quote) {
+            put((byte) '"');
+        }
+        if (ascii) {
+            ensureCapacity(value.length() * 2);
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                if (c == '"') bytes[length++] = '"';
+                bytes[length++] = (byte) c;
+            }
+        } else {
+            // a quote byte never occurs inside a multi-byte UTF-8 sequence, so it can be doubled byte-wise
+            byte[] encoded = value.getBytes(StandardCharsets.UTF_8);
+            ensureCapacity(encoded.length * 2);
+            for (byte b : encoded) {
+                if (b == '"') bytes[length++] = '"';
+                bytes[length++] = b;
+            }
+        }
+        if (quote) {
+            put((byte) '"');
+        }
+        return this;
+    }
+
+    /**
+     * Appends a number in decimal notation.
+     *
+     * @param value the number.
+     * @return this buffer.
+     */
+    public CsvBuffer number(long value) {
+        if (value < 0) {
+            if (value == Long.MIN_VALUE) {
+                return ascii(Long.toString(value));
+            }
+            put((byte) '-');
+            value = -value;
+        }
+        ensureCapacity(19);
+        int start = length;
+        do {
+            bytes[length++] = (byte) ('0' + value % 10);
+            value /= 10;
+        } while (value > 0);
+        // the digits were written from the lowest one, reverse them in place
+        for (int i = start, j = length - 1; i < j; i++, j--) {
+            byte digit = bytes[i];
+            bytes[i] = bytes[j];
+            bytes[j] = digit;
+        }
+        return this;
+    }
+
+    /**
+     * Appends a boolean as {@code true} or {@code false}.
+     *
+     * @param value the boolean.
+     * @return this buffer.
+     */
+    public CsvBuffer bool(boolean value) {
+        return ascii(value ? "true" : "false");
+    }
+
+    /**
+     * Appends a date in the format {@code yyyy-MM-dd}.
+     *
+     * @param date the date, null is written as an empty field.
+     * @return this buffer.
+     */
+    public CsvBuffer date(LocalDate date) {
+        if (date == null) {
+            return this;
+        }
+        int year = date.getYear();
+        if (year < 0 || year > 9999) {
+            return ascii(date.toString());
+        }
+        ensureCapacity(10);
+        digits(year, 4);
+        bytes[length++] = '-';
+        digits(date.getMonthValue(), 2);
+        bytes[length++] = '-';
+        digits(date.getDayOfMonth(), 2);
+        return this;
+    }
+
+    /**
+     * Appends text that is known to be ASCII and to need no quoting.
+     *
+     * @param text the text.
+     * @return this buffer.
+     */
+    public CsvBuffer ascii(String text) {
+        ensureCapacity(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            bytes[length++] = (byte) text.charAt(i);
+        }
+        return this;
+    }
+
+    /**
+     * Appends a field separator.
+     *
+     * @return this buffer.
+     */
+    public CsvBuffer comma() {
+        return put((byte) ',');
+    }
+
+    /**
+     * Ends the current row.
+     *
+     * @return this buffer.
+     */
+    public CsvBuffer newline() {
+        return put((byte) '\n');
+    }
+
+    /**
+     * Writes the content of the buffer.
+     *
+     * @param out the stream to write to.
+     * @throws IOException if writing fails.
+     */
+    public void writeTo(OutputStream out) throws IOException {
+        out.write(bytes, 0, length);
+    }
+
+    /**
+     * Empties the buffer, keeping its capacity.
+     */
+    public void reset() {
+        length = 0;
+    }
+
+    public int length() {
+        return length;
+    }
+
+    public int capacity() {
+        return bytes.length;
+    }
+
+    private CsvBuffer put(byte b) {
+        ensureCapacity(1);
+        bytes[length++] = b;
+        return this;
+    }
+
+    private void digits(int value, int count) {
+        for (int i = length + count - 1; i >= length; i--) {
+            bytes[i] = (byte) ('0' + value % 10);
+            value /= 10;
+        }
+        length += count;
+    }
+
+    private void ensureCapacity(int additional) {
+        if (length + additional > bytes.length) {
+            bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, length + additional));
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package de.unistuttgart.iste.ese.api.Utils;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces concurrent computations of the same key: while a computation is in flight, further callers with
+ * the same key wait for its result instead of starting their own. Results can optionally be kept for a short time.
+ *
+ * @param <K> the type of the keys.
+ * @param <V> the type of the results.
+ */
+public class SingleFlight<K, V> {
+    private final Map<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final Map<K, Cached<V>> results = new ConcurrentHashMap<>();
+    private final AtomicLong generation = new AtomicLong();
+    private final long resultTtlNanos;
+
+    /**
+     * Constructs a single-flight group.
+     *
+     * @param resultTtlNanos how long a finished result is reused, 0 to only share in-flight computations.
+     */
+    public SingleFlight(long resultTtlNanos) {
+        this.resultTtlNanos = resultTtlNanos;
+    }
+
+    /**
+     * Returns the result for the key, joining an in-flight computation or starting a new one.
+     *
+     * @param key the key identifying identical computations.
+     * @param computation the computation to run if none is in flight.
+     * @return the result.
+     */
+    public V execute(K key, Supplier<V> computation) {
+        Cached<V> cached = results.get(key);
+        if (cached != null && cached.generation == generation.get() && System.nanoTime() - cached.expiresAt < 0) {
+            return cached.value;
+        }
+
+        CompletableFuture<V> future = new CompletableFuture<>();
+        CompletableFuture<V> running = inFlight.putIfAbsent(key, future);
+        if (running != null) {
+            return join(running);
+        }
+
+        long startGeneration = generation.get();
+        try {
+            V value = computation.get();
+            // a result computed before an invalidation may already be stale and must not be kept; the check and the
+            // store are one step, so an invalidation either comes before and is seen, or after and clears the result
+            if (resultTtlNanos > 0) {
+                results.compute(key, (k, previous) -> generation.get() == startGeneration
+                    ? new Cached<>(value, System.nanoTime() + resultTtlNanos, startGeneration)
+                    : previous);
+            }
+            future.complete(value);
+            return value;
+        } catch (Throwable e) {
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, future);
+        }
+    }
+
+    /**
+     * Drops all kept results and detaches in-flight computations, so that later callers compute fresh results.
+     */
+    public void invalidateAll() {
+        generation.incrementAndGet();
+        inFlight.clear();
+        results.clear();
+    }
+
+    private static <V> V join(CompletableFuture<V> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private record Cached<V>(V value, long expiresAt, long generation) {
+    }
+}
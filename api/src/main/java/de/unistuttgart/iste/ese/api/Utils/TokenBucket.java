@@ -0,0 +1,62 @@
+package de.unistuttgart.iste.ese.api.Utils;
+
+/**
+ * A token bucket that refills continuously at a fixed rate up to its capacity.
+ */
+public class TokenBucket {
+    private final long capacity;
+    private final double tokensPerNano;
+    private double tokens;
+    private long lastRefill;
+
+    /**
+     * Constructs a full bucket.
+     *
+     * @param capacity the maximum number of tokens, i.e. the allowed burst.
+     * @param tokensPerSecond the sustained rate.
+     */
+    public TokenBucket(long capacity, double tokensPerSecond) {
+        this.capacity = capacity;
+        this.tokensPerNano = tokensPerSecond / 1e9;
+        this.tokens = capacity;
+        this.lastRefill = System.nanoTime();
+    }
+
+    /**
+     * Takes one token if available.
+     *
+     * @return 0 if a token was taken, otherwise the nanoseconds until the next token is available.
+     */
+    public synchronized long tryConsume() {
+        refill();
+        if (tokens >= 1) {
+            tokens -= 1;
+            return 0;
+        }
+        return (long) Math.ceil((1 - tokens) / tokensPerNano);
+    }
+
+    /**
+     * Puts back a token taken by {@link #tryConsume()}, e.g. when the request was rejected by a later check.
+     */
+    public synchronized void refund() {
+        refill();
+        tokens = Math.min(capacity, tokens + 1);
+    }
+
+    /**
+     * Checks whether the bucket is full, i.e. its owner has been idle long enough to forget it.
+     *
+     * @return true if the bucket holds its full capacity.
+     */
+    public synchronized boolean isFull() {
+        refill();
+        return tokens >= capacity;
+    }
+
+    private void refill() {
+        long now = System.nanoTime();
+        tokens = Math.min(capacity, tokens + (now - lastRefill) * tokensPerNano);
+        lastRefill = now;
+    }
+}
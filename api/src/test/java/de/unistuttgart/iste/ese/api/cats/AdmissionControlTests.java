@@ -0,0 +1,111 @@
+package de.unistuttgart.iste.ese.api.cats;
+
+import de.unistuttgart.iste.ese.api.Services.CsvExportService;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+    "app.admission.per-client.capacity = 2",
+    "app.admission.per-client.refill-per-second = 0.1",
+    "app.admission.heavy-endpoints.csv-export.max-concurrent = 1",
+    "app.admission.heavy-endpoints.csv-export.max-queued = 1",
+    "app.admission.heavy-endpoints.csv-export.queue-timeout = 10s"
+})
+@AutoConfigureMockMvc
+public class AdmissionControlTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @MockBean
+    private CsvExportService csvExportService;
+
+    @Test
+    @DisplayName("Expect a 429 with Retry-After once a client used up its bucket")
+    void testPerClientLimit() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/assignees")).andExpect(status().isOk());
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/assignees")).andExpect(status().isOk());
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/assignees"))
+            .andExpect(status().isTooManyRequests())
+            .andExpect(header().exists(HttpHeaders.RETRY_AFTER));
+
+        // other clients are not affected
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/assignees").with(request -> {
+            request.setRemoteAddr("10.0.0.2");
+            return request;
+        })).andExpect(status().isOk());
+    }
+
+    @Test
+    @DisplayName("Expect a heavy request to queue for a free slot and a 429 with Retry-After once the queue is full")
+    void testHeavyEndpointConcurrency() throws Exception {
+        CountDownLatch exporting = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            exporting.countDown();
+            assertTrue(release.await(30, TimeUnit.SECONDS));
+            return 0L;
+        }).when(csvExportService).export(any());
+
+        // separate clients, so that only the concurrency limit applies
+        CompletableFuture<Integer> running = CompletableFuture.supplyAsync(() -> downloadCsv("10.0.1.1"));
+        assertTrue(exporting.await(10, TimeUnit.SECONDS));
+        CompletableFuture<Integer> queued = CompletableFuture.supplyAsync(() -> downloadCsv("10.0.1.2"));
+        Gauge queuedGauge = meterRegistry.get("api.admission.queued").tag("endpoint", "csv-export").gauge();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (queuedGauge.value() < 1 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(1, queuedGauge.value());
+
+        mockMvc.perform(csvRequest("10.0.1.3"))
+            .andExpect(status().isTooManyRequests())
+            .andExpect(header().exists(HttpHeaders.RETRY_AFTER));
+        assertFalse(queued.isDone());
+
+        release.countDown();
+        assertEquals(200, running.get(10, TimeUnit.SECONDS));
+        assertEquals(200, queued.get(10, TimeUnit.SECONDS));
+    }
+
+    private RequestBuilder csvRequest(String client) {
+        return MockMvcRequestBuilders.get("/api/v1/csv-downloads/todos").with(request -> {
+            request.setRemoteAddr(client);
+            return request;
+        });
+    }
+
+    private int downloadCsv(String client) {
+        try {
+            return mockMvc.perform(csvRequest(client)).andReturn().getResponse().getStatus();
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
@@ -16,6 +16,8 @@ import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
 
 import java.time.LocalTime;
 
+import static de.unistuttgart.iste.ese.api.cats.TestData.createAssignee;
+import static de.unistuttgart.iste.ese.api.cats.TestData.createTodo;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -120,4 +122,54 @@ public class AssigneeControllerTests {
         // Assert result
         result.andExpect(status().isNotFound());
     }
+
+    @Test
+    @DisplayName("Expect assignee suggestions by prefix of prename, name and email to follow updates")
+    void testAssigneeSuggestions() throws Exception {
+        long id = createAssignee(mockMvc, "suggestzebra");
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/assignees/suggest").param("prefix", "SuggestZ"))
+            .andExpect(status().isOk())
+            .andExpect(MockMvcResultMatchers.jsonPath("$[0].id").value(id));
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/assignees/suggest").param("prefix", "test suggestz"))
+            .andExpect(MockMvcResultMatchers.jsonPath("$[0].id").value(id));
+
+        mockMvc.perform(MockMvcRequestBuilders.put("/api/v1/assignees/" + id).contentType(MediaType.APPLICATION_JSON)
+                .content("{\"prename\":\"Test\",\"name\":\"renamed\",\"email\":\"suggestyak@uni-stuttgart.de\"}"))
+            .andExpect(status().isOk());
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/assignees/suggest").param("prefix", "suggestz"))
+            .andExpect(MockMvcResultMatchers.jsonPath("$.length()").value(0));
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/assignees/suggest").param("prefix", "suggesty"))
+            .andExpect(MockMvcResultMatchers.jsonPath("$[0].name").value("renamed"));
+    }
+
+    @Test
+    @DisplayName("Expect the todos of an assignee in pages, and deleting another assignee to keep them assigned")
+    void testTodosOfAssignee() throws Exception {
+        long alice = createAssignee(mockMvc, "pagealice");
+        long bob = createAssignee(mockMvc, "pagebob");
+        long shared = createTodo(mockMvc, "Plan team offsite", alice, bob);
+        long second = createTodo(mockMvc, "Book venue", alice);
+        createTodo(mockMvc, "Order catering", bob);
+        long third = createTodo(mockMvc, "Send invitations", alice);
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/assignees/" + alice + "/todos").param("size", "2"))
+            .andExpect(status().isOk())
+            .andExpect(MockMvcResultMatchers.header().string("X-Total-Count", "3"))
+            .andExpect(MockMvcResultMatchers.jsonPath("$[0].id").value(shared))
+            .andExpect(MockMvcResultMatchers.jsonPath("$[1].id").value(second));
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/assignees/" + alice + "/todos").param("page", "1").param("size", "2"))
+            .andExpect(MockMvcResultMatchers.jsonPath("$.length()").value(1))
+            .andExpect(MockMvcResultMatchers.jsonPath("$[0].id").value(third));
+
+        mockMvc.perform(MockMvcRequestBuilders.delete("/api/v1/assignees/" + bob))
+            .andExpect(status().isOk());
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/todos/" + shared))
+            .andExpect(MockMvcResultMatchers.jsonPath("$.assigneeList.length()").value(1))
+            .andExpect(MockMvcResultMatchers.jsonPath("$.assigneeList[0].id").value(alice));
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/assignees/" + bob + "/todos"))
+            .andExpect(status().isNotFound());
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/assignees/" + alice + "/todos").param("size", "0"))
+            .andExpect(status().isBadRequest());
+    }
 }
@@ -0,0 +1,71 @@
+package de.unistuttgart.iste.ese.api.cats;
+
+import de.unistuttgart.iste.ese.api.DTOs.PatchDTO;
+import de.unistuttgart.iste.ese.api.DTOs.ResponseDTO;
+import de.unistuttgart.iste.ese.api.Models.Assignee;
+import de.unistuttgart.iste.ese.api.Services.AssigneeService;
+import de.unistuttgart.iste.ese.api.Services.AssigneeTodoIndex;
+import de.unistuttgart.iste.ese.api.Services.TodoService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.Date;
+import java.util.List;
+
+import static de.unistuttgart.iste.ese.api.cats.TestData.todoRequest;
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "app.assignee-index.enabled=true")
+public class AssigneeTodoIndexTests {
+
+    @Autowired
+    private TodoService todoService;
+
+    @Autowired
+    private AssigneeService assigneeService;
+
+    @Autowired
+    private AssigneeTodoIndex index;
+
+    private long createAssignee(String name) {
+        return assigneeService.createAssignee(new Assignee("Test", name, name + "@uni-stuttgart.de")).getId();
+    }
+
+    private long createTodo(String title, Long... assigneeIds) {
+        return todoService.createTodo(todoRequest(title, new Date(System.currentTimeMillis() + 24 * 3600 * 1000L),
+            assigneeIds)).getId();
+    }
+
+    private List<Long> todoIdsOf(long assigneeId) {
+        return todoService.getTodosOfAssignee(assigneeId, 0, 100).map(ResponseDTO::getId).getContent();
+    }
+
+    @Test
+    @DisplayName("Expect the index to follow created, reassigned and deleted todos and deleted assignees")
+    void testIndexFollowsWrites() {
+        assertTrue(index.isReady());
+        long carol = createAssignee("indexcarol");
+        long dave = createAssignee("indexdave");
+        long first = createTodo("Water the plants", carol);
+        long second = createTodo("Fix the bike", carol, dave);
+        long third = createTodo("Pay the rent", dave);
+        assertEquals(List.of(first, second), todoIdsOf(carol));
+
+        PatchDTO patch = new PatchDTO();
+        patch.setAssigneeIdList(List.of(carol));
+        todoService.patchTodo(third, patch, null);
+        todoService.deleteTodoById(first);
+        assertEquals(List.of(second, third), todoIdsOf(carol));
+        assertEquals(List.of(second), todoIdsOf(dave));
+
+        assigneeService.deleteAssignee(dave);
+        assertEquals(List.of(carol), todoService.getTodoById(second).getAssigneeList().stream().map(Assignee::getId).toList());
+
+        index.rebuild();
+        assertEquals(List.of(second, third), todoIdsOf(carol));
+        assertEquals(2, index.countTodos(carol));
+        assertEquals(0, index.countTodos(dave));
+    }
+}
@@ -0,0 +1,52 @@
+package de.unistuttgart.iste.ese.api.cats;
+
+import de.unistuttgart.iste.ese.api.Utils.ConsistentHashRing;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ConsistentHashRingTests {
+
+    private static final int KEYS = 10_000;
+
+    @Test
+    @DisplayName("Expect keys to be spread evenly over the nodes")
+    void testSpread() {
+        ConsistentHashRing<String> ring = new ConsistentHashRing<>(List.of("shard-0", "shard-1", "shard-2"), 128);
+        Map<String, Integer> counts = new HashMap<>();
+        for (int i = 0; i < KEYS; i++) {
+            counts.merge(ring.nodeFor("tenant-" + i), 1, Integer::sum);
+        }
+        assertEquals(3, counts.size());
+        for (int count : counts.values()) {
+            assertTrue(count > KEYS / 3 * 0.8 && count < KEYS / 3 * 1.2, counts.toString());
+        }
+    }
+
+    @Test
+    @DisplayName("Expect a new node to only take over keys, about its own share")
+    void testAddingANodeMovesFewKeys() {
+        ConsistentHashRing<String> before = new ConsistentHashRing<>(List.of("shard-0", "shard-1", "shard-2"), 128);
+        ConsistentHashRing<String> after = new ConsistentHashRing<>(List.of("shard-0", "shard-1", "shard-2", "shard-3"), 128);
+        int moved = 0;
+        for (int i = 0; i < KEYS; i++) {
+            String key = "tenant-" + i;
+            if (!before.nodeFor(key).equals(after.nodeFor(key))) {
+                assertEquals("shard-3", after.nodeFor(key));
+                moved++;
+            }
+        }
+        assertTrue(moved > KEYS / 4 * 0.8 && moved < KEYS / 4 * 1.2, "moved " + moved);
+    }
+
+    @Test
+    @DisplayName("Expect a ring without nodes to be rejected")
+    void testEmptyRing() {
+        assertThrows(IllegalArgumentException.class, () -> new ConsistentHashRing<String>(List.of(), 128));
+    }
+}
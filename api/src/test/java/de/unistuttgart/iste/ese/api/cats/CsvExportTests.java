@@ -0,0 +1,53 @@
+package de.unistuttgart.iste.ese.api.cats;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static de.unistuttgart.iste.ese.api.cats.TestData.createTodo;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {"app.csv-export.chunk-size=2", "app.csv-export.parallelism=3"})
+@AutoConfigureMockMvc
+public class CsvExportTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    @DisplayName("Expect all todos in ID order across parallel chunks, with quoted fields and UTF-8 text")
+    void testExportOrderAndEscaping() throws Exception {
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 9; i++) {
+            ids.add(createTodo(mockMvc, "Task " + i, "plain"));
+        }
+        long quoted = createTodo(mockMvc, "Buy milk, eggs", "say \"hello\" to Jürgen");
+
+        byte[] csv = mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/csv-downloads/todos"))
+            .andExpect(status().isOk())
+            .andReturn().getResponse().getContentAsByteArray();
+        String[] lines = new String(csv, StandardCharsets.UTF_8).split("\n");
+
+        assertEquals("id,title,description,finished,assignees,createdDate,dueDate,finishedDate,category", lines[0]);
+        List<Long> exportedIds = new ArrayList<>();
+        for (int i = 1; i < lines.length; i++) {
+            exportedIds.add(Long.parseLong(lines[i].substring(0, lines[i].indexOf(','))));
+        }
+        assertEquals(exportedIds.stream().sorted().toList(), exportedIds);
+        assertTrue(exportedIds.containsAll(ids));
+
+        String quotedLine = lines[exportedIds.indexOf(quoted) + 1];
+        assertTrue(quotedLine.startsWith(quoted + ",\"Buy milk, eggs\",\"say \"\"hello\"\" to Jürgen\",false,,"
+            + LocalDate.now() + "," + LocalDate.now().plusDays(7) + ",,"), quotedLine);
+    }
+}
@@ -0,0 +1,109 @@
+package de.unistuttgart.iste.ese.api.cats;
+
+import de.unistuttgart.iste.ese.api.DTOs.PatchDTO;
+import de.unistuttgart.iste.ese.api.Services.DueDateEvent;
+import de.unistuttgart.iste.ese.api.Services.DueDateScheduler;
+import de.unistuttgart.iste.ese.api.Services.TodoService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.test.context.event.ApplicationEvents;
+import org.springframework.test.context.event.RecordApplicationEvents;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Date;
+import java.util.List;
+
+import static de.unistuttgart.iste.ese.api.cats.TestData.todoRequest;
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {"app.due-dates.lead-time=30d", "app.due-dates.tick=PT1H"})
+@RecordApplicationEvents
+public class DueDateSchedulerTests {
+
+    /**
+     * A clock that stands still until the test advances it.
+     */
+    static class TestClock extends Clock {
+        private volatile Instant now = Instant.now();
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    @TestConfiguration
+    static class ClockConfig {
+        @Bean
+        TestClock testClock() {
+            return new TestClock();
+        }
+    }
+
+    @Autowired
+    private TestClock clock;
+
+    @Autowired
+    private TodoService todoService;
+
+    @Autowired
+    private DueDateScheduler scheduler;
+
+    @Autowired
+    private ApplicationEvents events;
+
+    private long createTodo(String title, long dueInMillis) {
+        return todoService.createTodo(todoRequest(title, new Date(clock.millis() + dueInMillis))).getId();
+    }
+
+    private List<Long> firedIds(DueDateEvent.Kind kind) {
+        return events.stream(DueDateEvent.class)
+            .filter(event -> event.kind() == kind)
+            .flatMap(event -> event.todoIds().stream())
+            .toList();
+    }
+
+    @Test
+    @DisplayName("Expect open todos to be reported as due soon and overdue once, and finished todos not at all")
+    void testDueSoonAndOverdue() {
+        long dueSoon = createTodo("Submit travel expenses", 2 * 24 * 3600 * 1000L);
+        long overdue = createTodo("Call back the landlord", 3600 * 1000L);
+        long finished = createTodo("Renew library card", 24 * 3600 * 1000L);
+        PatchDTO patch = new PatchDTO();
+        patch.setFinished(true);
+        todoService.patchTodo(finished, patch, null);
+
+        scheduler.tick();
+        assertTrue(firedIds(DueDateEvent.Kind.DUE_SOON).containsAll(List.of(dueSoon, overdue)));
+        assertFalse(firedIds(DueDateEvent.Kind.DUE_SOON).contains(finished));
+        assertFalse(firedIds(DueDateEvent.Kind.OVERDUE).contains(overdue));
+
+        clock.advance(Duration.ofHours(2));
+        scheduler.tick();
+        assertEquals(1, firedIds(DueDateEvent.Kind.OVERDUE).stream().filter(id -> id == overdue).count());
+        assertEquals(1, firedIds(DueDateEvent.Kind.DUE_SOON).stream().filter(id -> id == dueSoon).count());
+        assertFalse(firedIds(DueDateEvent.Kind.OVERDUE).contains(dueSoon));
+    }
+}
@@ -0,0 +1,22 @@
+package de.unistuttgart.iste.ese.api.cats;
+
+import de.unistuttgart.iste.ese.api.Config.CaffeineRegionFactory;
+import org.springframework.test.context.TestContext;
+import org.springframework.test.context.support.AbstractTestExecutionListener;
+
+/**
+ * Empties the second-level cache of a cached test context before it runs another test class.
+ * The test contexts share one in-memory database whose schema each new context recreates, so the entries a context
+ * cached for earlier test classes may describe rows that no longer exist. A context that is not loaded yet is created
+ * with an empty cache and is left alone.
+ */
+public class EntityCacheEvictionListener extends AbstractTestExecutionListener {
+
+    @Override
+    public void beforeTestClass(TestContext testContext) {
+        if (testContext.hasApplicationContext()) {
+            testContext.getApplicationContext().getBeanProvider(CaffeineRegionFactory.class)
+                .ifAvailable(regionFactory -> regionFactory.getRegionNames().forEach(regionFactory::evictRegion));
+        }
+    }
+}
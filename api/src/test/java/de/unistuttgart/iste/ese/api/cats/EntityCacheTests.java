@@ -0,0 +1,110 @@
+package de.unistuttgart.iste.ese.api.cats;
+
+import de.unistuttgart.iste.ese.api.Config.CaffeineRegionFactory;
+import de.unistuttgart.iste.ese.api.DTOs.RequestDTO;
+import de.unistuttgart.iste.ese.api.Models.Assignee;
+import de.unistuttgart.iste.ese.api.Models.Todo;
+import de.unistuttgart.iste.ese.api.Services.AssigneeService;
+import de.unistuttgart.iste.ese.api.Services.TodoService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+public class EntityCacheTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private TodoService todoService;
+
+    @Autowired
+    private AssigneeService assigneeService;
+
+    @Autowired
+    private CaffeineRegionFactory regionFactory;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private double gets(String region, String result) {
+        return meterRegistry.get("cache.gets").tag("cache", region).tag("result", result).functionCounter().count();
+    }
+
+    private void expectTitle(long id, String title) throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/todos/" + id))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.title").value(title));
+    }
+
+    @Test
+    @DisplayName("Expect repeated lookups by ID to hit the cache and writes through the API to be visible right away")
+    void testLookupsHitTheCacheAndWritesInvalidate() throws Exception {
+        long assigneeId = assigneeService.createAssignee(new Assignee("Test", "cached", "cached@uni-stuttgart.de")).getId();
+        RequestDTO request = new RequestDTO();
+        request.setTitle("Cached todo");
+        request.setDueDate(new Date(System.currentTimeMillis() + 24 * 3600 * 1000L));
+        request.setAssigneeIdList(List.of(assigneeId));
+        long id = todoService.createTodo(request).getId();
+
+        expectTitle(id, "Cached todo");
+        double hits = gets(Todo.CACHE_REGION, "hit");
+        double collectionHits = gets(Todo.ASSIGNEES_CACHE_REGION, "hit");
+        expectTitle(id, "Cached todo");
+        assertTrue(gets(Todo.CACHE_REGION, "hit") > hits);
+        assertTrue(gets(Todo.ASSIGNEES_CACHE_REGION, "hit") > collectionHits);
+
+        mockMvc.perform(MockMvcRequestBuilders.patch("/api/v1/todos/" + id)
+                .contentType(MediaType.APPLICATION_JSON).content("{\"title\":\"Patched todo\"}"))
+            .andExpect(status().isOk());
+        expectTitle(id, "Patched todo");
+
+        mockMvc.perform(MockMvcRequestBuilders.put("/api/v1/assignees/" + assigneeId)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"prename\":\"Test\",\"name\":\"renamed\",\"email\":\"cached@uni-stuttgart.de\"}"))
+            .andExpect(status().isOk());
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/todos/" + id))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.assigneeList[0].name").value("renamed"));
+
+        mockMvc.perform(MockMvcRequestBuilders.delete("/api/v1/todos/" + id)).andExpect(status().isOk());
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/todos/" + id)).andExpect(status().isNotFound());
+    }
+
+    @Test
+    @DisplayName("Expect writes that bypass Hibernate to be visible once the entity is evicted")
+    void testEvictionAfterPlainSql() throws Exception {
+        RequestDTO request = new RequestDTO();
+        request.setTitle("Before plain SQL");
+        request.setDueDate(new Date(System.currentTimeMillis() + 24 * 3600 * 1000L));
+        request.setAssigneeIdList(List.of());
+        long id = todoService.createTodo(request).getId();
+        expectTitle(id, "Before plain SQL");
+
+        jdbcTemplate.update("update todo set title = ? where id = ?", "After plain SQL", id);
+        expectTitle(id, "Before plain SQL");
+
+        // as the invalidation bus does for the writes of other instances
+        regionFactory.evict(Todo.CACHE_REGION, List.of(id));
+        expectTitle(id, "After plain SQL");
+    }
+}
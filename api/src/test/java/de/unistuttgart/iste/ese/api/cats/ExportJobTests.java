@@ -0,0 +1,64 @@
+package de.unistuttgart.iste.ese.api.cats;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+public class ExportJobTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    private JsonNode getJson(String url) throws Exception {
+        String response = mockMvc.perform(MockMvcRequestBuilders.get(url))
+            .andExpect(status().isOk())
+            .andReturn().getResponse().getContentAsString();
+        return new ObjectMapper().readTree(response);
+    }
+
+    @Test
+    @DisplayName("Expect an export to finish in the background and its file to be downloadable in full and in ranges")
+    void testExportJob() throws Exception {
+        String response = mockMvc.perform(MockMvcRequestBuilders.post("/api/v1/exports"))
+            .andExpect(status().isAccepted())
+            .andReturn().getResponse().getContentAsString();
+        String id = new ObjectMapper().readTree(response).get("id").asText();
+
+        JsonNode job = getJson("/api/v1/exports/" + id);
+        for (int i = 0; i < 100 && !job.get("status").asText().equals("DONE"); i++) {
+            assertNotEquals("FAILED", job.get("status").asText());
+            Thread.sleep(50);
+            job = getJson("/api/v1/exports/" + id);
+        }
+        assertEquals("DONE", job.get("status").asText());
+
+        byte[] file = mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/exports/" + id + "/file"))
+            .andExpect(status().isOk())
+            .andReturn().getResponse().getContentAsByteArray();
+        assertEquals(job.get("sizeBytes").asLong(), file.length);
+        assertTrue(new String(file, StandardCharsets.UTF_8).startsWith("id,title,"));
+
+        byte[] range = mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/exports/" + id + "/file").header("Range", "bytes=3-8"))
+            .andExpect(status().isPartialContent())
+            .andReturn().getResponse().getContentAsByteArray();
+        assertEquals("title,", new String(range, StandardCharsets.UTF_8));
+
+        mockMvc.perform(MockMvcRequestBuilders.delete("/api/v1/exports/" + id))
+            .andExpect(status().isNoContent());
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/exports/" + id + "/file"))
+            .andExpect(status().isNotFound());
+    }
+}
@@ -0,0 +1,48 @@
+package de.unistuttgart.iste.ese.api.cats;
+
+import de.unistuttgart.iste.ese.api.DTOs.RequestDTO;
+import de.unistuttgart.iste.ese.api.Profiling.FlightRecordingEndpoint;
+import de.unistuttgart.iste.ese.api.Profiling.JfrAnalyzer;
+import de.unistuttgart.iste.ese.api.Services.TodoService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "app.jfr.always-on=false")
+public class FlightRecordingTests {
+
+    @Autowired
+    private FlightRecordingEndpoint endpoint;
+
+    @Autowired
+    private TodoService todoService;
+
+    @Test
+    @DisplayName("Expect a dump of a recording to contain the write stages and classifications of a created todo")
+    void testRecordAndAnalyze() throws Exception {
+        endpoint.start(null);
+        assertThrows(IllegalStateException.class, () -> endpoint.start(null));
+        RequestDTO request = new RequestDTO();
+        request.setTitle("Renew passport");
+        request.setDueDate(new Date(System.currentTimeMillis() + 24 * 3600 * 1000L));
+        todoService.createTodo(request);
+        Path dump = endpoint.stop();
+        assertThrows(IllegalStateException.class, endpoint::dump);
+
+        assertTrue(Files.size(dump) > 0);
+        List<String> stages = JfrAnalyzer.summarize(dump).stages().stream()
+            .map(JfrAnalyzer.StageSummary::stage)
+            .toList();
+        assertTrue(stages.containsAll(List.of("TodoWrite create/validate", "TodoWrite create/classify",
+            "TodoWrite create/persist", "TodoWrite create/notify")), stages.toString());
+        assertTrue(stages.stream().anyMatch(stage -> stage.startsWith("Classification ")), stages.toString());
+    }
+}
@@ -0,0 +1,62 @@
+package de.unistuttgart.iste.ese.api.cats;
+
+import de.unistuttgart.iste.ese.api.Interceptors.TooManyRequestsException;
+import de.unistuttgart.iste.ese.api.Services.IdempotencyService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = "app.idempotency.max-keys = 1")
+public class IdempotencyTests {
+
+    @Autowired
+    private IdempotencyService idempotencyService;
+
+    @Test
+    @DisplayName("Expect a running request to keep its key in a full store, so that a concurrent retry does not run it again")
+    void testRunningKeyIsNotEvicted() throws Exception {
+        AtomicInteger executions = new AtomicInteger();
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        CompletableFuture<Integer> original = CompletableFuture.supplyAsync(() ->
+            idempotencyService.execute("test", "running", "request", () -> {
+                running.countDown();
+                try {
+                    assertTrue(release.await(30, TimeUnit.SECONDS));
+                } catch (InterruptedException e) {
+                    throw new IllegalStateException(e);
+                }
+                return executions.incrementAndGet();
+            }));
+        assertTrue(running.await(10, TimeUnit.SECONDS));
+
+        // the only slot is taken by a running request, so a new key must not push it out
+        assertThrows(TooManyRequestsException.class, () ->
+            idempotencyService.execute("test", "other", "request", executions::incrementAndGet));
+
+        CompletableFuture<Integer> retry = CompletableFuture.supplyAsync(() ->
+            idempotencyService.execute("test", "running", "request", executions::incrementAndGet));
+        Thread.sleep(100);
+        assertFalse(retry.isDone());
+
+        release.countDown();
+        assertEquals(1, original.get(10, TimeUnit.SECONDS));
+        assertEquals(1, retry.get(10, TimeUnit.SECONDS));
+        assertEquals(1, executions.get());
+
+        // once completed, the key may be evicted for a new one
+        assertEquals(2, idempotencyService.execute("test", "other", "request", executions::incrementAndGet));
+    }
+}
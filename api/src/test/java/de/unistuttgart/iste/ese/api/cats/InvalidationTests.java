@@ -0,0 +1,148 @@
+package de.unistuttgart.iste.ese.api.cats;
+
+import de.unistuttgart.iste.ese.api.Application;
+import de.unistuttgart.iste.ese.api.Models.Assignee;
+import de.unistuttgart.iste.ese.api.Models.Todo;
+import de.unistuttgart.iste.ese.api.Services.AssigneeService;
+import de.unistuttgart.iste.ese.api.Services.AssigneeSuggestService;
+import de.unistuttgart.iste.ese.api.Services.AssigneeTodoIndex;
+import de.unistuttgart.iste.ese.api.Services.ChangeTableTransport;
+import de.unistuttgart.iste.ese.api.Services.TodoChangeListener;
+import de.unistuttgart.iste.ese.api.Services.TodoService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.test.util.AopTestUtils;
+
+import java.util.Date;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+
+import static de.unistuttgart.iste.ese.api.cats.TestData.todoRequest;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs a second instance against the same in-memory database and checks that its writes reach the read models
+ * of the instance under test through the change table.
+ */
+@SpringBootTest(properties = {
+    "app.invalidation.transport=table",
+    "app.invalidation.table.poll-interval=PT0.1S",
+    "app.assignee-index.enabled=true"
+})
+public class InvalidationTests {
+
+    private static final String POISONED_TITLE = "Cannot be applied";
+
+    @TestConfiguration
+    static class FailingListenerConfig {
+
+        // fails to apply one todo, like a listener hitting a conflict
+        @Bean
+        public TodoChangeListener failingListener() {
+            return new TodoChangeListener() {
+                @Override
+                public void todoSaved(Todo todo) {
+                    if (POISONED_TITLE.equals(todo.getTitle())) {
+                        throw new IllegalStateException("poisoned todo " + todo.getId());
+                    }
+                }
+
+                @Override
+                public void todoDeleted(long id) {
+                }
+            };
+        }
+    }
+
+    @Autowired
+    private AssigneeSuggestService assigneeSuggestService;
+
+    @Autowired
+    private ChangeTableTransport changeTableTransport;
+
+    @Autowired
+    private AssigneeTodoIndex assigneeTodoIndex;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    // started after the instance under test, which creates the schema
+    private static ConfigurableApplicationContext startPeer() {
+        return new SpringApplicationBuilder(Application.class)
+            .web(WebApplicationType.NONE)
+            // arguments, as default properties would be overridden by application.properties
+            .run("--spring.jpa.hibernate.ddl-auto=none",
+                "--app.invalidation.transport=table",
+                "--app.invalidation.table.poll-interval=PT0.1S",
+                "--app.assignee-index.enabled=true");
+    }
+
+    private static void awaitTrue(BooleanSupplier condition, String message) throws InterruptedException {
+        long deadline = System.nanoTime() + 5_000_000_000L;
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, message);
+            Thread.sleep(50);
+        }
+    }
+
+    private static Date tomorrow() {
+        return new Date(System.currentTimeMillis() + 24 * 3600 * 1000L);
+    }
+
+    private boolean isSuggested(String prefix, long id) {
+        return assigneeSuggestService.suggest(prefix, 10).stream().anyMatch(assignee -> assignee.getId() == id);
+    }
+
+    @Test
+    @DisplayName("Expect assignees and todos written by a peer to be applied to the local read models")
+    void testPeerWritesAreApplied() throws InterruptedException {
+        try (ConfigurableApplicationContext peer = startPeer()) {
+            AssigneeService peerAssignees = peer.getBean(AssigneeService.class);
+            TodoService peerTodos = peer.getBean(TodoService.class);
+
+            long id = peerAssignees.createAssignee(new Assignee("Busy", "Peerwriter", "peerwriter@uni-stuttgart.de")).getId();
+            awaitTrue(() -> isSuggested("peerwri", id), "created assignee not applied");
+
+            long todoId = peerTodos.createTodo(todoRequest("Written elsewhere", tomorrow(), id)).getId();
+            awaitTrue(() -> assigneeTodoIndex.findTodoIds(id, 0, 10).equals(List.of(todoId)), "created todo not applied");
+
+            peerAssignees.deleteAssignee(id);
+            awaitTrue(() -> !isSuggested("peerwri", id), "deleted assignee not applied");
+            awaitTrue(() -> assigneeTodoIndex.countTodos(id) == 0, "unassigned todo not applied");
+        }
+
+        assertTrue(meterRegistry.get("todo.invalidation.delay").timer().count() >= 3);
+    }
+
+    @Test
+    @DisplayName("Expect a change that fails to apply not to drop the other changes of the same poll")
+    void testFailingChangeIsIsolated() throws InterruptedException {
+        try (ConfigurableApplicationContext peer = startPeer()) {
+            AssigneeService peerAssignees = peer.getBean(AssigneeService.class);
+            TodoService peerTodos = peer.getBean(TodoService.class);
+            long id = peerAssignees.createAssignee(new Assignee("Busy", "Isolated", "isolated@uni-stuttgart.de")).getId();
+            awaitTrue(() -> isSuggested("isolat", id), "created assignee not applied");
+
+            // holding the poll lock makes the next poll read all three changes at once
+            long before;
+            long poisoned;
+            long after;
+            synchronized (AopTestUtils.<ChangeTableTransport>getTargetObject(changeTableTransport)) {
+                before = peerTodos.createTodo(todoRequest("Applied before", tomorrow(), id)).getId();
+                poisoned = peerTodos.createTodo(todoRequest(POISONED_TITLE, tomorrow(), id)).getId();
+                after = peerTodos.createTodo(todoRequest("Applied after", tomorrow(), id)).getId();
+            }
+            awaitTrue(() -> assigneeTodoIndex.findTodoIds(id, 0, 10).containsAll(List.of(before, after)),
+                "changes next to the failing one not applied");
+            assertFalse(assigneeTodoIndex.findTodoIds(id, 0, 10).contains(poisoned));
+        }
+    }
+}
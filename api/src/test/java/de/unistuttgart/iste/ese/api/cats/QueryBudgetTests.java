@@ -0,0 +1,98 @@
+package de.unistuttgart.iste.ese.api.cats;
+
+import de.unistuttgart.iste.ese.api.DTOs.RequestDTO;
+import de.unistuttgart.iste.ese.api.Interceptors.QueryBudgetExceededException;
+import de.unistuttgart.iste.ese.api.Interceptors.RequestQueryStats;
+import de.unistuttgart.iste.ese.api.Models.Assignee;
+import de.unistuttgart.iste.ese.api.Services.AssigneeService;
+import de.unistuttgart.iste.ese.api.Services.TodoService;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+public class QueryBudgetTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private TodoService todoService;
+
+    @Autowired
+    private AssigneeService assigneeService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private void createTodos(int count, List<Long> assigneeIds) {
+        for (int i = 0; i < count; i++) {
+            RequestDTO request = new RequestDTO();
+            request.setTitle("Budget todo " + i);
+            request.setDueDate(new Date(System.currentTimeMillis() + 24 * 3600 * 1000L));
+            request.setAssigneeIdList(assigneeIds);
+            todoService.createTodo(request);
+        }
+    }
+
+    private double maxStatements(String method, String uri) {
+        DistributionSummary summary = meterRegistry.find("hibernate.request.statements")
+            .tag("method", method).tag("uri", uri).summary();
+        assertNotNull(summary);
+        return summary.max();
+    }
+
+    @Test
+    @DisplayName("Expect listing todos to take the same number of statements for any number of todos and assignees")
+    void testListingIsNotNPlusOne() throws Exception {
+        long first = assigneeService.createAssignee(new Assignee("Test", "budgetone", "budgetone@uni-stuttgart.de")).getId();
+        long second = assigneeService.createAssignee(new Assignee("Test", "budgettwo", "budgettwo@uni-stuttgart.de")).getId();
+        createTodos(25, List.of(first, second));
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/todos")).andExpect(status().isOk());
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/todos/search").param("assigneeId", String.valueOf(first)))
+            .andExpect(status().isOk());
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/assignees/" + first + "/todos").param("size", "50"))
+            .andExpect(status().isOk());
+
+        assertTrue(maxStatements("GET", "/api/v1/todos") <= 3);
+        assertTrue(maxStatements("GET", "/api/v1/todos/search") <= 3);
+        assertTrue(maxStatements("GET", "/api/v1/assignees/{id}/todos") <= 5);
+    }
+
+    @Test
+    @DisplayName("Expect the first statement over the budget to fail in fail mode")
+    void testBudgetExceeded() {
+        createTodos(1, List.of());
+        RequestQueryStats.begin("test", 3, true);
+        try {
+            todoService.getAllTodos();
+            // a call takes one or two statements, depending on whether the labels come from the second-level cache
+            Exception exception = assertThrows(Exception.class, () -> {
+                for (int i = 0; i < 3; i++) {
+                    todoService.getAllTodos();
+                }
+            });
+            Throwable cause = exception;
+            while (cause != null && !(cause instanceof QueryBudgetExceededException)) {
+                cause = cause.getCause();
+            }
+            assertNotNull(cause, exception.toString());
+        } finally {
+            RequestQueryStats.end();
+        }
+    }
+}
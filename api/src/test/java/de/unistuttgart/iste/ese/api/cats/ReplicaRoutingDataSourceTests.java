@@ -0,0 +1,78 @@
+package de.unistuttgart.iste.ese.api.cats;
+
+import de.unistuttgart.iste.ese.api.Config.ReplicaRoutingDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+
+import static org.mockito.Mockito.*;
+
+public class ReplicaRoutingDataSourceTests {
+
+    private DataSource primary;
+    private DataSource replica;
+    private ReplicaRoutingDataSource routingDataSource;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        primary = Mockito.mock(DataSource.class);
+        replica = Mockito.mock(DataSource.class);
+        when(primary.getConnection()).thenReturn(Mockito.mock(Connection.class));
+        when(replica.getConnection()).thenReturn(Mockito.mock(Connection.class));
+
+        routingDataSource = new ReplicaRoutingDataSource(primary, List.of(replica), Duration.ofMinutes(1), Duration.ofSeconds(10));
+        routingDataSource.afterPropertiesSet();
+    }
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+        ReplicaRoutingDataSource.setCurrentClient(null);
+    }
+
+    @Test
+    @DisplayName("Expect read-only transactions on the replica and writes on the primary")
+    void testRoutingByReadOnlyFlag() throws SQLException {
+        routingDataSource.getConnection();
+        verify(primary, times(1)).getConnection();
+
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        routingDataSource.getConnection();
+        verify(replica, times(1)).getConnection();
+    }
+
+    @Test
+    @DisplayName("Expect reads of a client that just wrote to stay on the primary")
+    void testReadYourWrites() throws SQLException {
+        routingDataSource.recordWrite("client-a");
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        ReplicaRoutingDataSource.setCurrentClient("client-a");
+        routingDataSource.getConnection();
+        verify(primary, times(1)).getConnection();
+
+        ReplicaRoutingDataSource.setCurrentClient("client-b");
+        routingDataSource.getConnection();
+        verify(replica, times(1)).getConnection();
+    }
+
+    @Test
+    @DisplayName("Expect an unreachable replica to be taken out of rotation")
+    void testUnhealthyReplica() throws SQLException {
+        when(replica.getConnection()).thenThrow(new SQLException("down"));
+        routingDataSource.checkReplicaHealth();
+
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        routingDataSource.getConnection();
+        verify(primary, times(1)).getConnection();
+    }
+}
@@ -0,0 +1,163 @@
+package de.unistuttgart.iste.ese.api.cats;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.unistuttgart.iste.ese.api.Config.ShardRoutingDataSource;
+import de.unistuttgart.iste.ese.api.Config.ShardingEndpoint;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.request.RequestPostProcessor;
+
+import java.util.List;
+import java.util.Map;
+
+import static de.unistuttgart.iste.ese.api.cats.TestData.createAssignee;
+import static de.unistuttgart.iste.ese.api.cats.TestData.createTodo;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+    "app.sharding.enabled=true",
+    "app.sharding.shards[0].name=shard-a",
+    "app.sharding.shards[0].url=jdbc:h2:mem:shard_a;DB_CLOSE_DELAY=-1",
+    "app.sharding.shards[1].name=shard-b",
+    "app.sharding.shards[1].url=jdbc:h2:mem:shard_b;DB_CLOSE_DELAY=-1",
+    "app.sharding.move-drain-timeout=PT2S",
+    "app.due-dates.enabled=false"
+})
+@AutoConfigureMockMvc
+public class ShardingTests {
+
+    private static final String TENANT_HEADER = "X-Tenant-Id";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ShardRoutingDataSource routingDataSource;
+
+    @Autowired
+    private ShardingEndpoint shardingEndpoint;
+
+    private JsonNode get(String tenant, String path) throws Exception {
+        String response = mockMvc.perform(MockMvcRequestBuilders.get("/api/v1" + path).header(TENANT_HEADER, tenant))
+            .andExpect(status().isOk())
+            .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(response);
+    }
+
+    private static RequestPostProcessor withTenant(String tenant) {
+        return request -> {
+            request.addHeader(TENANT_HEADER, tenant);
+            return request;
+        };
+    }
+
+    private int countRows(String shard, String tenant) {
+        return new JdbcTemplate(routingDataSource.getShard(shard))
+            .queryForObject("select count(*) from todo where tenant = ?", Integer.class, tenant);
+    }
+
+    private String otherShard(String shard) {
+        return shard.equals("shard-a") ? "shard-b" : "shard-a";
+    }
+
+    // the first of the candidates that the ring puts on the given shard
+    private String tenantOn(String shard, String... candidates) {
+        for (String tenant : candidates) {
+            if (routingDataSource.shardOf(tenant).equals(shard)) {
+                return tenant;
+            }
+        }
+        throw new AssertionError("No candidate on " + shard);
+    }
+
+    @Test
+    @DisplayName("Expect every tenant to only see its own todos and assignees, stored on its shard")
+    void testTenantsAreIsolatedAndRouted() throws Exception {
+        String alpha = tenantOn("shard-a", "acme", "globex", "initech", "umbrella", "hooli", "stark", "wayne");
+        String beta = tenantOn("shard-b", "acme", "globex", "initech", "umbrella", "hooli", "stark", "wayne");
+
+        long assignee = createAssignee(mockMvc, withTenant(alpha), "isolatedalpha");
+        createTodo(mockMvc, withTenant(alpha), "Alpha only", null, assignee);
+        createTodo(mockMvc, withTenant(beta), "Beta only", null);
+
+        assertEquals(1, countRows("shard-a", alpha));
+        assertEquals(0, countRows("shard-b", alpha));
+        assertEquals(1, countRows("shard-b", beta));
+
+        List<String> betaTitles = get(beta, "/todos").findValuesAsText("title");
+        assertTrue(betaTitles.contains("Beta only"), betaTitles.toString());
+        assertFalse(betaTitles.contains("Alpha only"), betaTitles.toString());
+        assertEquals(1, get(alpha, "/assignees/suggest?prefix=isolatedal").size());
+        assertEquals(0, get(beta, "/assignees/suggest?prefix=isolatedal").size());
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/todos").header(TENANT_HEADER, "Not a tenant"))
+            .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @DisplayName("Expect a moved tenant to keep its todos and IDs on the new shard and to be removed from the old one")
+    void testMoveTenant() throws Exception {
+        String tenant = "moving-tenant";
+        String source = routingDataSource.shardOf(tenant);
+        String target = otherShard(source);
+        // like auto_increment_offset on MariaDB, so that the moved IDs are free on the target shard
+        JdbcTemplate sourceShard = new JdbcTemplate(routingDataSource.getShard(source));
+        sourceShard.execute("alter table assignees alter column id restart with 1000000");
+        sourceShard.execute("alter table todo alter column id restart with 1000000");
+
+        long assignee = createAssignee(mockMvc, withTenant(tenant), "movingassignee");
+        long todo = createTodo(mockMvc, withTenant(tenant), "Move me", null, assignee);
+
+        WebEndpointResponse<Map<String, Object>> response = shardingEndpoint.move(tenant, target);
+        assertEquals(200, response.getStatus(), response.getBody().toString());
+        assertEquals(target, routingDataSource.shardOf(tenant));
+        assertEquals(Map.of(tenant, target), routingDataSource.getPlacements());
+        assertEquals(0, countRows(source, tenant));
+        assertEquals(1, countRows(target, tenant));
+
+        JsonNode moved = get(tenant, "/todos/" + todo);
+        assertEquals("Move me", moved.get("title").asText());
+        assertEquals(assignee, moved.get("assigneeList").get(0).get("id").asLong());
+        createTodo(mockMvc, withTenant(tenant), "Written after the move", null, assignee);
+        assertEquals(2, countRows(target, tenant));
+
+        assertEquals(409, shardingEndpoint.move(tenant, target).getStatus());
+        assertEquals(400, shardingEndpoint.move(tenant, "shard-c").getStatus());
+    }
+
+    @Test
+    @DisplayName("Expect a move to wait for the other instances and to keep the tenant if one does not finish its writes")
+    void testMoveWaitsForOtherInstances() throws Exception {
+        String tenant = "waiting-tenant";
+        String source = routingDataSource.shardOf(tenant);
+        createTodo(mockMvc, withTenant(tenant), "Stay here", null);
+
+        // another live instance that never applies the move, e.g. because a write of the tenant is still running
+        JdbcTemplate directory = new JdbcTemplate(routingDataSource.getShard("shard-a"));
+        directory.update("insert into shard_instances (instance_id, heartbeat, applied_version) values (?, ?, 0)",
+            "other-instance", System.currentTimeMillis());
+        try {
+            assertEquals(409, shardingEndpoint.move(tenant, otherShard(source)).getStatus());
+        } finally {
+            directory.update("delete from shard_instances where instance_id = ?", "other-instance");
+        }
+
+        assertEquals(source, routingDataSource.shardOf(tenant));
+        assertEquals(1, countRows(source, tenant));
+        assertEquals(0, countRows(otherShard(source), tenant));
+        // the move was given up, so the tenant accepts writes again
+        createTodo(mockMvc, withTenant(tenant), "Written after the given up move", null);
+    }
+}
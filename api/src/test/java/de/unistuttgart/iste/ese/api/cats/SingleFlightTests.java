@@ -0,0 +1,63 @@
+package de.unistuttgart.iste.ese.api.cats;
+
+import de.unistuttgart.iste.ese.api.Utils.SingleFlight;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SingleFlightTests {
+
+    @Test
+    @DisplayName("Expect concurrent callers with the same key to share one computation")
+    void testCoalescing() throws Exception {
+        SingleFlight<String, Integer> singleFlight = new SingleFlight<>(0);
+        AtomicInteger computations = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+
+        List<Future<Integer>> results = new ArrayList<>();
+        try (ExecutorService executor = Executors.newFixedThreadPool(8)) {
+            for (int i = 0; i < 8; i++) {
+                results.add(executor.submit(() -> singleFlight.execute("todos", () -> {
+                    computations.incrementAndGet();
+                    try {
+                        release.await(5, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return 42;
+                })));
+            }
+            Thread.sleep(200);
+            release.countDown();
+            for (Future<Integer> result : results) {
+                assertEquals(42, result.get());
+            }
+        }
+        assertEquals(1, computations.get());
+    }
+
+    @Test
+    @DisplayName("Expect kept results to be reused until they are invalidated")
+    void testResultTtl() {
+        SingleFlight<String, Integer> singleFlight = new SingleFlight<>(TimeUnit.MINUTES.toNanos(1));
+        AtomicInteger computations = new AtomicInteger();
+
+        singleFlight.execute("todos", computations::incrementAndGet);
+        singleFlight.execute("todos", computations::incrementAndGet);
+        assertEquals(1, computations.get());
+
+        singleFlight.invalidateAll();
+        singleFlight.execute("todos", computations::incrementAndGet);
+        assertEquals(2, computations.get());
+    }
+}
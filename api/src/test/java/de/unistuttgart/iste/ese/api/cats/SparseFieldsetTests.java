@@ -0,0 +1,108 @@
+package de.unistuttgart.iste.ese.api.cats;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.unistuttgart.iste.ese.api.DTOs.RequestDTO;
+import de.unistuttgart.iste.ese.api.Models.Assignee;
+import de.unistuttgart.iste.ese.api.Services.AssigneeService;
+import de.unistuttgart.iste.ese.api.Services.TodoService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+public class SparseFieldsetTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private TodoService todoService;
+
+    @Autowired
+    private AssigneeService assigneeService;
+
+    private JsonNode get(String query) throws Exception {
+        return objectMapper.readTree(mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/todos" + query))
+            .andExpect(status().isOk())
+            .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8));
+    }
+
+    private static Map<Long, JsonNode> byId(JsonNode list) {
+        Map<Long, JsonNode> todos = new HashMap<>();
+        list.forEach(todo -> todos.put(todo.get("id").asLong(), todo));
+        return todos;
+    }
+
+    @Test
+    @DisplayName("Expect only the requested fields, the assignees only if included, and the same values as the full list")
+    void testSparseFieldsMatchFullList() throws Exception {
+        long sparse = assigneeService.createAssignee(new Assignee("Test", "sparse", "sparse@uni-stuttgart.de")).getId();
+        RequestDTO request = new RequestDTO();
+        request.setTitle("Sparse todo");
+        request.setDescription("Only some fields");
+        request.setDueDate(new Date(System.currentTimeMillis() + 24 * 3600 * 1000L));
+        request.setAssigneeIdList(List.of(sparse));
+        long id = todoService.createTodo(request).getId();
+
+        JsonNode titles = byId(get("?fields=title,dueDate")).get(id);
+        assertEquals(List.of("id", "title", "dueDate"), fieldNames(titles));
+
+        JsonNode full = byId(get("")).get(id);
+        assertEquals(full.get("title"), titles.get("title"));
+        assertEquals(full.get("dueDate"), titles.get("dueDate"));
+
+        JsonNode withAssignees = byId(get("?include=assignees")).get(id);
+        for (String field : List.of("id", "title", "description", "finished", "createdDate", "dueDate", "finishedDate",
+            "category", "version")) {
+            assertEquals(full.get(field), withAssignees.get(field), field);
+        }
+        assertEquals(full.get("labels"), withAssignees.get("labels"));
+        assertEquals(1, withAssignees.get("assigneeList").size());
+        assertEquals(sparse, withAssignees.get("assigneeList").get(0).get("id").asLong());
+        assertEquals("sparse@uni-stuttgart.de", withAssignees.get("assigneeList").get(0).get("email").asText());
+
+        // todos without labels have an empty labels object, as in the full list
+        JsonNode labelsList = get("?fields=title,labels");
+        labelsList.forEach(todo -> assertTrue(todo.path("labels").isObject(), todo.toString()));
+        Map<Long, JsonNode> fullById = byId(get(""));
+        byId(labelsList).forEach((todoId, todo) -> assertEquals(fullById.get(todoId).get("labels"), todo.get("labels")));
+
+        JsonNode withoutAssignees = byId(get("?fields=id,finished")).get(id);
+        assertFalse(withoutAssignees.has("assigneeList"));
+        assertFalse(withoutAssignees.get("finished").asBoolean());
+    }
+
+    @Test
+    @DisplayName("Expect unknown fields and relations to be rejected with 400")
+    void testUnknownFieldsAreRejected() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/todos").param("fields", "title,tenant"))
+            .andExpect(status().isBadRequest());
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/todos").param("include", "owner"))
+            .andExpect(status().isBadRequest());
+    }
+
+    private static List<String> fieldNames(JsonNode node) {
+        List<String> names = new ArrayList<>();
+        node.fieldNames().forEachRemaining(names::add);
+        return names;
+    }
+}
@@ -0,0 +1,131 @@
+package de.unistuttgart.iste.ese.api.cats;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import de.unistuttgart.iste.ese.api.DTOs.RequestDTO;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.request.RequestPostProcessor;
+
+import java.time.LocalDate;
+import java.util.Date;
+import java.util.List;
+
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Creates assignees and todos for the tests, either through the REST API or as requests for the services.
+ */
+final class TestData {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private TestData() {
+    }
+
+    /**
+     * Creates an assignee through the API.
+     *
+     * @param mockMvc the client.
+     * @param name the name, also used for the email address.
+     * @return the ID of the new assignee.
+     * @throws Exception if the request fails or is not answered with 201.
+     */
+    static long createAssignee(MockMvc mockMvc, String name) throws Exception {
+        return createAssignee(mockMvc, request -> request, name);
+    }
+
+    /**
+     * Creates an assignee through the API.
+     *
+     * @param mockMvc the client.
+     * @param customizer adjusts the request, e.g. to add a tenant header.
+     * @param name the name, also used for the email address.
+     * @return the ID of the new assignee.
+     * @throws Exception if the request fails or is not answered with 201.
+     */
+    static long createAssignee(MockMvc mockMvc, RequestPostProcessor customizer, String name) throws Exception {
+        ObjectNode json = OBJECT_MAPPER.createObjectNode()
+            .put("prename", "Test")
+            .put("name", name)
+            .put("email", name + "@uni-stuttgart.de");
+        return post(mockMvc, customizer, "/api/v1/assignees", json);
+    }
+
+    /**
+     * Creates a todo due in a week through the API.
+     *
+     * @param mockMvc the client.
+     * @param title the title.
+     * @param assigneeIds the IDs of the assignees.
+     * @return the ID of the new todo.
+     * @throws Exception if the request fails or is not answered with 201.
+     */
+    static long createTodo(MockMvc mockMvc, String title, long... assigneeIds) throws Exception {
+        return createTodo(mockMvc, request -> request, title, "d", assigneeIds);
+    }
+
+    /**
+     * Creates a todo without assignees due in a week through the API.
+     *
+     * @param mockMvc the client.
+     * @param title the title.
+     * @param description the description, may be null.
+     * @return the ID of the new todo.
+     * @throws Exception if the request fails or is not answered with 201.
+     */
+    static long createTodo(MockMvc mockMvc, String title, String description) throws Exception {
+        return createTodo(mockMvc, request -> request, title, description);
+    }
+
+    /**
+     * Creates a todo due in a week through the API.
+     *
+     * @param mockMvc the client.
+     * @param customizer adjusts the request, e.g. to add a tenant header.
+     * @param title the title.
+     * @param description the description, may be null.
+     * @param assigneeIds the IDs of the assignees.
+     * @return the ID of the new todo.
+     * @throws Exception if the request fails or is not answered with 201.
+     */
+    static long createTodo(MockMvc mockMvc, RequestPostProcessor customizer, String title, String description,
+                           long... assigneeIds) throws Exception {
+        ObjectNode json = OBJECT_MAPPER.createObjectNode()
+            .put("title", title)
+            .put("description", description)
+            .put("dueDate", LocalDate.now().plusDays(7).toString());
+        ArrayNode assignees = json.putArray("assigneeIdList");
+        for (long assigneeId : assigneeIds) {
+            assignees.add(assigneeId);
+        }
+        return post(mockMvc, customizer, "/api/v1/todos", json);
+    }
+
+    /**
+     * Builds a create request for {@link de.unistuttgart.iste.ese.api.Services.TodoService#createTodo}.
+     *
+     * @param title the title.
+     * @param dueDate the due date.
+     * @param assigneeIds the IDs of the assignees.
+     * @return the request.
+     */
+    static RequestDTO todoRequest(String title, Date dueDate, Long... assigneeIds) {
+        RequestDTO request = new RequestDTO();
+        request.setTitle(title);
+        request.setDueDate(dueDate);
+        request.setAssigneeIdList(List.of(assigneeIds));
+        return request;
+    }
+
+    private static long post(MockMvc mockMvc, RequestPostProcessor customizer, String path, ObjectNode json)
+        throws Exception {
+        String response = mockMvc.perform(MockMvcRequestBuilders.post(path).with(customizer)
+                .contentType(MediaType.APPLICATION_JSON).content(json.toString()))
+            .andExpect(status().isCreated())
+            .andReturn().getResponse().getContentAsString();
+        return OBJECT_MAPPER.readTree(response).get("id").asLong();
+    }
+}
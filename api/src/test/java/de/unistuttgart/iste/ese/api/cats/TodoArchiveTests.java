@@ -0,0 +1,97 @@
+package de.unistuttgart.iste.ese.api.cats;
+
+import de.unistuttgart.iste.ese.api.DTOs.PatchDTO;
+import de.unistuttgart.iste.ese.api.DTOs.ResponseDTO;
+import de.unistuttgart.iste.ese.api.Models.Assignee;
+import de.unistuttgart.iste.ese.api.Services.AssigneeService;
+import de.unistuttgart.iste.ese.api.Services.TodoArchiveService;
+import de.unistuttgart.iste.ese.api.Services.TodoService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import java.util.Date;
+import java.util.List;
+
+import static de.unistuttgart.iste.ese.api.cats.TestData.todoRequest;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.not;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest(properties = {"app.assignee-index.enabled=true", "app.archive.batch-size=2"})
+@AutoConfigureMockMvc
+public class TodoArchiveTests {
+
+    private static final long DAY = 24 * 3600 * 1000L;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private TodoService todoService;
+
+    @Autowired
+    private AssigneeService assigneeService;
+
+    @Autowired
+    private TodoArchiveService todoArchiveService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private long createTodo(String title, boolean finished, long finishedDaysAgo, Long... assigneeIds) {
+        long id = todoService.createTodo(todoRequest(title, new Date(System.currentTimeMillis() + DAY), assigneeIds)).getId();
+        if (finished) {
+            PatchDTO patch = new PatchDTO();
+            patch.setFinished(true);
+            todoService.patchTodo(id, patch, null);
+            jdbcTemplate.update("update todo set finished_date = ? where id = ?",
+                new Date(System.currentTimeMillis() - finishedDaysAgo * DAY), id);
+        }
+        return id;
+    }
+
+    @Test
+    @DisplayName("Expect todos finished before the cutoff to move to the archive in batches and leave the working set")
+    void testArchiveFinishedTodos() throws Exception {
+        long erin = assigneeService.createAssignee(new Assignee("Test", "archiveerin", "archiveerin@uni-stuttgart.de")).getId();
+        long first = createTodo("Archived tax return", true, 60, erin);
+        long second = createTodo("Archived car wash", true, 45);
+        long third = createTodo("Archived garden", true, 40, erin);
+        long recent = createTodo("Recently finished", true, 1, erin);
+        long open = createTodo("Still open", false, 0, erin);
+
+        assertEquals(3, todoArchiveService.archiveFinishedBefore(new Date(System.currentTimeMillis() - 30 * DAY)));
+
+        List<Long> workingSet = todoService.getAllTodos().stream().map(ResponseDTO::getId).toList();
+        assertFalse(workingSet.contains(first) || workingSet.contains(second) || workingSet.contains(third), workingSet.toString());
+        assertTrue(workingSet.containsAll(List.of(recent, open)), workingSet.toString());
+        assertEquals(List.of(recent, open), todoService.getTodosOfAssignee(erin, 0, 100).map(ResponseDTO::getId).getContent());
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/todos/" + first)).andExpect(status().isNotFound());
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/archive/todos/" + first))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.title").value("Archived tax return"))
+            .andExpect(jsonPath("$.finished").value(true))
+            .andExpect(jsonPath("$.assigneeList[0].id").value(erin));
+        // the most recently finished first
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/archive/todos").param("size", "2"))
+            .andExpect(status().isOk())
+            .andExpect(header().string("X-Total-Count", "3"))
+            .andExpect(jsonPath("$[0].id").value(third))
+            .andExpect(jsonPath("$[1].id").value(second));
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/csv-downloads/archive/todos"))
+            .andExpect(status().isOk())
+            .andExpect(content().string(containsString(first + ",Archived tax return,")))
+            .andExpect(content().string(not(containsString("Still open"))));
+
+        assigneeService.deleteAssignee(erin);
+        assertTrue(todoArchiveService.getArchivedTodo(first).getAssigneeList().isEmpty());
+    }
+}
@@ -0,0 +1,109 @@
+package de.unistuttgart.iste.ese.api.cats;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+
+import java.time.LocalDate;
+
+import static de.unistuttgart.iste.ese.api.cats.TestData.createAssignee;
+import static de.unistuttgart.iste.ese.api.cats.TestData.createTodo;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+public class TodoControllerTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    @DisplayName("Expect JSON by default and a compact CBOR list with an assignee side table on request")
+    void testContentNegotiation() throws Exception {
+        long assigneeId = createAssignee(mockMvc, "wire");
+        createTodo(mockMvc, "Prepare budget meeting", assigneeId);
+        createTodo(mockMvc, "Review quarterly report", assigneeId);
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/todos"))
+            .andExpect(status().isOk())
+            .andExpect(MockMvcResultMatchers.content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+            .andExpect(MockMvcResultMatchers.jsonPath("$[0].assigneeList").isArray());
+
+        byte[] cbor = mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/todos").accept("application/cbor"))
+            .andExpect(status().isOk())
+            .andReturn().getResponse().getContentAsByteArray();
+        JsonNode compact = new CBORMapper().readTree(cbor);
+        long referencing = 0;
+        for (JsonNode todo : compact.get("todos")) {
+            for (JsonNode id : todo.get("assigneeIds")) {
+                if (id.asLong() == assigneeId) referencing++;
+            }
+        }
+        long listed = 0;
+        for (JsonNode assignee : compact.get("assignees")) {
+            if (assignee.get("id").asLong() == assigneeId) listed++;
+        }
+        assertEquals(2, referencing);
+        assertEquals(1, listed);
+    }
+
+    @Test
+    @DisplayName("Expect a retry with the same Idempotency-Key to return the first result without creating a duplicate")
+    void testIdempotentCreate() throws Exception {
+        String json = String.format("{\"title\":\"Idempotent todo\",\"assigneeIdList\":[],\"dueDate\":\"%s\"}",
+            LocalDate.now().plusDays(3));
+
+        String first = mockMvc.perform(MockMvcRequestBuilders.post("/api/v1/todos").header("Idempotency-Key", "retry-1")
+                .contentType(MediaType.APPLICATION_JSON).content(json))
+            .andExpect(status().isCreated())
+            .andReturn().getResponse().getContentAsString();
+        String retry = mockMvc.perform(MockMvcRequestBuilders.post("/api/v1/todos").header("Idempotency-Key", "retry-1")
+                .contentType(MediaType.APPLICATION_JSON).content(json))
+            .andExpect(status().isCreated())
+            .andReturn().getResponse().getContentAsString();
+
+        ObjectMapper objectMapper = new ObjectMapper();
+        assertEquals(objectMapper.readTree(first).get("id"), objectMapper.readTree(retry).get("id"));
+
+        mockMvc.perform(MockMvcRequestBuilders.post("/api/v1/todos").header("Idempotency-Key", "retry-1")
+                .contentType(MediaType.APPLICATION_JSON).content(json.replace("Idempotent", "Other")))
+            .andExpect(status().isUnprocessableEntity());
+    }
+
+    @Test
+    @DisplayName("Expect a stale If-Match to be rejected with the current state and a patch to keep other fields")
+    void testOptimisticLocking() throws Exception {
+        long todoId = createTodo(mockMvc, "Book conference room");
+
+        String etag = mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/todos/" + todoId))
+            .andExpect(status().isOk())
+            .andReturn().getResponse().getHeader("ETag");
+        assertNotNull(etag);
+
+        mockMvc.perform(MockMvcRequestBuilders.patch("/api/v1/todos/" + todoId).header("If-Match", etag)
+                .contentType(MediaType.APPLICATION_JSON).content("{\"description\":\"first\"}"))
+            .andExpect(status().isOk())
+            .andExpect(MockMvcResultMatchers.jsonPath("$.title").value("Book conference room"));
+
+        mockMvc.perform(MockMvcRequestBuilders.patch("/api/v1/todos/" + todoId).header("If-Match", etag)
+                .contentType(MediaType.APPLICATION_JSON).content("{\"description\":\"second\"}"))
+            .andExpect(status().isConflict())
+            .andExpect(MockMvcResultMatchers.jsonPath("$.description").value("first"));
+
+        mockMvc.perform(MockMvcRequestBuilders.patch("/api/v1/todos/" + todoId)
+                .contentType(MediaType.APPLICATION_JSON).content("{\"finished\":true}"))
+            .andExpect(status().isOk())
+            .andExpect(MockMvcResultMatchers.jsonPath("$.description").value("first"))
+            .andExpect(MockMvcResultMatchers.jsonPath("$.finished").value(true));
+    }
+}
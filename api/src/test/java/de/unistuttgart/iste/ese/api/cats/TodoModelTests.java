@@ -0,0 +1,41 @@
+package de.unistuttgart.iste.ese.api.cats;
+
+import de.unistuttgart.iste.ese.api.Models.ClassificationPipeline;
+import de.unistuttgart.iste.ese.api.Models.TodoModel;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TodoModelTests {
+
+    @Test
+    @DisplayName("Expect the bundled model to resolve its labels and predict one of them")
+    void testPredictClass() {
+        TodoModel model = new TodoModel("model.pmml");
+
+        assertEquals("work", model.predictClass("Prepare the annual budget meeting"));
+        assertTrue(List.of("private", "work").contains(model.predictClass("Buy a birthday present")));
+    }
+
+    @Test
+    @DisplayName("Expect every model of a pipeline to be scored once")
+    void testPipeline() {
+        ClassificationPipeline pipeline = ClassificationPipeline.fromSpecification("category=model.pmml, other=model.pmml");
+
+        Map<String, String> labels = pipeline.classify("Prepare the annual budget meeting");
+
+        assertEquals(2, labels.size());
+        assertEquals(labels.get("category"), labels.get("other"));
+        assertEquals(labels.get("category"), pipeline.predictCategory("Prepare the annual budget meeting"));
+    }
+
+    @Test
+    @DisplayName("Expect a malformed model specification to be rejected")
+    void testInvalidSpecification() {
+        assertThrows(IllegalArgumentException.class, () -> ClassificationPipeline.fromSpecification("category"));
+    }
+}
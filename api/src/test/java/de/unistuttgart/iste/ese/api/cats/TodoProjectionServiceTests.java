@@ -0,0 +1,37 @@
+package de.unistuttgart.iste.ese.api.cats;
+
+import de.unistuttgart.iste.ese.api.Models.TodoProjection;
+import de.unistuttgart.iste.ese.api.Services.TodoProjectionService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import static de.unistuttgart.iste.ese.api.cats.TestData.createTodo;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "app.projection.enabled = true")
+@AutoConfigureMockMvc
+public class TodoProjectionServiceTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private TodoProjectionService todoProjectionService;
+
+    @Test
+    @DisplayName("Expect a deleted todo to leave the projection without keeping a tombstone when no write is pending")
+    void testTombstonesArePruned() throws Exception {
+        long id = createTodo(mockMvc, "Short-lived todo");
+        assertTrue(todoProjectionService.read(projection -> projection.contains(id), false));
+
+        mockMvc.perform(MockMvcRequestBuilders.delete("/api/v1/todos/" + id)).andExpect(status().isOk());
+        assertFalse(todoProjectionService.read(projection -> projection.contains(id), true));
+        assertEquals(0, todoProjectionService.read(TodoProjection::tombstones, -1));
+    }
+}
@@ -0,0 +1,130 @@
+package de.unistuttgart.iste.ese.api.cats;
+
+import de.unistuttgart.iste.ese.api.DTOs.CompactTodoListDTO;
+import de.unistuttgart.iste.ese.api.Models.Assignee;
+import de.unistuttgart.iste.ese.api.Models.TodoProjection;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TodoProjectionTests {
+
+    private static final int TODAY = 20000;
+
+    private static Assignee assignee(long id, String name) {
+        Assignee assignee = new Assignee("Test", name, name + "@uni-stuttgart.de");
+        assignee.setId(id);
+        return assignee;
+    }
+
+    private static TodoProjection.Row row(long id, boolean finished, int dueDay, String category, Assignee... assignees) {
+        return row(id, 0, finished, dueDay, category, assignees);
+    }
+
+    private static TodoProjection.Row row(long id, long version, boolean finished, int dueDay, String category, Assignee... assignees) {
+        return new TodoProjection.Row(id, "todo " + id, null, Map.of(), finished,
+            TODAY - 10, dueDay, finished ? TODAY - 1 : TodoProjection.NO_DAY, category, List.of(assignees), version);
+    }
+
+    @Test
+    @DisplayName("Expect filters and stats to stay correct when rows are inserted out of order, updated and removed")
+    void testUpsertAndRemove() {
+        Assignee alice = assignee(1, "alice");
+        Assignee bob = assignee(2, "bob");
+        TodoProjection projection = new TodoProjection();
+        for (long id = 1; id <= 40; id += 2) {
+            projection.upsert(row(id, id % 3 == 0, TODAY + (int) id, id % 4 == 1 ? "Work" : "Home", alice));
+        }
+        // fill the gaps, so that every row before them has to move
+        for (long id = 2; id <= 40; id += 2) {
+            projection.upsert(row(id, false, TODAY - 1, "Errand", bob));
+        }
+        assertEquals(40, projection.size());
+
+        assertArrayEquals(new long[]{1, 5, 9, 13, 17, 21, 25, 29, 33, 37},
+            projection.findIds(null, "Work", null, TodoProjection.NO_DAY, TodoProjection.NO_DAY));
+        assertArrayEquals(new long[]{3, 9, 15, 21, 27, 33, 39},
+            projection.findIds(true, null, alice.getId(), TodoProjection.NO_DAY, TodoProjection.NO_DAY));
+        assertEquals(20, projection.findIds(false, "Errand", bob.getId(), TodoProjection.NO_DAY, TODAY).length);
+
+        projection.upsert(row(9, false, TODAY + 9, "Home", alice));
+        for (long id = 2; id <= 40; id += 2) {
+            assertTrue(projection.remove(id, 0));
+        }
+        assertFalse(projection.remove(2, 0));
+
+        assertArrayEquals(new long[]{1, 5, 13, 17, 21, 25, 29, 33, 37},
+            projection.findIds(null, "Work", null, TodoProjection.NO_DAY, TodoProjection.NO_DAY));
+        assertArrayEquals(new long[]{3, 15, 21, 27, 33, 39},
+            projection.findIds(true, null, null, TodoProjection.NO_DAY, TodoProjection.NO_DAY));
+        assertArrayEquals(new long[]{5, 7},
+            projection.findIds(false, null, null, TODAY + 5, TODAY + 8));
+
+        TodoProjection.Stats stats = projection.stats(TODAY);
+        assertEquals(20, stats.total());
+        assertEquals(6, stats.finished());
+        assertEquals(14, stats.open());
+        assertEquals(0, stats.overdue());
+        assertEquals(3, stats.dueWithinWeek());
+        assertEquals(Map.of("Work", 9, "Home", 11), stats.byCategory());
+        assertEquals(Map.of(1L, 14), stats.openByAssignee());
+    }
+
+    @Test
+    @DisplayName("Expect writes applied out of commit order to neither overwrite a newer row nor revive a removed one")
+    void testOutOfOrderWrites() {
+        Assignee alice = assignee(1, "alice");
+        TodoProjection projection = new TodoProjection();
+        assertTrue(projection.upsert(row(1, 2, true, TODAY + 1, "Work", alice)));
+        assertFalse(projection.upsert(row(1, 1, false, TODAY + 1, "Home", alice)));
+        assertArrayEquals(new long[]{1}, projection.findIds(true, "Work", null, TodoProjection.NO_DAY, TodoProjection.NO_DAY));
+
+        assertFalse(projection.remove(2, 0));
+        assertFalse(projection.upsert(row(2, 0, false, TODAY + 2, "Home", alice)));
+        assertTrue(projection.remove(1, 0));
+        assertFalse(projection.upsert(row(1, 3, false, TODAY + 1, "Home", alice)));
+        assertEquals(0, projection.size());
+
+        // tombstones are kept while a write from before the removal may still arrive
+        projection.remove(4, 5);
+        projection.pruneTombstones(5);
+        assertEquals(1, projection.tombstones());
+        assertFalse(projection.upsert(row(4, 0, false, TODAY + 4, "Home", alice)));
+        projection.pruneTombstones(6);
+        assertEquals(0, projection.tombstones());
+
+        alice.setVersion(2L);
+        alice.setName("renamed");
+        projection.putAssignee(alice);
+        Assignee stale = assignee(1, "stale");
+        stale.setVersion(1L);
+        projection.putAssignee(stale);
+        projection.upsert(row(3, 0, false, TODAY + 3, null, alice));
+        assertEquals("renamed", projection.toCompactList().getAssignees().get(0).getName());
+    }
+
+    @Test
+    @DisplayName("Expect the compact list to reference only assignees of projected todos, with their latest names")
+    void testCompactList() {
+        Assignee alice = assignee(1, "alice");
+        TodoProjection projection = new TodoProjection();
+        projection.putAssignee(assignee(2, "unused"));
+        projection.upsert(row(7, false, TODAY + 3, null, alice));
+        alice.setName("renamed");
+        projection.putAssignee(alice);
+
+        CompactTodoListDTO list = projection.toCompactList();
+        assertEquals(1, list.getAssignees().size());
+        assertEquals("renamed", list.getAssignees().get(0).getName());
+        CompactTodoListDTO.CompactTodo todo = list.getTodos().get(0);
+        assertEquals(7L, todo.getId());
+        assertArrayEquals(new long[]{1}, todo.getAssigneeIds());
+        assertEquals(TODAY + 3, todo.getDueDate());
+        assertNull(todo.getFinishedDate());
+        assertNull(todo.getCategory());
+    }
+}
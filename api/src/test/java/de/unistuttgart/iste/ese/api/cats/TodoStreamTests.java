@@ -0,0 +1,117 @@
+package de.unistuttgart.iste.ese.api.cats;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.unistuttgart.iste.ese.api.DTOs.RequestDTO;
+import de.unistuttgart.iste.ese.api.Models.Todo;
+import de.unistuttgart.iste.ese.api.Repositories.TodoRepository;
+import de.unistuttgart.iste.ese.api.Services.TodoService;
+import jakarta.persistence.EntityManager;
+import org.hibernate.Session;
+import org.hibernate.engine.spi.EntityKey;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.mockito.stubbing.Answer;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mockingDetails;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "app.stream.batch-size=2")
+@AutoConfigureMockMvc
+public class TodoStreamTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private TodoService todoService;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @SpyBean
+    private TodoRepository todoRepository;
+
+    @Test
+    @DisplayName("Expect the NDJSON stream to contain the same todos as the JSON list, one per line, ordered by ID")
+    void testStreamMatchesList() throws Exception {
+        for (String title : List.of("Stream one", "Stream two", "Stream three", "Stream four", "Stream five")) {
+            RequestDTO request = new RequestDTO();
+            request.setTitle(title);
+            request.setDueDate(new Date(System.currentTimeMillis() + 24 * 3600 * 1000L));
+            todoService.createTodo(request);
+        }
+
+        MvcResult result = mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/todos").accept(MediaType.APPLICATION_NDJSON))
+            .andExpect(status().isOk())
+            .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+            .andReturn();
+        String body = result.getResponse().getContentAsString(StandardCharsets.UTF_8);
+        assertTrue(body.endsWith("\n"));
+
+        List<Long> streamedIds = new ArrayList<>();
+        for (String line : body.split("\n")) {
+            JsonNode todo = objectMapper.readTree(line);
+            assertTrue(todo.hasNonNull("title"), line);
+            streamedIds.add(todo.get("id").asLong());
+        }
+        List<Long> sorted = streamedIds.stream().sorted().toList();
+        assertEquals(sorted, streamedIds);
+
+        JsonNode list = objectMapper.readTree(mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/todos"))
+            .andExpect(status().isOk())
+            .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8));
+        List<Long> listedIds = new ArrayList<>();
+        list.forEach(todo -> listedIds.add(todo.get("id").asLong()));
+        assertEquals(listedIds.stream().sorted().toList(), streamedIds);
+    }
+
+    @Test
+    @DisplayName("Expect every batch of the stream to be read into a fresh persistence context")
+    void testPersistenceContextStaysBounded() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            RequestDTO request = new RequestDTO();
+            request.setTitle("Bounded " + i);
+            request.setDueDate(new Date(System.currentTimeMillis() + 24 * 3600 * 1000L));
+            todoService.createTodo(request);
+        }
+        // the todos managed by the persistence context the batch was read into
+        List<Long> managedTodos = new ArrayList<>();
+        // the spy wraps the repository proxy, which has no real method to call, and delegates to it by default
+        Answer<?> delegate = mockingDetails(todoRepository).getMockCreationSettings().getDefaultAnswer();
+        doAnswer(invocation -> {
+            Object batch = delegate.answer(invocation);
+            managedTodos.add(entityManager.unwrap(Session.class).getStatistics().getEntityKeys().stream()
+                .filter(key -> ((EntityKey) key).getEntityName().equals(Todo.class.getName()))
+                .count());
+            return batch;
+        }).when(todoRepository).findAfter(anyLong(), any());
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/todos").accept(MediaType.APPLICATION_NDJSON))
+            .andExpect(status().isOk());
+
+        assertTrue(managedTodos.size() >= 3, managedTodos.toString());
+        assertTrue(managedTodos.stream().allMatch(count -> count <= 2), managedTodos.toString());
+    }
+}
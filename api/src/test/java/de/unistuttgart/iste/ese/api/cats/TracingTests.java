@@ -0,0 +1,98 @@
+package de.unistuttgart.iste.ese.api.cats;
+
+import com.sun.net.httpserver.HttpServer;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "management.tracing.sampling.probability=1.0")
+@AutoConfigureMockMvc
+@AutoConfigureObservability
+public class TracingTests {
+
+    /**
+     * Accepts OTLP/HTTP exports like a collector and keeps the raw protobuf payloads.
+     * Span names are plain UTF-8 strings inside the payload, so they can be found without decoding it.
+     */
+    private static final class StandInCollector {
+        private final HttpServer server;
+        private final List<byte[]> payloads = new CopyOnWriteArrayList<>();
+
+        StandInCollector() {
+            try {
+                server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            server.createContext("/v1/traces", exchange -> {
+                payloads.add(exchange.getRequestBody().readAllBytes());
+                exchange.sendResponseHeaders(200, -1);
+                exchange.close();
+            });
+            server.start();
+        }
+
+        String endpoint() {
+            return "http://localhost:" + server.getAddress().getPort() + "/v1/traces";
+        }
+
+        boolean received(String text) {
+            return payloads.stream().anyMatch(payload -> new String(payload, StandardCharsets.ISO_8859_1).contains(text));
+        }
+    }
+
+    private static final StandInCollector collector = new StandInCollector();
+
+    @DynamicPropertySource
+    static void collectorEndpoint(DynamicPropertyRegistry registry) {
+        registry.add("management.otlp.tracing.endpoint", collector::endpoint);
+    }
+
+    @AfterAll
+    static void stopCollector() {
+        collector.server.stop(0);
+    }
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private SdkTracerProvider tracerProvider;
+
+    @Test
+    @DisplayName("Expect a created todo to export spans of the handler, the write stages, the classifier and JDBC")
+    void testSpansAreExported() throws Exception {
+        String json = String.format("{\"title\":\"Trace the slow request\",\"dueDate\":\"%s\"}", LocalDate.now().plusDays(3));
+        mockMvc.perform(MockMvcRequestBuilders.post("/api/v1/todos").contentType(MediaType.APPLICATION_JSON).content(json))
+            .andExpect(status().isCreated());
+
+        assertTrue(tracerProvider.forceFlush().join(10, TimeUnit.SECONDS).isSuccess());
+        // the tracing bridge writes camel-case observation names in kebab case
+        for (String span : List.of("todo-controller#create-todo", "create validate", "create classify", "create persist",
+            "predict-class", "query")) {
+            assertTrue(collector.received(span), "no span " + span);
+        }
+    }
+}
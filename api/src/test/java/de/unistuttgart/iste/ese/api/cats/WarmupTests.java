@@ -0,0 +1,32 @@
+package de.unistuttgart.iste.ese.api.cats;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.availability.ApplicationAvailability;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {"app.warmup.rounds=3", "app.warmup.budget=5m"})
+public class WarmupTests {
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private ApplicationAvailability applicationAvailability;
+
+    @Test
+    @DisplayName("Expect the warm-up to run every stage for the configured rounds before the instance is ready")
+    void testWarmupRunsBeforeReadiness() {
+        assertEquals(ReadinessState.ACCEPTING_TRAFFIC, applicationAvailability.getReadinessState());
+        assertEquals(3, meterRegistry.get("app.warmup.rounds").gauge().value());
+        assertEquals(1, meterRegistry.get("app.warmup").tag("outcome", "completed").timer().count());
+        for (String stage : new String[]{"classify", "serialize", "csv", "query"}) {
+            assertEquals(3, meterRegistry.get("app.warmup.stage").tag("stage", stage).timer().count(), stage);
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package de.unistuttgart.iste.ese.api.loadtest;
+
+import de.unistuttgart.iste.ese.api.Models.Todo;
+import de.unistuttgart.iste.ese.api.Services.CsvExportService;
+import de.unistuttgart.iste.ese.api.Utils.CsvBuffer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Measures how the CSV formatting throughput scales with the number of export workers.
+ * Run with {@code ./mvnw -Ploadtest test-compile exec:java -Dloadtest.main=de.unistuttgart.iste.ese.api.loadtest.CsvExportBenchmark}
+ * and optionally {@code -Dtodos=200000 -Dchunk=1000}.
+ */
+public class CsvExportBenchmark {
+
+    public static void main(String[] args) {
+        int todoCount = Integer.getInteger("todos", 200_000);
+        int chunkSize = Integer.getInteger("chunk", 1000);
+        List<Todo> todos = WireFormatBenchmark.generateTodos(todoCount, 200);
+        for (int i = 0; i < todos.size(); i++) {
+            todos.get(i).setId((long) i + 1);
+        }
+        List<List<Todo>> chunks = new ArrayList<>();
+        for (int from = 0; from < todos.size(); from += chunkSize) {
+            chunks.add(todos.subList(from, Math.min(from + chunkSize, todos.size())));
+        }
+
+        System.out.printf("%d todos in chunks of %d, %d cores%n", todoCount, chunkSize, Runtime.getRuntime().availableProcessors());
+        System.out.printf("%-10s %14s %12s%n", "workers", "rows/s", "MB");
+        for (int workers = 1; workers <= Runtime.getRuntime().availableProcessors(); workers *= 2) {
+            ForkJoinPool pool = new ForkJoinPool(workers);
+            measure(pool, chunks, chunkSize);
+            long bytes = 0;
+            long start = System.nanoTime();
+            int rounds = 5;
+            for (int round = 0; round < rounds; round++) {
+                bytes = measure(pool, chunks, chunkSize);
+            }
+            double seconds = (System.nanoTime() - start) / 1e9 / rounds;
+            System.out.printf("%-10d %14.0f %12.1f%n", workers, todoCount / seconds, bytes / 1e6);
+            pool.shutdown();
+        }
+    }
+
+    private static long measure(ForkJoinPool pool, List<List<Todo>> chunks, int chunkSize) {
+        List<ForkJoinTask<Integer>> tasks = new ArrayList<>();
+        for (List<Todo> chunk : chunks) {
+            tasks.add(pool.submit(() -> {
+                CsvBuffer buffer = new CsvBuffer(chunkSize * 128);
+                CsvExportService.formatRows(chunk, buffer);
+                return buffer.length();
+            }));
+        }
+        long bytes = 0;
+        for (ForkJoinTask<Integer> task : tasks) {
+            bytes += task.join();
+        }
+        return bytes;
+    }
+}
@@ -0,0 +1,159 @@
+package de.unistuttgart.iste.ese.api.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Measures {@code GET /todos/{id}} at increasing concurrency, with every client looking up random todos of a hot set
+ * and immediately sending the next request. Besides the throughput and latency of the successful requests, it
+ * reports the hit ratio of the "todo" region of the second-level cache, read from the Prometheus endpoint.
+ * <p>
+ * Run it once against an instance started with {@code --app.entity-cache.enabled=false} and once with the cache
+ * enabled, on the same data:
+ * {@code ./mvnw -Ploadtest test-compile exec:java -Dloadtest.main=de.unistuttgart.iste.ese.api.loadtest.EntityCacheBenchmark}
+ * and optionally {@code -Dtodos=5000 -Dhot=1000 -Dconcurrency=1,16,64 -Dduration=20}; {@code todos} seeds that many
+ * todos first, {@code hot} is the number of distinct todos that are looked up.
+ */
+public class EntityCacheBenchmark {
+    private static final Pattern TODO_HITS = Pattern.compile("^cache_gets_total\\{[^}]*cache=\"todo\"[^}]*result=\"hit\"[^}]*} (\\S+)$", Pattern.MULTILINE);
+    private static final Pattern TODO_MISSES = Pattern.compile("^cache_gets_total\\{[^}]*cache=\"todo\"[^}]*result=\"miss\"[^}]*} (\\S+)$", Pattern.MULTILINE);
+
+    private final String baseUrl;
+    private final String prometheusUrl;
+    private final HttpClient client;
+
+    public EntityCacheBenchmark(String baseUrl, String prometheusUrl) {
+        this.baseUrl = baseUrl;
+        this.prometheusUrl = prometheusUrl;
+        this.client = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(5))
+            .executor(Executors.newVirtualThreadPerTaskExecutor())
+            .build();
+    }
+
+    public static void main(String[] args) throws Exception {
+        String baseUrl = System.getProperty("baseUrl", "http://localhost:8080/api/v1");
+        String prometheusUrl = System.getProperty("prometheusUrl", "http://localhost:8080/actuator/prometheus");
+        int todos = Integer.getInteger("todos", 0);
+        int hot = Integer.getInteger("hot", 1000);
+        int durationSeconds = Integer.getInteger("duration", 20);
+        List<Integer> concurrencies = new ArrayList<>();
+        for (String level : System.getProperty("concurrency", "1,16,64").split(",")) {
+            concurrencies.add(Integer.parseInt(level.trim()));
+        }
+
+        if (todos > 0) {
+            System.out.printf("Seeding %d todos at %s%n", todos, baseUrl);
+            new LoadTestRunner(baseUrl).seed(50, todos);
+        }
+        EntityCacheBenchmark benchmark = new EntityCacheBenchmark(baseUrl, prometheusUrl);
+        List<Long> ids = benchmark.todoIds(hot);
+        if (ids.isEmpty()) {
+            System.out.println("No todos to look up, seed some with -Dtodos=5000");
+            return;
+        }
+        // warm up the lookup and, if enabled, fill the cache before measuring
+        benchmark.run(ids, 4, 5);
+
+        System.out.printf("%6s %6s %9s %9s %9s %10s%n", "todos", "conns", "req/s", "p50 ms", "p99 ms", "hit ratio");
+        for (int concurrency : concurrencies) {
+            Result result = benchmark.run(ids, concurrency, durationSeconds);
+            System.out.printf("%6d %6d %9.1f %9.2f %9.2f %10s%n", ids.size(), concurrency, result.requestsPerSecond(),
+                result.p50Millis(), result.p99Millis(),
+                Double.isNaN(result.hitRatio()) ? "n/a" : String.format("%.3f", result.hitRatio()));
+        }
+    }
+
+    private record Result(double requestsPerSecond, double p50Millis, double p99Millis, double hitRatio) {
+    }
+
+    // the IDs of the first todos, read as a sparse list
+    private List<Long> todoIds(int limit) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/todos?fields=id")).GET().build();
+        JsonNode todos = new ObjectMapper().readTree(client.send(request, HttpResponse.BodyHandlers.ofString()).body());
+        List<Long> ids = new ArrayList<>();
+        for (JsonNode todo : todos) {
+            if (ids.size() == limit) break;
+            ids.add(todo.get("id").asLong());
+        }
+        return ids;
+    }
+
+    private Result run(List<Long> ids, int concurrency, int seconds) throws Exception {
+        List<Long> latencies = new ArrayList<>();
+        AtomicLong requests = new AtomicLong();
+        double hitsBefore = metric(TODO_HITS);
+        double missesBefore = metric(TODO_MISSES);
+        long end = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < concurrency; i++) {
+                executor.submit(() -> {
+                    while (System.nanoTime() < end) {
+                        long id = ids.get(ThreadLocalRandom.current().nextInt(ids.size()));
+                        long start = System.nanoTime();
+                        boolean ok = get(id);
+                        long latency = System.nanoTime() - start;
+                        if (ok) {
+                            synchronized (latencies) {
+                                latencies.add(latency);
+                            }
+                        }
+                        requests.incrementAndGet();
+                    }
+                    return null;
+                });
+            }
+        }
+        double hits = metric(TODO_HITS) - hitsBefore;
+        double misses = metric(TODO_MISSES) - missesBefore;
+        if (latencies.size() < requests.get()) {
+            System.out.printf("%d of %d requests failed%n", requests.get() - latencies.size(), requests.get());
+        }
+        return new Result((double) latencies.size() / seconds, percentileMillis(latencies, 0.50),
+            percentileMillis(latencies, 0.99), hits + misses > 0 ? hits / (hits + misses) : Double.NaN);
+    }
+
+    private static double percentileMillis(List<Long> nanos, double quantile) {
+        if (nanos.isEmpty()) return 0;
+        List<Long> sorted = nanos.stream().sorted().toList();
+        int index = (int) Math.ceil(quantile * sorted.size()) - 1;
+        return sorted.get(Math.max(0, index)) / 1e6;
+    }
+
+    private boolean get(long id) {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/todos/" + id)).GET().build();
+        try {
+            return client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200;
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    // the sum of all series of a metric in the Prometheus text format, 0 if it does not exist
+    private double metric(Pattern pattern) throws Exception {
+        String text = client.send(HttpRequest.newBuilder(URI.create(prometheusUrl)).GET().build(),
+            HttpResponse.BodyHandlers.ofString()).body();
+        double sum = 0;
+        Matcher matcher = pattern.matcher(text);
+        while (matcher.find()) {
+            sum += Double.parseDouble(matcher.group(1));
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,75 @@
+package de.unistuttgart.iste.ese.api.loadtest;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Collects request latencies per endpoint and summarizes them as throughput and percentiles.
+ */
+public class LatencyRecorder {
+    private final Map<String, Samples> samplesByEndpoint = new ConcurrentSkipListMap<>();
+
+    /**
+     * Records one finished request.
+     *
+     * @param endpoint the name of the endpoint.
+     * @param latencyNanos the time from the intended send time to the end of the response.
+     * @param successful whether the response had a 2xx status.
+     */
+    public void record(String endpoint, long latencyNanos, boolean successful) {
+        samplesByEndpoint.computeIfAbsent(endpoint, e -> new Samples()).add(latencyNanos, successful);
+    }
+
+    /**
+     * Formats a table with count, errors, throughput and p50/p95/p99/max latency per endpoint.
+     *
+     * @param elapsedNanos the duration of the measured phase.
+     * @return the report.
+     */
+    public String report(long elapsedNanos) {
+        double seconds = elapsedNanos / 1e9;
+        StringBuilder report = new StringBuilder(String.format("%-16s %8s %7s %9s %9s %9s %9s %9s%n",
+            "endpoint", "count", "errors", "req/s", "p50 ms", "p95 ms", "p99 ms", "max ms"));
+        long totalCount = 0;
+        for (Map.Entry<String, Samples> entry : samplesByEndpoint.entrySet()) {
+            long[] latencies = entry.getValue().sorted();
+            totalCount += latencies.length;
+            report.append(String.format("%-16s %8d %7d %9.1f %9.2f %9.2f %9.2f %9.2f%n",
+                entry.getKey(), latencies.length, entry.getValue().errors.get(), latencies.length / seconds,
+                percentile(latencies, 0.50), percentile(latencies, 0.95), percentile(latencies, 0.99),
+                percentile(latencies, 1.0)));
+        }
+        report.append(String.format("%-16s %8d %7s %9.1f%n", "total", totalCount, "", totalCount / seconds));
+        return report.toString();
+    }
+
+    private static double percentile(long[] sortedLatencies, double quantile) {
+        if (sortedLatencies.length == 0) return 0;
+        int index = (int) Math.ceil(quantile * sortedLatencies.length) - 1;
+        return sortedLatencies[Math.max(0, index)] / 1e6;
+    }
+
+    private static class Samples {
+        private long[] latencies = new long[1024];
+        private int size;
+        private final AtomicInteger errors = new AtomicInteger();
+
+        synchronized void add(long latencyNanos, boolean successful) {
+            if (size == latencies.length) {
+                latencies = Arrays.copyOf(latencies, size * 2);
+            }
+            latencies[size++] = latencyNanos;
+            if (!successful) {
+                errors.incrementAndGet();
+            }
+        }
+
+        synchronized long[] sorted() {
+            long[] copy = Arrays.copyOf(latencies, size);
+            Arrays.sort(copy);
+            return copy;
+        }
+    }
+}
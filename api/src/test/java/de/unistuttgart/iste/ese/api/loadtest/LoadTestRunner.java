@@ -0,0 +1,257 @@
+package de.unistuttgart.iste.ese.api.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Open-model load test for a running API instance.
+ * Seeds assignees and todos, then sends a weighted mix of requests at a fixed rate and reports
+ * throughput and latency percentiles per endpoint. Latencies are measured from the intended send time,
+ * so a slow server cannot hide queueing delay by slowing down the load generator.
+ * <p>
+ * Run against a local instance (for example {@code ./mvnw -Ph2 spring-boot:run -Dspring-boot.run.profiles=h2}) with
+ * {@code ./mvnw -Ploadtest test-compile exec:java}. Settings are passed as system properties:
+ * <ul>
+ *     <li>{@code baseUrl} (default {@code http://localhost:8080/api/v1})</li>
+ *     <li>{@code assignees} and {@code todos}: the amount of seed data (default 50 and 1000)</li>
+ *     <li>{@code rate}: requests per second (default 200)</li>
+ *     <li>{@code warmup} and {@code duration}: seconds of warm-up and measurement (default 10 and 60)</li>
+ *     <li>{@code mix}: endpoint weights (default {@code list=30,get=35,create=15,update=12,deleteAssignee=3,csv=5});
+ *     {@code stream} reads the todos as newline-delimited JSON</li>
+ * </ul>
+ */
+public class LoadTestRunner {
+    private static final String DEFAULT_MIX = "list=30,get=35,create=15,update=12,deleteAssignee=3,csv=5";
+    private static final String[] WORK_TITLES = {
+        "Prepare budget meeting", "Review quarterly report", "Send project update to team",
+        "Book conference room for review", "Finish annual presentation", "Schedule client appointment"
+    };
+    private static final String[] PRIVATE_TITLES = {
+        "Buy birthday present", "Go grocery shopping", "Call mom", "Book club reading",
+        "Clean the kitchen", "Plan weekend trip"
+    };
+
+    private final String baseUrl;
+    private final HttpClient client;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final List<Long> assigneeIds = new CopyOnWriteArrayList<>();
+    private final List<Long> todoIds = new CopyOnWriteArrayList<>();
+    private final ConcurrentLinkedDeque<Long> spareAssigneeIds = new ConcurrentLinkedDeque<>();
+
+    public LoadTestRunner(String baseUrl) {
+        this.baseUrl = baseUrl;
+        this.client = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(5))
+            .executor(Executors.newVirtualThreadPerTaskExecutor())
+            .build();
+    }
+
+    public static void main(String[] args) throws Exception {
+        String baseUrl = System.getProperty("baseUrl", "http://localhost:8080/api/v1");
+        int assignees = Integer.getInteger("assignees", 50);
+        int todos = Integer.getInteger("todos", 1000);
+        int rate = Integer.getInteger("rate", 200);
+        int warmupSeconds = Integer.getInteger("warmup", 10);
+        int durationSeconds = Integer.getInteger("duration", 60);
+        Map<String, Integer> mix = parseMix(System.getProperty("mix", DEFAULT_MIX));
+
+        LoadTestRunner runner = new LoadTestRunner(baseUrl);
+        System.out.printf("Seeding %d assignees and %d todos at %s%n", assignees, todos, baseUrl);
+        runner.seed(assignees, todos);
+
+        runner.prepareSpareAssignees(mix, rate, warmupSeconds);
+        System.out.printf("Warming up for %ds at %d req/s%n", warmupSeconds, rate);
+        runner.run(mix, rate, warmupSeconds);
+
+        runner.prepareSpareAssignees(mix, rate, durationSeconds);
+        System.out.printf("Measuring for %ds at %d req/s with mix %s%n", durationSeconds, rate, mix);
+        LatencyRecorder measured = runner.run(mix, rate, durationSeconds);
+        System.out.print(measured.report(TimeUnit.SECONDS.toNanos(durationSeconds)));
+    }
+
+    /**
+     * Creates the seed data through the public API.
+     *
+     * @param assignees the number of assignees to create.
+     * @param todos the number of todos to create.
+     */
+    public void seed(int assignees, int todos) throws Exception {
+        for (int i = 0; i < assignees; i++) {
+            assigneeIds.add(createAssignee("seed" + i));
+        }
+        for (int i = 0; i < todos; i++) {
+            HttpResponse<String> response = send(post("/todos", todoJson()));
+            todoIds.add(objectMapper.readTree(response.body()).get("id").asLong());
+        }
+    }
+
+    /**
+     * Creates the assignees that deleteAssignee requests delete, so that the timed requests only measure the delete.
+     * Deleting seeded assignees would shrink the data set, so each delete gets its own assignee.
+     *
+     * @param mix the relative weight of each endpoint.
+     * @param rate the requests per second.
+     * @param seconds how long requests will be sent.
+     */
+    public void prepareSpareAssignees(Map<String, Integer> mix, int rate, int seconds) throws Exception {
+        int totalWeight = mix.values().stream().mapToInt(Integer::intValue).sum();
+        long expected = (long) rate * seconds * mix.getOrDefault("deleteAssignee", 0) / Math.max(1, totalWeight);
+        // the endpoints are drawn at random, so keep a margin above the expected number of deletes
+        long spares = expected == 0 ? 0 : expected + 5 * (long) Math.ceil(Math.sqrt(expected)) + 10;
+        for (long i = spareAssigneeIds.size(); i < spares; i++) {
+            spareAssigneeIds.add(createAssignee("spare" + i + "-" + ThreadLocalRandom.current().nextInt(1_000_000)));
+        }
+    }
+
+    /**
+     * Sends requests of the given mix at a fixed rate.
+     * Call {@link #prepareSpareAssignees} before, if the mix deletes assignees.
+     *
+     * @param mix the relative weight of each endpoint.
+     * @param rate the requests per second.
+     * @param seconds how long to send requests.
+     * @return the latencies of this run.
+     */
+    public LatencyRecorder run(Map<String, Integer> mix, int rate, int seconds) throws InterruptedException {
+        LatencyRecorder runRecorder = new LatencyRecorder();
+        Map<String, Supplier<HttpRequest>> requests = requestFactories();
+        List<String> weightedEndpoints = new ArrayList<>();
+        mix.forEach((endpoint, weight) -> {
+            if (!requests.containsKey(endpoint)) {
+                throw new IllegalArgumentException("Unknown endpoint in mix: " + endpoint);
+            }
+            for (int i = 0; i < weight; i++) weightedEndpoints.add(endpoint);
+        });
+
+        long intervalNanos = TimeUnit.SECONDS.toNanos(1) / rate;
+        long start = System.nanoTime();
+        long total = (long) rate * seconds;
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (long i = 0; i < total; i++) {
+                long intendedStart = start + i * intervalNanos;
+                long wait = intendedStart - System.nanoTime();
+                if (wait > 0) {
+                    TimeUnit.NANOSECONDS.sleep(wait);
+                }
+                String endpoint = weightedEndpoints.get(ThreadLocalRandom.current().nextInt(weightedEndpoints.size()));
+                executor.submit(() -> execute(endpoint, requests.get(endpoint), intendedStart, runRecorder));
+            }
+        }
+        return runRecorder;
+    }
+
+    private void execute(String endpoint, Supplier<HttpRequest> request, long intendedStart, LatencyRecorder runRecorder) {
+        boolean successful;
+        try {
+            HttpResponse<String> response = client.send(request.get(), HttpResponse.BodyHandlers.ofString());
+            successful = response.statusCode() / 100 == 2;
+            if (successful && endpoint.equals("create")) {
+                todoIds.add(objectMapper.readTree(response.body()).get("id").asLong());
+            }
+        } catch (Exception e) {
+            successful = false;
+        }
+        runRecorder.record(endpoint, System.nanoTime() - intendedStart, successful);
+    }
+
+    private Map<String, Supplier<HttpRequest>> requestFactories() {
+        Map<String, Supplier<HttpRequest>> requests = new LinkedHashMap<>();
+        requests.put("list", () -> get("/todos"));
+        requests.put("get", () -> get("/todos/" + randomOf(todoIds)));
+        requests.put("create", () -> post("/todos", todoJson()));
+        requests.put("update", () -> HttpRequest.newBuilder(URI.create(baseUrl + "/todos/" + randomOf(todoIds)))
+            .header("Content-Type", "application/json")
+            .PUT(HttpRequest.BodyPublishers.ofString(todoJson()))
+            .build());
+        requests.put("deleteAssignee", () -> HttpRequest.newBuilder(URI.create(baseUrl + "/assignees/" + spareAssignee()))
+            .DELETE()
+            .build());
+        requests.put("csv", () -> get("/csv-downloads/todos"));
+        requests.put("stream", () -> HttpRequest.newBuilder(URI.create(baseUrl + "/todos"))
+            .header("Accept", "application/x-ndjson")
+            .GET()
+            .build());
+        return requests;
+    }
+
+    private long spareAssignee() {
+        Long id = spareAssigneeIds.poll();
+        if (id == null) {
+            throw new IllegalStateException("No spare assignee left to delete, raise the number created by prepareSpareAssignees");
+        }
+        return id;
+    }
+
+    private long createAssignee(String suffix) throws Exception {
+        String json = String.format("{\"prename\":\"Load\",\"name\":\"Test %s\",\"email\":\"load.%s@uni-stuttgart.de\"}", suffix, suffix);
+        HttpResponse<String> response = send(post("/assignees", json));
+        JsonNode body = objectMapper.readTree(response.body());
+        return body.get("id").asLong();
+    }
+
+    private String todoJson() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        String[] titles = random.nextBoolean() ? WORK_TITLES : PRIVATE_TITLES;
+        List<Long> assignees = new ArrayList<>();
+        int assigneeCount = assigneeIds.isEmpty() ? 0 : random.nextInt(Math.min(3, assigneeIds.size()) + 1);
+        while (assignees.size() < assigneeCount) {
+            Long id = randomOf(assigneeIds);
+            if (!assignees.contains(id)) assignees.add(id);
+        }
+        return String.format("{\"title\":\"%s\",\"description\":\"Generated by the load test\",\"finished\":%s,"
+                + "\"assigneeIdList\":%s,\"dueDate\":\"%s\"}",
+            titles[random.nextInt(titles.length)], random.nextInt(4) == 0, assignees,
+            LocalDate.now().plusDays(1 + random.nextInt(365)));
+    }
+
+    private HttpRequest get(String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path)).GET().build();
+    }
+
+    private HttpRequest post(String path, String json) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path))
+            .header("Content-Type", "application/json")
+            .POST(HttpRequest.BodyPublishers.ofString(json))
+            .build();
+    }
+
+    private HttpResponse<String> send(HttpRequest request) throws Exception {
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() / 100 != 2) {
+            throw new IllegalStateException(String.format("%s %s failed with %d: %s",
+                request.method(), request.uri(), response.statusCode(), response.body()));
+        }
+        return response;
+    }
+
+    private static <T> T randomOf(List<T> values) {
+        return values.get(ThreadLocalRandom.current().nextInt(values.size()));
+    }
+
+    private static Map<String, Integer> parseMix(String mix) {
+        Map<String, Integer> weights = new LinkedHashMap<>();
+        for (String entry : mix.split(",")) {
+            String[] parts = entry.trim().split("=");
+            weights.put(parts[0], Integer.parseInt(parts[1]));
+        }
+        return weights;
+    }
+}
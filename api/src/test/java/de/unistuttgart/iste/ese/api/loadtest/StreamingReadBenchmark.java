@@ -0,0 +1,162 @@
+package de.unistuttgart.iste.ese.api.loadtest;
+
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Compares the buffered JSON list of all todos with the newline-delimited JSON stream at increasing concurrency.
+ * Every client reads the whole response and immediately sends the next request. Besides the throughput and latency
+ * of the successful requests, it reports the time to the first byte, the bytes the server allocated per request and
+ * the peak growth of the server's heap divided by the number of connections, both read from the Prometheus endpoint.
+ * <p>
+ * Run against a local instance with
+ * {@code ./mvnw -Ploadtest test-compile exec:java -Dloadtest.main=de.unistuttgart.iste.ese.api.loadtest.StreamingReadBenchmark}
+ * and optionally {@code -Dtodos=20000 -Dconcurrency=1,16,64,256 -Dduration=20}; {@code todos} seeds that many
+ * todos first, {@code prometheusUrl} defaults to {@code http://localhost:8080/actuator/prometheus}.
+ */
+public class StreamingReadBenchmark {
+    private static final Pattern ALLOCATED = Pattern.compile("^jvm_gc_memory_allocated_bytes_total\\S* (\\S+)$", Pattern.MULTILINE);
+    private static final Pattern HEAP_USED = Pattern.compile("^jvm_memory_used_bytes\\{area=\"heap\"\\S* (\\S+)$", Pattern.MULTILINE);
+
+    private final String baseUrl;
+    private final String prometheusUrl;
+    private final HttpClient client;
+
+    public StreamingReadBenchmark(String baseUrl, String prometheusUrl) {
+        this.baseUrl = baseUrl;
+        this.prometheusUrl = prometheusUrl;
+        this.client = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(5))
+            .executor(Executors.newVirtualThreadPerTaskExecutor())
+            .build();
+    }
+
+    public static void main(String[] args) throws Exception {
+        String baseUrl = System.getProperty("baseUrl", "http://localhost:8080/api/v1");
+        String prometheusUrl = System.getProperty("prometheusUrl", "http://localhost:8080/actuator/prometheus");
+        int todos = Integer.getInteger("todos", 0);
+        int durationSeconds = Integer.getInteger("duration", 20);
+        List<Integer> concurrencies = new ArrayList<>();
+        for (String level : System.getProperty("concurrency", "1,16,64,256").split(",")) {
+            concurrencies.add(Integer.parseInt(level.trim()));
+        }
+
+        if (todos > 0) {
+            System.out.printf("Seeding %d todos at %s%n", todos, baseUrl);
+            new LoadTestRunner(baseUrl).seed(50, todos);
+        }
+        StreamingReadBenchmark benchmark = new StreamingReadBenchmark(baseUrl, prometheusUrl);
+        // warm up both code paths before measuring
+        benchmark.run("application/json", 4, 5);
+        benchmark.run("application/x-ndjson", 4, 5);
+
+        System.out.printf("%-8s %6s %9s %9s %9s %11s %14s %14s%n",
+            "format", "conns", "req/s", "p50 ms", "p99 ms", "ttfb p50 ms", "alloc MB/req", "heap MB/conn");
+        for (int concurrency : concurrencies) {
+            for (String format : List.of("application/json", "application/x-ndjson")) {
+                Result result = benchmark.run(format, concurrency, durationSeconds);
+                System.out.printf("%-8s %6d %9.1f %9.2f %9.2f %11.2f %14.2f %14.3f%n",
+                    format.endsWith("ndjson") ? "ndjson" : "json", concurrency, result.requestsPerSecond(),
+                    result.p50Millis(), result.p99Millis(), result.firstByteP50Millis(),
+                    result.allocatedBytesPerRequest() / 1e6, result.heapBytesPerConnection() / 1e6);
+            }
+        }
+    }
+
+    private record Result(double requestsPerSecond, double p50Millis, double p99Millis, double firstByteP50Millis,
+                          double allocatedBytesPerRequest, double heapBytesPerConnection) {
+    }
+
+    private Result run(String accept, int concurrency, int seconds) throws Exception {
+        List<Long> latencies = new ArrayList<>();
+        List<Long> firstBytes = new ArrayList<>();
+        AtomicLong requests = new AtomicLong();
+        double idleHeap = metric(HEAP_USED);
+        double allocatedBefore = metric(ALLOCATED);
+        AtomicLong peakHeap = new AtomicLong((long) idleHeap);
+        long end = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            executor.submit(() -> {
+                while (System.nanoTime() < end) {
+                    peakHeap.accumulateAndGet((long) metric(HEAP_USED), Math::max);
+                    TimeUnit.MILLISECONDS.sleep(200);
+                }
+                return null;
+            });
+            for (int i = 0; i < concurrency; i++) {
+                executor.submit(() -> {
+                    while (System.nanoTime() < end) {
+                        long start = System.nanoTime();
+                        long firstByte = read(accept);
+                        long latency = System.nanoTime() - start;
+                        if (firstByte >= 0) {
+                            synchronized (latencies) {
+                                latencies.add(latency);
+                                firstBytes.add(firstByte - start);
+                            }
+                        }
+                        requests.incrementAndGet();
+                    }
+                    return null;
+                });
+            }
+        }
+        double allocated = metric(ALLOCATED) - allocatedBefore;
+        if (latencies.size() < requests.get()) {
+            System.out.printf("%d of %d requests failed%n", requests.get() - latencies.size(), requests.get());
+        }
+        return new Result((double) latencies.size() / seconds, percentileMillis(latencies, 0.50),
+            percentileMillis(latencies, 0.99), percentileMillis(firstBytes, 0.50),
+            allocated / Math.max(1, requests.get()), (peakHeap.get() - idleHeap) / concurrency);
+    }
+
+    private static double percentileMillis(List<Long> nanos, double quantile) {
+        if (nanos.isEmpty()) return 0;
+        List<Long> sorted = nanos.stream().sorted().toList();
+        int index = (int) Math.ceil(quantile * sorted.size()) - 1;
+        return sorted.get(Math.max(0, index)) / 1e6;
+    }
+
+    // reads the whole response and returns the time its first byte arrived, or -1 if it failed
+    private long read(String accept) {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/todos")).header("Accept", accept).GET().build();
+        try {
+            HttpResponse<InputStream> response = client.send(request, HttpResponse.BodyHandlers.ofInputStream());
+            try (InputStream body = response.body()) {
+                byte[] buffer = new byte[16 * 1024];
+                long firstByte = body.read(buffer) >= 0 ? System.nanoTime() : -1;
+                while (body.read(buffer) >= 0) {
+                    // drain
+                }
+                return response.statusCode() / 100 == 2 ? firstByte : -1;
+            }
+        } catch (Exception e) {
+            return -1;
+        }
+    }
+
+    // the sum of all series of a metric in the Prometheus text format
+    private double metric(Pattern pattern) throws Exception {
+        String text = client.send(HttpRequest.newBuilder(URI.create(prometheusUrl)).GET().build(),
+            HttpResponse.BodyHandlers.ofString()).body();
+        double sum = 0;
+        Matcher matcher = pattern.matcher(text);
+        while (matcher.find()) {
+            sum += Double.parseDouble(matcher.group(1));
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,89 @@
+package de.unistuttgart.iste.ese.api.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import de.unistuttgart.iste.ese.api.DTOs.CompactTodoListDTO;
+import de.unistuttgart.iste.ese.api.DTOs.ResponseDTO;
+import de.unistuttgart.iste.ese.api.Models.Assignee;
+import de.unistuttgart.iste.ese.api.Models.Todo;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares payload size and serialization time of the todo list in the JSON and binary wire formats.
+ * Run with {@code ./mvnw -Ploadtest test-compile exec:java -Dloadtest.main=de.unistuttgart.iste.ese.api.loadtest.WireFormatBenchmark}
+ * and optionally {@code -Dtodos=10000 -Dassignees=200}.
+ */
+public class WireFormatBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int todoCount = Integer.getInteger("todos", 10_000);
+        int assigneeCount = Integer.getInteger("assignees", 200);
+        List<Todo> todos = generateTodos(todoCount, assigneeCount);
+
+        List<ResponseDTO> responseDTOs = new ArrayList<>();
+        for (Todo todo : todos) {
+            responseDTOs.add(new ResponseDTO(todo));
+        }
+        CompactTodoListDTO compact = new CompactTodoListDTO(todos);
+
+        ObjectMapper prettyJson = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+        ObjectMapper json = new ObjectMapper();
+        ObjectMapper cbor = new CBORMapper();
+        ObjectMapper smile = new SmileMapper();
+
+        System.out.printf("%d todos, %d assignees%n", todoCount, assigneeCount);
+        System.out.printf("%-28s %12s %12s%n", "format", "bytes", "ms/list");
+        measure("JSON pretty (current)", prettyJson, responseDTOs);
+        measure("JSON", json, responseDTOs);
+        measure("JSON compact list", json, compact);
+        measure("CBOR compact list", cbor, compact);
+        measure("Smile compact list", smile, compact);
+    }
+
+    private static void measure(String name, ObjectMapper mapper, Object value) throws Exception {
+        int size = 0;
+        for (int i = 0; i < 20; i++) {
+            size = mapper.writeValueAsBytes(value).length;
+        }
+        int iterations = 50;
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            mapper.writeValueAsBytes(value);
+        }
+        double millis = (System.nanoTime() - start) / (double) TimeUnit.MILLISECONDS.toNanos(1) / iterations;
+        System.out.printf("%-28s %12d %12.2f%n", name, size, millis);
+    }
+
+    static List<Todo> generateTodos(int todoCount, int assigneeCount) {
+        Random random = new Random(42);
+        List<Assignee> assignees = new ArrayList<>();
+        for (int i = 0; i < assigneeCount; i++) {
+            Assignee assignee = new Assignee("Prename" + i, "Name" + i, "person" + i + "@uni-stuttgart.de");
+            assignee.setId((long) i + 1);
+            assignees.add(assignee);
+        }
+        long day = TimeUnit.DAYS.toMillis(1);
+        long now = System.currentTimeMillis();
+        List<Todo> todos = new ArrayList<>();
+        for (int i = 0; i < todoCount; i++) {
+            List<Assignee> todoAssignees = new ArrayList<>();
+            for (int j = random.nextInt(4); j > 0; j--) {
+                Assignee assignee = assignees.get(random.nextInt(assigneeCount));
+                if (!todoAssignees.contains(assignee)) todoAssignees.add(assignee);
+            }
+            boolean finished = random.nextInt(3) == 0;
+            todos.add(new Todo((long) i + 1, "Todo number " + i, "A potentially longer description of todo " + i,
+                finished, todoAssignees, new Date(now - random.nextInt(100) * day),
+                new Date(now + random.nextInt(365) * day), finished ? new Date(now) : null,
+                random.nextBoolean() ? "work" : "private"));
+        }
+        return todos;
+    }
+}
@@ -0,0 +1,33 @@
+// Writes gzip and brotli variants next to every compressible file in dist,
+// so the API can serve pre-compressed assets instead of compressing them per request.
+import { readdirSync, readFileSync, statSync, writeFileSync } from 'node:fs'
+import { join, extname } from 'node:path'
+import { brotliCompressSync, gzipSync, constants } from 'node:zlib'
+
+const DIST = new URL('../dist', import.meta.url).pathname
+const COMPRESSIBLE = new Set(['.html', '.js', '.css', '.svg', '.json', '.txt', '.ico', '.map'])
+// below this size the compressed variant does not save a network round trip
+const MIN_SIZE = 1024
+
+function walk(dir) {
+  return readdirSync(dir).flatMap((name) => {
+    const path = join(dir, name)
+    return statSync(path).isDirectory() ? walk(path) : [path]
+  })
+}
+
+let original = 0
+let brotli = 0
+for (const file of walk(DIST)) {
+  if (!COMPRESSIBLE.has(extname(file)) || statSync(file).size < MIN_SIZE) continue
+  const content = readFileSync(file)
+  const gz = gzipSync(content, { level: 9 })
+  const br = brotliCompressSync(content, {
+    params: { [constants.BROTLI_PARAM_QUALITY]: constants.BROTLI_MAX_QUALITY }
+  })
+  writeFileSync(file + '.gz', gz)
+  writeFileSync(file + '.br', br)
+  original += content.length
+  brotli += br.length
+}
+console.log(`pre-compressed assets: ${original} bytes -> ${brotli} bytes (brotli)`)
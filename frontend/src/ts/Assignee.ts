@@ -55,4 +55,22 @@ export interface Assignee {
         )
         throw error
       })
-  }
\ No newline at end of file
+  }
+
+  /**
+   * Fetch the assignees whose prename, name or email starts with a prefix
+   * @param prefix - The start of the text to search, all assignees match an empty prefix
+   * @param limit - The maximum number of assignees
+   * @returns {Promise<Assignee[]>} A promise that resolves to the matching assignees
+   */
+  export function suggestAssignees(prefix: string, limit = 20): Promise<Assignee[]> {
+    const params = new URLSearchParams({ prefix, limit: String(limit) })
+    return fetch(`${config.apiBaseUrl}/assignees/suggest?${params}`)
+      .then((response) => {
+        if (!response.ok) {
+          throw new Error(`Failed to fetch assignee suggestions. Status: ${response.status}`)
+        }
+        return response.json()
+      })
+      .then((data) => data as Assignee[])
+  }
@@ -3,7 +3,7 @@ import config from '@/config'
 import { showToast, Toast } from '@/ts/toasts'
 import { faXmark } from '@fortawesome/free-solid-svg-icons'
 import { ref, computed, watch } from 'vue'
-import { fetchAllAssignees } from '@/ts/Assignee'
+import { suggestAssignees } from '@/ts/Assignee'
 
 // object for post and put requests
 export interface TodoRequest {
@@ -79,45 +79,57 @@ export function fetchTodo(id: number): Promise<TodoResponse> {
 }
 
 export function useAssigneeSelection() {
+  // the current suggestions for the search query, not all assignees
   const assignees = ref<Assignee[]>([])
   const selectedAssignees = ref<Assignee[]>([])
   const assigneeListSelect = ref<number[]>([])
   const searchQuery = ref('')
   const dropdownOpen = ref(false)
+  // every assignee seen in a suggestion or in the todo, so that selections survive a new search
+  const knownAssignees = new Map<number, Assignee>()
+  let suggestTimer: ReturnType<typeof setTimeout> | undefined
 
   /**
-   * Fetch all assignees for the select dropdown
+   * Remember assignees, e.g. the ones already assigned to a todo
+   * @param list - The assignees to remember
+   */
+  const rememberAssignees = (list: Assignee[]) => {
+    list.forEach((assignee) => knownAssignees.set(assignee.id, assignee))
+  }
+
+  /**
+   * Fetch the suggestions for the search query, waiting until the user pauses typing
    */
   const fetchAssignees = () => {
-    fetchAllAssignees()
-      .then((data) => {
-        assignees.value = data
-      })
-      .catch((error) => {
-        console.error('Error fetching assignees:', error)
-        showToast(new Toast('Error', `Fehler beim Abrufen der Assignees`, 'error', faXmark, 10))
-      })
+    clearTimeout(suggestTimer)
+    suggestTimer = setTimeout(() => {
+      suggestAssignees(searchQuery.value)
+        .then((data) => {
+          rememberAssignees(data)
+          assignees.value = data
+        })
+        .catch((error) => {
+          console.error('Error fetching assignees:', error)
+          showToast(new Toast('Error', `Fehler beim Abrufen der Assignees`, 'error', faXmark, 10))
+        })
+    }, 150)
   }
 
   /**
-   * Filter the assignees based on the search query
+   * The assignees matching the search query, as suggested by the server
    */
-  const filteredAssignees = computed(() => {
-    if (searchQuery.value) {
-      return assignees.value.filter((assignee) =>
-        `${assignee.prename} ${assignee.name}`
-          .toLowerCase()
-          .includes(searchQuery.value.toLowerCase())
-      )
-    }
-    return assignees.value
-  })
+  const filteredAssignees = computed(() => assignees.value)
+
+  watch(searchQuery, fetchAssignees)
 
   /**
    * toggle the dropdown visibility
    */
   const toggleDropdown = () => {
     dropdownOpen.value = !dropdownOpen.value
+    if (dropdownOpen.value) {
+      fetchAssignees()
+    }
   }
 
   /**
@@ -133,9 +145,9 @@ export function useAssigneeSelection() {
    * Watch for changes in the selected assignees and update the selectedAssignees ref
    */
   watch(assigneeListSelect, (newSelection) => {
-    selectedAssignees.value = assignees.value.filter((assignee) =>
-      newSelection.includes(assignee.id)
-    )
+    selectedAssignees.value = newSelection
+      .map((id) => knownAssignees.get(id))
+      .filter((assignee): assignee is Assignee => assignee !== undefined)
   })
 
   return {
@@ -147,6 +159,7 @@ export function useAssigneeSelection() {
     toggleDropdown,
     removeAssignee,
     filteredAssignees,
-    fetchAssignees
+    fetchAssignees,
+    rememberAssignees
   }
-}
\ No newline at end of file
+}